@@ -375,7 +375,13 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 + "'bulkedit.import.max.items' in your local configuration.");
         }
 
+        int batchSize = Math.max(1, configurationService.getIntProperty("bulkedit.change.commit.count", 100));
+        long start = System.currentTimeMillis();
         for (DSpaceCSVLine line : toImport) {
+            if ((rowCount - 1) % batchSize == 0) {
+                // Load the existing items of the next batch of lines at once, instead of one at a time
+                prefetchItems(c, toImport.subList(rowCount - 1, Math.min(rowCount - 1 + batchSize, numItems)));
+            }
             // Resolve target references to other items
             populateRefAndRowMap(line, line.getID());
             line = resolveEntityRefs(c, line);
@@ -619,9 +625,12 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
                 changes.add(whatHasChanged);
             }
 
-            if (change && (rowCount % configurationService.getIntProperty("bulkedit.change.commit.count", 100) == 0)) {
-                c.commit();
-                handler.logInfo(LogHelper.getHeader(c, "metadata_import_commit", "lineNumber=" + rowCount));
+            if (rowCount % batchSize == 0) {
+                if (change) {
+                    c.commit();
+                    handler.logInfo(LogHelper.getHeader(c, "metadata_import_commit", "lineNumber=" + rowCount));
+                }
+                logProgress(rowCount, numItems, start);
             }
             populateRefAndRowMap(line, item == null ? null : item.getID());
             // keep track of current rows processed
@@ -630,6 +639,7 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         if (change) {
             c.commit();
         }
+        logProgress(rowCount - 1, numItems, start);
 
         c.setMode(Context.Mode.READ_ONLY);
 
@@ -641,6 +651,44 @@ public class MetadataImport extends DSpaceRunnable<MetadataImportScriptConfigura
         return changes;
     }
 
+    /**
+     * Load the existing items of the given lines, with their metadata, with a single query, so that the lines are
+     * then processed with the items already in the context. Also checks that all of them exist, before any line of
+     * the batch is processed.
+     *
+     * @param c     The relevant DSpace context
+     * @param lines the next lines to process
+     * @throws MetadataImportException if an item does not exist
+     * @throws SQLException if the items could not be loaded
+     */
+    protected void prefetchItems(Context c, List<DSpaceCSVLine> lines) throws MetadataImportException, SQLException {
+        Set<UUID> ids = new HashSet<>();
+        for (DSpaceCSVLine line : lines) {
+            if (line.getID() != null) {
+                ids.add(line.getID());
+            }
+        }
+        for (Item item : itemService.findByIds(c, new ArrayList<>(ids))) {
+            ids.remove(item.getID());
+        }
+        if (!ids.isEmpty()) {
+            throw new MetadataImportException("Unknown item ID " + ids.iterator().next());
+        }
+    }
+
+    /**
+     * Report the number of lines processed and the throughput of the import.
+     *
+     * @param processed the number of lines processed
+     * @param total     the total number of lines
+     * @param start     the time the import started at, in milliseconds
+     */
+    protected void logProgress(int processed, int total, long start) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        handler.logInfo(String.format("Processed %d of %d lines in %d s (%.1f lines/s)",
+                                      processed, total, elapsed / 1000, processed * 1000.0 / elapsed));
+    }
+
     /**
      * Compare an item metadata with a line from CSV, and optionally update the item.
      *
@@ -9,9 +9,11 @@ package org.dspace.app.checker;
 
 import java.io.FileNotFoundException;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.apache.commons.cli.CommandLine;
@@ -78,6 +80,10 @@ public final class ChecksumChecker {
      * <dd>Report only errors in the logs</dd>
      * <dt>-p</dt>
      * <dd>Don't prune results before running checker</dd>
+     * <dt>-t</dt>
+     * <dd>Number of threads computing checksums</dd>
+     * <dt>-r</dt>
+     * <dd>Maximum read rate over all threads, in megabytes per second</dd>
      * </dl>
      *
      * @param args the command line arguments given
@@ -99,6 +105,8 @@ public final class ChecksumChecker {
         options.addOption("c", "count", true, "Check count");
         options.addOption("i", "handle", true, "Specify a handle to check");
         options.addOption("v", "verbose", false, "Report all processing");
+        options.addOption("t", "threads", true, "Number of threads computing checksums");
+        options.addOption("r", "rate", true, "Maximum read rate over all threads, in MB per second");
 
         Option option;
 
@@ -216,11 +224,27 @@ public final class ChecksumChecker {
             if (line.hasOption('v')) {
                 checker.setReportVerbose(true);
             }
+            try {
+                if (line.hasOption('t')) {
+                    checker.setThreads(Integer.parseInt(line.getOptionValue('t')));
+                }
+                if (line.hasOption('r')) {
+                    checker.setMaxBytesPerSecond(Long.parseLong(line.getOptionValue('r')) * 1024 * 1024);
+                }
+            } catch (NumberFormatException nfe) {
+                System.err.println("The number of threads and the read rate must be integers");
+                System.exit(1);
+            }
 
             checker.setProcessStartDate(processStart);
             checker.setDispatcher(dispatcher);
             checker.setCollector(logger);
+            Instant checkerStart = Instant.now();
             checker.process();
+            long elapsed = Duration.between(checkerStart, Instant.now()).toNanos();
+            for (Map.Entry<Integer, CheckerCommand.StoreThroughput> entry : checker.getThroughput().entrySet()) {
+                System.out.println("Asset store " + entry.getKey() + ": " + entry.getValue().getSummary(elapsed));
+            }
             context.complete();
             context = null;
         } finally {
@@ -255,6 +279,7 @@ public final class ChecksumChecker {
         System.out.println("\nThe following options can be used in combination with others above:");
         System.out.println(" - Report all processing to checker.log (by default logs only errors): checker -v");
         System.out.println(" - Prune old results from the database: checker -p");
+        System.out.println(" - Compute checksums with 4 threads, reading at most 50 MB per second: checker -t 4 -r 50");
         System.out.println("\nDefault (no arguments) is equivalent to 'checker -c 1'\n");
         System.exit(0);
     }
@@ -216,10 +216,18 @@ public class ItemExport extends DSpaceRunnable<ItemExportScriptConfiguration> {
         itemExportService.exportAsZip(context, items, destDirName, zipFileName,
                 seqStart, migrate, excludeBitstreams);
 
-        File zip = new File(destDirName + System.getProperty("file.separator") + zipFileName);
-        try (InputStream is = new FileInputStream(zip)) {
-            // write input stream on handler
-            handler.writeFilestream(context, ZIP_FILENAME + "." + ZIP_EXT, is, ZIP_NAME);
+        try {
+            // write each volume of the export on handler
+            int volume = 1;
+            File zip = new File(destDirName, zipFileName);
+            while (zip.exists()) {
+                try (InputStream is = new FileInputStream(zip)) {
+                    handler.writeFilestream(context,
+                        ZipExportWriter.getVolumeFileName(ZIP_FILENAME + "." + ZIP_EXT, volume), is, ZIP_NAME);
+                }
+                volume++;
+                zip = new File(destDirName, ZipExportWriter.getVolumeFileName(zipFileName, volume));
+            }
         } finally {
             PathUtils.deleteDirectory(Path.of(destDirName));
         }
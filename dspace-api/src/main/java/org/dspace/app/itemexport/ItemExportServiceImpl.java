@@ -8,6 +8,7 @@
 package org.dspace.app.itemexport;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -15,21 +16,35 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -201,15 +216,34 @@ public class ItemExportServiceImpl implements ItemExportService {
      */
     protected void writeMetadata(Context c, Item i, File destDir, boolean migrate)
         throws Exception {
+        // Save each of the schemas into it's own metadata file
+        for (String schema : getMetadataSchemas(i)) {
+            writeMetadata(c, schema, i, destDir, migrate);
+        }
+    }
+
+    /**
+     * @param i DSpace Item
+     * @return the names of the schemas of the item's metadata
+     */
+    protected Set<String> getMetadataSchemas(Item i) {
         Set<String> schemas = new HashSet<>();
         List<MetadataValue> dcValues = itemService.getMetadata(i, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
         for (MetadataValue metadataValue : dcValues) {
             schemas.add(metadataValue.getMetadataField().getMetadataSchema().getName());
         }
+        return schemas;
+    }
 
-        // Save each of the schemas into it's own metadata file
-        for (String schema : schemas) {
-            writeMetadata(c, schema, i, destDir, migrate);
+    /**
+     * @param schema schema
+     * @return the name of the metadata file of the schema
+     */
+    protected String getMetadataFileName(String schema) {
+        if (schema.equals(MetadataSchemaEnum.DC.getName())) {
+            return "dublin_core.xml";
+        } else {
+            return "metadata_" + schema + ".xml";
         }
     }
 
@@ -225,101 +259,106 @@ public class ItemExportServiceImpl implements ItemExportService {
      */
     protected void writeMetadata(Context c, String schema, Item i,
                                  File destDir, boolean migrate) throws Exception {
-        String filename;
-        if (schema.equals(MetadataSchemaEnum.DC.getName())) {
-            filename = "dublin_core.xml";
-        } else {
-            filename = "metadata_" + schema + ".xml";
-        }
-
-        File outFile = new File(destDir, filename);
+        File outFile = new File(destDir, getMetadataFileName(schema));
 
         logInfo("Attempting to create file " + outFile);
 
         if (outFile.createNewFile()) {
-            BufferedOutputStream out = new BufferedOutputStream(
-                new FileOutputStream(outFile));
+            try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(outFile))) {
+                writeMetadata(c, schema, i, out, migrate);
+            }
+        } else {
+            throw new Exception("Cannot create dublin_core.xml in " + destDir);
+        }
+    }
 
-            List<MetadataValue> dcorevalues = itemService.getMetadata(i, schema, Item.ANY, Item.ANY,
-                                                                      Item.ANY);
+    /**
+     * output the item's metadata of one schema as a dublin core XML document
+     *
+     * @param c       DSpace context
+     * @param schema  schema
+     * @param i       DSpace Item
+     * @param out     the stream to write the document to, which is not closed
+     * @param migrate Whether to use the migrate option or not
+     * @throws Exception if error
+     */
+    protected void writeMetadata(Context c, String schema, Item i,
+                                 OutputStream out, boolean migrate) throws Exception {
+        List<MetadataValue> dcorevalues = itemService.getMetadata(i, schema, Item.ANY, Item.ANY,
+                                                                  Item.ANY);
 
-            // XML preamble
-            byte[] utf8 = "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"no\"?>\n"
-                .getBytes("UTF-8");
-            out.write(utf8, 0, utf8.length);
+        // XML preamble
+        byte[] utf8 = "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"no\"?>\n"
+            .getBytes("UTF-8");
+        out.write(utf8, 0, utf8.length);
 
-            String dcTag = "<dublin_core schema=\"" + schema + "\">\n";
-            utf8 = dcTag.getBytes("UTF-8");
-            out.write(utf8, 0, utf8.length);
+        String dcTag = "<dublin_core schema=\"" + schema + "\">\n";
+        utf8 = dcTag.getBytes("UTF-8");
+        out.write(utf8, 0, utf8.length);
 
-            String dateIssued = null;
-            String dateAccessioned = null;
+        String dateIssued = null;
+        String dateAccessioned = null;
 
-            for (MetadataValue dcv : dcorevalues) {
-                MetadataField metadataField = dcv.getMetadataField();
-                String qualifier = metadataField.getQualifier();
+        for (MetadataValue dcv : dcorevalues) {
+            MetadataField metadataField = dcv.getMetadataField();
+            String qualifier = metadataField.getQualifier();
 
-                if (qualifier == null) {
-                    qualifier = "none";
-                }
+            if (qualifier == null) {
+                qualifier = "none";
+            }
 
-                String language = dcv.getLanguage();
+            String language = dcv.getLanguage();
 
-                if (language != null) {
-                    language = " language=\"" + language + "\"";
-                } else {
-                    language = "";
-                }
+            if (language != null) {
+                language = " language=\"" + language + "\"";
+            } else {
+                language = "";
+            }
 
-                utf8 = ("  <dcvalue element=\"" + metadataField.getElement() + "\" "
-                    + "qualifier=\"" + qualifier + "\""
-                    + language + ">"
-                    + Utils.addEntities(dcv.getValue()) + "</dcvalue>\n")
-                    .getBytes("UTF-8");
-
-                if (!migrate ||
-                    (migrate && !(
-                        ("date".equals(metadataField.getElement()) && "issued".equals(qualifier)) ||
-                            ("date".equals(metadataField.getElement()) && "accessioned".equals(qualifier)) ||
-                            ("date".equals(metadataField.getElement()) && "available".equals(qualifier)) ||
-                            ("identifier".equals(metadataField.getElement()) && "uri".equals(qualifier) &&
-                                (dcv.getValue() != null && dcv.getValue().startsWith(
-                                    handleService.getCanonicalPrefix() + handleService.getPrefix() + "/"))) ||
-                            ("description".equals(metadataField.getElement()) && "provenance".equals(qualifier)) ||
-                            ("format".equals(metadataField.getElement()) && "extent".equals(qualifier)) ||
-                            ("format".equals(metadataField.getElement()) && "mimetype".equals(qualifier))))) {
-                    out.write(utf8, 0, utf8.length);
-                }
+            utf8 = ("  <dcvalue element=\"" + metadataField.getElement() + "\" "
+                + "qualifier=\"" + qualifier + "\""
+                + language + ">"
+                + Utils.addEntities(dcv.getValue()) + "</dcvalue>\n")
+                .getBytes("UTF-8");
 
-                // Store the date issued and accession to see if they are different
-                // because we need to keep date.issued if they are, when migrating
-                if (("date".equals(metadataField.getElement()) && "issued".equals(qualifier))) {
-                    dateIssued = dcv.getValue();
-                }
-                if (("date".equals(metadataField.getElement()) && "accessioned".equals(qualifier))) {
-                    dateAccessioned = dcv.getValue();
-                }
+            if (!migrate ||
+                (migrate && !(
+                    ("date".equals(metadataField.getElement()) && "issued".equals(qualifier)) ||
+                        ("date".equals(metadataField.getElement()) && "accessioned".equals(qualifier)) ||
+                        ("date".equals(metadataField.getElement()) && "available".equals(qualifier)) ||
+                        ("identifier".equals(metadataField.getElement()) && "uri".equals(qualifier) &&
+                            (dcv.getValue() != null && dcv.getValue().startsWith(
+                                handleService.getCanonicalPrefix() + handleService.getPrefix() + "/"))) ||
+                        ("description".equals(metadataField.getElement()) && "provenance".equals(qualifier)) ||
+                        ("format".equals(metadataField.getElement()) && "extent".equals(qualifier)) ||
+                        ("format".equals(metadataField.getElement()) && "mimetype".equals(qualifier))))) {
+                out.write(utf8, 0, utf8.length);
             }
 
-            // When migrating, only keep date.issued if it is different to date.accessioned
-            if (migrate &&
-                (dateIssued != null) &&
-                (dateAccessioned != null) &&
-                !dateIssued.equals(dateAccessioned)) {
-                utf8 = ("  <dcvalue element=\"date\" "
-                    + "qualifier=\"issued\">"
-                    + Utils.addEntities(dateIssued) + "</dcvalue>\n")
-                    .getBytes("UTF-8");
-                out.write(utf8, 0, utf8.length);
+            // Store the date issued and accession to see if they are different
+            // because we need to keep date.issued if they are, when migrating
+            if (("date".equals(metadataField.getElement()) && "issued".equals(qualifier))) {
+                dateIssued = dcv.getValue();
+            }
+            if (("date".equals(metadataField.getElement()) && "accessioned".equals(qualifier))) {
+                dateAccessioned = dcv.getValue();
             }
+        }
 
-            utf8 = "</dublin_core>\n".getBytes("UTF-8");
+        // When migrating, only keep date.issued if it is different to date.accessioned
+        if (migrate &&
+            (dateIssued != null) &&
+            (dateAccessioned != null) &&
+            !dateIssued.equals(dateAccessioned)) {
+            utf8 = ("  <dcvalue element=\"date\" "
+                + "qualifier=\"issued\">"
+                + Utils.addEntities(dateIssued) + "</dcvalue>\n")
+                .getBytes("UTF-8");
             out.write(utf8, 0, utf8.length);
-
-            out.close();
-        } else {
-            throw new Exception("Cannot create dublin_core.xml in " + destDir);
         }
+
+        utf8 = "</dublin_core>\n".getBytes("UTF-8");
+        out.write(utf8, 0, utf8.length);
     }
 
     /**
@@ -365,22 +404,33 @@ public class ItemExportServiceImpl implements ItemExportService {
         File outFile = new File(destDir, "collections");
         if (outFile.createNewFile()) {
             try (PrintWriter out = new PrintWriter(new FileWriter(outFile))) {
-                Collection owningCollection = item.getOwningCollection();
-                // The owning collection is null for workspace and workflow items
-                if (owningCollection != null) {
-                    out.println(owningCollection.getHandle());
-                }
-                for (Collection collection : item.getCollections()) {
-                    if (!collection.equals(owningCollection)) {
-                        out.println(collection.getHandle());
-                    }
-                }
+                writeCollections(item, out);
             }
         } else {
             throw new IOException("Cannot create 'collections' in " + destDir);
         }
     }
 
+    /**
+     * Write the handles of all Collections which contain this Item, the
+     * "owning" Collection first.
+     *
+     * @param item list collections holding this Item.
+     * @param out write the handles here.
+     */
+    protected void writeCollections(Item item, PrintWriter out) {
+        Collection owningCollection = item.getOwningCollection();
+        // The owning collection is null for workspace and workflow items
+        if (owningCollection != null) {
+            out.println(owningCollection.getHandle());
+        }
+        for (Collection collection : item.getCollections()) {
+            if (!collection.equals(owningCollection)) {
+                out.println(collection.getHandle());
+            }
+        }
+    }
+
     /**
      * Create both the bitstreams and the contents file. Any bitstreams that
      * were originally registered will be marked in the contents file as such.
@@ -407,24 +457,10 @@ public class ItemExportServiceImpl implements ItemExportService {
                 // bundles can have multiple bitstreams now...
                 List<Bitstream> bitstreams = bundle.getBitstreams();
 
-                String bundleName = bundle.getName();
-
                 for (Bitstream bitstream : bitstreams) {
                     String myName = bitstream.getName();
                     String oldName = myName;
 
-                    String description = bitstream.getDescription();
-                    if (!StringUtils.isEmpty(description)) {
-                        description = "\tdescription:" + description;
-                    } else {
-                        description = "";
-                    }
-
-                    String primary = "";
-                    if (bitstream.equals(bundle.getPrimaryBitstream())) {
-                        primary = "\tprimary:true ";
-                    }
-
                     int myPrefix = 1; // only used with name conflict
 
                     boolean isDone = false; // done when bitstream is finally
@@ -463,16 +499,7 @@ public class ItemExportServiceImpl implements ItemExportService {
                     }
 
                     // write the manifest file entry
-                    if (bitstreamService.isRegisteredBitstream(bitstream)) {
-                        out.println("-r -s " + bitstream.getStoreNumber()
-                                        + " -f " + myName +
-                                        "\tbundle:" + bundleName +
-                                        primary + description);
-                    } else {
-                        out.println(myName + "\tbundle:" + bundleName +
-                                        primary + description);
-                    }
-
+                    out.println(getContentsEntry(bitstream, bundle, myName));
                 }
             }
 
@@ -483,35 +510,294 @@ public class ItemExportServiceImpl implements ItemExportService {
         }
     }
 
+    /**
+     * Build the line of the contents file of an exported bitstream. Bitstreams
+     * that were originally registered are marked as such.
+     *
+     * @param bitstream the exported bitstream
+     * @param bundle    the bundle of the bitstream
+     * @param fileName  the name of the exported file
+     * @return the line of the contents file
+     */
+    protected String getContentsEntry(Bitstream bitstream, Bundle bundle, String fileName) {
+        String description = bitstream.getDescription();
+        if (!StringUtils.isEmpty(description)) {
+            description = "\tdescription:" + description;
+        } else {
+            description = "";
+        }
+
+        String primary = "";
+        if (bitstream.equals(bundle.getPrimaryBitstream())) {
+            primary = "\tprimary:true ";
+        }
+
+        if (bitstreamService.isRegisteredBitstream(bitstream)) {
+            return "-r -s " + bitstream.getStoreNumber()
+                + " -f " + fileName +
+                "\tbundle:" + bundle.getName() +
+                primary + description;
+        } else {
+            return fileName + "\tbundle:" + bundle.getName() +
+                primary + description;
+        }
+    }
+
     @Override
     public void exportAsZip(Context context, Iterator<Item> items,
                             String destDirName, String zipFileName,
                             int seqStart, boolean migrate,
                             boolean excludeBitstreams) throws Exception {
-        String workDir = getExportWorkDirectory() +
-            System.getProperty("file.separator") +
-            zipFileName;
-
-        File wkDir = new File(workDir);
-        if (!wkDir.exists() && !wkDir.mkdirs()) {
-            logError("Unable to create working directory");
-        }
-
         File dnDir = new File(destDirName);
         if (!dnDir.exists() && !dnDir.mkdirs()) {
             logError("Unable to create destination directory");
         }
 
+        long volumeSize = configurationService.getLongProperty("org.dspace.app.itemexport.volume.size", 0)
+            * 1048576L;
+        try (ZipExportWriter zip = new ZipExportWriter(dnDir, zipFileName, volumeSize)) {
+            exportItemsToZip(context, items, "", seqStart, migrate, excludeBitstreams, zip);
+            zip.finish();
+        }
+    }
+
+    /**
+     * Export items straight into zip files, without writing them to a working
+     * directory first. Each item is written to the directory "prefix + sequence
+     * number" of the zip files.
+     * <p>
+     * The metadata, contents, collections and handle files of the items are
+     * built by "org.dspace.app.itemexport.threads" workers, each with its own
+     * Context, while the content of the bitstreams is copied from the
+     * bitstream store to the zip files by the calling thread, in the order of
+     * the items.
+     *
+     * @param c                 DSpace context
+     * @param items             the items to export
+     * @param prefix            the directory of the items in the zip files
+     * @param seqStart          the sequence number of the first item
+     * @param migrate           whether to use the migrate option or not
+     * @param excludeBitstreams whether to exclude bitstreams
+     * @param zip               the zip files to write to
+     * @throws Exception if error
+     */
+    protected void exportItemsToZip(Context c, Iterator<Item> items, String prefix, int seqStart,
+                                    boolean migrate, boolean excludeBitstreams, ZipExportWriter zip)
+        throws Exception {
+        int threads = configurationService.getIntProperty("org.dspace.app.itemexport.threads", 1);
+        int mySequenceNumber = seqStart;
+
+        logInfo("Beginning export");
+
+        if (threads <= 1) {
+            while (items.hasNext()) {
+                logInfo("Exporting item to " + mySequenceNumber);
+                Item item = items.next();
+                writeToZip(c, serializeItem(c, item, prefix + mySequenceNumber, migrate, excludeBitstreams), zip);
+                c.uncacheEntity(item);
+                mySequenceNumber++;
+            }
+            return;
+        }
+
+        BlockingQueue<ExportTask> queue = new LinkedBlockingQueue<>();
+        Deque<ExportTask> pending = new ArrayDeque<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> serializeItems(queue, migrate, excludeBitstreams));
+        }
+        executor.shutdown();
         try {
-            // export the items using normal export method (this exports items to our workDir)
-            exportItem(context, items, workDir, seqStart, migrate, excludeBitstreams);
+            while (items.hasNext()) {
+                Item item = items.next();
+                logInfo("Exporting item to " + mySequenceNumber);
+                ExportTask task = new ExportTask(item.getID(), prefix + mySequenceNumber);
+                c.uncacheEntity(item);
+                mySequenceNumber++;
+                queue.put(task);
+                pending.add(task);
+                // Keep the items in order, without building too many of them ahead of the zip files
+                if (pending.size() >= threads * 4) {
+                    writeToZip(c, pending.poll().get(executor), zip);
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeToZip(c, pending.poll().get(executor), zip);
+            }
+        } finally {
+            queue.clear();
+            for (int t = 0; t < threads; t++) {
+                queue.put(ExportTask.END);
+            }
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
 
-            // now zip up the workDir directory created above
-            zip(workDir, destDirName + System.getProperty("file.separator") + zipFileName);
+    /**
+     * Build the exported files of the queued items until the end of the queue,
+     * in a Context of the calling thread.
+     *
+     * @param queue             the items to export
+     * @param migrate           whether to use the migrate option or not
+     * @param excludeBitstreams whether to exclude bitstreams
+     */
+    private void serializeItems(BlockingQueue<ExportTask> queue, boolean migrate, boolean excludeBitstreams) {
+        Context context = null;
+        try {
+            context = new Context(Context.Mode.READ_ONLY);
+            ExportTask task;
+            while ((task = queue.take()) != ExportTask.END) {
+                try {
+                    Item item = itemService.find(context, task.itemId);
+                    if (item == null) {
+                        throw new IllegalStateException("Item " + task.itemId + " not found");
+                    }
+                    task.result.complete(serializeItem(context, item, task.dir, migrate, excludeBitstreams));
+                    context.uncacheEntity(item);
+                } catch (Exception e) {
+                    task.result.completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
-            // Cleanup workDir created above, if it still exists
-            if (wkDir.exists()) {
-                deleteDirectory(wkDir);
+            if (context != null) {
+                context.abort();
+            }
+        }
+    }
+
+    /**
+     * Build the metadata, contents, collections and handle files of an item,
+     * and choose the file names of its bitstreams.
+     *
+     * @param c                 DSpace context
+     * @param item              the item to export
+     * @param dir               the directory of the item in the zip files
+     * @param migrate           whether to use the migrate option or not
+     * @param excludeBitstreams whether to exclude bitstreams
+     * @return the exported files of the item
+     * @throws Exception if error
+     */
+    protected ExportedItem serializeItem(Context c, Item item, String dir, boolean migrate,
+                                         boolean excludeBitstreams) throws Exception {
+        logInfo("Exporting Item " + item.getID() +
+                    (item.getHandle() != null ? ", handle " + item.getHandle() : "") +
+                    " to " + dir);
+        ExportedItem exported = new ExportedItem(dir);
+
+        for (String schema : getMetadataSchemas(item)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeMetadata(c, schema, item, out, migrate);
+            exported.files.put(getMetadataFileName(schema), out.toByteArray());
+        }
+
+        StringWriter contents = new StringWriter();
+        try (PrintWriter out = new PrintWriter(contents)) {
+            // Bitstreams must not replace the metadata, contents, collections and handle files
+            Set<String> names = new HashSet<>(exported.files.keySet());
+            names.addAll(List.of("contents", "collections", "handle"));
+            for (Bundle bundle : item.getBundles()) {
+                for (Bitstream bitstream : bundle.getBitstreams()) {
+                    String myName = bitstream.getName();
+                    if (!excludeBitstreams) {
+                        // keep prefixing numbers to the filename until unique
+                        int myPrefix = 1;
+                        while (!names.add(myName)) {
+                            myName = myPrefix + "_" + bitstream.getName();
+                            myPrefix++;
+                        }
+                        exported.bitstreams.put(myName, bitstream.getID());
+                    }
+                    out.println(getContentsEntry(bitstream, bundle, myName));
+                }
+            }
+        }
+        exported.files.put("contents", contents.toString().getBytes(StandardCharsets.UTF_8));
+
+        StringWriter collections = new StringWriter();
+        try (PrintWriter out = new PrintWriter(collections)) {
+            writeCollections(item, out);
+        }
+        exported.files.put("collections", collections.toString().getBytes(StandardCharsets.UTF_8));
+
+        if (!migrate && item.getHandle() != null) {
+            StringWriter handle = new StringWriter();
+            try (PrintWriter out = new PrintWriter(handle)) {
+                out.println(item.getHandle());
+            }
+            exported.files.put("handle", handle.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return exported;
+    }
+
+    /**
+     * Write the files of an exported item to the zip files, copying the content
+     * of its bitstreams from the bitstream store.
+     *
+     * @param c        DSpace context
+     * @param exported the exported files of the item
+     * @param zip      the zip files to write to
+     * @throws Exception if error
+     */
+    protected void writeToZip(Context c, ExportedItem exported, ZipExportWriter zip) throws Exception {
+        zip.startItem();
+        for (Map.Entry<String, byte[]> file : exported.files.entrySet()) {
+            zip.putEntry(exported.dir + "/" + file.getKey(), file.getValue());
+        }
+        for (Map.Entry<String, UUID> file : exported.bitstreams.entrySet()) {
+            Bitstream bitstream = bitstreamService.find(c, file.getValue());
+            try (InputStream is = bitstreamService.retrieve(c, bitstream)) {
+                zip.putEntry(exported.dir + "/" + file.getKey(), is);
+            }
+            c.uncacheEntity(bitstream);
+        }
+    }
+
+    /**
+     * The files of an exported item, but the content of its bitstreams.
+     */
+    protected static class ExportedItem {
+        protected final String dir;
+        protected final Map<String, byte[]> files = new LinkedHashMap<>();
+        protected final Map<String, UUID> bitstreams = new LinkedHashMap<>();
+
+        protected ExportedItem(String dir) {
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * An item queued for the export workers.
+     */
+    private static class ExportTask {
+        static final ExportTask END = new ExportTask(null, null);
+
+        final UUID itemId;
+        final String dir;
+        final CompletableFuture<ExportedItem> result = new CompletableFuture<>();
+
+        ExportTask(UUID itemId, String dir) {
+            this.itemId = itemId;
+            this.dir = dir;
+        }
+
+        ExportedItem get(ExecutorService workers) throws Exception {
+            try {
+                while (true) {
+                    try {
+                        return result.get(1, TimeUnit.SECONDS);
+                    } catch (TimeoutException e) {
+                        if (workers.isTerminated() && !result.isDone()) {
+                            throw new IllegalStateException("All item export workers have stopped");
+                        }
+                    }
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
             }
         }
     }
@@ -683,43 +969,29 @@ public class ItemExportServiceImpl implements ItemExportService {
 
                         String fileName = assembleFileName("item", eperson,
                                                            LocalDate.now());
-                        String workParentDir = getExportWorkDirectory()
-                            + System.getProperty("file.separator")
-                            + fileName;
                         String downloadDir = getExportDownloadDirectory(eperson);
                         File dnDir = new File(downloadDir);
                         if (!dnDir.exists() && !dnDir.mkdirs()) {
                             logError("Unable to create download directory");
                         }
 
-                        Iterator<String> iter = itemsMap.keySet().iterator();
-                        while (iter.hasNext()) {
-                            String keyName = iter.next();
-                            List<UUID> uuids = itemsMap.get(keyName);
-                            List<Item> items = new ArrayList<>();
-                            for (UUID uuid : uuids) {
-                                items.add(itemService.find(context, uuid));
-                            }
-                            iitems = items.iterator();
-
-                            String workDir = workParentDir
-                                + System.getProperty("file.separator")
-                                + keyName;
+                        // export the items of each collection straight into the zip file
+                        try (ZipExportWriter zip = new ZipExportWriter(dnDir, fileName + ".zip", 0)) {
+                            Iterator<String> iter = itemsMap.keySet().iterator();
+                            while (iter.hasNext()) {
+                                String keyName = iter.next();
+                                List<UUID> uuids = itemsMap.get(keyName);
+                                List<Item> items = new ArrayList<>();
+                                for (UUID uuid : uuids) {
+                                    items.add(itemService.find(context, uuid));
+                                }
+                                iitems = items.iterator();
 
-                            File wkDir = new File(workDir);
-                            if (!wkDir.exists() && !wkDir.mkdirs()) {
-                                logError("Unable to create working directory");
+                                exportItemsToZip(context, iitems, keyName + "/", 1, migrate, false, zip);
                             }
-
-
-                            // export the items using normal export method
-                            exportItem(context, iitems, workDir, 1, migrate, false);
+                            zip.finish();
                         }
 
-                        // now zip up the export directory created above
-                        zip(workParentDir, downloadDir
-                            + System.getProperty("file.separator")
-                            + fileName + ".zip");
                         // email message letting user know the file is ready for
                         // download
                         emailSuccessMessage(context, eperson, fileName + ".zip");
@@ -1119,7 +1391,7 @@ public class ItemExportServiceImpl implements ItemExportService {
         logInfo(message, null);
     }
 
-    private void logInfo(String message, Exception e) {
+    private synchronized void logInfo(String message, Exception e) {
         if (handler != null) {
             handler.logInfo(message);
             return;
@@ -1136,7 +1408,7 @@ public class ItemExportServiceImpl implements ItemExportService {
         logWarn(message, null);
     }
 
-    private void logWarn(String message, Exception e) {
+    private synchronized void logWarn(String message, Exception e) {
         if (handler != null) {
             handler.logWarning(message);
             return;
@@ -1153,7 +1425,7 @@ public class ItemExportServiceImpl implements ItemExportService {
         logError(message, null);
     }
 
-    private void logError(String message, Exception e) {
+    private synchronized void logError(String message, Exception e) {
         if (handler != null) {
             if (e != null) {
                 handler.logError(message, e);
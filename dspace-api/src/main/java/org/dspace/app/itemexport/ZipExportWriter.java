@@ -0,0 +1,194 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.itemexport;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes the files of exported items straight into one or more zip files ("volumes"), without writing them to a
+ * directory first.
+ * <p>
+ * When a maximum volume size is given, a new volume is started before the next item once the current volume has
+ * reached it, so that each volume only contains whole items and can be imported on its own. The first volume has
+ * the given file name, the next ones have a "_2", "_3"... suffix. Each volume is written to a temporary file,
+ * which is only renamed once the volume is complete, so {@link #finish()} must be called before
+ * {@link #close()} once all the items are written.
+ */
+class ZipExportWriter implements Closeable {
+
+    private static final String TEMP_SUFFIX = "_tmp";
+
+    private final File destDir;
+    private final String fileName;
+    private final long volumeSize;
+    private final List<File> volumes = new ArrayList<>();
+
+    private File volumeFile;
+    private CountingOutputStream volumeOut;
+    private ZipOutputStream zip;
+
+    /**
+     * @param destDir    the directory to write the zip files to
+     * @param fileName   the name of the (first) zip file
+     * @param volumeSize the size in bytes after which a new volume is started, or 0 to write a single zip file
+     */
+    ZipExportWriter(File destDir, String fileName, long volumeSize) {
+        this.destDir = destDir;
+        this.fileName = fileName;
+        this.volumeSize = volumeSize;
+    }
+
+    /**
+     * Get the file name of a volume.
+     *
+     * @param fileName the name of the first volume
+     * @param volume   the number of the volume, starting from 1
+     * @return the file name of the volume
+     */
+    static String getVolumeFileName(String fileName, int volume) {
+        if (volume <= 1) {
+            return fileName;
+        }
+        String extension = FilenameUtils.getExtension(fileName);
+        return FilenameUtils.removeExtension(fileName) + "_" + volume
+            + (extension.isEmpty() ? "" : "." + extension);
+    }
+
+    /**
+     * Start the files of the next item, in a new volume if the current one is full.
+     *
+     * @throws IOException if the volume could not be created
+     */
+    void startItem() throws IOException {
+        if (zip == null) {
+            openVolume();
+        } else if (volumeSize > 0 && volumeOut.getCount() >= volumeSize) {
+            closeVolume();
+            openVolume();
+        }
+    }
+
+    /**
+     * Add a file to the current volume.
+     *
+     * @param name    the path of the file in the zip file
+     * @param content the content of the file
+     * @throws IOException if the file could not be written
+     */
+    void putEntry(String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    /**
+     * Add a file to the current volume, copying its content from a stream.
+     *
+     * @param name    the path of the file in the zip file
+     * @param content the content of the file, which is not closed
+     * @throws IOException if the file could not be written
+     */
+    void putEntry(String name, InputStream content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        IOUtils.copy(content, zip);
+        zip.closeEntry();
+    }
+
+    /**
+     * Complete the current volume. A single empty volume is written if no item was exported.
+     *
+     * @throws IOException if the volume could not be written
+     */
+    void finish() throws IOException {
+        if (volumes.isEmpty() && zip == null) {
+            openVolume();
+        }
+        if (zip != null) {
+            closeVolume();
+        }
+    }
+
+    /**
+     * Delete the current volume if it was not completed by {@link #finish()}, e.g. because the export failed.
+     * Complete volumes are kept.
+     *
+     * @throws IOException if the volume could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (zip != null) {
+            try {
+                zip.close();
+            } finally {
+                zip = null;
+                Files.deleteIfExists(volumeFile.toPath());
+            }
+        }
+    }
+
+    private void openVolume() throws IOException {
+        String volumeName = getVolumeFileName(fileName, volumes.size() + 1);
+        volumeFile = new File(destDir, volumeName + TEMP_SUFFIX);
+        volumeOut = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(volumeFile)));
+        zip = new ZipOutputStream(volumeOut);
+        zip.setLevel(9);
+    }
+
+    private void closeVolume() throws IOException {
+        zip.finish();
+        zip.close();
+        zip = null;
+        File target = new File(destDir, getVolumeFileName(fileName, volumes.size() + 1));
+        if (!volumeFile.renameTo(target)) {
+            throw new IOException("Unable to rename " + volumeFile + " to " + target);
+        }
+        volumes.add(target);
+    }
+
+    /**
+     * Counts the compressed bytes written to a volume.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
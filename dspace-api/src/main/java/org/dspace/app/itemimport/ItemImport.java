@@ -40,6 +40,7 @@ import org.dspace.eperson.service.EPersonService;
 import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.handle.service.HandleService;
 import org.dspace.scripts.DSpaceRunnable;
+import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.utils.DSpace;
 
 /**
@@ -76,6 +77,7 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
     protected boolean useWorkflow = false;
     protected boolean useWorkflowSendEmail = false;
     protected boolean isQuiet = false;
+    protected int threads = 1;
     protected boolean commandLineCollections = false;
     protected boolean zip = false;
     protected boolean remoteUrl = false;
@@ -148,6 +150,20 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
             isQuiet = true;
         }
 
+        threads = DSpaceServicesFactory.getInstance().getConfigurationService()
+            .getIntProperty("org.dspace.app.batchitemimport.threads", 1);
+        if (commandLine.hasOption('t')) {
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue('t'));
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                handler.logWarning("Invalid number of threads '" + commandLine.getOptionValue('t') + "' - ignoring");
+                threads = 1;
+            }
+        }
+
         setZip();
     }
 
@@ -218,6 +234,7 @@ public class ItemImport extends DSpaceRunnable<ItemImportScriptConfiguration> {
             itemImportService.setUseWorkflow(useWorkflow);
             itemImportService.setUseWorkflowSendEmail(useWorkflowSendEmail);
             itemImportService.setQuiet(isQuiet);
+            itemImportService.setThreads(threads);
             itemImportService.setHandler(handler);
 
             try {
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.URL;
 import java.nio.file.Path;
 import java.sql.SQLException;
@@ -46,6 +47,13 @@ import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import javax.xml.parsers.DocumentBuilder;
@@ -192,6 +200,7 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
     protected boolean useWorkflow = false;
     protected boolean useWorkflowSendEmail = false;
     protected boolean isQuiet = false;
+    protected int threads = 1;
 
     //remember which folder item was imported from
     Map<String, Item> itemFolderMap = null;
@@ -287,6 +296,13 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
 
             Arrays.sort(dircontents, ComparatorUtils.naturalComparator());
 
+            if (threads > 1 && !isTest) {
+                addItemsConcurrently(c, mycollections, sourceDir, dircontents, skipItems, mapOut, template);
+                //now that all items are imported, iterate again to link relationships
+                addRelationships(c, sourceDir);
+                return;
+            }
+
             for (int i = 0; i < dircontents.length; i++) {
                 if (skipItems.containsKey(dircontents[i])) {
                     logInfo("Skipping import of " + dircontents[i]);
@@ -335,6 +351,169 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         }
     }
 
+    /**
+     * Add the items of the given directories with a pool of worker threads. Each worker has its own context,
+     * takes the next directory to import, and commits the items it imported once every "batch size" items
+     * ({@code org.dspace.app.batchitemimport.batch-size}). The items are only written to the mapfile once they
+     * are committed, so that a failed import can be resumed from the mapfile. On failure, the workers stop, their
+     * uncommitted items are rolled back and the first error is thrown.
+     *
+     * @param c             the context of the import, only used to look up skipped and imported items
+     * @param mycollections the collections to add the items to, or null to read the "collections" file of each
+     *                      item directory
+     * @param sourceDir     the directory containing the item directories
+     * @param dircontents   the item directories, in import order
+     * @param skipItems     the item directories to skip, already listed in the mapfile
+     * @param mapOut        the mapfile
+     * @param template      whether to use collection template item as starting point
+     * @throws Exception if an item could not be imported
+     */
+    protected void addItemsConcurrently(Context c, List<Collection> mycollections, String sourceDir,
+                                        String[] dircontents, Map<String, String> skipItems, PrintWriter mapOut,
+                                        boolean template) throws Exception {
+        int batchSize = Math.max(1,
+            configurationService.getIntProperty("org.dspace.app.batchitemimport.batch-size", 100));
+        UUID epersonId = c.getCurrentUser() == null ? null : c.getCurrentUser().getID();
+        List<UUID> collectionIds = null;
+        if (mycollections != null) {
+            collectionIds = new ArrayList<>();
+            for (Collection collection : mycollections) {
+                collectionIds.add(collection.getID());
+            }
+        }
+
+        logInfo("Importing items with " + threads + " threads, committing every " + batchSize + " items");
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Map<String, UUID> imported = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<UUID> workerCollectionIds = collectionIds;
+            workers.add(executor.submit(() -> {
+                importItems(sourceDir, dircontents, skipItems, workerCollectionIds, epersonId, mapOut, template,
+                            batchSize, next, failed, imported);
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        Exception failure = null;
+        for (Future<Void> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        // Remember the folder of every item for relationship linking, in import order
+        for (String dir : dircontents) {
+            UUID id = imported.get(dir);
+            if (id != null) {
+                Item item = itemService.find(c, id);
+                itemFolderMap.put(dir, item);
+                c.uncacheEntity(item);
+            } else if (skipItems.containsKey(dir)) {
+                logInfo("Skipping import of " + dir);
+                Item skippedItem = (Item) handleService.resolveToObject(c, skipItems.get(dir));
+                itemFolderMap.put(dir, skippedItem);
+            }
+        }
+    }
+
+    /**
+     * Import the next item directories with the context of a worker thread, until all are imported or another
+     * worker failed.
+     */
+    private void importItems(String sourceDir, String[] dircontents, Map<String, String> skipItems,
+                             List<UUID> collectionIds, UUID epersonId, PrintWriter mapOut, boolean template,
+                             int batchSize, AtomicInteger next, AtomicBoolean failed, Map<String, UUID> imported)
+        throws Exception {
+        Context context = new Context(Context.Mode.BATCH_EDIT);
+        try {
+            context.turnOffAuthorisationSystem();
+            if (epersonId != null) {
+                context.setCurrentUser(ePersonService.find(context, epersonId));
+            }
+            List<Collection> collections = null;
+            if (collectionIds != null) {
+                collections = new ArrayList<>();
+                for (UUID collectionId : collectionIds) {
+                    collections.add(collectionService.find(context, collectionId));
+                }
+            }
+
+            // the items imported since the last commit, with their mapfile lines
+            Map<String, Item> batch = new HashMap<>();
+            StringWriter batchMapLines = new StringWriter();
+            PrintWriter batchMapOut = new PrintWriter(batchMapLines);
+            int i;
+            while (!failed.get() && (i = next.getAndIncrement()) < dircontents.length) {
+                String dir = dircontents[i];
+                if (skipItems.containsKey(dir)) {
+                    continue;
+                }
+                List<Collection> clist = collections;
+                if (clist == null) {
+                    try {
+                        clist = processCollectionFile(context, sourceDir + File.separatorChar + dir, "collections");
+                    } catch (IllegalArgumentException e) {
+                        logError(e.getMessage() + " Skipping.");
+                        continue;
+                    }
+                    if (clist == null) {
+                        logError("No collections specified for item " + dir + ". Skipping.");
+                        continue;
+                    }
+                }
+
+                batch.put(dir, addItem(context, clist, sourceDir, dir, batchMapOut, template));
+                logInfo(i + " " + dir);
+
+                if (batch.size() >= batchSize) {
+                    commitItems(context, batch, batchMapLines, mapOut, imported);
+                }
+            }
+            // the items of this worker are complete, even if another worker failed
+            commitItems(context, batch, batchMapLines, mapOut, imported);
+            context.complete();
+        } catch (Exception e) {
+            failed.set(true);
+            throw e;
+        } finally {
+            if (context.isValid()) {
+                context.abort();
+            }
+        }
+    }
+
+    /**
+     * Commit the items imported by a worker, then write them to the mapfile.
+     */
+    private void commitItems(Context context, Map<String, Item> batch, StringWriter batchMapLines,
+                             PrintWriter mapOut, Map<String, UUID> imported) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        context.commit();
+        synchronized (mapOut) {
+            mapOut.print(batchMapLines);
+            mapOut.flush();
+        }
+        for (Map.Entry<String, Item> entry : batch.entrySet()) {
+            imported.put(entry.getKey(), entry.getValue().getID());
+            context.uncacheEntity(entry.getValue());
+        }
+        batch.clear();
+        batchMapLines.getBuffer().setLength(0);
+    }
+
      /**
       * Add relationships from a 'relationships' manifest file.
       * 
@@ -2415,6 +2594,11 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         this.isQuiet = isQuiet;
     }
 
+    @Override
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
     @Override
     public void setHandler(DSpaceRunnableHandler handler) {
         this.handler = handler;
@@ -2424,7 +2608,7 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         logInfo(message, null);
     }
 
-    private void logInfo(String message, Exception e) {
+    private synchronized void logInfo(String message, Exception e) {
         if (handler != null) {
             handler.logInfo(message);
             return;
@@ -2441,7 +2625,7 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         logDebug(message, null);
     }
 
-    private void logDebug(String message, Exception e) {
+    private synchronized void logDebug(String message, Exception e) {
         if (handler != null) {
             handler.logDebug(message);
             return;
@@ -2458,7 +2642,7 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         logWarn(message, null);
     }
 
-    private void logWarn(String message, Exception e) {
+    private synchronized void logWarn(String message, Exception e) {
         if (handler != null) {
             handler.logWarning(message);
             return;
@@ -2475,7 +2659,7 @@ public class ItemImportServiceImpl implements ItemImportService, InitializingBea
         logError(message, null);
     }
 
-    private void logError(String message, Exception e) {
+    private synchronized void logError(String message, Exception e) {
         if (handler != null) {
             if (e != null) {
                 handler.logError(message, e);
@@ -244,6 +244,14 @@ public interface ItemImportService {
      */
     public void setQuiet(boolean isQuiet);
 
+    /**
+     * Set the number of threads adding items concurrently. With more than one thread, each thread commits its
+     * items in batches and the mapfile only lists committed items.
+     *
+     * @param threads number of threads
+     */
+    public void setThreads(int threads);
+
     /**
      * Set the DSpace Runnable Handler
      * @param handler
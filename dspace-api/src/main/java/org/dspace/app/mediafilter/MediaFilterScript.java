@@ -40,7 +40,8 @@ import org.dspace.utils.DSpace;
  * recreate index after processing bitstreams; -i [identifier] limits processing
  * scope to a community, collection or item; -m [max] limits processing to a
  * maximum number of items; -fd [fromdate] takes only items starting from this date,
- * filtering by last_modified in the item table.
+ * filtering by last_modified in the item table; -t [threads] filters items with
+ * several threads.
  */
 public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfiguration> {
 
@@ -63,6 +64,7 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
     private String[] skipIds = null;
     private Map<String, List<String>> filterFormats = new HashMap<>();
     private LocalDate fromDate = null;
+    private int threads = 1;
 
     public MediaFilterScriptConfiguration getScriptConfiguration() {
         return new DSpace().getServiceManager()
@@ -119,6 +121,16 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
             fromDate = LocalDate.parse(commandLine.getOptionValue('d'));
         }
 
+        threads = DSpaceServicesFactory.getInstance().getConfigurationService().getIntProperty("filter.threads", 1);
+        if (commandLine.hasOption('t')) {
+            threads = Integer.parseInt(commandLine.getOptionValue('t'));
+            if (threads < 1) {
+                handler.logWarning("Invalid number of threads '" +
+                                           commandLine.getOptionValue('t') + "' - ignoring");
+                threads = 1;
+            }
+        }
+
 
     }
 
@@ -134,6 +146,7 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
         mediaFilterService.setQuiet(isQuiet);
         mediaFilterService.setVerbose(isVerbose);
         mediaFilterService.setMax2Process(max2Process);
+        mediaFilterService.setThreads(threads);
 
         //initialize an array of our enabled filters
         List<FormatFilter> filterList = new ArrayList<>();
@@ -227,6 +240,7 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
         }
 
         Context c = null;
+        boolean finished = false;
 
         try {
             c = new Context();
@@ -260,11 +274,19 @@ public class MediaFilterScript extends DSpaceRunnable<MediaFilterScriptConfigura
                 }
             }
 
+            // wait for the items queued for the worker threads
+            finished = true;
+            mediaFilterService.finishFiltering();
+
             c.complete();
             c = null;
         } catch (Exception e) {
             handler.handleException(e);
         } finally {
+            if (!finished) {
+                // stop the worker threads, which would otherwise wait for more items
+                mediaFilterService.abortFiltering();
+            }
             if (c != null) {
                 c.abort();
             }
@@ -7,6 +7,7 @@
  */
 package org.dspace.app.mediafilter;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
 import java.time.LocalDate;
@@ -16,7 +17,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.Strings;
@@ -56,6 +68,11 @@ import org.springframework.beans.factory.annotation.Autowired;
  * recreate index after processing bitstreams; -i [identifier] limits processing
  * scope to a community, collection or item; and -m [max] limits processing to a
  * maximum number of items.
+ * <p>
+ * When more than one thread is set, the items are filtered concurrently by a {@link ParallelMediaFilter}, which
+ * commits once every "filter.batch-size" items. A filter taking longer than its "filter.&lt;class name&gt;.timeout"
+ * (or "filter.timeout") seconds on a bitstream is interrupted, and the bitstream is skipped. Filters which ignore
+ * interruptions are not stopped, see {@link #getDestinationStream(FormatFilter, Item, InputStream)}.
  */
 public class MediaFilterServiceImpl implements MediaFilterService, InitializingBean {
     @Autowired(required = true)
@@ -81,7 +98,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
 
     protected int max2Process = Integer.MAX_VALUE;  // maximum number items to process
 
-    protected int processed = 0;   // number items processed
+    protected volatile int processed = 0;   // number items processed
 
     protected Item currentItem = null;   // current item being processed
 
@@ -98,6 +115,16 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     protected boolean isForce = false; // default to not forced
     protected LocalDate fromDate = null;
 
+    protected int threads = 1;
+    protected ParallelMediaFilter parallelMediaFilter = null;
+
+    // statistics of each filter, by filter name
+    protected final Map<String, FilterStatistics> filterStatistics = new ConcurrentSkipListMap<>();
+    protected long startTime = System.nanoTime();
+
+    // interrupts filters running longer than their timeout
+    private ScheduledExecutorService watchdog = null;
+
     protected MediaFilterServiceImpl() {
 
     }
@@ -183,13 +210,19 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     public void applyFiltersItem(Context c, Item item) throws Exception {
         //only apply filters if item not in skip-list
         if (!inSkipList(item.getHandle())) {
+            if (threads > 1) {
+                // filtered by a worker, in its own context
+                getParallelMediaFilter().submit(item.getID());
+                c.uncacheEntity(item);
+                return;
+            }
             //cache this item in MediaFilterManager
             //so it can be accessed by MediaFilters as necessary
             currentItem = item;
 
             if (filterItem(c, item)) {
                 // increment processed count
-                ++processed;
+                countProcessed();
             }
             // clear item objects from context cache and internal cache
             c.uncacheEntity(currentItem);
@@ -199,6 +232,96 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
         }
     }
 
+    /**
+     * Filter an item queued by {@link #applyFiltersItem(Context, Item)}, in the context of a worker of the
+     * {@link ParallelMediaFilter}.
+     */
+    protected void filterQueuedItem(Context context, UUID itemId) throws Exception {
+        if (processed >= max2Process) {
+            return;
+        }
+        Item item = itemService.find(context, itemId);
+        if (item == null) {
+            return;
+        }
+        if (filterItem(context, item)) {
+            countProcessed();
+        }
+        context.uncacheEntity(item);
+    }
+
+    @Override
+    public void finishFiltering() throws Exception {
+        try {
+            if (parallelMediaFilter != null) {
+                parallelMediaFilter.finish();
+                List<UUID> failedItems = parallelMediaFilter.getFailedItems();
+                if (!failedItems.isEmpty()) {
+                    logError(failedItems.size() + " item(s) could not be filtered: " + failedItems);
+                }
+            }
+        } finally {
+            parallelMediaFilter = null;
+            shutdownWatchdog();
+            logStatistics();
+        }
+    }
+
+    @Override
+    public void abortFiltering() {
+        try {
+            if (parallelMediaFilter != null) {
+                parallelMediaFilter.abort();
+            }
+        } finally {
+            parallelMediaFilter = null;
+            shutdownWatchdog();
+        }
+    }
+
+    private synchronized void shutdownWatchdog() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+    }
+
+    private synchronized void countProcessed() {
+        processed++;
+    }
+
+    private synchronized ParallelMediaFilter getParallelMediaFilter() {
+        if (parallelMediaFilter == null) {
+            parallelMediaFilter = new ParallelMediaFilter(threads,
+                configurationService.getIntProperty("filter.batch-size", 20), this::filterQueuedItem);
+        }
+        return parallelMediaFilter;
+    }
+
+    /**
+     * Log the number of bitstreams handled by each filter, and its throughput.
+     */
+    protected void logStatistics() {
+        if (filterStatistics.isEmpty()) {
+            return;
+        }
+        double elapsed = (System.nanoTime() - startTime) / 1e9;
+        logInfo(String.format(Locale.ROOT, "Filtered %d items in %.1f seconds with %d thread(s)",
+                              processed, elapsed, threads));
+        for (Map.Entry<String, FilterStatistics> entry : filterStatistics.entrySet()) {
+            FilterStatistics stats = entry.getValue();
+            long count = stats.filtered.sum() + stats.skipped.sum() + stats.failed.sum();
+            double seconds = stats.nanos.sum() / 1e9;
+            logInfo(String.format(Locale.ROOT,
+                "%s: %d filtered, %d skipped, %d failed (%d timed out), %.1f MB read, "
+                    + "%.3f seconds per bitstream, %.2f bitstreams per second",
+                entry.getKey(), stats.filtered.sum(), stats.skipped.sum(), stats.failed.sum(),
+                stats.timedOut.sum(), stats.bytes.sum() / (1024.0 * 1024.0),
+                count == 0 ? 0 : seconds / count, elapsed <= 0 ? 0 : count / elapsed));
+        }
+        filterStatistics.clear();
+    }
+
     @Override
     public boolean filterItem(Context context, Item myItem) throws Exception {
         // get 'original' bundles
@@ -245,7 +368,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
             if (fmts.contains(myBitstream.getFormat(context).getShortDescription())) {
                 try {
                     // only update item if bitstream not skipped
-                    if (processBitstream(context, myItem, myBitstream, filterClass)) {
+                    if (applyFilter(context, myItem, myBitstream, filterClass)) {
                         itemService.update(context, myItem); // Make sure new bitstream has a sequence
                         // number
                         filtered = true;
@@ -300,7 +423,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
                 if (applyFilter) {
                     try {
                         // only update item if bitstream not skipped
-                        if (processBitstream(context, myItem, myBitstream, filterClass)) {
+                        if (applyFilter(context, myItem, myBitstream, filterClass)) {
                             itemService.update(context, myItem); // Make sure new bitstream has a sequence
                             // number
                             filtered = true;
@@ -316,6 +439,110 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
         return filtered;
     }
 
+    /**
+     * Process a bitstream with a filter, recording the outcome and duration in the statistics of the filter.
+     */
+    protected boolean applyFilter(Context context, Item item, Bitstream source, FormatFilter formatFilter)
+        throws Exception {
+        FilterStatistics stats = filterStatistics.computeIfAbsent(getFilterName(formatFilter),
+                                                                  name -> new FilterStatistics());
+        long start = System.nanoTime();
+        try {
+            boolean filtered = processBitstream(context, item, source, formatFilter);
+            (filtered ? stats.filtered : stats.skipped).increment();
+            if (filtered && source.getSizeBytes() > 0) {
+                stats.bytes.add(source.getSizeBytes());
+            }
+            return filtered;
+        } catch (Exception e) {
+            stats.failed.increment();
+            if (e instanceof TimeoutException) {
+                stats.timedOut.increment();
+            }
+            throw e;
+        } finally {
+            stats.nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private String getFilterName(FormatFilter formatFilter) {
+        if (formatFilter instanceof SelfNamedPlugin) {
+            return formatFilter.getClass().getSimpleName() + " ("
+                + ((SelfNamedPlugin) formatFilter).getPluginInstanceName() + ")";
+        }
+        return formatFilter.getClass().getSimpleName();
+    }
+
+    /**
+     * Produce the destination stream of a filter, interrupting the filter if it runs longer than its timeout. The
+     * filter runs on the calling thread, as it may use the database session bound to it. When the timeout
+     * expires, the source stream is closed and the thread is interrupted, which stops filters reading the
+     * source or waiting for an external process. A filter which neither reads the source nor checks for
+     * interruptions, e.g. a CPU-bound conversion of data already read, is not stopped: it runs to its end, and its
+     * result is then discarded.
+     *
+     * @throws TimeoutException if the filter was interrupted
+     */
+    protected InputStream getDestinationStream(FormatFilter formatFilter, Item item, InputStream srcStream)
+        throws Exception {
+        long timeout = configurationService.getLongProperty(
+            "filter." + formatFilter.getClass().getName() + ".timeout",
+            configurationService.getLongProperty("filter.timeout", 0));
+        if (timeout <= 0) {
+            return formatFilter.getDestinationStream(item, srcStream, isVerbose);
+        }
+        Thread thread = Thread.currentThread();
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        ScheduledFuture<?> alarm = getWatchdog().schedule(() -> {
+            timedOut.set(true);
+            try {
+                srcStream.close();
+            } catch (IOException e) {
+                // ignore, the thread is interrupted anyway
+            }
+            thread.interrupt();
+        }, timeout, TimeUnit.SECONDS);
+        Exception failure = null;
+        InputStream destStream = null;
+        try {
+            destStream = formatFilter.getDestinationStream(item, srcStream, isVerbose);
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            if (!alarm.cancel(false)) {
+                // the alarm went off, wait until it has interrupted the thread to clear the interruption
+                try {
+                    alarm.get();
+                } catch (ExecutionException | InterruptedException e) {
+                    // nothing to do
+                }
+                Thread.interrupted();
+            }
+        }
+        if (timedOut.get()) {
+            if (destStream != null) {
+                destStream.close();
+            }
+            throw new TimeoutException("Filter " + getFilterName(formatFilter) + " timed out after " + timeout
+                + " seconds");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return destStream;
+    }
+
+    private synchronized ScheduledExecutorService getWatchdog() {
+        if (watchdog == null) {
+            watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "media-filter-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return watchdog;
+    }
+
     @Override
     public boolean processBitstream(Context context, Item item, Bitstream source, FormatFilter formatFilter)
         throws Exception {
@@ -357,7 +584,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
                 InputStream srcStream = bitstreamService.retrieve(context, source);
                 // filter the source stream to produce the destination stream
                 // this is the hard work, check for OutOfMemoryErrors at the end of the try clause.
-                InputStream destStream = formatFilter.getDestinationStream(item, srcStream, isVerbose);
+                InputStream destStream = getDestinationStream(formatFilter, item, srcStream);
         ) {
             if (destStream == null) {
                 if (!isQuiet) {
@@ -561,21 +788,21 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
         return sb.toString();
     }
 
-    private void logInfo(String message) {
+    private synchronized void logInfo(String message) {
         if (handler != null) {
             handler.logInfo(message);
         } else {
             System.out.println(message);
         }
     }
-    private void logError(String message) {
+    private synchronized void logError(String message) {
         if (handler != null) {
             handler.logError(message);
         } else {
             System.out.println(message);
         }
     }
-    private void logError(String message, Exception e) {
+    private synchronized void logError(String message, Exception e) {
         if (handler != null) {
             handler.logError(message, e);
         } else {
@@ -606,6 +833,7 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     @Override
     public void setFilterClasses(List<FormatFilter> filterClasses) {
         this.filterClasses = filterClasses;
+        this.startTime = System.nanoTime();
     }
 
     @Override
@@ -627,4 +855,21 @@ public class MediaFilterServiceImpl implements MediaFilterService, InitializingB
     public void setFromDate(LocalDate fromDate) {
         this.fromDate = fromDate;
     }
+
+    @Override
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Counters of the bitstreams handled by a filter, updated concurrently by the workers.
+     */
+    protected static class FilterStatistics {
+        protected final LongAdder filtered = new LongAdder();
+        protected final LongAdder skipped = new LongAdder();
+        protected final LongAdder failed = new LongAdder();
+        protected final LongAdder timedOut = new LongAdder();
+        protected final LongAdder bytes = new LongAdder();
+        protected final LongAdder nanos = new LongAdder();
+    }
 }
@@ -0,0 +1,293 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.mediafilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.core.Context;
+
+/**
+ * Work queue of the items to filter, used by {@link MediaFilterServiceImpl} when more than one thread is
+ * configured.
+ * <p>
+ * The items are found once, on the thread which calls {@link #submit(UUID)}, and queued by UUID. A pool of
+ * workers, each with its own {@link Context}, takes one item at a time and filters all its bitstreams. Items, and
+ * not bitstreams, are the unit of work, so that two workers never add derivatives to the same item at once. Each
+ * worker commits its changes once every "batch size" items, instead of after every item. A failed item or commit
+ * only loses the items which still fail when filtered again on their own, see {@link #getFailedItems()}.
+ */
+public class ParallelMediaFilter {
+
+    private static final Logger log = LogManager.getLogger(ParallelMediaFilter.class);
+
+    /**
+     * Filters a single item in the context of a worker.
+     */
+    @FunctionalInterface
+    public interface ItemFilter {
+        /**
+         * @param context the context of the worker
+         * @param itemId  the UUID of the item to filter
+         * @throws Exception if the item could not be filtered
+         */
+        void filter(Context context, UUID itemId) throws Exception;
+    }
+
+    private final ItemFilter itemFilter;
+    private final int batchSize;
+    private final BlockingQueue<UUID> queue;
+    private final ExecutorService executor;
+    private final List<Future<Long>> workers = new ArrayList<>();
+    private final Queue<UUID> failedItems = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed = false;
+    private volatile boolean aborted = false;
+
+    /**
+     * Start the workers.
+     *
+     * @param threads    the number of workers
+     * @param batchSize  the number of items each worker filters between two commits
+     * @param itemFilter filters a single item
+     */
+    public ParallelMediaFilter(int threads, int batchSize, ItemFilter itemFilter) {
+        this.itemFilter = itemFilter;
+        this.batchSize = Math.max(1, batchSize);
+        // Bounded, so that finding the items does not get too far ahead of the workers
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, threads) * this.batchSize * 2);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            workers.add(executor.submit(new Worker()));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Queue an item, waiting while the queue is full.
+     *
+     * @param itemId the UUID of the item to filter
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if all workers have stopped
+     */
+    public void submit(UUID itemId) throws InterruptedException {
+        while (!queue.offer(itemId, 1, TimeUnit.SECONDS)) {
+            if (executor.isTerminated()) {
+                throw new IllegalStateException("All media filter workers have stopped");
+            }
+        }
+    }
+
+    /**
+     * Wait until the workers have filtered all the queued items and committed their changes.
+     *
+     * @return the number of items handled by the workers
+     * @throws Exception the error which stopped a worker, if any
+     */
+    public long finish() throws Exception {
+        closed = true;
+        long count = 0;
+        Exception failure = null;
+        for (Future<Long> worker : workers) {
+            try {
+                count += worker.get();
+            } catch (ExecutionException e) {
+                log.error("A media filter worker failed", e.getCause());
+                if (failure == null && e.getCause() instanceof Exception) {
+                    failure = (Exception) e.getCause();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return count;
+    }
+
+    /**
+     * Stop the workers without filtering the items still queued, e.g. when the items could not all be found. The
+     * workers finish the item they are filtering, roll back the changes of their batch and close their context.
+     * Waits until all the workers have stopped, so that no thread of the pool is left running.
+     */
+    public void abort() {
+        aborted = true;
+        closed = true;
+        queue.clear();
+        for (Future<Long> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                log.error("A media filter worker failed", e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the UUIDs of the items which could not be filtered, or whose changes could not be committed
+     */
+    public List<UUID> getFailedItems() {
+        return List.copyOf(failedItems);
+    }
+
+    private static Context newContext() {
+        Context context = new Context();
+        // have to be super-user to do the filtering
+        context.turnOffAuthorisationSystem();
+        return context;
+    }
+
+    /**
+     * A worker, filtering the queued items until the queue is closed and empty, or the filtering is aborted.
+     * <p>
+     * The changes of the items of a batch are only committed together. If an item fails, or the commit fails, the
+     * changes of the whole batch are rolled back, the context is replaced as the failure may have left its session
+     * unusable, and the other items of the batch are filtered again, each in its own transaction, so that only the
+     * items which fail again are lost and reported.
+     */
+    private class Worker implements Callable<Long> {
+
+        private Context context;
+        // the items whose changes are not committed yet
+        private final List<UUID> batch = new ArrayList<>(batchSize);
+        private long count = 0;
+
+        @Override
+        public Long call() throws Exception {
+            context = newContext();
+            try {
+                UUID itemId;
+                while ((itemId = next()) != null) {
+                    count++;
+                    if (filter(itemId)) {
+                        batch.add(itemId);
+                        if (batch.size() >= batchSize) {
+                            commitBatch();
+                        }
+                    } else {
+                        retryBatch();
+                    }
+                }
+                if (!aborted) {
+                    commitBatch();
+                    context.complete();
+                }
+                return count;
+            } finally {
+                if (context.isValid()) {
+                    context.abort();
+                }
+            }
+        }
+
+        /**
+         * @return the next queued item, or null once the queue is closed and empty, or the filtering is aborted
+         */
+        private UUID next() throws InterruptedException {
+            while (!aborted) {
+                UUID itemId = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (itemId != null) {
+                    return itemId;
+                }
+                if (closed && queue.isEmpty()) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Filter an item, rolling back all the uncommitted changes if it fails.
+         *
+         * @return true if the item was filtered
+         */
+        private boolean filter(UUID itemId) {
+            try {
+                itemFilter.filter(context, itemId);
+                return true;
+            } catch (Exception e) {
+                log.error("Error while filtering item {}", itemId, e);
+                failedItems.add(itemId);
+                rollback();
+                return false;
+            }
+        }
+
+        /**
+         * Commit the changes of the batch, or filter its items again one at a time if the commit fails.
+         */
+        private void commitBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                context.commit();
+                // release the entities of the committed items
+                context.uncacheEntities();
+                batch.clear();
+            } catch (Exception e) {
+                log.error("Error while committing the changes of items {}", batch, e);
+                rollback();
+                retryBatch();
+            }
+        }
+
+        /**
+         * Filter again the items of a rolled back batch, committing after each one.
+         */
+        private void retryBatch() {
+            List<UUID> items = new ArrayList<>(batch);
+            batch.clear();
+            for (UUID itemId : items) {
+                if (!filter(itemId)) {
+                    continue;
+                }
+                try {
+                    context.commit();
+                    context.uncacheEntities();
+                } catch (Exception e) {
+                    log.error("Error while committing the changes of item {}", itemId, e);
+                    failedItems.add(itemId);
+                    rollback();
+                }
+            }
+        }
+
+        /**
+         * Discard the uncommitted changes, with the context which made them, and continue with a new context.
+         */
+        private void rollback() {
+            try {
+                context.abort();
+            } catch (RuntimeException e) {
+                log.error("Error while rolling back the changes of items {}", batch, e);
+            }
+            context = newContext();
+        }
+    }
+}
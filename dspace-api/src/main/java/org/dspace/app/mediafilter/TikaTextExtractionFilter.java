@@ -7,13 +7,22 @@
  */
 package org.dspace.app.mediafilter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -24,7 +33,6 @@ import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.sax.BodyContentHandler;
-import org.apache.tika.sax.ContentHandlerDecorator;
 import org.dspace.content.Item;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
@@ -40,6 +48,8 @@ public class TikaTextExtractionFilter
     private final static Logger log = LogManager.getLogger();
     private static final int DEFAULT_MAX_CHARS = 100_000;
     private static final int DEFAULT_MAX_ARRAY = 1_000_000;
+    // Size of the buffers between the text extraction thread and the reader of the extracted text
+    private static final int PIPE_SIZE = 64 * 1024;
 
     @Override
     public String getFilteredName(String oldFilename) {
@@ -66,7 +76,12 @@ public class TikaTextExtractionFilter
         throws Exception {
         ConfigurationService configurationService = DSpaceServicesFactory.getInstance().getConfigurationService();
         boolean useTemporaryFile = configurationService.getBooleanProperty("textextractor.use-temp-file", false);
+        boolean useStreaming = configurationService.getBooleanProperty("textextractor.stream", false);
 
+        if (useStreaming) {
+            // Extract text out of source file on a separate thread, returning results as they are extracted
+            return extractUsingPipe(currentItem, source, verbose);
+        }
         if (useTemporaryFile) {
             // Extract text out of source file using a temp file, returning results as InputStream
             return extractUsingTempFile(source, verbose);
@@ -114,6 +129,7 @@ public class TikaTextExtractionFilter
     /**
      * Extracts the text out of a given source InputStream, using a temporary file. This decreases the amount of memory
      * necessary for text extraction, but can be slower as it requires writing extracted text to a temporary file.
+     * Unless in verbose mode, the temporary file is deleted when the returned stream is closed.
      * @param source source InputStream
      * @param verbose verbose mode enabled/disabled
      * @return InputStream for temporary file containing extracted text
@@ -128,66 +144,138 @@ public class TikaTextExtractionFilter
         if (verbose) {
             System.out.println("(Verbose mode) Extracted text was written to temporary file at " +
                                    tempExtractedTextFile.getAbsolutePath());
-        } else {
-            tempExtractedTextFile.deleteOnExit();
         }
 
         // Open temp file for writing
-        try (FileWriter writer = new FileWriter(tempExtractedTextFile, StandardCharsets.UTF_8)) {
-            // Initialize a custom ContentHandlerDecorator which is a BodyContentHandler.
-            // This mimics the behavior of Tika().parseToString(), which only extracts text from the body of the file.
-            // This custom Handler writes any extracted text to the temp file.
-            ContentHandlerDecorator handler = new BodyContentHandler(new ContentHandlerDecorator() {
-                /**
-                 * Write all extracted characters directly to the temp file.
-                 */
-                @Override
-                public void characters(char[] ch, int start, int length) throws SAXException {
-                    try {
-                        writer.append(new String(ch, start, length));
-                    } catch (IOException e) {
-                        String errorMsg = String.format("Could not append to temporary file at %s " +
-                                                            "when performing text extraction",
-                                                        tempExtractedTextFile.getAbsolutePath());
-                        log.error(errorMsg, e);
-                        throw new SAXException(errorMsg, e);
-                    }
-                }
+        try (Writer writer = new BufferedWriter(new FileWriter(tempExtractedTextFile, StandardCharsets.UTF_8))) {
+            extractText(source, writer);
+        } catch (IOException | TikaException | SAXException e) {
+            Files.deleteIfExists(tempExtractedTextFile.toPath());
+            throw e;
+        }
 
-                /**
-                 * Write all ignorable whitespace directly to the temp file.
-                 * This mimics the behaviour of Tika().parseToString() which extracts ignorableWhitespace characters
-                 * (like blank lines, indentations, etc.), so that we get the same extracted text either way.
-                 */
-                @Override
-                public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
-                    try {
-                        writer.append(new String(ch, start, length));
-                    } catch (IOException e) {
-                        String errorMsg = String.format("Could not append to temporary file at %s " +
-                                                            "when performing text extraction",
-                                                        tempExtractedTextFile.getAbsolutePath());
-                        log.error(errorMsg, e);
-                        throw new SAXException(errorMsg, e);
-                    }
-                }
-            });
+        // At this point, all extracted text is written to our temp file. So, return a FileInputStream for that file
+        if (verbose) {
+            return new FileInputStream(tempExtractedTextFile);
+        }
+        return Files.newInputStream(tempExtractedTextFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+    }
 
-            ConfigurationService configurationService = DSpaceServicesFactory.getInstance().getConfigurationService();
-            int maxArray = configurationService.getIntProperty("textextractor.max-array", DEFAULT_MAX_ARRAY);
-            IOUtils.setByteArrayMaxOverride(maxArray);
+    /**
+     * Extracts the text out of a given source InputStream on a separate thread, which writes it to a pipe as it is
+     * extracted. The text is read from the other end of the pipe, so that it is stored while it is being extracted,
+     * with a constant amount of memory and without temporary file. An error of the extraction is thrown when the
+     * returned stream is read.
+     * @param currentItem item of the source, used to name the extraction thread
+     * @param source source InputStream
+     * @param verbose verbose mode enabled/disabled
+     * @return InputStream of the extracted text, or null if no text was extracted
+     * @throws IOException if no text could be extracted
+     */
+    private InputStream extractUsingPipe(Item currentItem, InputStream source, boolean verbose) throws IOException {
+        PipedInputStream pipe = new PipedInputStream(PIPE_SIZE);
+        PipedOutputStream pipeOutput = new PipedOutputStream(pipe);
+        ExtractedTextStream extractedText = new ExtractedTextStream(pipe);
+
+        Thread extraction = new Thread(() -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(pipeOutput, StandardCharsets.UTF_8));
+            try {
+                extractText(source, writer);
+                writer.flush();
+            } catch (Exception | OutOfMemoryError e) {
+                // Set before closing the pipe, so that the reader gets it after all text written until now
+                extractedText.failure = e;
+            } finally {
+                closeQuietly(writer);
+            }
+        }, "text-extraction-" + (currentItem == null ? "" : currentItem.getID()));
+        extraction.setDaemon(true);
+        extraction.start();
 
-            AutoDetectParser parser = new AutoDetectParser();
-            Metadata metadata = new Metadata();
-            // parse our source InputStream using the above custom handler
-            parser.parse(source, handler, metadata);
+        // Wait for the first extracted text, as no bitstream must be created if there is none
+        if (!extractedText.hasText()) {
+            extractedText.close();
+            return null;
         }
+        if (verbose) {
+            System.out.println("(Verbose mode) Extracted text is stored as it is extracted");
+        }
+        return extractedText;
+    }
 
-        // At this point, all extracted text is written to our temp file. So, return a FileInputStream for that file
-        return new FileInputStream(tempExtractedTextFile);
+    /**
+     * Extract the text of the source to a writer, without any limit on the number of characters.
+     */
+    private void extractText(InputStream source, Writer writer) throws IOException, TikaException, SAXException {
+        ConfigurationService configurationService = DSpaceServicesFactory.getInstance().getConfigurationService();
+        int maxArray = configurationService.getIntProperty("textextractor.max-array", DEFAULT_MAX_ARRAY);
+        IOUtils.setByteArrayMaxOverride(maxArray);
+
+        // A BodyContentHandler mimics the behavior of Tika().parseToString(), which only extracts text (including
+        // ignorable whitespace) from the body of the file, so that we get the same extracted text either way.
+        // Given a Writer, it writes all extracted text to it as soon as it is parsed.
+        BodyContentHandler handler = new BodyContentHandler(writer);
+
+        AutoDetectParser parser = new AutoDetectParser();
+        Metadata metadata = new Metadata();
+        // parse our source InputStream using the above handler
+        parser.parse(source, handler, metadata);
     }
 
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Unable to close the text extraction pipe", e);
+        }
+    }
+
+    /**
+     * Read end of the pipe of a text extraction, which throws the error of the extraction, if any, when all the
+     * text extracted before it has been read.
+     */
+    private static class ExtractedTextStream extends BufferedInputStream {
+
+        private volatile Throwable failure;
 
+        ExtractedTextStream(PipedInputStream pipe) {
+            super(pipe, PIPE_SIZE);
+        }
+
+        /**
+         * Wait until some text has been extracted, or the extraction has ended.
+         *
+         * @return true if there is text to read
+         * @throws IOException if the extraction failed before extracting any text
+         */
+        boolean hasText() throws IOException {
+            mark(1);
+            boolean hasText = read() >= 0;
+            reset();
+            return hasText;
+        }
 
+        @Override
+        public synchronized int read() throws IOException {
+            return checkFailure(super.read());
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            return checkFailure(super.read(b, off, len));
+        }
 
+        private int checkFailure(int read) throws IOException {
+            if (read < 0 && failure != null) {
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
+                }
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw new IOException("Unable to extract text", failure);
+            }
+            return read;
+        }
+    }
 }
@@ -167,4 +167,27 @@ public interface MediaFilterService {
     public void setLogHandler(DSpaceRunnableHandler handler);
 
     public void setFromDate(LocalDate fromDate);
+
+    /**
+     * Set the number of worker threads filtering items. With more than one thread, the items found by the
+     * applyFilters methods are queued, and filtered by the workers, each with its own Context, until
+     * {@link #finishFiltering()} is called.
+     *
+     * @param threads number of worker threads
+     */
+    public void setThreads(int threads);
+
+    /**
+     * Wait until all queued items are filtered, and log the number of bitstreams handled and the throughput of
+     * each filter since the filtering started.
+     *
+     * @throws Exception if the workers could not complete
+     */
+    public void finishFiltering() throws Exception;
+
+    /**
+     * Stop the filtering after a failure, instead of {@link #finishFiltering()}: the items still queued are not
+     * filtered, the uncommitted changes of the workers are rolled back and their threads are stopped.
+     */
+    public void abortFiltering();
 }
@@ -15,8 +15,13 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -89,6 +94,8 @@ public class AuthorizeServiceImpl implements AuthorizeService {
     private SearchService searchService;
     @Autowired(required = true)
     private ConfigurationService configurationService;
+    @Autowired(required = true)
+    protected SharedAuthorizationCache sharedAuthorizationCache;
 
 
     protected AuthorizeServiceImpl() {
@@ -204,6 +211,60 @@ public class AuthorizeServiceImpl implements AuthorizeService {
         return isAuthorized;
     }
 
+    @Override
+    public Map<UUID, Boolean> authorizeActionBoolean(Context c, java.util.Collection<? extends DSpaceObject> objects,
+                                                     int a) throws SQLException {
+        return authorizeActionBoolean(c, objects, a, true);
+    }
+
+    @Override
+    public Map<UUID, Boolean> authorizeActionBoolean(Context c, java.util.Collection<? extends DSpaceObject> objects,
+                                                     int a, boolean useInheritance) throws SQLException {
+        EPerson e = c.getCurrentUser();
+        // Keep the order of the given objects, the decisions not made yet are null
+        Map<UUID, Boolean> results = new LinkedHashMap<>();
+        Map<UUID, DSpaceObject> toCheck = new LinkedHashMap<>();
+        for (DSpaceObject o : objects) {
+            if (o == null || results.containsKey(o.getID())) {
+                continue;
+            }
+            Boolean cachedResult = c.ignoreAuthorization() ? Boolean.TRUE
+                                                           : c.getCachedAuthorizationResult(o, a, e);
+            if (cachedResult == null) {
+                cachedResult = sharedAuthorizationCache.get(c, o, a, e, useInheritance);
+                if (cachedResult != null) {
+                    c.cacheAuthorizedAction(o, a, e, cachedResult, null);
+                }
+            }
+            results.put(o.getID(), cachedResult);
+            if (cachedResult == null) {
+                toCheck.put(o.getID(), o);
+            }
+        }
+        if (toCheck.isEmpty()) {
+            return results;
+        }
+
+        // Load the policies of all objects and the groups of the user at once, instead of once per object
+        Map<UUID, List<ResourcePolicy>> policies = new HashMap<>();
+        for (UUID id : toCheck.keySet()) {
+            policies.put(id, new ArrayList<>());
+        }
+        for (ResourcePolicy rp : resourcePolicyService.find(c, new ArrayList<>(toCheck.values()), a)) {
+            policies.get(rp.getdSpaceObject().getID()).add(rp);
+        }
+        Set<Group> memberGroups = groupService.allMemberGroupsSet(c, e);
+        Map<UUID, Boolean> admins = isAdmin(c, e, toCheck.values(), a, useInheritance, memberGroups);
+
+        for (DSpaceObject o : toCheck.values()) {
+            boolean result = authorizeFromPolicies(c, o, a, e, useInheritance, policies.get(o.getID()),
+                                                   memberGroups, admins.get(o.getID()));
+            sharedAuthorizationCache.put(c, o, a, e, useInheritance, result);
+            results.put(o.getID(), result);
+        }
+        return results;
+    }
+
     @Override
     public boolean authorizeActionBoolean(Context c, EPerson e, DSpaceObject o, int a, boolean useInheritance)
         throws SQLException {
@@ -257,13 +318,72 @@ public class AuthorizeServiceImpl implements AuthorizeService {
             return cachedResult;
         }
 
+        // If the same decision was made before by another context
+        Boolean sharedResult = sharedAuthorizationCache.get(c, o, action, e, useInheritance);
+        if (sharedResult != null) {
+            c.cacheAuthorizedAction(o, action, e, sharedResult, null);
+            return sharedResult;
+        }
+
+        boolean result = authorizeFromPolicies(c, o, action, e, useInheritance);
+        sharedAuthorizationCache.put(c, o, action, e, useInheritance, result);
+        return result;
+    }
+
+    /**
+     * Check to see if the given user can perform the given action on the given
+     * object, based on the policies of the object (and of its parents, if
+     * inheritance is used). The result is cached in the given context.
+     *
+     * @param c              current context
+     * @param o              object action is being attempted on
+     * @param action         ID of action being attempted, from
+     *                       <code>org.dspace.core.Constants</code>
+     * @param e              user attempting action
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @return <code>true</code> if user is authorized to perform the given
+     * action, <code>false</code> otherwise
+     * @throws SQLException if database error
+     */
+    protected boolean authorizeFromPolicies(Context c, DSpaceObject o, int action, EPerson e,
+                                            boolean useInheritance) throws SQLException {
+        return authorizeFromPolicies(c, o, action, e, useInheritance, null, null, null);
+    }
+
+    /**
+     * Check to see if the given user can perform the given action on the given
+     * object, based on the given policies of the object (and on the policies
+     * of its parents, if inheritance is used). The result is cached in the
+     * given context.
+     *
+     * @param c              current context
+     * @param o              object action is being attempted on
+     * @param action         ID of action being attempted, from
+     *                       <code>org.dspace.core.Constants</code>
+     * @param e              user attempting action
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @param policies       the policies of the object for the action, or null to look them up
+     * @param memberGroups   all groups the user is a member of, or null to check the
+     *                       membership of the group of each policy
+     * @param admin          whether the user is an administrator of the object for the
+     *                       action, as decided by {@link #isAdmin(Context, EPerson, java.util.Collection,
+     *                       int, boolean, Set)}, or null to check it
+     * @return <code>true</code> if user is authorized to perform the given
+     * action, <code>false</code> otherwise
+     * @throws SQLException if database error
+     */
+    protected boolean authorizeFromPolicies(Context c, DSpaceObject o, int action, EPerson e,
+                                            boolean useInheritance, List<ResourcePolicy> policies,
+                                            Set<Group> memberGroups, Boolean admin) throws SQLException {
         // is eperson set? if not, userToCheck = null (anonymous)
         EPerson userToCheck = null;
         if (e != null) {
             userToCheck = e;
 
             // perform immediately isAdmin check as this is cheap
-            if (isAdmin(c, e)) {
+            if (admin != null ? admin : isAdmin(c, e)) {
                 return true;
             }
         }
@@ -296,7 +416,10 @@ public class AuthorizeServiceImpl implements AuthorizeService {
             }
         }
 
-        for (ResourcePolicy rp : getPoliciesActionFilter(c, o, action)) {
+        if (policies == null) {
+            policies = getPoliciesActionFilter(c, o, action);
+        }
+        for (ResourcePolicy rp : policies) {
 
             if (ignoreCustomPolicies
                 && ResourcePolicy.TYPE_CUSTOM.equals(rp.getRpType())) {
@@ -316,7 +439,8 @@ public class AuthorizeServiceImpl implements AuthorizeService {
                 }
 
                 if ((rp.getGroup() != null)
-                    && groupService.isMember(c, e, rp.getGroup())) {
+                    && (memberGroups != null ? memberGroups.contains(rp.getGroup())
+                                             : groupService.isMember(c, e, rp.getGroup()))) {
                     // group was set, and eperson is a member
                     // of that group
                     c.cacheAuthorizedAction(o, action, e, true, rp);
@@ -331,7 +455,7 @@ public class AuthorizeServiceImpl implements AuthorizeService {
             }
         }
 
-        if (e != null) {
+        if (e != null && admin == null) {
             // if user is an Admin on this object
             DSpaceObject adminObject = useInheritance ? serviceFactory.getDSpaceObjectService(o)
                                                                       .getAdminObject(c, o, action) : null;
@@ -346,12 +470,90 @@ public class AuthorizeServiceImpl implements AuthorizeService {
         return false;
     }
 
+    /**
+     * Check whether the given user is an administrator of each of the given objects for the given action, as
+     * {@link #authorizeFromPolicies(Context, DSpaceObject, int, EPerson, boolean)} does with
+     * {@link #isAdmin(Context, EPerson, DSpaceObject)}, but loading the ADMIN policies of all the objects with a
+     * single query and checking each of their parents only once.
+     *
+     * @param c              current context
+     * @param e              user attempting action
+     * @param objects        objects action is being attempted on
+     * @param action         ID of action being attempted, from
+     *                       <code>org.dspace.core.Constants</code>
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @param memberGroups   all groups the user is a member of
+     * @return the decisions by UUID of the objects
+     * @throws SQLException if database error
+     */
+    protected Map<UUID, Boolean> isAdmin(Context c, EPerson e, java.util.Collection<? extends DSpaceObject> objects,
+                                         int action, boolean useInheritance, Set<Group> memberGroups)
+        throws SQLException {
+        Map<UUID, Boolean> admins = new HashMap<>();
+        boolean siteAdmin = isAdmin(c, e);
+        if (e == null || siteAdmin || !useInheritance) {
+            objects.forEach(o -> admins.put(o.getID(), siteAdmin));
+            return admins;
+        }
+
+        Map<UUID, DSpaceObject> adminObjects = new HashMap<>();
+        Map<UUID, DSpaceObject> distinctAdminObjects = new LinkedHashMap<>();
+        for (DSpaceObject o : objects) {
+            DSpaceObject adminObject = serviceFactory.getDSpaceObjectService(o).getAdminObject(c, o, action);
+            if (adminObject == null) {
+                admins.put(o.getID(), false);
+            } else {
+                adminObjects.put(o.getID(), adminObject);
+                distinctAdminObjects.put(adminObject.getID(), adminObject);
+            }
+        }
+        if (distinctAdminObjects.isEmpty()) {
+            return admins;
+        }
+
+        Set<UUID> granted = new HashSet<>();
+        for (ResourcePolicy rp : resourcePolicyService.find(c, new ArrayList<>(distinctAdminObjects.values()),
+                                                            Constants.ADMIN)) {
+            if (resourcePolicyService.isDateValid(rp)
+                && ((rp.getEPerson() != null && rp.getEPerson().equals(e))
+                    || (rp.getGroup() != null && memberGroups.contains(rp.getGroup())))) {
+                granted.add(rp.getdSpaceObject().getID());
+            }
+        }
+
+        // The objects usually share their parents, e.g. the items of a collection
+        Map<UUID, Boolean> parentAdmins = new HashMap<>();
+        for (Map.Entry<UUID, DSpaceObject> entry : adminObjects.entrySet()) {
+            DSpaceObject adminObject = entry.getValue();
+            boolean admin = granted.contains(adminObject.getID());
+            if (!admin) {
+                DSpaceObject parent = serviceFactory.getDSpaceObjectService(adminObject)
+                                                    .getParentObject(c, adminObject);
+                if (parent != null) {
+                    Boolean parentAdmin = parentAdmins.get(parent.getID());
+                    if (parentAdmin == null) {
+                        parentAdmin = isAdmin(c, e, parent);
+                        parentAdmins.put(parent.getID(), parentAdmin);
+                    }
+                    admin = parentAdmin;
+                }
+            }
+            admins.put(entry.getKey(), admin);
+        }
+        return admins;
+    }
+
     // check whether any bundle belongs to any item that passed submission
     // and workflow process
     protected boolean isAnyItemInstalled(Context ctx, List<Bundle> bundles)
         throws SQLException {
         for (Bundle bundle : bundles) {
             for (Item item : bundle.getItems()) {
+                // archived items are never in the workspace or in the workflow
+                if (item.isArchived()) {
+                    return true;
+                }
                 if (workspaceItemService.findByItem(ctx, item) == null
                     && workflowItemService.findByItem(ctx, item) == null) {
                     return true;
@@ -9,6 +9,7 @@ package org.dspace.authorize;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -16,6 +17,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.logging.log4j.Logger;
 import org.dspace.authorize.dao.ResourcePolicyDAO;
@@ -43,6 +45,11 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
      */
     private static final Logger log = org.apache.logging.log4j.LogManager.getLogger(ResourcePolicyServiceImpl.class);
 
+    /**
+     * The maximum number of objects whose policies are looked up with a single query
+     */
+    private static final int MAX_QUERY_OBJECTS = 1000;
+
     @Autowired(required = true)
     protected ContentServiceFactory contentServiceFactory;
 
@@ -55,6 +62,9 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
     @Autowired
     private AuthorizeService authorizeService;
 
+    @Autowired
+    private SharedAuthorizationCache sharedAuthorizationCache;
+
     protected ResourcePolicyServiceImpl() {
     }
 
@@ -115,6 +125,17 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         return resourcePolicyDAO.findByDSoAndAction(c, o, actionId);
     }
 
+    @Override
+    public List<ResourcePolicy> find(Context c, List<? extends DSpaceObject> dsos, int actionId)
+        throws SQLException {
+        // Keep the number of query parameters within the limits of the database
+        List<ResourcePolicy> policies = new ArrayList<>();
+        for (List<? extends DSpaceObject> partition : ListUtils.partition(dsos, MAX_QUERY_OBJECTS)) {
+            policies.addAll(resourcePolicyDAO.findByDSOsAndAction(c, partition, actionId));
+        }
+        return policies;
+    }
+
     @Override
     public List<ResourcePolicy> find(Context c, DSpaceObject o, int actionId, String type) throws SQLException {
         return resourcePolicyDAO.findByDSoAndActionAndType(c, o, actionId, type);
@@ -163,6 +184,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
             //A policy for a DSpace Object has been modified, fire a modify event on the DSpace object
             contentServiceFactory.getDSpaceObjectService(resourcePolicy.getdSpaceObject())
                                  .updateLastModified(context, resourcePolicy.getdSpaceObject());
+            sharedAuthorizationCache.evictPolicies(context, resourcePolicy.getdSpaceObject());
         }
         context.restoreAuthSystemState();
     }
@@ -234,6 +256,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         resourcePolicyDAO.deleteByDso(c, o);
         c.turnOffAuthorisationSystem();
         contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        sharedAuthorizationCache.evictPolicies(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -242,6 +265,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         resourcePolicyDAO.deleteByDsoAndType(c, o, type);
         c.turnOffAuthorisationSystem();
         contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        sharedAuthorizationCache.evictPolicies(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -251,6 +275,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         resourcePolicyDAO.deleteByDsoAndTypeAndAction(c, o, type, action);
         c.turnOffAuthorisationSystem();
         contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        sharedAuthorizationCache.evictPolicies(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -260,6 +285,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         resourcePolicyDAO.deleteByDsoGroupPolicies(context, dso, group);
         context.turnOffAuthorisationSystem();
         contentServiceFactory.getDSpaceObjectService(dso).updateLastModified(context, dso);
+        sharedAuthorizationCache.evictPolicies(context, dso);
         context.restoreAuthSystemState();
     }
 
@@ -269,6 +295,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         resourcePolicyDAO.deleteByDsoEPersonPolicies(context, dso, ePerson);
         context.turnOffAuthorisationSystem();
         contentServiceFactory.getDSpaceObjectService(dso).updateLastModified(context, dso);
+        sharedAuthorizationCache.evictPolicies(context, dso);
         context.restoreAuthSystemState();
 
     }
@@ -276,11 +303,13 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
     @Override
     public void removeAllEPersonPolicies(Context context, EPerson ePerson) throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByEPerson(context, ePerson);
+        sharedAuthorizationCache.evictPolicies(context, null);
     }
 
     @Override
     public void removeGroupPolicies(Context c, Group group) throws SQLException {
         resourcePolicyDAO.deleteByGroup(c, group);
+        sharedAuthorizationCache.evictPolicies(c, null);
     }
 
     @Override
@@ -291,6 +320,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
             resourcePolicyDAO.deleteByDsoAndAction(c, o, actionId);
             c.turnOffAuthorisationSystem();
             contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+            sharedAuthorizationCache.evictPolicies(c, o);
             c.restoreAuthSystemState();
         }
     }
@@ -301,6 +331,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         resourcePolicyDAO.deleteByDsoAndTypeNotEqualsTo(c, o, type);
         c.turnOffAuthorisationSystem();
         contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        sharedAuthorizationCache.evictPolicies(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -340,6 +371,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
             for (DSpaceObject dSpaceObject : relatedDSpaceObjects) {
                 //A policy for a DSpace Object has been modified, fire a modify event on the DSpace object
                 contentServiceFactory.getDSpaceObjectService(dSpaceObject).updateLastModified(context, dSpaceObject);
+                sharedAuthorizationCache.evictPolicies(context, dSpaceObject);
             }
             context.restoreAuthSystemState();
         }
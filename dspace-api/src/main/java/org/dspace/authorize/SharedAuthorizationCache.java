@@ -0,0 +1,223 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Bundle;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.core.Context;
+import org.dspace.core.cache.ConfigurationValue;
+import org.dspace.core.cache.EvictionTracker;
+import org.dspace.eperson.EPerson;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * JVM-wide cache of the authorization decisions made by {@link AuthorizeServiceImpl}, shared by all contexts.
+ * <p>
+ * Unlike the per-context cache of {@link org.dspace.core.ContextReadOnlyCache}, the decisions in this cache are
+ * reused across requests. The cache is keyed by DSpace object, so that all decisions about an object can be
+ * evicted at once. Each entry maps (action, inheritance, EPerson, special groups) to the decision.
+ * <p>
+ * Entries are evicted by the {@link ResourcePolicyServiceImpl} and the
+ * {@link org.dspace.eperson.GroupServiceImpl} when policies or group memberships change, by the
+ * {@link SharedAuthorizationCacheConsumer} when the place of an object in the hierarchy changes, and expire after
+ * the time configured in ehcache.xml, which bounds the staleness of decisions depending on the start or end date of
+ * a policy. As these changes are seen before they are committed to the database, an evicted object is not cached
+ * again until the transaction which changed it ended, and for a short grace period after that
+ * ("authorize.cache.shared.eviction-grace", in milliseconds), see {@link EvictionTracker}.
+ * <p>
+ * The cache is disabled unless "authorize.cache.shared.enabled" is true and the consumer is registered with the
+ * default event dispatcher.
+ */
+public class SharedAuthorizationCache implements InitializingBean {
+
+    // The cache that is managed by this service.
+    static final String CACHE_NAME = "authorization.decisions";
+
+    static final String CONSUMER_NAME = "authorizationcache";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    // Objects which were recently evicted, and must not be cached again yet
+    private final EvictionTracker<UUID> evictions = new EvictionTracker<>(this::getEvictionGrace,
+                                                                          this::getMaxTransactionTime);
+
+    // Whether the cache is enabled, and whether its consumer is configured as well, needed by every get and put
+    private ConfigurationValue<Boolean> configured;
+    private ConfigurationValue<Boolean> enabled;
+
+    @Override
+    public void afterPropertiesSet() {
+        configured = new ConfigurationValue<>(configurationService,
+            config -> config.getBooleanProperty("authorize.cache.shared.enabled", false));
+        enabled = new ConfigurationValue<>(configurationService,
+            config -> config.getBooleanProperty("authorize.cache.shared.enabled", false)
+                && ArrayUtils.contains(config.getArrayProperty("event.dispatcher.default.consumers"),
+                                       CONSUMER_NAME));
+    }
+
+    /**
+     * Return whether the shared cache is enabled. Decisions are only shared between contexts when the consumer which
+     * keeps the cache up to date is configured, and never for a context with uncommitted changes, as its view of
+     * the database may differ from the one of other contexts.
+     *
+     * @param context The relevant DSpace Context.
+     * @return true if decisions made in the given context may be read from or stored in the shared cache
+     */
+    public boolean isEnabled(Context context) {
+        return enabled.get() && !context.hasEvents();
+    }
+
+    /**
+     * Get a cached authorization decision.
+     *
+     * @param context        The relevant DSpace Context.
+     * @param dso            the object the action is attempted on
+     * @param action         the action being attempted
+     * @param eperson        the user attempting the action, null for anonymous
+     * @param useInheritance whether ADMIN rights on the parent objects were considered
+     * @return the cached decision, or null if there is none
+     */
+    public Boolean get(Context context, DSpaceObject dso, int action, EPerson eperson, boolean useInheritance) {
+        if (!isEnabled(context) || evictions.isEvicted(dso.getID())) {
+            return null;
+        }
+        Map<String, Boolean> decisions = getDecisions(dso.getID());
+        return decisions == null ? null : decisions.get(buildKey(context, action, eperson, useInheritance));
+    }
+
+    /**
+     * Store an authorization decision.
+     *
+     * @param context        The relevant DSpace Context.
+     * @param dso            the object the action is attempted on
+     * @param action         the action being attempted
+     * @param eperson        the user attempting the action, null for anonymous
+     * @param useInheritance whether ADMIN rights on the parent objects were considered
+     * @param result         the decision
+     */
+    public void put(Context context, DSpaceObject dso, int action, EPerson eperson, boolean useInheritance,
+                    boolean result) {
+        if (!isEnabled(context) || evictions.isEvicted(dso.getID())) {
+            return;
+        }
+        // The stored maps are never modified, so that readers never see a map which is being updated
+        Map<String, Boolean> decisions = getDecisions(dso.getID());
+        Map<String, Boolean> updated = decisions == null ? new HashMap<>() : new HashMap<>(decisions);
+        updated.put(buildKey(context, action, eperson, useInheritance), result);
+        getCache().put(dso.getID(), Collections.unmodifiableMap(updated));
+    }
+
+    /**
+     * Remove all cached decisions about the given objects, now and once the transaction of the context ended.
+     *
+     * @param context The relevant DSpace Context, or null if the changes are already committed.
+     * @param dsoIds  the UUIDs of the objects
+     */
+    public void evict(Context context, Collection<UUID> dsoIds) {
+        evictions.evict(context, dsoIds, dsoId -> getCache().evictIfPresent(dsoId));
+    }
+
+    /**
+     * Remove all cached decisions, now and once the transaction of the context ended.
+     *
+     * @param context The relevant DSpace Context, or null if the changes are already committed.
+     */
+    public void evictAll(Context context) {
+        evictions.evictAll(context, () -> getCache().invalidate());
+    }
+
+    /**
+     * Remove the cached decisions which may depend on the policies of an object, once they changed. Policies of
+     * items, bundles and bitstreams evict the decisions about the object and its content, as ADMIN rights are
+     * inherited by the content. Policies of other objects (site, communities, collections, groups) may be inherited
+     * by any number of objects, and evict all decisions.
+     *
+     * @param context The relevant DSpace Context.
+     * @param dso     the object whose policies changed, or null if the policies of any object may be affected,
+     *                e.g. by a change of group memberships
+     */
+    public void evictPolicies(Context context, DSpaceObject dso) {
+        if (!configured.get()) {
+            return;
+        }
+        if (dso instanceof Item || dso instanceof Bundle || dso instanceof Bitstream) {
+            Set<UUID> dsoIds = new HashSet<>();
+            addContent(dso, dsoIds);
+            evict(context, dsoIds);
+        } else {
+            evictAll(context);
+        }
+    }
+
+    /**
+     * Add the UUIDs of an object and of its content: the bundles and bitstreams of an item, or the bitstreams of a
+     * bundle.
+     *
+     * @param dso    the object
+     * @param dsoIds the UUIDs to add to
+     */
+    void addContent(DSpaceObject dso, Set<UUID> dsoIds) {
+        dsoIds.add(dso.getID());
+        if (dso instanceof Item) {
+            for (Bundle bundle : ((Item) dso).getBundles()) {
+                addContent(bundle, dsoIds);
+            }
+        } else if (dso instanceof Bundle) {
+            for (Bitstream bitstream : ((Bundle) dso).getBitstreams()) {
+                dsoIds.add(bitstream.getID());
+            }
+        }
+    }
+
+    private long getEvictionGrace() {
+        return configurationService.getLongProperty("authorize.cache.shared.eviction-grace", 10000L);
+    }
+
+    private long getMaxTransactionTime() {
+        return configurationService.getLongProperty("cache.eviction.max-transaction-time", 3600000L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Boolean> getDecisions(UUID dsoId) {
+        return getCache().get(dsoId, Map.class);
+    }
+
+    private String buildKey(Context context, int action, EPerson eperson, boolean useInheritance) {
+        // Special groups (e.g. from IP or LDAP authentication) are part of the key, as they depend on the request
+        String specialGroups = context.getSpecialGroupUuids().stream()
+                                      .map(UUID::toString)
+                                      .sorted()
+                                      .collect(Collectors.joining(","));
+        return action + ":" + useInheritance + ":" + (eperson == null ? "" : eperson.getID()) + ":" + specialGroups;
+    }
+
+    private Cache getCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+import org.dspace.utils.DSpace;
+
+/**
+ * Consumer which evicts the decisions of the {@link SharedAuthorizationCache} that may have been invalidated by
+ * the events of a context.
+ * <p>
+ * Changes to policies and group memberships are evicted directly by the services which make them, see
+ * {@link SharedAuthorizationCache#evictPolicies}, as not every object fires an event when its policies change.
+ * This consumer evicts the decisions depending on the place of an object in the hierarchy, and those about deleted
+ * objects. Decisions about items, bundles and bitstreams are evicted individually, whereas changes to groups,
+ * communities and collections (whose policies may be inherited by any number of objects) evict all decisions.
+ */
+public class SharedAuthorizationCacheConsumer implements Consumer {
+
+    private static final Logger log = LogManager.getLogger(SharedAuthorizationCacheConsumer.class);
+
+    protected ItemService itemService;
+
+    protected SharedAuthorizationCache sharedAuthorizationCache;
+
+    private final Set<UUID> objectsToEvict = new HashSet<>();
+
+    private boolean evictAll = false;
+
+    @Override
+    public void initialize() throws Exception {
+        itemService = ContentServiceFactory.getInstance().getItemService();
+        sharedAuthorizationCache = new DSpace().getServiceManager()
+            .getServiceByName(SharedAuthorizationCache.class.getName(), SharedAuthorizationCache.class);
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        if (evictAll) {
+            return;
+        }
+        int subjectType = event.getSubjectType();
+        int eventType = event.getEventType();
+
+        switch (subjectType) {
+            case Constants.GROUP:
+                evictAll = true;
+                break;
+            case Constants.SITE:
+            case Constants.COMMUNITY:
+            case Constants.COLLECTION:
+                if ((eventType == Event.ADD || eventType == Event.REMOVE)
+                    && event.getObjectType() == Constants.ITEM) {
+                    // An item was mapped to or unmapped from a collection
+                    addItem(ctx, event.getObjectID());
+                } else if (eventType != Event.CREATE) {
+                    evictAll = true;
+                }
+                break;
+            case Constants.ITEM:
+                addItem(ctx, event.getSubjectID());
+                addObject(event.getObjectID());
+                break;
+            case Constants.BUNDLE:
+            case Constants.BITSTREAM:
+                addObject(event.getSubjectID());
+                addObject(event.getObjectID());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (sharedAuthorizationCache != null) {
+            if (evictAll) {
+                log.debug("Evicting all shared authorization decisions");
+                sharedAuthorizationCache.evictAll(ctx);
+            } else {
+                sharedAuthorizationCache.evict(ctx, objectsToEvict);
+            }
+        }
+        objectsToEvict.clear();
+        evictAll = false;
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+        // No-op
+    }
+
+    /**
+     * Evict an item and its bundles and bitstreams, as ADMIN rights on the item are inherited by its content.
+     */
+    private void addItem(Context ctx, UUID itemId) throws SQLException {
+        addObject(itemId);
+        Item item = itemId == null ? null : itemService.find(ctx, itemId);
+        if (item != null && sharedAuthorizationCache != null) {
+            sharedAuthorizationCache.addContent(item, objectsToEvict);
+        }
+    }
+
+    private void addObject(UUID id) {
+        if (id != null) {
+            objectsToEvict.add(id);
+        }
+    }
+}
@@ -39,6 +39,18 @@ public interface ResourcePolicyDAO extends GenericDAO<ResourcePolicy> {
 
     public List<ResourcePolicy> findByDSoAndAction(Context context, DSpaceObject dso, int actionId) throws SQLException;
 
+    /**
+     * Find the policies of all given DSpace objects for the given action, with a single query.
+     *
+     * @param context  DSpace context object
+     * @param dsos     the DSpace objects
+     * @param actionId the action
+     * @return the policies of all given objects for the action
+     * @throws SQLException if a database error occurs during the query
+     */
+    public List<ResourcePolicy> findByDSOsAndAction(Context context, List<? extends DSpaceObject> dsos, int actionId)
+        throws SQLException;
+
     public void deleteByDsoAndTypeAndAction(Context context, DSpaceObject dSpaceObject, String type, int action)
         throws SQLException;
 
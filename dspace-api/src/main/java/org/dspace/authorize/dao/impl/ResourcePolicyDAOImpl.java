@@ -106,6 +106,24 @@ public class ResourcePolicyDAOImpl extends AbstractHibernateDAO<ResourcePolicy>
         return list(context, criteriaQuery, false, ResourcePolicy.class, -1, -1);
     }
 
+    @Override
+    public List<ResourcePolicy> findByDSOsAndAction(Context context, List<? extends DSpaceObject> dsos, int actionId)
+        throws SQLException {
+        if (CollectionUtils.isEmpty(dsos)) {
+            return Collections.emptyList();
+        }
+        CriteriaBuilder criteriaBuilder = getCriteriaBuilder(context);
+        CriteriaQuery criteriaQuery = getCriteriaQuery(criteriaBuilder, ResourcePolicy.class);
+        Root<ResourcePolicy> resourcePolicyRoot = criteriaQuery.from(ResourcePolicy.class);
+        criteriaQuery.select(resourcePolicyRoot);
+        criteriaQuery
+            .where(criteriaBuilder.and(resourcePolicyRoot.get(ResourcePolicy_.dSpaceObject).in(dsos),
+                                       criteriaBuilder.equal(resourcePolicyRoot.get(ResourcePolicy_.actionId), actionId)
+                   )
+        );
+        return list(context, criteriaQuery, false, ResourcePolicy.class, -1, -1);
+    }
+
     @Override
     public List<ResourcePolicy> findByDSoAndActionAndType(Context context, DSpaceObject dso, int actionId, String type)
         throws SQLException {
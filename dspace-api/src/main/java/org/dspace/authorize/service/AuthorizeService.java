@@ -10,6 +10,8 @@ package org.dspace.authorize.service;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.authorize.ResourcePolicy;
@@ -132,6 +134,42 @@ public interface AuthorizeService {
      */
     public boolean authorizeActionBoolean(Context c, DSpaceObject o, int a, boolean useInheritance) throws SQLException;
 
+    /**
+     * same authorize for a number of objects at once. The policies of all
+     * objects and the groups of the current user are loaded with a constant
+     * number of queries, instead of once per object.
+     *
+     * @param c       DSpace context, containing current user
+     * @param objects the DSpaceObjects to check
+     * @param a       action being attempted, from
+     *                <code>org.dspace.core.Constants</code>
+     * @return for the UUID of each object (in the order of the given objects),
+     * whether the current user in the context is authorized to perform the
+     * given action on it
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    public Map<UUID, Boolean> authorizeActionBoolean(Context c, java.util.Collection<? extends DSpaceObject> objects,
+                                                     int a) throws SQLException;
+
+    /**
+     * same authorize for a number of objects at once. The policies of all
+     * objects and the groups of the current user are loaded with a constant
+     * number of queries, instead of once per object.
+     *
+     * @param c              DSpace context, containing current user
+     * @param objects        the DSpaceObjects to check
+     * @param a              action being attempted, from
+     *                       <code>org.dspace.core.Constants</code>
+     * @param useInheritance flag to say if ADMIN action on the current object or parent
+     *                       object can be used
+     * @return for the UUID of each object (in the order of the given objects),
+     * whether the current user in the context is authorized to perform the
+     * given action on it
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    public Map<UUID, Boolean> authorizeActionBoolean(Context c, java.util.Collection<? extends DSpaceObject> objects,
+                                                     int a, boolean useInheritance) throws SQLException;
+
     /**
      * same authorize with a specific eperson (not the current user), returns boolean for those who don't want to deal
      * with
@@ -61,6 +61,17 @@ public interface ResourcePolicyService {
 
     public List<ResourcePolicy> find(Context c, DSpaceObject o, int actionId) throws SQLException;
 
+    /**
+     * Find the policies of all given DSpace objects for the given action.
+     *
+     * @param c        DSpace context object
+     * @param dsos     the DSpace objects
+     * @param actionId the action
+     * @return the policies of all given objects for the action
+     * @throws SQLException if database error
+     */
+    public List<ResourcePolicy> find(Context c, List<? extends DSpaceObject> dsos, int actionId) throws SQLException;
+
     /**
      * Retrieves all resource policies for a specific DSpace object filtered by action and policy type.
      * <p>
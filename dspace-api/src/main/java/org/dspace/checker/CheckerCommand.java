@@ -10,8 +10,21 @@ package org.dspace.checker;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.RateLimiter;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.logging.log4j.Logger;
 import org.dspace.checker.factory.CheckerServiceFactory;
@@ -20,6 +33,8 @@ import org.dspace.checker.service.ChecksumResultService;
 import org.dspace.checker.service.MostRecentChecksumService;
 import org.dspace.content.Bitstream;
 import org.dspace.core.Context;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.storage.bitstore.factory.StorageServiceFactory;
 import org.dspace.storage.bitstore.service.BitstreamStorageService;
 
@@ -30,6 +45,14 @@ import org.dspace.storage.bitstore.service.BitstreamStorageService;
  * against the last calculated checksum for that bitstream.
  * </p>
  *
+ * <p>
+ * By default the bitstreams are checked one at a time, and every result is
+ * committed on its own. When more than one thread or a maximum read rate is
+ * configured, the checksums are computed by a pool of worker threads while
+ * the results are recorded by the calling thread, and committed in batches.
+ * The read rate is shared by all worker threads.
+ * </p>
+ *
  * @author Jim Downing
  * @author Grace Carpenter
  * @author Nathan Sarr
@@ -78,6 +101,26 @@ public final class CheckerCommand {
      */
     private boolean reportVerbose = false;
 
+    /**
+     * Number of worker threads computing checksums
+     */
+    private int threads;
+
+    /**
+     * Maximum number of bytes per second read by all worker threads, or 0 for no limit
+     */
+    private long maxBytesPerSecond;
+
+    /**
+     * Number of results recorded per commit when using worker threads
+     */
+    private int batchSize;
+
+    /**
+     * Amount of data read from each asset store, by store number
+     */
+    private final SortedMap<Integer, StoreThroughput> throughput = new TreeMap<>();
+
     /**
      * Default constructor uses DSpace plugin manager to construct dependencies.
      *
@@ -88,6 +131,10 @@ public final class CheckerCommand {
         checksumHistoryService = CheckerServiceFactory.getInstance().getChecksumHistoryService();
         bitstreamStorageService = StorageServiceFactory.getInstance().getBitstreamStorageService();
         checksumResultService = CheckerServiceFactory.getInstance().getChecksumResultService();
+        ConfigurationService configurationService = DSpaceServicesFactory.getInstance().getConfigurationService();
+        threads = configurationService.getIntProperty("checker.threads", 1);
+        maxBytesPerSecond = configurationService.getLongProperty("checker.max-rate", 0) * 1024 * 1024;
+        batchSize = configurationService.getIntProperty("checker.batch-size", 100);
         this.context = context;
     }
 
@@ -120,19 +167,99 @@ public final class CheckerCommand {
         // bitstream table - this always done.
         checksumService.updateMissingBitstreams(context);
 
-        Bitstream bitstream = dispatcher.next();
+        long start = System.nanoTime();
+        if (threads > 1 || maxBytesPerSecond > 0) {
+            processConcurrently();
+        } else {
+            Bitstream bitstream = dispatcher.next();
 
-        while (bitstream != null) {
-            LOG.debug("Processing bitstream id = " + bitstream.getID());
-            MostRecentChecksum info = checkBitstream(bitstream);
+            while (bitstream != null) {
+                LOG.debug("Processing bitstream id = " + bitstream.getID());
+                MostRecentChecksum info = checkBitstream(bitstream);
+                collect(info);
 
-            if (reportVerbose
-                || !ChecksumResultCode.CHECKSUM_MATCH.equals(info.getChecksumResult().getResultCode())) {
-                collector.collect(context, info);
+                context.commit();
+                bitstream = dispatcher.next();
             }
+        }
+        logThroughput(System.nanoTime() - start);
+    }
 
-            context.commit();
-            bitstream = dispatcher.next();
+    /**
+     * Check the bitstreams from the dispatcher, computing their checksums on
+     * worker threads. The database is only accessed by the calling thread, as
+     * the context is not thread safe: bitstreams are taken from the dispatcher
+     * and results are recorded in the order in which the bitstreams were
+     * dispatched. A batch is only committed once all of its checksums have been
+     * recorded, so an interrupted run loses at most one batch of results.
+     *
+     * @throws SQLException if database error
+     */
+    protected void processConcurrently() throws SQLException {
+        RateLimiter rateLimiter = maxBytesPerSecond > 0 ? RateLimiter.create(maxBytesPerSecond) : null;
+        int workers = Math.max(1, threads);
+        int batch = Math.max(1, batchSize);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Deque<PendingChecksum> pending = new ArrayDeque<>();
+        Set<UUID> inProgress = new HashSet<>();
+        int uncommitted = 0;
+
+        try {
+            Bitstream bitstream = dispatcher.next();
+
+            while (bitstream != null || !pending.isEmpty()) {
+                // Keep the workers busy, unless the batch is complete or the
+                // dispatcher returns a bitstream which is still being checked
+                while (bitstream != null && uncommitted + pending.size() < batch
+                    && pending.size() < 2 * workers && !inProgress.contains(bitstream.getID())) {
+                    LOG.debug("Processing bitstream id = " + bitstream.getID());
+                    MostRecentChecksum info = checksumService.findByBitstream(context, bitstream);
+                    if (info != null && info.isToBeProcessed() && !info.getBitstream().isDeleted()) {
+                        // Mark the bitstream as checked now, so that the dispatcher (which orders the
+                        // bitstreams by their last check, and flushes this change before querying) does not
+                        // return it again while it is still being checked
+                        Instant now = Instant.now();
+                        info.setProcessStartDate(now);
+                        info.setProcessEndDate(now);
+                        Bitstream toCheck = info.getBitstream();
+                        pending.add(new PendingChecksum(info,
+                            executor.submit(() -> computeChecksum(toCheck, rateLimiter))));
+                        inProgress.add(toCheck.getID());
+                    } else {
+                        collect(checkBitstream(bitstream));
+                        uncommitted++;
+                    }
+                    bitstream = dispatcher.next();
+                }
+
+                if (!pending.isEmpty()) {
+                    PendingChecksum next = pending.poll();
+                    recordChecksum(next.info, next.checksum);
+                    inProgress.remove(next.info.getBitstream().getID());
+                    collect(next.info);
+                    uncommitted++;
+                }
+
+                if (pending.isEmpty() && (uncommitted >= batch || bitstream == null)) {
+                    context.commit();
+                    uncommitted = 0;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Pass the result of a check to the collector, if it should be reported.
+     *
+     * @param info the checked bitstream
+     * @throws SQLException if database error
+     */
+    protected void collect(MostRecentChecksum info) throws SQLException {
+        if (reportVerbose
+            || !ChecksumResultCode.CHECKSUM_MATCH.equals(info.getChecksumResult().getResultCode())) {
+            collector.collect(context, info);
         }
     }
 
@@ -245,8 +372,11 @@ public final class CheckerCommand {
         info.setProcessStartDate(Instant.now());
 
         try {
+            long start = System.nanoTime();
             Map<String, Object> checksumMap = bitstreamStorageService.computeChecksum(context, info.getBitstream());
             if (MapUtils.isNotEmpty(checksumMap)) {
+                getThroughput(info.getBitstream().getStoreNumber())
+                    .add(info.getBitstream().getSizeBytes(), System.nanoTime() - start);
                 info.setBitstreamFound(true);
                 if (checksumMap.containsKey("checksum")) {
                     info.setCurrentChecksum(checksumMap.get("checksum").toString());
@@ -287,6 +417,109 @@ public final class CheckerCommand {
         }
     }
 
+    /**
+     * Compute the checksum of a bitstream with its asset store, as
+     * {@link #processBitstream(MostRecentChecksum)} does. This method runs on a
+     * worker thread, and does not use the database.
+     *
+     * @param bitstream   the bitstream, which must have been loaded by the calling thread
+     * @param rateLimiter limits the number of bytes read by all worker threads, or null. As the store
+     *                    reads the bitstream itself, its whole size is acquired before it is read.
+     * @return the checksum and its algorithm, empty if the store did not find the bitstream
+     * @throws IOException if the bitstream cannot be read
+     */
+    protected Map<String, Object> computeChecksum(Bitstream bitstream, RateLimiter rateLimiter)
+        throws IOException {
+        if (rateLimiter != null) {
+            for (long remaining = bitstream.getSizeBytes(); remaining > 0; remaining -= Integer.MAX_VALUE) {
+                rateLimiter.acquire((int) Math.min(remaining, Integer.MAX_VALUE));
+            }
+        }
+        long start = System.nanoTime();
+        Map<String, Object> checksumMap = bitstreamStorageService.computeChecksum(context, bitstream);
+        if (MapUtils.isNotEmpty(checksumMap)) {
+            getThroughput(bitstream.getStoreNumber()).add(bitstream.getSizeBytes(), System.nanoTime() - start);
+        }
+        return checksumMap;
+    }
+
+    /**
+     * Record the checksum computed by a worker thread, as
+     * {@link #processBitstream(MostRecentChecksum)} does.
+     *
+     * @param info     the bitstream being checked
+     * @param checksum the computation of its checksum
+     * @throws SQLException if database error
+     */
+    protected void recordChecksum(MostRecentChecksum info, Future<Map<String, Object>> checksum)
+        throws SQLException {
+        try {
+            Map<String, Object> checksumMap = checksum.get();
+            if (MapUtils.isNotEmpty(checksumMap)) {
+                info.setBitstreamFound(true);
+                if (checksumMap.containsKey("checksum")) {
+                    info.setCurrentChecksum(checksumMap.get("checksum").toString());
+                }
+
+                if (checksumMap.containsKey("checksum_algorithm")) {
+                    info.setChecksumAlgorithm(checksumMap.get("checksum_algorithm").toString());
+                }
+
+                // compare new checksum to previous checksum
+                info.setChecksumResult(compareChecksums(info.getExpectedChecksum(), info.getCurrentChecksum()));
+            } else {
+                info.setCurrentChecksum("");
+                info.setChecksumResult(getChecksumResultByCode(ChecksumResultCode.BITSTREAM_NOT_FOUND));
+                info.setToBeProcessed(false);
+            }
+        } catch (ExecutionException e) {
+            // bitstream located, but file missing from asset store
+            info.setCurrentChecksum("");
+            info.setChecksumResult(getChecksumResultByCode(ChecksumResultCode.BITSTREAM_NOT_FOUND));
+            info.setToBeProcessed(false);
+            LOG.error("Error retrieving bitstream ID " + info.getBitstream().getID()
+                          + " from " + "asset store.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking bitstream ID "
+                                                + info.getBitstream().getID(), e);
+        } finally {
+            info.setProcessEndDate(Instant.now());
+
+            // record new checksum and comparison result in db
+            checksumService.update(context, info);
+            checksumHistoryService.addHistory(context, info);
+        }
+    }
+
+    /**
+     * Log the amount of data read from each asset store.
+     *
+     * @param elapsed the duration of the run, in nanoseconds
+     */
+    protected void logThroughput(long elapsed) {
+        for (Map.Entry<Integer, StoreThroughput> entry : getThroughput().entrySet()) {
+            LOG.info("Asset store " + entry.getKey() + ": " + entry.getValue().getSummary(elapsed));
+        }
+    }
+
+    /**
+     * Get the amount of data read from each asset store during this run.
+     *
+     * @return the throughput by asset store number
+     */
+    public SortedMap<Integer, StoreThroughput> getThroughput() {
+        synchronized (throughput) {
+            return new TreeMap<>(throughput);
+        }
+    }
+
+    protected StoreThroughput getThroughput(int storeNumber) {
+        synchronized (throughput) {
+            return throughput.computeIfAbsent(storeNumber, number -> new StoreThroughput());
+        }
+    }
+
     protected ChecksumResult getChecksumResultByCode(ChecksumResultCode checksumResultCode) throws SQLException {
         return checksumResultService.findByCode(context, checksumResultCode);
     }
@@ -362,4 +595,115 @@ public final class CheckerCommand {
     public void setReportVerbose(boolean reportVerbose) {
         this.reportVerbose = reportVerbose;
     }
+
+    /**
+     * Get the number of worker threads computing checksums.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of worker threads computing checksums. With a single
+     * thread and no maximum read rate, the bitstreams are checked by the
+     * calling thread.
+     *
+     * @param threads the number of threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the maximum number of bytes per second read by all worker threads.
+     *
+     * @return the maximum read rate, or 0 for no limit
+     */
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    /**
+     * Set the maximum number of bytes per second read by all worker threads.
+     *
+     * @param maxBytesPerSecond the maximum read rate, or 0 for no limit
+     */
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+
+    /**
+     * Get the number of results recorded per commit when using worker threads.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of results recorded per commit when using worker threads.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * A bitstream whose checksum is being computed by a worker thread.
+     */
+    private static class PendingChecksum {
+        private final MostRecentChecksum info;
+        private final Future<Map<String, Object>> checksum;
+
+        PendingChecksum(MostRecentChecksum info, Future<Map<String, Object>> checksum) {
+            this.info = info;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Amount of data read from an asset store, and the time spent reading it.
+     */
+    public static class StoreThroughput {
+        private final AtomicLong bitstreams = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        protected void add(long bytes, long nanos) {
+            this.bitstreams.incrementAndGet();
+            this.bytes.addAndGet(bytes);
+            this.nanos.addAndGet(nanos);
+        }
+
+        public long getBitstreams() {
+            return bitstreams.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        /**
+         * @return the time spent reading, summed over all threads, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos.get();
+        }
+
+        /**
+         * Describe the throughput over a run of the checker.
+         *
+         * @param elapsed the duration of the run, in nanoseconds
+         * @return a description of the throughput
+         */
+        public String getSummary(long elapsed) {
+            double megabytes = getBytes() / (1024.0 * 1024.0);
+            return String.format("%d bitstreams, %.1f MB in %.1f s (%.1f MB/s)", getBitstreams(), megabytes,
+                                 elapsed / 1e9, elapsed > 0 ? megabytes * 1e9 / elapsed : 0.0);
+        }
+    }
 }
@@ -844,9 +844,9 @@ public class CollectionServiceImpl extends DSpaceObjectServiceImpl<Collection> i
         }
 
         // now build a list of collections you have authorization for
+        Map<UUID, Boolean> authorized = authorizeService.authorizeActionBoolean(context, myCollections, actionID);
         for (Collection myCollection : myCollections) {
-            if (authorizeService.authorizeActionBoolean(context,
-                                                        myCollection, actionID)) {
+            if (authorized.getOrDefault(myCollection.getID(), false)) {
                 myResults.add(myCollection);
             }
         }
@@ -67,6 +67,13 @@ public abstract class DSpaceObject implements Serializable, ReloadableEntity<jav
     @OrderBy("metadataField, place")
     private List<MetadataValue> metadata = new ArrayList<>();
 
+    /**
+     * Index of {@link #metadata} by metadata field, built on the first lookup
+     * and dropped whenever the metadata is modified.
+     */
+    @Transient
+    private transient MetadataValueIndex metadataIndex;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "dso")
     // OrderBy is here to ensure that the oldest handle is retrieved first.
     // Multiple handles are assigned to the latest version of an item.
@@ -220,6 +227,18 @@ public abstract class DSpaceObject implements Serializable, ReloadableEntity<jav
 
     public void setMetadata(List<MetadataValue> metadata) {
         this.metadata = metadata;
+        this.metadataIndex = null;
+    }
+
+    /**
+     * @return the index of the metadata values by metadata field
+     */
+    MetadataValueIndex getMetadataIndex() {
+        List<MetadataValue> values = getMetadata();
+        if (metadataIndex == null || metadataIndex.isStale(values)) {
+            metadataIndex = new MetadataValueIndex(values);
+        }
+        return metadataIndex;
     }
 
     protected void removeMetadata(MetadataValue metadataValue) {
@@ -249,6 +268,7 @@ public abstract class DSpaceObject implements Serializable, ReloadableEntity<jav
 
     protected void setMetadataModified() {
         this.modifiedMetadata = true;
+        this.metadataIndex = null;
     }
 
     public boolean isModified() {
@@ -47,6 +47,7 @@ import org.dspace.authorize.ResourcePolicy;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.authorize.service.ResourcePolicyService;
 import org.dspace.content.authority.Choices;
+import org.dspace.content.dao.BundleDAO;
 import org.dspace.content.dao.ItemDAO;
 import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.BitstreamFormatService;
@@ -122,6 +123,8 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
 
     @Autowired(required = true)
     protected ItemDAO itemDAO;
+    @Autowired(required = true)
+    protected BundleDAO bundleDAO;
 
     @Autowired(required = true)
     protected CommunityService communityService;
@@ -366,6 +369,11 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return itemDAO.findAll(context, true, limit, offset);
     }
 
+    @Override
+    public List<Item> findByIds(Context context, List<UUID> ids) throws SQLException {
+        return itemDAO.findAllByIds(context, ids);
+    }
+
     @Override
     public Iterator<Item> findAllUnfiltered(Context context) throws SQLException {
         return itemDAO.findAll(context, true, true);
@@ -376,6 +384,12 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return itemDAO.findAllRegularItems(context);
     }
 
+    @Override
+    public Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound)
+        throws SQLException {
+        return itemDAO.findAllRegularItems(context, lowerBound, upperBound);
+    }
+
     @Override
     public Iterator<Item> findBySubmitter(Context context, EPerson eperson) throws SQLException {
         return itemDAO.findBySubmitter(context, eperson);
@@ -1900,21 +1914,13 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         if (item.isModifiedMetadataCache()) {
             log.debug("Called getMetadata for " + item.getID() + " with invalid cache");
             //rebuild cache
-            List<MetadataValue> dbMetadataValues = item.getMetadata();
-
-            List<MetadataValue> fullMetadataValueList = new LinkedList<>();
-            if (configurationService.getBooleanProperty("relationship.enable-virtual-metadata", true)) {
-                fullMetadataValueList.addAll(relationshipMetadataService.getRelationshipMetadata(item, true));
-            }
-            fullMetadataValueList.addAll(dbMetadataValues);
-
-            item.setCachedMetadata(MetadataValueComparators.sort(fullMetadataValueList));
+            cacheMetadata(item, relationshipMetadataService.getRelationshipMetadata(item, true));
         }
 
         log.debug("Called getMetadata for " + item.getID() + " based on cache");
         // Build up list of matching values based on the cache
         List<MetadataValue> values = new ArrayList<>();
-        for (MetadataValue dcv : item.getCachedMetadata()) {
+        for (MetadataValue dcv : item.getCachedMetadataIndex().getCandidates(schema, element, qualifier)) {
             if (match(schema, element, qualifier, dcv)) {
                 values.add(dcv);
             }
@@ -1926,6 +1932,54 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return values;
     }
 
+    @Override
+    public void prefetchVirtualMetadata(Context context, List<Item> items) throws SQLException {
+        if (!configurationService.getBooleanProperty("relationship.enable-virtual-metadata", true)) {
+            return;
+        }
+        List<Item> itemsToLoad = items.stream()
+                                      .filter(Item::isModifiedMetadataCache)
+                                      .collect(Collectors.toList());
+        if (itemsToLoad.isEmpty()) {
+            return;
+        }
+        Map<UUID, List<RelationshipMetadataValue>> virtualMetadata =
+            relationshipMetadataService.getRelationshipMetadata(context, itemsToLoad, true);
+        for (Item item : itemsToLoad) {
+            cacheMetadata(item, virtualMetadata.getOrDefault(item.getID(), Collections.emptyList()));
+        }
+    }
+
+    @Override
+    public void prefetch(Context context, List<Item> items, boolean bundles, boolean owningCollections)
+        throws SQLException {
+        List<UUID> ids = items.stream()
+                              .map(Item::getID)
+                              .distinct()
+                              .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        // The queries fetch the associations into the items of the session, the results themselves aren't needed
+        itemDAO.findAllByIds(context, ids);
+        if (bundles) {
+            itemDAO.findAllWithBundlesByIds(context, ids);
+            bundleDAO.findAllWithBitstreamsByItemIds(context, ids);
+        }
+        if (owningCollections) {
+            itemDAO.findAllWithOwningCollectionByIds(context, ids);
+        }
+    }
+
+    /**
+     * Cache the metadata of the item together with its virtual metadata, in the default order.
+     */
+    private void cacheMetadata(Item item, List<RelationshipMetadataValue> virtualMetadata) {
+        List<MetadataValue> fullMetadataValueList = new LinkedList<>(virtualMetadata);
+        fullMetadataValueList.addAll(item.getMetadata());
+        item.setCachedMetadata(MetadataValueComparators.sort(fullMetadataValueList));
+    }
+
     @Override
     public String getEntityType(Item item) {
         return getMetadataFirstValue(item, new MetadataFieldName("dspace.entity.type"), Item.ANY);
@@ -7,6 +7,8 @@
  */
 package org.dspace.content;
 
+import java.util.Objects;
+
 import jakarta.annotation.Nullable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -176,7 +178,12 @@ public class MetadataValue implements ReloadableEntity<Integer> {
     }
 
     public void setMetadataField(MetadataField metadataField) {
+        boolean changed = !Objects.equals(this.metadataField, metadataField);
         this.metadataField = metadataField;
+        if (changed && dSpaceObject != null) {
+            // the metadata of the object is indexed by field
+            dSpaceObject.setMetadataModified();
+        }
     }
 
     /**
@@ -0,0 +1,100 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Index of the metadata values of a {@link DSpaceObject} by metadata field, so that looking up the values of a
+ * field only goes through the values of that field instead of all the values of the object.
+ * <p>
+ * The values are grouped by the id of their metadata field, by schema and element (for any qualifier) and by element
+ * (for any schema), each group keeping the order of the indexed list. A lookup returns the group that can contain
+ * the requested values, which callers still match against the requested field and language.
+ * <p>
+ * The index is built from a snapshot of the list: the owning object drops it whenever its metadata is modified, and
+ * it is {@link #isStale(List) stale} if the list was replaced or changed size behind the owner's back (e.g. when
+ * Hibernate initializes the collection).
+ */
+class MetadataValueIndex {
+
+    private final List<MetadataValue> values;
+    private final int size;
+
+    // false if a value has no metadata field or schema, in which case all values are candidates
+    private boolean complete = true;
+
+    private final Map<String, Integer> fieldIds = new HashMap<>();
+    private final Map<Integer, List<MetadataValue>> byField = new HashMap<>();
+    private final Map<String, List<MetadataValue>> bySchemaElement = new HashMap<>();
+    private final Map<String, List<MetadataValue>> byElement = new HashMap<>();
+
+    /**
+     * @param values the metadata values to index
+     */
+    MetadataValueIndex(List<MetadataValue> values) {
+        this.values = values;
+        this.size = values.size();
+        for (MetadataValue value : values) {
+            MetadataField field = value.getMetadataField();
+            if (field == null || field.getMetadataSchema() == null) {
+                complete = false;
+                continue;
+            }
+            String schemaElement = field.getMetadataSchema().getName() + "." + field.getElement();
+            fieldIds.putIfAbsent(key(schemaElement, field.getQualifier()), field.getID());
+            byField.computeIfAbsent(field.getID(), id -> new ArrayList<>()).add(value);
+            bySchemaElement.computeIfAbsent(schemaElement, key -> new ArrayList<>()).add(value);
+            byElement.computeIfAbsent(field.getElement(), key -> new ArrayList<>()).add(value);
+        }
+    }
+
+    /**
+     * @param values the current metadata values of the object
+     * @return true if the index wasn't built from these values
+     */
+    boolean isStale(List<MetadataValue> values) {
+        return this.values != values || size != values.size();
+    }
+
+    /**
+     * Get the values which may be in the given field, in the order of the indexed list. The arguments have the same
+     * meaning as for {@link org.dspace.content.service.DSpaceObjectService#getMetadata(DSpaceObject, String, String,
+     * String, String)}.
+     *
+     * @param schema    the schema name, or {@link Item#ANY}
+     * @param element   the element, or {@link Item#ANY}
+     * @param qualifier the qualifier, blank for unqualified values, or {@link Item#ANY}
+     * @return a superset of the values in the field, not to be modified
+     */
+    List<MetadataValue> getCandidates(String schema, String element, String qualifier) {
+        if (!complete || Item.ANY.equals(element)) {
+            return values;
+        }
+        List<MetadataValue> candidates;
+        if (Item.ANY.equals(schema)) {
+            candidates = byElement.get(element);
+        } else if (Item.ANY.equals(qualifier)) {
+            candidates = bySchemaElement.get(schema + "." + element);
+        } else {
+            Integer fieldId = fieldIds.get(key(schema + "." + element, qualifier));
+            candidates = fieldId == null ? null : byField.get(fieldId);
+        }
+        return candidates == null ? Collections.emptyList() : candidates;
+    }
+
+    private static String key(String schemaElement, String qualifier) {
+        return StringUtils.isBlank(qualifier) ? schemaElement : schemaElement + "." + qualifier;
+    }
+}
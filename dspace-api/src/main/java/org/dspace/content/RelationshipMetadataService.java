@@ -9,6 +9,8 @@ package org.dspace.content;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.dspace.content.virtual.VirtualMetadataPopulator;
 import org.dspace.core.Context;
@@ -30,6 +32,22 @@ public interface RelationshipMetadataService {
      */
     public List<RelationshipMetadataValue> getRelationshipMetadata(Item item, boolean enableVirtualMetadata);
 
+    /**
+     * This method retrieves the virtual metadata of several Items, as {@link #getRelationshipMetadata(Item, boolean)}
+     * would for each of them, but loads the Relationships of all the Items with a single query
+     * @param context               The relevant DSpace context
+     * @param items                 The Items that will be processed through their Relationships
+     * @param enableVirtualMetadata This parameter will determine whether the list of Relationship metadata
+     *                              should be populated with metadata that is being generated through the
+     *                              VirtualMetadataPopulator functionality or not
+     * @return                      The list of MetadataValue objects constructed through the Relationships,
+     *                              by Item UUID
+     * @throws SQLException         If something goes wrong
+     */
+    public Map<UUID, List<RelationshipMetadataValue>> getRelationshipMetadata(Context context, List<Item> items,
+                                                                              boolean enableVirtualMetadata)
+        throws SQLException;
+
     /**
      * Retrieves the list of RelationshipMetadataValue objects specific to only one Relationship of the item.
      *
@@ -11,11 +11,13 @@ import static org.dspace.content.RelationshipType.Tilted.LEFT;
 import static org.dspace.content.RelationshipType.Tilted.RIGHT;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -54,40 +56,100 @@ public class RelationshipMetadataServiceImpl implements RelationshipMetadataServ
     @Autowired(required = true)
     protected MetadataFieldService metadataFieldService;
 
+    @Autowired(required = true)
+    protected VirtualMetadataCache virtualMetadataCache;
+
     @Override
     public List<RelationshipMetadataValue> getRelationshipMetadata(Item item, boolean enableVirtualMetadata) {
         Context context = new Context();
         List<RelationshipMetadataValue> fullMetadataValueList = new LinkedList<>();
         try {
+            List<RelationshipMetadataValue> cached = virtualMetadataCache.get(context, item, enableVirtualMetadata);
+            if (cached != null) {
+                return cached;
+            }
             EntityType entityType = itemService.getEntityType(context, item);
             if (entityType != null) {
-                // NOTE: The following code will add metadata fields of type relation.*.latestForDiscovery
-                //       (e.g. relation.isAuthorOfPublication.latestForDiscovery).
-                //       These fields contain the UUIDs of the items that have a relationship with current item,
-                //       from the perspective of the other item. In other words, given a relationship with this item,
-                //       the current item should have "latest status" in order for the other item to appear in
-                //       relation.*.latestForDiscovery fields.
-                fullMetadataValueList.addAll(findLatestForDiscoveryMetadataValues(context, item, entityType));
-
-                // NOTE: The following code will, among other things,
-                //       add metadata fields of type relation.* (e.g. relation.isAuthorOfPublication).
-                //       These fields contain the UUIDs of the items that have a relationship with current item,
-                //       from the perspective of this item. In other words, given a relationship with this item,
-                //       the other item should have "latest status" in order to appear in relation.* fields.
                 List<Relationship> relationships = relationshipService.findByItem(context, item, -1, -1, true);
-                for (Relationship relationship : relationships) {
-                    fullMetadataValueList
-                        .addAll(findRelationshipMetadataValueForItemRelationship(context, item, entityType.getLabel(),
-                                relationship, enableVirtualMetadata));
-                }
-
+                fullMetadataValueList.addAll(
+                    findRelationshipMetadata(context, item, entityType, relationships, enableVirtualMetadata));
             }
+            virtualMetadataCache.put(item, enableVirtualMetadata, fullMetadataValueList);
         } catch (SQLException e) {
             log.error("Lookup for Relationships for item with uuid: " + item.getID() + " caused DSpace to crash", e);
         }
         return fullMetadataValueList;
     }
 
+    @Override
+    public Map<UUID, List<RelationshipMetadataValue>> getRelationshipMetadata(Context context, List<Item> items,
+                                                                              boolean enableVirtualMetadata)
+        throws SQLException {
+        Map<UUID, List<RelationshipMetadataValue>> result = new HashMap<>();
+        List<Item> itemsToCompute = new ArrayList<>();
+        for (Item item : items) {
+            List<RelationshipMetadataValue> cached = virtualMetadataCache.get(context, item, enableVirtualMetadata);
+            if (cached != null) {
+                result.put(item.getID(), cached);
+            } else {
+                itemsToCompute.add(item);
+            }
+        }
+        if (itemsToCompute.isEmpty()) {
+            return result;
+        }
+
+        Map<UUID, List<Relationship>> relationships =
+            relationshipService.findByItems(context, itemsToCompute, true, true);
+        for (Item item : itemsToCompute) {
+            List<RelationshipMetadataValue> fullMetadataValueList = new LinkedList<>();
+            EntityType entityType = itemService.getEntityType(context, item);
+            if (entityType != null) {
+                fullMetadataValueList.addAll(findRelationshipMetadata(context, item, entityType,
+                    relationships.get(item.getID()), enableVirtualMetadata));
+            }
+            virtualMetadataCache.put(item, enableVirtualMetadata, fullMetadataValueList);
+            result.put(item.getID(), fullMetadataValueList);
+        }
+        return result;
+    }
+
+    /**
+     * Create the list of virtual metadata values of the given item, derived from the given relationships.
+     * @param context the DSpace context.
+     * @param item the item.
+     * @param entityType the entity type of the item.
+     * @param relationships the relationships of the item, as returned by
+     *                      {@link RelationshipService#findByItem(Context, Item, Integer, Integer, boolean)}.
+     * @param enableVirtualMetadata whether the virtual metadata configurations should be used.
+     * @return the list of virtual metadata values of the item.
+     */
+    protected List<RelationshipMetadataValue> findRelationshipMetadata(
+        Context context, Item item, EntityType entityType, List<Relationship> relationships,
+        boolean enableVirtualMetadata
+    ) throws SQLException {
+        List<RelationshipMetadataValue> fullMetadataValueList = new LinkedList<>();
+        // NOTE: The following code will add metadata fields of type relation.*.latestForDiscovery
+        //       (e.g. relation.isAuthorOfPublication.latestForDiscovery).
+        //       These fields contain the UUIDs of the items that have a relationship with current item,
+        //       from the perspective of the other item. In other words, given a relationship with this item,
+        //       the current item should have "latest status" in order for the other item to appear in
+        //       relation.*.latestForDiscovery fields.
+        fullMetadataValueList.addAll(findLatestForDiscoveryMetadataValues(context, item, entityType));
+
+        // NOTE: The following code will, among other things,
+        //       add metadata fields of type relation.* (e.g. relation.isAuthorOfPublication).
+        //       These fields contain the UUIDs of the items that have a relationship with current item,
+        //       from the perspective of this item. In other words, given a relationship with this item,
+        //       the other item should have "latest status" in order to appear in relation.* fields.
+        for (Relationship relationship : relationships) {
+            fullMetadataValueList
+                .addAll(findRelationshipMetadataValueForItemRelationship(context, item, entityType.getLabel(),
+                        relationship, enableVirtualMetadata));
+        }
+        return fullMetadataValueList;
+    }
+
     /**
      * Create the list of relation.*.latestForDiscovery virtual metadata values for the given item.
      * @param context the DSpace context.
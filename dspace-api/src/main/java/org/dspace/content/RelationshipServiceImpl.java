@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -25,6 +26,7 @@ import org.apache.logging.log4j.Logger;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Relationship.LatestVersionStatus;
+import org.dspace.content.RelationshipType.Tilted;
 import org.dspace.content.dao.RelationshipDAO;
 import org.dspace.content.dao.pojo.ItemUuidAndRelationshipId;
 import org.dspace.content.service.EntityTypeService;
@@ -628,6 +630,50 @@ public class RelationshipServiceImpl implements RelationshipService {
         List<Relationship> list =
             relationshipDAO.findByItem(context, item, limit, offset, excludeTilted, excludeNonLatest);
 
+        sortByItem(list, item);
+        return list;
+    }
+
+    @Override
+    public Map<UUID, List<Relationship>> findByItems(
+        Context context, List<Item> items, boolean excludeTilted, boolean excludeNonLatest
+    ) throws SQLException {
+        Map<UUID, List<Relationship>> relationships = new HashMap<>();
+        if (items.isEmpty()) {
+            return relationships;
+        }
+        for (Item item : items) {
+            relationships.put(item.getID(), new ArrayList<>());
+        }
+        for (Relationship relationship : relationshipDAO.findByItems(context, items, excludeTilted,
+                                                                     excludeNonLatest)) {
+            // The query returns the relationships matching any of the items on either side, so the restrictions
+            // are checked again from the perspective of each side
+            Tilted tilted = relationship.getRelationshipType().getTilted();
+            LatestVersionStatus status = relationship.getLatestVersionStatus();
+            List<Relationship> left = relationships.get(relationship.getLeftItem().getID());
+            boolean addedToLeft = false;
+            if (left != null && !(excludeTilted && tilted == Tilted.RIGHT)
+                && !(excludeNonLatest && status == LatestVersionStatus.LEFT_ONLY)) {
+                left.add(relationship);
+                addedToLeft = true;
+            }
+            List<Relationship> right = relationships.get(relationship.getRightItem().getID());
+            if (right != null && !(addedToLeft && right == left) && !(excludeTilted && tilted == Tilted.LEFT)
+                && !(excludeNonLatest && status == LatestVersionStatus.RIGHT_ONLY)) {
+                right.add(relationship);
+            }
+        }
+        for (Item item : items) {
+            sortByItem(relationships.get(item.getID()), item);
+        }
+        return relationships;
+    }
+
+    /**
+     * Sort the relationships of an item by relationship type, then by the place of the item in the relationships.
+     */
+    private void sortByItem(List<Relationship> list, Item item) {
         list.sort((o1, o2) -> {
             int relationshipType = o1.getRelationshipType().getLeftwardType()
                 .compareTo(o2.getRelationshipType().getLeftwardType());
@@ -641,7 +687,6 @@ public class RelationshipServiceImpl implements RelationshipService {
                 }
             }
         });
-        return list;
     }
 
     @Override
@@ -0,0 +1,288 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.content.service.MetadataFieldService;
+import org.dspace.content.virtual.Related;
+import org.dspace.content.virtual.VirtualMetadataConfiguration;
+import org.dspace.content.virtual.VirtualMetadataPopulator;
+import org.dspace.core.Context;
+import org.dspace.core.cache.ConfigurationValue;
+import org.dspace.core.cache.EvictionTracker;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * JVM-wide cache of the virtual metadata computed by {@link RelationshipMetadataServiceImpl} from the relationships
+ * of an item, shared by all contexts.
+ * <p>
+ * Computing the virtual metadata of an item loads all its relationships and runs the virtual metadata
+ * configurations against each related item, which is slow for items with many relationships (e.g. publications
+ * with hundreds of authors). The cache stores the computed values per item, without references to database
+ * entities, and rebuilds them for the context asking for them.
+ * <p>
+ * The {@link VirtualMetadataCacheConsumer} evicts the values of an item when it or one of the items its values are
+ * computed from is modified, which includes the changes to its relationships. The values also expire after the time
+ * configured in ehcache.xml. As events are dispatched before the changes are committed to the database, an evicted
+ * item is not cached again until the transaction which changed it ended, and for a short grace period after that
+ * ("relationship.virtual-metadata.cache.eviction-grace", in milliseconds), see {@link EvictionTracker}.
+ * <p>
+ * The cache is disabled unless "relationship.virtual-metadata.cache.enabled" is true and the consumer is registered
+ * with the default event dispatcher.
+ */
+public class VirtualMetadataCache implements InitializingBean {
+
+    // The cache that is managed by this service.
+    static final String CACHE_NAME = "relationship.virtual-metadata";
+
+    static final String CONSUMER_NAME = "virtualmetadatacache";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private MetadataFieldService metadataFieldService;
+
+    @Autowired
+    private VirtualMetadataPopulator virtualMetadataPopulator;
+
+    // Items which were recently evicted, and must not be cached again yet
+    private final EvictionTracker<UUID> evictions = new EvictionTracker<>(this::getEvictionGrace,
+                                                                          this::getMaxTransactionTime);
+
+    // Whether the cache and its consumer are configured, needed by every get and put
+    private ConfigurationValue<Boolean> enabled;
+
+    @Override
+    public void afterPropertiesSet() {
+        enabled = new ConfigurationValue<>(configurationService,
+            config -> config.getBooleanProperty("relationship.virtual-metadata.cache.enabled", false)
+                && ArrayUtils.contains(config.getArrayProperty("event.dispatcher.default.consumers"),
+                                       CONSUMER_NAME));
+    }
+
+    /**
+     * Return whether the shared cache is enabled. Values are only shared between contexts when the consumer which
+     * keeps the cache up to date is configured.
+     *
+     * @return true if virtual metadata may be read from or stored in the shared cache
+     */
+    public boolean isEnabled() {
+        return enabled.get();
+    }
+
+    /**
+     * Get the cached virtual metadata of an item.
+     *
+     * @param context               The relevant DSpace Context.
+     * @param item                  the item whose virtual metadata is requested
+     * @param enableVirtualMetadata whether the values from the virtual metadata configurations were requested, or
+     *                              only the relation.* values
+     * @return new virtual metadata values for the item, or null if there are none in the cache
+     * @throws SQLException if the metadata fields of the values cannot be found
+     */
+    public List<RelationshipMetadataValue> get(Context context, Item item, boolean enableVirtualMetadata)
+        throws SQLException {
+        if (!isEnabled() || item.isMetadataModified() || evictions.isEvicted(item.getID())) {
+            return null;
+        }
+        List<CachedValue> cached = getCachedValues(item.getID(), enableVirtualMetadata);
+        if (cached == null) {
+            return null;
+        }
+        List<RelationshipMetadataValue> values = new ArrayList<>(cached.size());
+        for (CachedValue cachedValue : cached) {
+            RelationshipMetadataValue value = cachedValue.toMetadataValue(context, metadataFieldService, item);
+            if (value == null) {
+                // The metadata field was deleted
+                return null;
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * Store the virtual metadata of an item.
+     *
+     * @param item                  the item
+     * @param enableVirtualMetadata whether the values from the virtual metadata configurations were computed, or
+     *                              only the relation.* values
+     * @param values                the virtual metadata values of the item
+     */
+    public void put(Item item, boolean enableVirtualMetadata, List<RelationshipMetadataValue> values) {
+        if (!isEnabled() || item.isMetadataModified() || evictions.isEvicted(item.getID())) {
+            return;
+        }
+        List<CachedValue> cached = new ArrayList<>(values.size());
+        for (RelationshipMetadataValue value : values) {
+            cached.add(new CachedValue(value));
+        }
+        getCache().put(buildKey(item.getID(), enableVirtualMetadata), cached);
+    }
+
+    /**
+     * Remove the cached virtual metadata of the given items, now and once the transaction of the context ended.
+     *
+     * @param context The relevant DSpace Context, or null if the changes are already committed.
+     * @param itemIds the UUIDs of the items
+     */
+    public void evict(Context context, Set<UUID> itemIds) {
+        evictions.evict(context, itemIds, itemId -> {
+            getCache().evictIfPresent(buildKey(itemId, true));
+            getCache().evictIfPresent(buildKey(itemId, false));
+        });
+    }
+
+    /**
+     * Remove all cached virtual metadata, now and once the transaction of the context ended.
+     *
+     * @param context The relevant DSpace Context, or null if the changes are already committed.
+     */
+    public void evictAll(Context context) {
+        evictions.evictAll(context, () -> getCache().invalidate());
+    }
+
+    /**
+     * Return the largest number of relationships between an item and the items its virtual metadata is computed
+     * from: 1 for the values of the related items, plus the length of the longest chain of {@link Related}
+     * configurations.
+     *
+     * @return the number of relationships to follow from a modified item to find the items to evict
+     */
+    public int getMaxDepth() {
+        int maxDepth = 1;
+        for (Map<String, VirtualMetadataConfiguration> configurations : virtualMetadataPopulator.getMap().values()) {
+            for (VirtualMetadataConfiguration configuration : configurations.values()) {
+                maxDepth = Math.max(maxDepth, 1 + getChainLength(configuration));
+            }
+        }
+        return maxDepth;
+    }
+
+    /**
+     * Return the relationship types through which the values of an item may be computed from items it is not
+     * directly related to: the types followed by {@link Related} configurations, and the types whose configurations
+     * start such chains.
+     *
+     * @return the leftward or rightward labels of the relationship types
+     */
+    public Set<String> getChainedRelationshipTypes() {
+        Set<String> types = new HashSet<>();
+        for (Map.Entry<String, ? extends Map<String, VirtualMetadataConfiguration>> entry
+            : virtualMetadataPopulator.getMap().entrySet()) {
+            for (VirtualMetadataConfiguration configuration : entry.getValue().values()) {
+                if (configuration instanceof Related) {
+                    types.add(entry.getKey());
+                }
+                while (configuration instanceof Related) {
+                    types.add(((Related) configuration).getRelationshipTypeString());
+                    configuration = ((Related) configuration).getVirtualMetadataConfiguration();
+                }
+            }
+        }
+        return types;
+    }
+
+    private int getChainLength(VirtualMetadataConfiguration configuration) {
+        int length = 0;
+        while (configuration instanceof Related) {
+            length++;
+            configuration = ((Related) configuration).getVirtualMetadataConfiguration();
+        }
+        return length;
+    }
+
+    private long getEvictionGrace() {
+        return configurationService.getLongProperty("relationship.virtual-metadata.cache.eviction-grace", 10000L);
+    }
+
+    private long getMaxTransactionTime() {
+        return configurationService.getLongProperty("cache.eviction.max-transaction-time", 3600000L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CachedValue> getCachedValues(UUID itemId, boolean enableVirtualMetadata) {
+        return getCache().get(buildKey(itemId, enableVirtualMetadata), List.class);
+    }
+
+    private String buildKey(UUID itemId, boolean enableVirtualMetadata) {
+        return itemId + ":" + enableVirtualMetadata;
+    }
+
+    private Cache getCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+    }
+
+    /**
+     * A virtual metadata value, referring to its metadata field by id.
+     */
+    private static class CachedValue implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int metadataFieldId;
+        private final String value;
+        private final String language;
+        private final String authority;
+        private final int confidence;
+        private final int place;
+        private final boolean useForPlace;
+        private final Integer securityLevel;
+        private final boolean ofItem;
+
+        private CachedValue(RelationshipMetadataValue metadataValue) {
+            metadataFieldId = metadataValue.getMetadataField().getID();
+            value = metadataValue.getValue();
+            language = metadataValue.getLanguage();
+            authority = metadataValue.getAuthority();
+            confidence = metadataValue.getConfidence();
+            place = metadataValue.getPlace();
+            useForPlace = metadataValue.isUseForPlace();
+            securityLevel = metadataValue.getSecurityLevel();
+            ofItem = metadataValue.getDSpaceObject() != null;
+        }
+
+        private RelationshipMetadataValue toMetadataValue(Context context, MetadataFieldService metadataFieldService,
+                                                          Item item) throws SQLException {
+            MetadataField metadataField = metadataFieldService.find(context, metadataFieldId);
+            if (metadataField == null) {
+                return null;
+            }
+            RelationshipMetadataValue metadataValue = new RelationshipMetadataValue();
+            metadataValue.setMetadataField(metadataField);
+            metadataValue.setValue(value);
+            metadataValue.setLanguage(language);
+            metadataValue.setAuthority(authority);
+            metadataValue.setConfidence(confidence);
+            metadataValue.setPlace(place);
+            metadataValue.setUseForPlace(useForPlace);
+            metadataValue.setSecurityLevel(securityLevel);
+            if (ofItem) {
+                metadataValue.setDSpaceObject(item);
+            }
+            return metadataValue;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.content.service.RelationshipService;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+import org.dspace.utils.DSpace;
+
+/**
+ * Consumer which evicts the virtual metadata of the {@link VirtualMetadataCache} that may have been invalidated by
+ * the events of a context.
+ * <p>
+ * The virtual metadata of an item is derived from its relationships and from the metadata of its related items.
+ * Changes to relationships modify the items on both sides, so the modification of an item evicts the item itself
+ * and all the items it is related to. Chains of {@link org.dspace.content.virtual.Related} configurations compute
+ * values from items further away (e.g. the journal of the volume of the issue of a publication), so the eviction
+ * continues through the relationship types followed by such chains, up to the length of the longest chain.
+ */
+public class VirtualMetadataCacheConsumer implements Consumer {
+
+    private static final Logger log = LogManager.getLogger(VirtualMetadataCacheConsumer.class);
+
+    protected ItemService itemService;
+
+    protected RelationshipService relationshipService;
+
+    protected VirtualMetadataCache virtualMetadataCache;
+
+    private final Set<UUID> modifiedItems = new HashSet<>();
+
+    @Override
+    public void initialize() throws Exception {
+        itemService = ContentServiceFactory.getInstance().getItemService();
+        relationshipService = ContentServiceFactory.getInstance().getRelationshipService();
+        virtualMetadataCache = new DSpace().getServiceManager()
+            .getServiceByName(VirtualMetadataCache.class.getName(), VirtualMetadataCache.class);
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        if (event.getSubjectType() == Constants.ITEM && event.getSubjectID() != null) {
+            modifiedItems.add(event.getSubjectID());
+        }
+    }
+
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (virtualMetadataCache != null && !modifiedItems.isEmpty()) {
+            Set<UUID> itemsToEvict = new HashSet<>(modifiedItems);
+            Set<String> chainedTypes = virtualMetadataCache.getChainedRelationshipTypes();
+            int maxDepth = virtualMetadataCache.getMaxDepth();
+            Set<UUID> reached = new HashSet<>(modifiedItems);
+            for (int depth = 0; depth < maxDepth && !reached.isEmpty(); depth++) {
+                Set<UUID> next = new HashSet<>();
+                for (UUID itemId : reached) {
+                    Item item = itemService.find(ctx, itemId);
+                    if (item == null) {
+                        continue;
+                    }
+                    for (Relationship relationship : relationshipService.findByItem(ctx, item, -1, -1, false,
+                                                                                    false)) {
+                        // All relationships of the modified items, as the virtual metadata of the related items
+                        // may be computed from any of them, then only those followed by chains
+                        if (depth == 0 || isChained(relationship.getRelationshipType(), chainedTypes)) {
+                            addItem(relationship.getLeftItem(), itemsToEvict, next);
+                            addItem(relationship.getRightItem(), itemsToEvict, next);
+                        }
+                    }
+                }
+                reached = next;
+            }
+            log.debug("Evicting the virtual metadata of {} items", itemsToEvict.size());
+            virtualMetadataCache.evict(ctx, itemsToEvict);
+        }
+        modifiedItems.clear();
+    }
+
+    private boolean isChained(RelationshipType relationshipType, Set<String> chainedTypes) {
+        return chainedTypes.contains(relationshipType.getLeftwardType())
+            || chainedTypes.contains(relationshipType.getRightwardType());
+    }
+
+    private void addItem(Item item, Set<UUID> itemsToEvict, Set<UUID> next) {
+        if (itemsToEvict.add(item.getID())) {
+            next.add(item.getID());
+        }
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+        // No-op
+    }
+}
@@ -9,10 +9,14 @@ package org.dspace.content.crosswalk;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
@@ -70,7 +74,9 @@ import org.jdom2.Namespace;
  * <p>
  * NOTE: This plugin will automatically reload any XSL stylesheet that
  * was modified since it was last loaded.  This lets you edit and test
- * stylesheets without restarting DSpace.
+ * stylesheets without restarting DSpace. Stylesheets are compiled once and
+ * shared by all the crosswalks using them, so the crosswalks may be used by
+ * several threads at the same time.
  * <p>
  * You must use the <code>PluginService</code> to instantiate an
  * XSLT crosswalk plugin, e.g.
@@ -131,12 +137,20 @@ public abstract class XSLTCrosswalk extends SelfNamedPlugin {
         return aliasList.toArray(new String[aliasList.size()]);
     }
 
-    private Transformer transformer = null;
-    private File transformFile = null;
-    private long transformLastModified = 0;
+    /**
+     * Compiled stylesheets, shared by all the plugin instances using the same stylesheet file.
+     */
+    private static final Map<File, CompiledStylesheet> STYLESHEETS = new ConcurrentHashMap<>();
+
+    private volatile File transformFile = null;
 
     /**
      * Initialize the Transformation stylesheet from configured stylesheet file.
+     * <p>
+     * The stylesheet is compiled once into {@link Templates}, which are thread-safe and shared by all crosswalks
+     * using the same file, and compiled again when the file is modified. Each call returns a new
+     * {@link Transformer}, which is cheap to create from the compiled stylesheet and must only be used by the
+     * calling thread.
      *
      * @param direction the direction of xwalk, either "submission" or
      *                  "dissemination"
@@ -160,30 +174,72 @@ public abstract class XSLTCrosswalk extends SelfNamedPlugin {
             } else {
                 String parent = configurationService.getProperty("dspace.dir") +
                     File.separator + "config" + File.separator;
-                transformFile = new File(parent, fname);
+                transformFile = new File(parent, fname).getAbsoluteFile();
             }
         }
 
         // load if first time, or reload if stylesheet changed:
-        if (transformer == null ||
-            transformFile.lastModified() > transformLastModified) {
-            try {
-                LOG.debug(
-                    (transformer == null ? "Loading {} XSLT stylesheet from {}"
-                            : "Reloading {} XSLT stylesheet from {}"),
-                    getPluginInstanceName(), transformFile.toString());
-
-                Source transformSource
-                    = new StreamSource(new FileInputStream(transformFile));
-                TransformerFactory transformerFactory
-                    = XMLUtils.getTransformerFactory();
-                transformer = transformerFactory.newTransformer(transformSource);
-                transformLastModified = transformFile.lastModified();
-            } catch (TransformerConfigurationException | FileNotFoundException e) {
-                LOG.error("Failed to initialize XSLTCrosswalk({}):  {}",
-                          getPluginInstanceName(), e.toString());
-            }
+        File file = transformFile;
+        long lastModified = file.lastModified();
+        CompiledStylesheet stylesheet = STYLESHEETS.get(file);
+        if (stylesheet == null || lastModified > stylesheet.lastModified) {
+            // compute() makes concurrent callers wait for a single compilation of the file
+            stylesheet = STYLESHEETS.compute(file, (key, current) -> {
+                if (current != null && lastModified <= current.lastModified) {
+                    return current;
+                }
+                return compile(file, lastModified, current);
+            });
+        }
+        if (stylesheet == null || stylesheet.templates == null) {
+            return null;
+        }
+        try {
+            return stylesheet.templates.newTransformer();
+        } catch (TransformerConfigurationException e) {
+            LOG.error("Failed to initialize XSLTCrosswalk({}):  {}",
+                      getPluginInstanceName(), e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Compile a stylesheet file.
+     *
+     * @param file         the stylesheet file
+     * @param lastModified the modification time of the file before it is read
+     * @param current      the stylesheet previously compiled from the file, if any
+     * @return the compiled stylesheet, or if the file cannot be compiled the templates of the current one, if any,
+     * with the modification time of the file, so that it is not compiled again until it is modified
+     */
+    private CompiledStylesheet compile(File file, long lastModified, CompiledStylesheet current) {
+        LOG.debug(
+            (current == null ? "Loading {} XSLT stylesheet from {}"
+                    : "Reloading {} XSLT stylesheet from {}"),
+            getPluginInstanceName(), file.toString());
+        try (InputStream in = new FileInputStream(file)) {
+            Source transformSource = new StreamSource(in);
+            TransformerFactory transformerFactory
+                = XMLUtils.getTransformerFactory();
+            return new CompiledStylesheet(transformerFactory.newTemplates(transformSource), lastModified);
+        } catch (TransformerConfigurationException | IOException e) {
+            LOG.error("Failed to initialize XSLTCrosswalk({}):  {}",
+                      getPluginInstanceName(), e.toString());
+            return new CompiledStylesheet(current == null ? null : current.templates, lastModified);
+        }
+    }
+
+    /**
+     * A compiled stylesheet, with the modification time of the file it was compiled from. The templates are null if
+     * the file could never be compiled.
+     */
+    private static class CompiledStylesheet {
+        private final Templates templates;
+        private final long lastModified;
+
+        private CompiledStylesheet(Templates templates, long lastModified) {
+            this.templates = templates;
+            this.lastModified = lastModified;
         }
-        return transformer;
     }
 }
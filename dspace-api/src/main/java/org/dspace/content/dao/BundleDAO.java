@@ -8,6 +8,8 @@
 package org.dspace.content.dao;
 
 import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
 
 import org.dspace.content.Bundle;
 import org.dspace.core.Context;
@@ -24,4 +26,13 @@ public interface BundleDAO extends DSpaceObjectLegacySupportDAO<Bundle> {
     int countRows(Context context) throws SQLException;
 
     int countBitstreams(Context context, Bundle bundle) throws SQLException;
+
+    /**
+     * Load the bundles of the Items matching the given ids with a single query, together with their bitstreams.
+     * @param context          context
+     * @param itemIds          the ids of the items
+     * @return the bundles found, in no particular order
+     * @throws SQLException
+     */
+    List<Bundle> findAllWithBitstreamsByItemIds(Context context, List<UUID> itemIds) throws SQLException;
 }
@@ -48,6 +48,18 @@ public interface ItemDAO extends DSpaceObjectLegacySupportDAO<Item> {
      */
     Iterator<Item> findAllRegularItems(Context context) throws SQLException;
 
+    /**
+     * Find all regular items (see {@link #findAllRegularItems(Context)}) whose UUID lies within the given range,
+     * ordered by UUID. This allows the set of regular items to be split into partitions, and allows iteration
+     * over a partition to be resumed after the last item which was processed.
+     * @param context    the DSpace context.
+     * @param lowerBound exclusive lower bound of the item UUIDs to return, or null for no lower bound.
+     * @param upperBound inclusive upper bound of the item UUIDs to return, or null for no upper bound.
+     * @return iterator over the regular items in the range.
+     * @throws SQLException if database error.
+     */
+    Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound) throws SQLException;
+
     /**
      * Find all Items modified since a Date.
      *
@@ -271,5 +283,32 @@ public interface ItemDAO extends DSpaceObjectLegacySupportDAO<Item> {
      */
     Iterator<Item> findByIds(Context context, List<UUID> ids) throws SQLException;
 
+    /**
+     * Load the Items matching the given ids with a single query, together with their metadata.
+     * @param context          context
+     * @param ids              the list of ids
+     * @return the items found, in no particular order
+     * @throws SQLException
+     */
+    List<Item> findAllByIds(Context context, List<UUID> ids) throws SQLException;
+
+    /**
+     * Load the Items matching the given ids with a single query, together with their bundles.
+     * @param context          context
+     * @param ids              the list of ids
+     * @return the items found, in no particular order
+     * @throws SQLException
+     */
+    List<Item> findAllWithBundlesByIds(Context context, List<UUID> ids) throws SQLException;
+
+    /**
+     * Load the Items matching the given ids with a single query, together with their owning collection.
+     * @param context          context
+     * @param ids              the list of ids
+     * @return the items found, in no particular order
+     * @throws SQLException
+     */
+    List<Item> findAllWithOwningCollectionByIds(Context context, List<UUID> ids) throws SQLException;
+
 
 }
@@ -62,6 +62,24 @@ public interface RelationshipDAO extends GenericDAO<Relationship> {
         Context context, Item item, Integer limit, Integer offset, boolean excludeTilted, boolean excludeNonLatest
     ) throws SQLException;
 
+    /**
+     * This method returns a list of Relationship objects that have one of the given Item objects
+     * as a leftItem or a rightItem, with the same restrictions as {@link #findByItem(Context, Item, boolean, boolean)}
+     * applied from the perspective of each of these items
+     * @param context           The relevant DSpace context
+     * @param items             The items of which each Relationship object in the returned list has
+     *                          a leftItem or a rightItem
+     * @param excludeTilted     If true, excludes tilted relationships
+     * @param excludeNonLatest  If true, excludes all relationships for which the other item has a more recent version
+     *                          that is relevant for this relationship
+     * @return                  The list of Relationship objects that contain either a left or a
+     *                          right item that is one of the given items
+     * @throws SQLException     If something goes wrong
+     */
+    List<Relationship> findByItems(
+        Context context, List<Item> items, boolean excludeTilted, boolean excludeNonLatest
+    ) throws SQLException;
+
     /**
      * This method returns a list of Relationship objects for the given RelationshipType object.
      * It will construct a list of all Relationship objects that have the given RelationshipType object
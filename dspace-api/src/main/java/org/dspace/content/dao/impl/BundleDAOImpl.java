@@ -8,6 +8,9 @@
 package org.dspace.content.dao.impl;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 import jakarta.persistence.Query;
 import org.dspace.content.Bundle;
@@ -41,4 +44,19 @@ public class BundleDAOImpl extends AbstractHibernateDSODAO<Bundle> implements Bu
         query.setParameter("bundleID", bundle.getID());
         return count(query);
     }
+
+    @Override
+    public List<Bundle> findAllWithBitstreamsByItemIds(Context context, List<UUID> itemIds) throws SQLException {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Query query = createQuery(
+            context, "SELECT DISTINCT bu FROM Bundle bu LEFT JOIN FETCH bu.bitstreams JOIN bu.items i " +
+                "WHERE i.id IN (:ids)"
+        );
+        query.setParameter("ids", itemIds);
+        @SuppressWarnings("unchecked")
+        List<Bundle> bundles = query.getResultList();
+        return bundles;
+    }
 }
@@ -101,6 +101,33 @@ public class ItemDAOImpl extends AbstractHibernateDSODAO<Item> implements ItemDA
         return new UUIDIterator<Item>(context, uuids, Item.class, this);
     }
 
+    @Override
+    public Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound)
+        throws SQLException {
+        StringBuilder queryStr = new StringBuilder();
+        queryStr.append("SELECT i.id FROM Item as i ");
+        queryStr.append("LEFT JOIN Version as v ON i = v.item ");
+        queryStr.append("WHERE (i.inArchive=true or i.withdrawn=true or (i.inArchive=false and v.id IS NOT NULL))");
+        if (lowerBound != null) {
+            queryStr.append(" AND i.id > :lower_bound");
+        }
+        if (upperBound != null) {
+            queryStr.append(" AND i.id <= :upper_bound");
+        }
+        queryStr.append(" ORDER BY i.id");
+
+        Query query = createQuery(context, queryStr.toString());
+        if (lowerBound != null) {
+            query.setParameter("lower_bound", lowerBound);
+        }
+        if (upperBound != null) {
+            query.setParameter("upper_bound", upperBound);
+        }
+        @SuppressWarnings("unchecked")
+        List<UUID> uuids = query.getResultList();
+        return new UUIDIterator<Item>(context, uuids, Item.class, this);
+    }
+
     @Override
     public Iterator<Item> findAll(Context context, boolean archived,
                                   boolean withdrawn, boolean discoverable, Instant lastModified)
@@ -565,4 +592,43 @@ public class ItemDAOImpl extends AbstractHibernateDSODAO<Item> implements ItemDA
         return new UUIDIterator<Item>(context, ids, Item.class, this);
     }
 
+    @Override
+    public List<Item> findAllByIds(Context context, List<UUID> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Query query = createQuery(context,
+                                  "SELECT DISTINCT i FROM Item i LEFT JOIN FETCH i.metadata WHERE i.id IN (:ids)");
+        query.setParameter("ids", ids);
+        @SuppressWarnings("unchecked")
+        List<Item> items = query.getResultList();
+        return items;
+    }
+
+    @Override
+    public List<Item> findAllWithBundlesByIds(Context context, List<UUID> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Query query = createQuery(context,
+                                  "SELECT DISTINCT i FROM Item i LEFT JOIN FETCH i.bundles WHERE i.id IN (:ids)");
+        query.setParameter("ids", ids);
+        @SuppressWarnings("unchecked")
+        List<Item> items = query.getResultList();
+        return items;
+    }
+
+    @Override
+    public List<Item> findAllWithOwningCollectionByIds(Context context, List<UUID> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Query query = createQuery(context,
+                                  "SELECT i FROM Item i LEFT JOIN FETCH i.owningCollection WHERE i.id IN (:ids)");
+        query.setParameter("ids", ids);
+        @SuppressWarnings("unchecked")
+        List<Item> items = query.getResultList();
+        return items;
+    }
+
 }
@@ -60,6 +60,27 @@ public class RelationshipDAOImpl extends AbstractHibernateDAO<Relationship> impl
         return list(context, criteriaQuery, false, Relationship.class, limit, offset);
     }
 
+    @Override
+    public List<Relationship> findByItems(
+        Context context, List<Item> items, boolean excludeTilted, boolean excludeNonLatest
+    ) throws SQLException {
+        CriteriaBuilder criteriaBuilder = getCriteriaBuilder(context);
+        CriteriaQuery<Relationship> criteriaQuery = getCriteriaQuery(criteriaBuilder, Relationship.class);
+        Root<Relationship> relationshipRoot = criteriaQuery.from(Relationship.class);
+        criteriaQuery.select(relationshipRoot);
+
+        criteriaQuery.where(
+            criteriaBuilder.or(
+                getLeftItemPredicate(criteriaBuilder, relationshipRoot,
+                    relationshipRoot.get(Relationship_.leftItem).in(items), excludeTilted, excludeNonLatest),
+                getRightItemPredicate(criteriaBuilder, relationshipRoot,
+                    relationshipRoot.get(Relationship_.rightItem).in(items), excludeTilted, excludeNonLatest)
+            )
+        );
+
+        return list(context, criteriaQuery, false, Relationship.class, -1, -1);
+    }
+
     /**
      * Get the predicate for a criteria query that selects relationships by their left item.
      * @param criteriaBuilder   the criteria builder.
@@ -73,13 +94,30 @@ public class RelationshipDAOImpl extends AbstractHibernateDAO<Relationship> impl
     protected Predicate getLeftItemPredicate(
         CriteriaBuilder criteriaBuilder, Root<Relationship> relationshipRoot, Item item,
         boolean excludeTilted, boolean excludeNonLatest
+    ) {
+        return getLeftItemPredicate(criteriaBuilder, relationshipRoot,
+            criteriaBuilder.equal(relationshipRoot.get(Relationship_.leftItem), item),
+            excludeTilted, excludeNonLatest);
+    }
+
+    /**
+     * Get the predicate for a criteria query that selects relationships by their left item.
+     * @param criteriaBuilder   the criteria builder.
+     * @param relationshipRoot  the relationship root.
+     * @param itemPredicate     the predicate matching the left item.
+     * @param excludeTilted     if true, exclude tilted relationships.
+     * @param excludeNonLatest  if true, exclude relationships for which the opposite item is not the latest version
+     *                          that is relevant.
+     * @return a predicate that satisfies the given restrictions.
+     */
+    private Predicate getLeftItemPredicate(
+        CriteriaBuilder criteriaBuilder, Root<Relationship> relationshipRoot, Predicate itemPredicate,
+        boolean excludeTilted, boolean excludeNonLatest
     ) {
         List<Predicate> predicates = new ArrayList<>();
 
         // match relationships based on the left item
-        predicates.add(
-            criteriaBuilder.equal(relationshipRoot.get(Relationship_.leftItem), item)
-        );
+        predicates.add(itemPredicate);
 
         if (excludeTilted) {
             // if this item is the left item,
@@ -124,13 +162,30 @@ public class RelationshipDAOImpl extends AbstractHibernateDAO<Relationship> impl
     protected Predicate getRightItemPredicate(
         CriteriaBuilder criteriaBuilder, Root<Relationship> relationshipRoot, Item item,
         boolean excludeTilted, boolean excludeNonLatest
+    ) {
+        return getRightItemPredicate(criteriaBuilder, relationshipRoot,
+            criteriaBuilder.equal(relationshipRoot.get(Relationship_.rightItem), item),
+            excludeTilted, excludeNonLatest);
+    }
+
+    /**
+     * Get the predicate for a criteria query that selects relationships by their right item.
+     * @param criteriaBuilder   the criteria builder.
+     * @param relationshipRoot  the relationship root.
+     * @param itemPredicate     the predicate matching the right item.
+     * @param excludeTilted     if true, exclude tilted relationships.
+     * @param excludeNonLatest  if true, exclude relationships for which the opposite item is not the latest version
+     *                          that is relevant.
+     * @return a predicate that satisfies the given restrictions.
+     */
+    private Predicate getRightItemPredicate(
+        CriteriaBuilder criteriaBuilder, Root<Relationship> relationshipRoot, Predicate itemPredicate,
+        boolean excludeTilted, boolean excludeNonLatest
     ) {
         List<Predicate> predicates = new ArrayList<>();
 
         // match relationships based on the right item
-        predicates.add(
-            criteriaBuilder.equal(relationshipRoot.get(Relationship_.rightItem), item)
-        );
+        predicates.add(itemPredicate);
 
         if (excludeTilted) {
             // if this item is the right item,
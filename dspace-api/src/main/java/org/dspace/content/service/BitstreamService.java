@@ -9,6 +9,7 @@ package org.dspace.content.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
@@ -180,6 +181,21 @@ public interface BitstreamService extends DSpaceObjectService<Bitstream>, DSpace
     public InputStream retrieve(Context context, Bitstream bitstream)
         throws IOException, SQLException, AuthorizeException;
 
+    /**
+     * Retrieve the local file holding the contents of the bitstream, if its asset store keeps it on a local file
+     * system. This allows the file to be served without copying it through the heap.
+     *
+     * @param context   DSpace context object
+     * @param bitstream DSpace bitstream
+     * @return the path of the file, or null if the contents are not available as a local file
+     * @throws IOException        if IO error
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if authorization error
+     */
+    @Nullable
+    public Path retrieveLocalPath(Context context, Bitstream bitstream)
+        throws IOException, SQLException, AuthorizeException;
+
     /**
      * Determine if this bitstream is registered (available elsewhere on
      * filesystem than in assetstore). More about registered items:
@@ -117,6 +117,18 @@ public interface ItemService
      */
     Iterator<Item> findAll(Context context, Integer limit, Integer offset) throws SQLException;
 
+    /**
+     * Find the items with the given ids, loading them and their metadata with a single query, instead of one query
+     * per item. Unknown ids are ignored. Useful to prefetch a batch of items which are then each retrieved with
+     * {@link #find(Context, UUID)}.
+     *
+     * @param context DSpace context object
+     * @param ids     the ids of the items
+     * @return the items found, in no particular order
+     * @throws SQLException if database error
+     */
+    List<Item> findByIds(Context context, List<UUID> ids) throws SQLException;
+
     /**
      * Get all "final" items in the archive, both archived ("in archive" flag) or
      * withdrawn items are included. The order of the list is indeterminate.
@@ -140,6 +152,18 @@ public interface ItemService
      */
     Iterator<Item> findAllRegularItems(Context context) throws SQLException;
 
+    /**
+     * Find all regular items (see {@link #findAllRegularItems(Context)}) whose UUID lies within the given range,
+     * ordered by UUID. This allows the set of regular items to be split into partitions, and allows iteration
+     * over a partition to be resumed after the last item which was processed.
+     * @param context    the DSpace context.
+     * @param lowerBound exclusive lower bound of the item UUIDs to return, or null for no lower bound.
+     * @param upperBound inclusive upper bound of the item UUIDs to return, or null for no upper bound.
+     * @return iterator over the regular items in the range.
+     * @throws SQLException if database error.
+     */
+    Iterator<Item> findAllRegularItems(Context context, UUID lowerBound, UUID upperBound) throws SQLException;
+
     /**
      * Find all the items in the archive by a given submitter. The order is
      * indeterminate. Only items with the "in archive" flag set are included.
@@ -1018,6 +1042,32 @@ public interface ItemService
     List<MetadataValue> getMetadata(Item item, String schema, String element, String qualifier,
                                            String lang, boolean enableVirtualMetadata);
 
+    /**
+     * Computes the virtual metadata of the given items, derived from their relationships, and caches it with their
+     * metadata, so that {@link #getMetadata(Item, String, String, String, String)} doesn't compute it item by item.
+     * The relationships of all the items are loaded with a single query. Does nothing if virtual metadata is
+     * disabled.
+     *
+     * @param context DSpace context object
+     * @param items   the items about to be read, e.g. a page of items to index or to display
+     * @throws SQLException if database error
+     */
+    void prefetchVirtualMetadata(Context context, List<Item> items) throws SQLException;
+
+    /**
+     * Loads the metadata of the given items, and optionally their bundles with the bitstreams of these bundles and
+     * their owning collections, with one query for each, so that reading them doesn't query the database item by
+     * item. Only the items attached to the session of the context benefit from it.
+     *
+     * @param context           DSpace context object
+     * @param items             the items about to be read, e.g. a page of items to display
+     * @param bundles           whether to load the bundles and bitstreams of the items
+     * @param owningCollections whether to load the owning collections of the items
+     * @throws SQLException if database error
+     */
+    void prefetch(Context context, List<Item> items, boolean bundles, boolean owningCollections)
+        throws SQLException;
+
     /**
      * Returns the item's entity type, if any.
      *
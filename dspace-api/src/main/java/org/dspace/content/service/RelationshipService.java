@@ -9,6 +9,7 @@ package org.dspace.content.service;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.dspace.authorize.AuthorizeException;
@@ -75,6 +76,22 @@ public interface RelationshipService extends DSpaceCRUDService<Relationship> {
         Context context, Item item, Integer limit, Integer offset, boolean excludeTilted, boolean excludeNonLatest
     ) throws SQLException;
 
+    /**
+     * Retrieves the Relationships of several Items with a single query. The relationships of each item are the ones
+     * {@link #findByItem(Context, Item, Integer, Integer, boolean, boolean)} would return for it, in the same order.
+     * @param context           The relevant DSpace context
+     * @param items             The Items whose relationships are retrieved
+     * @param excludeTilted     If true, excludes tilted relationships
+     * @param excludeNonLatest  If true, excludes all relationships for which the other item has a more recent version
+     *                          that is relevant for this relationship
+     * @return                  The relationships of each item, by item UUID. Items without relationships are
+     *                          mapped to an empty list
+     * @throws SQLException     If something goes wrong
+     */
+    Map<UUID, List<Relationship>> findByItems(
+        Context context, List<Item> items, boolean excludeTilted, boolean excludeNonLatest
+    ) throws SQLException;
+
     /**
      * Retrieves the full list of relationships currently in the system
      * @param context   The relevant DSpace context
@@ -131,6 +131,16 @@ public class Context implements AutoCloseable {
      */
     private LinkedList<Event> events = null;
 
+    /**
+     * Actions to run once the current transaction is committed, see {@link #runAfterCommit(Runnable)}
+     */
+    private List<Runnable> afterCommitActions = null;
+
+    /**
+     * Actions to run if the current transaction is rolled back, see {@link #runAfterRollback(Runnable)}
+     */
+    private List<Runnable> afterRollbackActions = null;
+
     /**
      * Event dispatcher name
      */
@@ -469,10 +479,64 @@ public class Context implements AutoCloseable {
                 log.debug("Cache size on commit is " + getCacheSize());
             }
 
-            if (dbConnection != null) {
-                // Commit our changes (this closes the transaction but leaves database connection open)
-                dbConnection.commit();
-                reloadContextBoundEntities();
+            boolean committed = dbConnection == null;
+            try {
+                if (dbConnection != null) {
+                    // Commit our changes (this closes the transaction but leaves database connection open)
+                    dbConnection.commit();
+                    committed = true;
+                    reloadContextBoundEntities();
+                }
+            } finally {
+                runTransactionEndActions(committed);
+            }
+        }
+    }
+
+    /**
+     * Run an action once the current transaction of this context is committed. As events are dispatched before
+     * the transaction is committed, consumers which publish changes to other threads or processes (e.g. to a
+     * queue or a shared cache) use this to only publish them once they are visible to other database connections.
+     * The action is discarded if the transaction is rolled back or the context is aborted.
+     *
+     * @param action the action to run, on the thread committing the context, after the commit
+     */
+    public void runAfterCommit(Runnable action) {
+        if (afterCommitActions == null) {
+            afterCommitActions = new ArrayList<>();
+        }
+        afterCommitActions.add(action);
+    }
+
+    /**
+     * Run an action if the current transaction of this context is rolled back, the context is aborted, or the
+     * commit fails. Used to undo what was prepared for {@link #runAfterCommit(Runnable)}.
+     *
+     * @param action the action to run, after the rollback
+     */
+    public void runAfterRollback(Runnable action) {
+        if (afterRollbackActions == null) {
+            afterRollbackActions = new ArrayList<>();
+        }
+        afterRollbackActions.add(action);
+    }
+
+    /**
+     * Run the actions registered for the end of the current transaction, and forget all of them.
+     *
+     * @param committed true if the transaction was committed, false if it was rolled back
+     */
+    private void runTransactionEndActions(boolean committed) {
+        List<Runnable> actions = committed ? afterCommitActions : afterRollbackActions;
+        afterCommitActions = null;
+        afterRollbackActions = null;
+        if (actions != null) {
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.error("Failed to run an action after the end of the transaction", e);
+                }
             }
         }
     }
@@ -626,6 +690,7 @@ public class Context implements AutoCloseable {
             }
         } finally {
             events = null;
+            runTransactionEndActions(false);
         }
     }
 
@@ -664,6 +729,7 @@ public class Context implements AutoCloseable {
                 log.error("Error closing the database connection", ex);
             }
             events = null;
+            runTransactionEndActions(false);
 
             // Clear the holder and unregister the Cleaner to prevent double-cleanup
             dbConnectionHolder.set(null);
@@ -0,0 +1,85 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.util.Objects;
+
+/**
+ * A change which makes entries of the Hibernate second-level cache of other DSpace processes stale: either an
+ * updated or deleted cached entity, or a table ("query space") whose cached query results are no longer valid.
+ */
+public final class CacheInvalidation {
+
+    public enum Type {
+        /**
+         * A cached entity was updated or deleted
+         */
+        ENTITY,
+        /**
+         * A table was modified
+         */
+        QUERY_SPACE
+    }
+
+    private final Type type;
+    private final String name;
+    private final String id;
+
+    /**
+     * @param type the type of change
+     * @param name the entity name, or the table name for a query space
+     * @param id   the identifier of the entity, or null to invalidate all entities of the given name
+     */
+    public CacheInvalidation(Type type, String name, String id) {
+        this.type = Objects.requireNonNull(type);
+        this.name = Objects.requireNonNull(name);
+        this.id = id;
+    }
+
+    public static CacheInvalidation entity(String entityName, Object id) {
+        return new CacheInvalidation(Type.ENTITY, entityName, id == null ? null : id.toString());
+    }
+
+    public static CacheInvalidation querySpace(String space) {
+        return new CacheInvalidation(Type.QUERY_SPACE, space, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return type == that.type && name.equals(that.name) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, name, id);
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + name + (id == null ? "" : "#" + id);
+    }
+}
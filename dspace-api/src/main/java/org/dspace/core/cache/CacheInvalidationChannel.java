@@ -0,0 +1,38 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Channel through which the DSpace processes sharing a database tell each other about changes which invalidate
+ * their Hibernate second-level caches. Implementations are only used by the {@link ClusterCacheInvalidator}, from a
+ * single thread.
+ */
+public interface CacheInvalidationChannel {
+
+    /**
+     * Send invalidations to the other processes.
+     *
+     * @param invalidations the changes made by this process
+     * @throws IOException if the invalidations could not be sent
+     */
+    void publish(Collection<CacheInvalidation> invalidations) throws IOException;
+
+    /**
+     * Receive the invalidations sent by the other processes since the last call. Invalidations sent before the first
+     * call may be skipped, as the caches of this process are still empty. An invalidation may be received more than
+     * once.
+     *
+     * @return the changes made by other processes
+     * @throws IOException if the invalidations could not be received
+     */
+    List<CacheInvalidation> receive() throws IOException;
+}
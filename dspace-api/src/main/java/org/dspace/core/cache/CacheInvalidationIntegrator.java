@@ -0,0 +1,77 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Hibernate integrator, registered through the Java service loader, which hands the session factory to the
+ * {@link ClusterCacheInvalidator} once it is started, and reports the committed updates and deletions of the
+ * entities stored in the second-level cache to it.
+ */
+public class CacheInvalidationIntegrator
+    implements Integrator, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry()
+                                                       .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        ClusterCacheInvalidator.setSessionFactory(sessionFactory);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory,
+                             SessionFactoryServiceRegistry serviceRegistry) {
+        ClusterCacheInvalidator.setSessionFactory(null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            ClusterCacheInvalidator.localInvalidation(
+                CacheInvalidation.entity(event.getPersister().getEntityName(), event.getId()));
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing changed in the database
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getPersister().canWriteToCache()) {
+            ClusterCacheInvalidator.localInvalidation(
+                CacheInvalidation.entity(event.getPersister().getEntityName(), event.getId()));
+        }
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing changed in the database
+    }
+}
@@ -0,0 +1,372 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.services.ConfigurationService;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Keeps the Hibernate second-level cache of this process coherent with the other DSpace processes (webapp, command
+ * line tools, other cluster nodes) sharing the database, when "hibernate.cache.cluster.enabled" is true.
+ * <p>
+ * The cached entities updated or deleted by this process, and the tables it modified (which make the cached query
+ * results using them stale), are collected by the {@link CacheInvalidationIntegrator} and the
+ * {@link ClusterTimestampsCacheFactory} once the transactions are committed. Every
+ * "hibernate.cache.cluster.interval" milliseconds a background thread publishes them through the
+ * {@link CacheInvalidationChannel}, and applies the invalidations received from the other processes to the local
+ * cache regions.
+ * <p>
+ * Invalidation and cache usage counters are kept for each region, see {@link #getRegionMetrics()}. Hit, miss and put
+ * counts require Hibernate statistics, enabled by "hibernate.cache.statistics.enabled".
+ */
+public class ClusterCacheInvalidator {
+
+    private static final Logger log = LogManager.getLogger(ClusterCacheInvalidator.class);
+
+    /**
+     * The invalidator started by Spring, used by the Hibernate extensions which are not Spring beans.
+     */
+    private static volatile ClusterCacheInvalidator instance;
+
+    /**
+     * The session factory, set by the {@link CacheInvalidationIntegrator} once Hibernate is started. It is not
+     * looked up from Spring, as creating it before the database is migrated would fail its validation.
+     */
+    private static volatile SessionFactoryImplementor sessionFactory;
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    private CacheInvalidationChannel channel;
+
+    private final Queue<CacheInvalidation> pending = new ConcurrentLinkedQueue<>();
+
+    private final Map<String, RegionCounters> counters = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    public void setChannel(CacheInvalidationChannel channel) {
+        this.channel = channel;
+    }
+
+    public CacheInvalidationChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Start synchronizing the cache with the other processes.
+     */
+    public synchronized void init() {
+        instance = this;
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "hibernate-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        schedule(executor);
+    }
+
+    /**
+     * Publish the last local invalidations, and stop synchronizing.
+     */
+    public void destroy() {
+        ScheduledThreadPoolExecutor stopping;
+        synchronized (this) {
+            stopping = executor;
+            executor = null;
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        if (stopping != null) {
+            stopping.submit(this::publish);
+            stopping.shutdown();
+            try {
+                stopping.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true if invalidations are exchanged with the other processes
+     */
+    public boolean isEnabled() {
+        return configurationService.getBooleanProperty("hibernate.cache.cluster.enabled", false);
+    }
+
+    /**
+     * Called by the {@link CacheInvalidationIntegrator} when Hibernate is started.
+     */
+    static void setSessionFactory(SessionFactoryImplementor factory) {
+        sessionFactory = factory;
+    }
+
+    /**
+     * Called by the Hibernate extensions once a change of this process is committed.
+     */
+    static void localInvalidation(CacheInvalidation invalidation) {
+        ClusterCacheInvalidator invalidator = instance;
+        if (invalidator != null) {
+            invalidator.recordLocal(invalidation);
+        }
+    }
+
+    protected void recordLocal(CacheInvalidation invalidation) {
+        getCounters(regionName(invalidation)).local.incrementAndGet();
+        if (isEnabled()) {
+            pending.add(invalidation);
+        }
+    }
+
+    /**
+     * Publish the local invalidations, and apply the ones received from the other processes. Called regularly by
+     * the background thread.
+     *
+     * @return the number of invalidations received
+     * @throws IOException if the invalidations could not be exchanged, in which case they are retried later
+     */
+    public synchronized int synchronize() throws IOException {
+        SessionFactoryImplementor factory = sessionFactory;
+        if (factory == null || factory.isClosed()) {
+            return 0;
+        }
+        if (configurationService.getBooleanProperty("hibernate.cache.statistics.enabled", false)) {
+            factory.getStatistics().setStatisticsEnabled(true);
+        }
+        if (!isEnabled()) {
+            pending.clear();
+            return 0;
+        }
+        publish();
+        List<CacheInvalidation> received = channel.receive();
+        for (CacheInvalidation invalidation : new LinkedHashSet<>(received)) {
+            apply(factory, invalidation);
+        }
+        return received.size();
+    }
+
+    /**
+     * Publish the pending local invalidations, coalescing repeated ones.
+     */
+    protected synchronized void publish() {
+        Set<CacheInvalidation> invalidations = new LinkedHashSet<>();
+        CacheInvalidation invalidation;
+        while ((invalidation = pending.poll()) != null) {
+            invalidations.add(invalidation);
+        }
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        try {
+            channel.publish(invalidations);
+        } catch (IOException e) {
+            // Retried with the next ones
+            pending.addAll(invalidations);
+            log.error("Failed to publish {} cache invalidations", invalidations.size(), e);
+        }
+    }
+
+    /**
+     * Apply an invalidation received from another process to the local cache.
+     */
+    protected void apply(SessionFactoryImplementor factory, CacheInvalidation invalidation) {
+        CacheImplementor cache = factory.getCache();
+        if (invalidation.getType() == CacheInvalidation.Type.QUERY_SPACE) {
+            // Written to the region rather than through the TimestampsCache, which would publish it again
+            TimestampsCache timestampsCache = cache.getTimestampsCache();
+            timestampsCache.getRegion().putIntoCache(invalidation.getName(),
+                                                     cache.getRegionFactory().nextTimestamp(), null);
+        } else {
+            EntityPersister persister = factory.getMappingMetamodel().findEntityDescriptor(invalidation.getName());
+            if (persister == null) {
+                log.debug("Ignoring the invalidation of unknown entity {}", invalidation.getName());
+                return;
+            }
+            Object id = toIdentifier(persister, invalidation.getId());
+            if (id == null) {
+                cache.evictEntityData(invalidation.getName());
+            } else {
+                cache.evictEntityData(invalidation.getName(), id);
+            }
+        }
+        getCounters(regionName(invalidation)).remote.incrementAndGet();
+    }
+
+    /**
+     * Convert the identifier of a received invalidation to the identifier type of the entity, or return null if
+     * it cannot be converted, in which case all the entities are evicted.
+     */
+    private Object toIdentifier(EntityPersister persister, String id) {
+        if (id == null) {
+            return null;
+        }
+        Class<?> type = persister.getIdentifierType().getReturnedClass();
+        try {
+            if (UUID.class.equals(type)) {
+                return UUID.fromString(id);
+            } else if (Integer.class.equals(type) || int.class.equals(type)) {
+                return Integer.valueOf(id);
+            } else if (Long.class.equals(type) || long.class.equals(type)) {
+                return Long.valueOf(id);
+            } else if (String.class.equals(type)) {
+                return id;
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Unable to convert the identifier {} of {}", id, persister.getEntityName());
+        }
+        return null;
+    }
+
+    /**
+     * @return the metrics of each second-level cache region, by region name
+     */
+    public SortedMap<String, RegionMetrics> getRegionMetrics() {
+        SortedMap<String, RegionMetrics> metrics = new TreeMap<>();
+        SessionFactoryImplementor factory = sessionFactory;
+        Statistics statistics = null;
+        Collection<String> regions = new ArrayList<>(counters.keySet());
+        if (factory != null && !factory.isClosed()) {
+            statistics = factory.getStatistics();
+            for (String region : factory.getCache().getCacheRegionNames()) {
+                if (!regions.contains(region)) {
+                    regions.add(region);
+                }
+            }
+        }
+        for (String region : regions) {
+            RegionCounters regionCounters = getCounters(region);
+            CacheRegionStatistics regionStatistics = null;
+            if (statistics != null && statistics.isStatisticsEnabled()) {
+                // Null if not a region of the cache, e.g. an entity counted under its name
+                regionStatistics = statistics.getCacheRegionStatistics(region);
+            }
+            metrics.put(region, new RegionMetrics(
+                regionStatistics == null ? -1 : regionStatistics.getHitCount(),
+                regionStatistics == null ? -1 : regionStatistics.getMissCount(),
+                regionStatistics == null ? -1 : regionStatistics.getPutCount(),
+                regionCounters.local.get(), regionCounters.remote.get()));
+        }
+        return metrics;
+    }
+
+    private String regionName(CacheInvalidation invalidation) {
+        SessionFactoryImplementor factory = sessionFactory;
+        if (invalidation.getType() == CacheInvalidation.Type.QUERY_SPACE) {
+            return factory == null ? "default-update-timestamps-region"
+                : factory.getCache().getTimestampsCache().getRegion().getName();
+        }
+        EntityPersister persister = factory == null ? null
+            : factory.getMappingMetamodel().findEntityDescriptor(invalidation.getName());
+        if (persister != null && persister.canWriteToCache()) {
+            return persister.getCacheAccessStrategy().getRegion().getName();
+        }
+        // Unknown or not cached entity, counted under its name
+        return invalidation.getName();
+    }
+
+    private RegionCounters getCounters(String region) {
+        return counters.computeIfAbsent(region, name -> new RegionCounters());
+    }
+
+    private void schedule(ScheduledThreadPoolExecutor executor) {
+        long interval = configurationService.getLongProperty("hibernate.cache.cluster.interval", 1000);
+        try {
+            executor.schedule(() -> {
+                try {
+                    synchronize();
+                } catch (Exception e) {
+                    log.error("Failed to synchronize the second-level cache with the other processes", e);
+                }
+                schedule(executor);
+            }, interval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Stopped by destroy()
+        }
+    }
+
+    private static class RegionCounters {
+        private final AtomicLong local = new AtomicLong();
+        private final AtomicLong remote = new AtomicLong();
+    }
+
+    /**
+     * Usage and invalidation counts of a second-level cache region since the process started. Hit, miss and put
+     * counts are -1 when Hibernate statistics are disabled.
+     */
+    public static class RegionMetrics {
+        private final long hits;
+        private final long misses;
+        private final long puts;
+        private final long localInvalidations;
+        private final long remoteInvalidations;
+
+        public RegionMetrics(long hits, long misses, long puts, long localInvalidations,
+                             long remoteInvalidations) {
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+            this.localInvalidations = localInvalidations;
+            this.remoteInvalidations = remoteInvalidations;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        /**
+         * @return the number of invalidations caused by changes of this process
+         */
+        public long getLocalInvalidations() {
+            return localInvalidations;
+        }
+
+        /**
+         * @return the number of invalidations received from the other processes
+         */
+        public long getRemoteInvalidations() {
+            return remoteInvalidations;
+        }
+    }
+}
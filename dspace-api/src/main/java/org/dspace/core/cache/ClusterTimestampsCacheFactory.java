@@ -0,0 +1,79 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.util.Collection;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.internal.StandardTimestampsCacheFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.TimestampsCacheFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Hibernate "hibernate.cache.query_cache_factory" building the standard cache of the last modification time of
+ * each table, which decides whether cached query results are stale, and reporting the tables modified by the
+ * committed transactions of this process to the {@link ClusterCacheInvalidator}.
+ */
+public class ClusterTimestampsCacheFactory implements TimestampsCacheFactory {
+
+    @Override
+    public TimestampsCache buildTimestampsCache(CacheImplementor cacheManager, TimestampsRegion timestampsRegion) {
+        return new ClusterTimestampsCache(
+            StandardTimestampsCacheFactory.INSTANCE.buildTimestampsCache(cacheManager, timestampsRegion));
+    }
+
+    private static class ClusterTimestampsCache implements TimestampsCache {
+        private final TimestampsCache delegate;
+
+        ClusterTimestampsCache(TimestampsCache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TimestampsRegion getRegion() {
+            return delegate.getRegion();
+        }
+
+        @Override
+        public void preInvalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.preInvalidate(spaces, session);
+        }
+
+        @Override
+        public void invalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.invalidate(spaces, session);
+            for (String space : spaces) {
+                ClusterCacheInvalidator.localInvalidation(CacheInvalidation.querySpace(space));
+            }
+        }
+
+        @Override
+        public boolean isUpToDate(String[] spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(spaces, timestamp, session);
+        }
+
+        @Override
+        public boolean isUpToDate(Collection<String> spaces, Long timestamp,
+                                  SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(spaces, timestamp, session);
+        }
+
+        @Override
+        public void clear() throws CacheException {
+            delegate.clear();
+        }
+
+        @Override
+        public void destroy() {
+            delegate.destroy();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.event.ConfigurationEvent;
+import org.apache.commons.configuration2.event.EventListener;
+import org.apache.commons.configuration2.event.EventSource;
+import org.dspace.services.ConfigurationService;
+
+/**
+ * A value computed from the configuration and needed on every use of a cache, e.g. whether the cache is enabled,
+ * so that the configuration is not read and searched each time.
+ * <p>
+ * The value is computed again after a property is set or cleared, or the configuration is reloaded, which the
+ * configuration reports. As the files of the configuration are also reloaded automatically, which may replace the
+ * configuration, the value is computed again at least every {@link #MAX_AGE} milliseconds as well.
+ *
+ * @param <T> the type of the value
+ */
+public class ConfigurationValue<T> {
+
+    /**
+     * Number of milliseconds after which the value is computed again, the delay after which the configuration
+     * files are checked for changes.
+     */
+    static final long MAX_AGE = 5000;
+
+    private final ConfigurationService configurationService;
+
+    private final Function<ConfigurationService, T> computation;
+
+    // Incremented on every change of the configuration
+    private final AtomicLong version = new AtomicLong();
+
+    private final EventListener<ConfigurationEvent> listener = event -> {
+        if (!event.isBeforeUpdate()) {
+            version.incrementAndGet();
+        }
+    };
+
+    // The configuration the listener is registered with
+    private Configuration listened;
+
+    private volatile Computed<T> computed;
+
+    /**
+     * @param configurationService the configuration to compute the value from
+     * @param computation          computes the value from the configuration
+     */
+    public ConfigurationValue(ConfigurationService configurationService,
+                              Function<ConfigurationService, T> computation) {
+        this.configurationService = configurationService;
+        this.computation = computation;
+    }
+
+    /**
+     * @return the value, computed from the current configuration
+     */
+    public T get() {
+        Computed<T> current = computed;
+        if (current != null && current.version == version.get()
+            && System.currentTimeMillis() - current.time < MAX_AGE) {
+            return current.value;
+        }
+        return compute();
+    }
+
+    private synchronized T compute() {
+        Configuration configuration = configurationService.getConfiguration();
+        if (configuration != listened) {
+            if (listened instanceof EventSource) {
+                ((EventSource) listened).removeEventListener(ConfigurationEvent.ANY, listener);
+            }
+            if (configuration instanceof EventSource) {
+                ((EventSource) configuration).addEventListener(ConfigurationEvent.ANY, listener);
+            }
+            listened = configuration;
+        }
+        // Read before computing, so that a change made while computing is not missed
+        long currentVersion = version.get();
+        T value = computation.apply(configurationService);
+        computed = new Computed<>(value, currentVersion, System.currentTimeMillis());
+        return value;
+    }
+
+    private static final class Computed<T> {
+        private final T value;
+        private final long version;
+        private final long time;
+
+        private Computed(T value, long version, long time) {
+            this.value = value;
+            this.version = version;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * {@link CacheInvalidationChannel} using the "cache_invalidation" table of the DSpace database as a log of the
+ * invalidations, which every process polls for the rows written by the others. Unlike a notification mechanism
+ * specific to one database, this works with every database DSpace supports, and does not need another service to
+ * be deployed alongside DSpace.
+ * <p>
+ * Rows are read again for some time after they were written, so that rows of transactions committed out of order
+ * are not missed. Rows older than "hibernate.cache.cluster.retention" seconds are deleted.
+ */
+public class DatabaseCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    /**
+     * How long rows are read again after the last poll, in milliseconds.
+     */
+    protected static final long OVERLAP = 10000;
+
+    /**
+     * How often old rows are deleted, in milliseconds.
+     */
+    protected static final long PURGE_INTERVAL = 600000;
+
+    private static final int MAX_LENGTH = 255;
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    private DataSource dataSource;
+
+    private final String node = UUID.randomUUID().toString();
+
+    /**
+     * Time of the last poll according to the database, null before the first poll
+     */
+    private Timestamp watermark;
+
+    /**
+     * Ids and creation times of the rows read during the overlap
+     */
+    private final Map<Long, Timestamp> seen = new LinkedHashMap<>();
+
+    private long lastPurge = System.currentTimeMillis();
+
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @return the identifier of this process in the table
+     */
+    public String getNode() {
+        return node;
+    }
+
+    @Override
+    public void publish(Collection<CacheInvalidation> invalidations) throws IOException {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "INSERT INTO cache_invalidation (node, kind, name, entity_id) VALUES (?, ?, ?, ?)")) {
+            for (CacheInvalidation invalidation : invalidations) {
+                statement.setString(1, node);
+                statement.setString(2, invalidation.getType().name());
+                statement.setString(3, StringUtils.left(invalidation.getName(), MAX_LENGTH));
+                statement.setString(4, invalidation.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Unable to publish the cache invalidations", e);
+        }
+    }
+
+    @Override
+    public List<CacheInvalidation> receive() throws IOException {
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            Timestamp now = currentTimestamp(connection);
+            if (watermark != null) {
+                Timestamp from = new Timestamp(watermark.getTime() - OVERLAP);
+                try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT cache_invalidation_id, kind, name, entity_id, created FROM cache_invalidation"
+                        + " WHERE created > ? AND node <> ? ORDER BY cache_invalidation_id")) {
+                    statement.setTimestamp(1, from);
+                    statement.setString(2, node);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            long id = resultSet.getLong(1);
+                            if (seen.putIfAbsent(id, resultSet.getTimestamp(5)) != null) {
+                                continue;
+                            }
+                            CacheInvalidation.Type type;
+                            try {
+                                type = CacheInvalidation.Type.valueOf(resultSet.getString(2));
+                            } catch (IllegalArgumentException e) {
+                                // Written by a newer version of DSpace
+                                continue;
+                            }
+                            invalidations.add(new CacheInvalidation(type, resultSet.getString(3),
+                                                                    resultSet.getString(4)));
+                        }
+                    }
+                }
+                Iterator<Timestamp> created = seen.values().iterator();
+                while (created.hasNext()) {
+                    if (!created.next().after(from)) {
+                        created.remove();
+                    }
+                }
+            }
+            watermark = now;
+            purge(connection);
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Unable to receive the cache invalidations", e);
+        }
+        return invalidations;
+    }
+
+    private void purge(Connection connection) throws SQLException {
+        if (System.currentTimeMillis() - lastPurge < PURGE_INTERVAL) {
+            return;
+        }
+        lastPurge = System.currentTimeMillis();
+        long retention = configurationService.getLongProperty("hibernate.cache.cluster.retention", 3600);
+        try (PreparedStatement statement = connection.prepareStatement(
+            "DELETE FROM cache_invalidation WHERE created < ?")) {
+            statement.setTimestamp(1, new Timestamp(watermark.getTime() - Math.max(retention * 1000, OVERLAP)));
+            statement.executeUpdate();
+        }
+    }
+
+    private Timestamp currentTimestamp(Connection connection) throws SQLException {
+        // The clock of the database, which is the clock of the "created" column of every process
+        try (PreparedStatement statement = connection.prepareStatement("SELECT CURRENT_TIMESTAMP");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getTimestamp(1);
+        }
+    }
+}
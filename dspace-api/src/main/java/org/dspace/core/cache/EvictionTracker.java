@@ -0,0 +1,193 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.dspace.core.Context;
+
+/**
+ * Keeps track of the keys evicted from a JVM-wide cache because of the changes made by a transaction, so that the
+ * values other contexts compute from the data of before the commit are not cached again.
+ * <p>
+ * Changes are usually seen before they are committed, e.g. by event consumers, which run before the commit, while
+ * other contexts still read the data of before the change. Evicting a key therefore prevents it from being cached
+ * until the transaction of the context is committed or rolled back, evicts it again once the transaction ended, and
+ * keeps preventing it from being cached for a grace period, for the readers which started before the commit.
+ * <p>
+ * A context which is never committed, rolled back or aborted would prevent its keys from being cached forever. The
+ * keys of a transaction which has not ended are therefore only kept from being cached for the maximum duration of a
+ * transaction plus the grace period.
+ *
+ * @param <K> the type of the keys of the cache
+ */
+public class EvictionTracker<K> {
+
+    private final LongSupplier graceMillis;
+
+    private final LongSupplier maxTransactionMillis;
+
+    // Keys evicted by transactions which have not ended yet
+    private final Map<K, Pending> pending = new ConcurrentHashMap<>();
+
+    // Transactions which evicted all keys and have not ended yet
+    private final AtomicReference<Pending> pendingAll = new AtomicReference<>(Pending.NONE);
+
+    // Keys evicted by ended transactions, with the time until which they must not be cached again
+    private final Map<K, Long> evicted = new ConcurrentHashMap<>();
+
+    // Time until which no key must be cached again, after a transaction which evicted all keys ended
+    private volatile long allEvictedUntil = 0;
+
+    /**
+     * @param graceMillis          supplies the number of milliseconds during which an evicted key must not be cached
+     *                             again once the transaction which evicted it ended
+     * @param maxTransactionMillis supplies the number of milliseconds after which a transaction which has not ended
+     *                             is assumed to belong to a context which will never end
+     */
+    public EvictionTracker(LongSupplier graceMillis, LongSupplier maxTransactionMillis) {
+        this.graceMillis = graceMillis;
+        this.maxTransactionMillis = maxTransactionMillis;
+    }
+
+    /**
+     * Evict keys now, and again once the transaction of the context has ended.
+     *
+     * @param context  the context whose transaction made the changes, or null if they are already committed
+     * @param keys     the keys to evict
+     * @param eviction removes a key from the cache
+     */
+    public void evict(Context context, Collection<K> keys, Consumer<K> eviction) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<K> evictedKeys = List.copyOf(keys);
+        if (context != null) {
+            // Forget the keys of the contexts which never ended
+            long now = System.currentTimeMillis();
+            pending.values().removeIf(p -> !p.isActive(now));
+            long until = getPendingUntil();
+            evictedKeys.forEach(key -> pending.merge(key, Pending.NONE.add(until), (a, b) -> a.add(until)));
+        }
+        evictedKeys.forEach(eviction);
+        if (context == null) {
+            markEvicted(evictedKeys);
+            return;
+        }
+        Runnable end = () -> {
+            evictedKeys.forEach(eviction);
+            markEvicted(evictedKeys);
+            evictedKeys.forEach(key -> pending.computeIfPresent(key, (k, p) -> p.remove()));
+        };
+        context.runAfterCommit(end);
+        context.runAfterRollback(end);
+    }
+
+    /**
+     * Evict all keys now, and again once the transaction of the context has ended.
+     *
+     * @param context  the context whose transaction made the changes, or null if they are already committed
+     * @param eviction removes all keys from the cache
+     */
+    public void evictAll(Context context, Runnable eviction) {
+        if (context != null) {
+            long until = getPendingUntil();
+            pendingAll.updateAndGet(p -> p.add(until));
+        }
+        eviction.run();
+        if (context == null) {
+            allEvictedUntil = System.currentTimeMillis() + graceMillis.getAsLong();
+            return;
+        }
+        Runnable end = () -> {
+            eviction.run();
+            allEvictedUntil = System.currentTimeMillis() + graceMillis.getAsLong();
+            pendingAll.updateAndGet(p -> p.count > 1 ? p.remove() : Pending.NONE);
+        };
+        context.runAfterCommit(end);
+        context.runAfterRollback(end);
+    }
+
+    /**
+     * @param key a key of the cache
+     * @return true if the key must not be cached, as it was evicted by a transaction which has not ended yet, or
+     * during the grace period after such a transaction ended
+     */
+    public boolean isEvicted(K key) {
+        long now = System.currentTimeMillis();
+        Pending all = pendingAll.get();
+        if (all.isActive(now)) {
+            return true;
+        } else if (all != Pending.NONE) {
+            // Left by contexts which never ended
+            pendingAll.compareAndSet(all, Pending.NONE);
+        }
+        Pending keyPending = pending.get(key);
+        if (keyPending != null) {
+            if (keyPending.isActive(now)) {
+                return true;
+            }
+            // Left by contexts which never ended
+            pending.remove(key, keyPending);
+        }
+        if (now < allEvictedUntil) {
+            return true;
+        }
+        Long until = evicted.get(key);
+        return until != null && now < until;
+    }
+
+    private long getPendingUntil() {
+        return System.currentTimeMillis() + maxTransactionMillis.getAsLong() + graceMillis.getAsLong();
+    }
+
+    private void markEvicted(List<K> keys) {
+        long now = System.currentTimeMillis();
+        evicted.values().removeIf(until -> until < now);
+        long until = now + graceMillis.getAsLong();
+        keys.forEach(key -> evicted.put(key, until));
+    }
+
+    /**
+     * The transactions which evicted a key and have not ended yet: their number, and the time after which they are
+     * assumed to never end.
+     */
+    private static final class Pending {
+
+        static final Pending NONE = new Pending(0, 0);
+
+        private final int count;
+        private final long until;
+
+        private Pending(int count, long until) {
+            this.count = count;
+            this.until = until;
+        }
+
+        Pending add(long until) {
+            return new Pending(count + 1, Math.max(this.until, until));
+        }
+
+        /**
+         * @return the pending transactions once one of them ended, or null if it was the last one
+         */
+        Pending remove() {
+            return count > 1 ? new Pending(count - 1, until) : null;
+        }
+
+        boolean isActive(long now) {
+            return count > 0 && now < until;
+        }
+    }
+}
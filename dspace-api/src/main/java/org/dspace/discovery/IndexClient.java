@@ -102,8 +102,11 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
                                     + ", type will be ignored",
                             TYPE_OPTION));
                 }
-                indexer.deleteIndex();
-                indexer.createIndex(context);
+                boolean resume = commandLine.hasOption("R");
+                if (!resume) {
+                    indexer.deleteIndex();
+                }
+                indexer.createIndex(context, resume);
                 if (indexClientOptions == IndexClientOptions.BUILDANDSPELLCHECK) {
                     checkRebuildSpellCheck(commandLine, indexer);
                 }
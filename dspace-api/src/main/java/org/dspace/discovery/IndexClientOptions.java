@@ -92,6 +92,8 @@ public enum IndexClientOptions {
         options.addOption("d", "delete", false,
                 "delete all records from existing index");
         options.addOption("b", "build", false, "(re)build index, wiping out current one if it exists");
+        options.addOption("R", "resume", false,
+                          "resume an interrupted (re)build (-b) from its last checkpoint instead of wiping the index");
         options.addOption("s", "spellchecker", false, "Rebuild the spellchecker, can be combined with -b and -f.");
         options.addOption("f", "force", false,
                           "if updating existing index, force each handle to be reindexed even if up-to-date");
@@ -7,8 +7,10 @@
  */
 package org.dspace.discovery;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 
@@ -52,6 +54,10 @@ public class IndexEventConsumer implements Consumer {
 
     IndexObjectFactoryFactory indexObjectServiceFactory = IndexObjectFactoryFactory.getInstance();
 
+    IndexEventQueue indexEventQueue = DSpaceServicesFactory.getInstance().getServiceManager()
+                                                           .getServiceByName(IndexEventQueue.class.getName(),
+                                                                             IndexEventQueue.class);
+
     @Override
     public void initialize() throws Exception {
 
@@ -212,10 +218,25 @@ public class IndexEventConsumer implements Consumer {
      * Process sets of objects to add, update, and delete in index. Correct for
      * interactions between the sets -- e.g. objects which were deleted do not
      * need to be added or updated, new objects don't also need an update, etc.
+     * If the {@link IndexEventQueue} is enabled, the changes are only queued
+     * once the transaction is committed, and indexed in the background.
      */
     @Override
     public void end(Context ctx) throws Exception {
 
+        if (indexEventQueue != null && indexEventQueue.isEnabled()) {
+            try {
+                indexEventQueue.enqueue(ctx, uniqueIdsToDelete, getUniqueIndexIDs(objectsToUpdate),
+                                        getUniqueIndexIDs(createdItemsToUpdate));
+                objectsToUpdate.clear();
+                uniqueIdsToDelete.clear();
+                createdItemsToUpdate.clear();
+                return;
+            } catch (IOException e) {
+                log.error("Failed to queue the changes to the index, indexing them now", e);
+            }
+        }
+
         // Change the mode to readonly to improve performance
         Context.Mode originalMode = ctx.getCurrentMode();
         ctx.setMode(Context.Mode.READ_ONLY);
@@ -254,6 +275,17 @@ public class IndexEventConsumer implements Consumer {
         }
     }
 
+    private Set<String> getUniqueIndexIDs(Set<IndexableObject> indexableObjects) {
+        Set<String> uniqueIndexIDs = new LinkedHashSet<>();
+        for (IndexableObject indexableObject : indexableObjects) {
+            String uniqueIndexID = indexableObject.getUniqueIndexID();
+            if (uniqueIndexID != null) {
+                uniqueIndexIDs.add(uniqueIndexID);
+            }
+        }
+        return uniqueIndexIDs;
+    }
+
     private void indexObject(Context ctx, IndexableObject iu, boolean preDb) throws SQLException {
         /* we let all types through here and
          * allow the search indexer to make
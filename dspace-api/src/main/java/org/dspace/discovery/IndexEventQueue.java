@@ -0,0 +1,438 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.factory.IndexFactory;
+import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Durable queue of the changes to the search index collected by the {@link IndexEventConsumer}, used when
+ * "discovery.index.async.enabled" is true. Instead of updating the index before the request which made the
+ * changes completes, the consumer writes the unique index ids of the changed objects to a file in the queue
+ * directory. A background thread regularly reads a batch of these files, coalesces repeated changes of the same
+ * object, applies them to the index with a single commit, and only then deletes the files. The changes of objects
+ * which could not be indexed are queued again, and tried up to "discovery.index.async.max-attempts" times. Objects
+ * are always indexed in their state at the time of the flush, so the index lags behind the database by at most
+ * "discovery.index.async.interval" milliseconds plus the time needed to index the queued changes.
+ * <p>
+ * As the queue is kept on disk, changes which have not been indexed when the process stops are indexed by the
+ * next process using the queue directory. Several processes may share the directory: a lock file ensures that only
+ * one of them flushes the queue at a time.
+ */
+public class IndexEventQueue {
+
+    private static final Logger log = LogManager.getLogger(IndexEventQueue.class);
+
+    protected static final String QUEUE_SUFFIX = ".queue";
+    protected static final String PENDING_SUFFIX = ".pending";
+    protected static final String LOCK_FILE = "queue.lock";
+
+    private static final String DELETE = "D";
+    private static final String UPDATE = "U";
+    private static final String CREATE = "C";
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    /**
+     * Single thread on which the queue is flushed. As the database session is bound to the thread, indexing is
+     * never done on the thread of a caller, whose context would otherwise share the session.
+     */
+    private ScheduledThreadPoolExecutor executor;
+    private boolean scheduled = false;
+
+    /**
+     * Start flushing the queue in the background if it is enabled, so that changes left by a previous process are
+     * indexed.
+     */
+    public void init() {
+        if (isEnabled()) {
+            start();
+        }
+    }
+
+    /**
+     * Stop the background thread, and flush the queue a last time.
+     */
+    public void destroy() {
+        ScheduledThreadPoolExecutor stopping;
+        synchronized (this) {
+            stopping = executor;
+            executor = null;
+            scheduled = false;
+        }
+        if (stopping != null) {
+            stopping.submit(this::flushAll);
+            stopping.shutdown();
+            try {
+                stopping.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true if the {@link IndexEventConsumer} should queue its changes rather than index them itself
+     */
+    public boolean isEnabled() {
+        return configurationService.getBooleanProperty("discovery.index.async.enabled", false);
+    }
+
+    /**
+     * Queue changes to the search index, once the current transaction of the context is committed. As events are
+     * dispatched before the commit, queueing them right away would let the queue be flushed while the changes are
+     * not visible to the connection used to index them yet. The changes are therefore written to a pending file,
+     * which is only moved to the queue after the commit, or deleted if the transaction is rolled back. Pending
+     * files older than "discovery.index.async.pending-timeout" milliseconds, left by a process which stopped
+     * between the commit and the move, are flushed as well: the objects are always indexed in their current state.
+     *
+     * @param context             the context whose transaction made the changes
+     * @param uniqueIdsToDelete   the unique index ids of the documents to remove from the index
+     * @param uniqueIdsToUpdate   the unique index ids of the objects to (re)index
+     * @param uniqueIdsToCreate   the unique index ids of the newly created objects to index with their pre-db status
+     * @throws IOException if the changes could not be written to the queue
+     */
+    public void enqueue(Context context, Set<String> uniqueIdsToDelete, Set<String> uniqueIdsToUpdate,
+                        Set<String> uniqueIdsToCreate) throws IOException {
+        List<String> lines = new ArrayList<>();
+        uniqueIdsToDelete.forEach(id -> lines.add(DELETE + " " + id));
+        uniqueIdsToUpdate.forEach(id -> lines.add(UPDATE + " " + id));
+        uniqueIdsToCreate.forEach(id -> lines.add(CREATE + " " + id));
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        File dir = getQueueDir();
+        dir.mkdirs();
+        // The names sort in the order in which the changes were made
+        String name = String.format("%019d-%s", System.currentTimeMillis(), UUID.randomUUID());
+        File pending = new File(dir, name + PENDING_SUFFIX);
+        write(pending, lines);
+        context.runAfterCommit(() -> publish(pending, new File(dir, name + QUEUE_SUFFIX), lines));
+        context.runAfterRollback(() -> {
+            try {
+                Files.deleteIfExists(pending.toPath());
+            } catch (IOException e) {
+                log.error("Failed to remove the changes of a rolled back transaction from the queue: " + pending, e);
+            }
+        });
+    }
+
+    /**
+     * Move a pending file to the queue, once its transaction is committed, and start flushing the queue.
+     */
+    private void publish(File pending, File queued, List<String> lines) {
+        try {
+            try {
+                Files.move(pending.toPath(), queued.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                // Flushed as a stale pending file in the meantime, possibly before the commit: queue it again
+                write(queued, lines);
+            }
+        } catch (IOException e) {
+            log.error("Failed to queue the changes to the index, they will be indexed after "
+                          + "discovery.index.async.pending-timeout: " + pending, e);
+        }
+        start();
+    }
+
+    /**
+     * Write a file of the queue under a temporary name and rename it, so that a partially written file is never
+     * flushed.
+     */
+    private void write(File file, List<String> lines) throws IOException {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        Files.write(temp.toPath(), lines, StandardCharsets.UTF_8);
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Index a batch of queued changes, and wait until it is indexed. Changes of the same object are coalesced:
+     * documents are removed first, and then the objects which still exist are indexed once, in their current state.
+     * An object both created and updated in the batch is indexed as updated, so that its full document is not
+     * replaced by a pre-db one.
+     *
+     * @return the number of distinct objects whose changes were indexed
+     * @throws IOException            if the queue could not be read
+     * @throws SearchServiceException if the index could not be committed, in which case the batch is retried later
+     */
+    public int flush() throws IOException, SearchServiceException {
+        try {
+            return getExecutor().submit(this::flushBatch).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof SearchServiceException) {
+                throw (SearchServiceException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Index a batch of queued changes, see {@link #flush()}. Only called on the thread of the executor.
+     */
+    protected int flushBatch() throws IOException, SearchServiceException {
+        File dir = getQueueDir();
+        long stale = System.currentTimeMillis()
+            - configurationService.getLongProperty("discovery.index.async.pending-timeout", 3600000);
+        File[] files = dir.listFiles((parent, name) -> name.endsWith(QUEUE_SUFFIX)
+            || name.endsWith(PENDING_SUFFIX) && new File(parent, name).lastModified() < stale);
+        if (files == null || files.length == 0) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(new File(dir, LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            if (lock == null) {
+                // Another process is flushing the queue
+                return 0;
+            }
+
+            Arrays.sort(files);
+            int batchSize = configurationService.getIntProperty("discovery.index.async.batch-size", 1000);
+            Set<String> toDelete = new LinkedHashSet<>();
+            Set<String> toUpdate = new LinkedHashSet<>();
+            Set<String> toCreate = new LinkedHashSet<>();
+            // the number of times the indexing of an object already failed, for the objects queued again
+            Map<String, Integer> failures = new HashMap<>();
+            List<File> batch = new ArrayList<>();
+            for (File file : files) {
+                List<String> lines;
+                try {
+                    lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                } catch (NoSuchFileException e) {
+                    // Flushed by another process since the directory was listed
+                    continue;
+                }
+                for (String line : lines) {
+                    String[] fields = StringUtils.split(line, ' ');
+                    if (fields.length < 2) {
+                        continue;
+                    }
+                    String type = fields[0];
+                    String uniqueId = fields[1];
+                    if (fields.length > 2) {
+                        failures.merge(uniqueId, Integer.parseInt(fields[2]), Math::max);
+                    }
+                    if (DELETE.equals(type)) {
+                        toDelete.add(uniqueId);
+                    } else if (UPDATE.equals(type)) {
+                        toUpdate.add(uniqueId);
+                    } else if (CREATE.equals(type)) {
+                        toCreate.add(uniqueId);
+                    }
+                }
+                batch.add(file);
+                if (toDelete.size() + toUpdate.size() + toCreate.size() >= batchSize) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            Set<String> objects = new LinkedHashSet<>(toDelete);
+            objects.addAll(toUpdate);
+            objects.addAll(toCreate);
+            toCreate.removeAll(toUpdate);
+            List<String> failed = index(toDelete, toUpdate, toCreate);
+            if (!failed.isEmpty()) {
+                // Queued again before the batch is removed, so that a failure in between never loses changes
+                requeue(dir, failed, failures);
+            }
+            for (File file : batch) {
+                Files.deleteIfExists(file.toPath());
+            }
+            log.debug("Indexed the queued changes of {} objects from {} files", objects.size(), batch.size());
+            return objects.size();
+        }
+    }
+
+    /**
+     * Queue again the changes which could not be indexed, after the changes already queued, unless they already
+     * failed "discovery.index.async.max-attempts" times.
+     *
+     * @param dir      the queue directory
+     * @param failed   the queue lines of the changes which could not be indexed
+     * @param failures the number of previous failures of the objects queued again
+     */
+    private void requeue(File dir, List<String> failed, Map<String, Integer> failures) throws IOException {
+        int maxAttempts = configurationService.getIntProperty("discovery.index.async.max-attempts", 5);
+        List<String> lines = new ArrayList<>();
+        for (String line : failed) {
+            String uniqueId = StringUtils.substringAfter(line, " ");
+            int count = failures.getOrDefault(uniqueId, 0) + 1;
+            if (count < maxAttempts) {
+                lines.add(line + " " + count);
+            } else {
+                log.error("Giving up indexing the queued change '{}' after {} attempts", line, count);
+            }
+        }
+        if (!lines.isEmpty()) {
+            write(new File(dir, String.format("%019d-%s", System.currentTimeMillis(), UUID.randomUUID())
+                + QUEUE_SUFFIX), lines);
+        }
+    }
+
+    /**
+     * Flush the queue until it is empty or an error occurs. Only called on the thread of the executor.
+     */
+    protected void flushAll() {
+        try {
+            while (flushBatch() > 0) {
+                // Continue with the next batch
+            }
+        } catch (Exception e) {
+            log.error("Failed to index the queued changes, they will be retried", e);
+        }
+    }
+
+    /**
+     * Apply changes to the index, as {@link IndexEventConsumer#end(Context)} does.
+     *
+     * @return the queue lines of the changes which could not be applied
+     * @throws SearchServiceException if the index could not be committed
+     */
+    protected List<String> index(Set<String> toDelete, Set<String> toUpdate, Set<String> toCreate)
+        throws SearchServiceException {
+        IndexingService indexer = getIndexingService();
+        List<String> failed = new ArrayList<>();
+        Context context = new Context(Context.Mode.READ_ONLY);
+        context.turnOffAuthorisationSystem();
+        try {
+            for (String uniqueId : toDelete) {
+                try {
+                    indexer.unIndexContent(context, uniqueId, false);
+                } catch (Exception e) {
+                    log.error("Failed while UN-indexing object: " + uniqueId, e);
+                    failed.add(DELETE + " " + uniqueId);
+                }
+            }
+            for (String uniqueId : toUpdate) {
+                if (!indexObject(indexer, context, uniqueId, false)) {
+                    failed.add(UPDATE + " " + uniqueId);
+                }
+            }
+            for (String uniqueId : toCreate) {
+                if (!indexObject(indexer, context, uniqueId, true)) {
+                    failed.add(CREATE + " " + uniqueId);
+                }
+            }
+            indexer.commit();
+        } finally {
+            context.abort();
+        }
+        return failed;
+    }
+
+    /**
+     * @return false if the object could not be indexed
+     */
+    private boolean indexObject(IndexingService indexer, Context context, String uniqueId, boolean preDb) {
+        try {
+            IndexFactory indexFactory = IndexObjectFactoryFactory.getInstance().getIndexableObjectFactory(uniqueId);
+            Optional<IndexableObject> indexableObject =
+                indexFactory.findIndexableObject(context, StringUtils.substringAfter(uniqueId, "-"));
+            if (indexableObject.isPresent()) {
+                indexer.indexContent(context, indexableObject.get(), true, false, preDb);
+                log.debug("Indexed " + uniqueId);
+            } else {
+                // Deleted since it was queued, its document was removed by the delete queued with it
+                log.debug("Cannot resolve " + uniqueId + ", perhaps it has been deleted.");
+            }
+            // Do not keep the objects of the whole batch in the session
+            context.uncacheEntities();
+            return true;
+        } catch (Exception e) {
+            log.error("Failed while indexing object: " + uniqueId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Start the background thread, which flushes the queue every "discovery.index.async.interval" milliseconds.
+     */
+    protected synchronized void start() {
+        if (!scheduled) {
+            scheduled = true;
+            schedule(getExecutor());
+        }
+    }
+
+    protected synchronized ScheduledThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "discovery-index-queue");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Do not wait for the next scheduled flush when stopping
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+        return executor;
+    }
+
+    private void schedule(ScheduledThreadPoolExecutor executor) {
+        long interval = configurationService.getLongProperty("discovery.index.async.interval", 1000);
+        try {
+            executor.schedule(() -> {
+                flushAll();
+                schedule(executor);
+            }, interval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Stopped by destroy()
+        }
+    }
+
+    protected File getQueueDir() {
+        return new File(configurationService.getProperty("discovery.index.async.dir",
+            configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                + "discovery-queue"));
+    }
+
+    private IndexingService getIndexingService() {
+        return DSpaceServicesFactory.getInstance().getServiceManager()
+                                    .getServiceByName(IndexingService.class.getName(), IndexingService.class);
+    }
+}
@@ -60,6 +60,13 @@ public interface IndexingService {
 
     void createIndex(Context context) throws SQLException, IOException;
 
+    /**
+     * (Re)build the index of all objects
+     * @param context   The DSpace Context
+     * @param resume    Resume an interrupted build from its last checkpoint instead of starting over
+     */
+    void createIndex(Context context, boolean resume) throws SQLException, IOException;
+
     void updateIndex(Context context);
 
     void updateIndex(Context context, boolean force);
@@ -0,0 +1,264 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.content.Item;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
+
+/**
+ * Rebuilds the Item documents of the discovery index in parallel.
+ * <p>
+ * The UUID space of all regular items is split into a fixed number of partitions. A pool of workers, each with its
+ * own read-only {@link Context}, takes one partition at a time, builds the Solr documents of its items and sends
+ * them to Solr in batches. After every batch the UUID of the last item of that batch is written to a checkpoint
+ * file, so that an interrupted build can be resumed from there instead of starting again from scratch. The
+ * checkpoint file is removed once all partitions have been indexed and committed.
+ */
+public class ParallelIndexBuilder {
+
+    private static final Logger log = LogManager.getLogger(ParallelIndexBuilder.class);
+
+    private static final String PARTITIONS_KEY = "partitions";
+    private static final String PARTITION_KEY_PREFIX = "partition.";
+    private static final String DONE = "done";
+
+    private final ItemService itemService;
+    private final ItemIndexFactory itemIndexFactory;
+    private final SolrSearchCore solrSearchCore;
+    private final int threads;
+    private final int batchSize;
+    private final Path checkpointFile;
+
+    private final AtomicLong indexed = new AtomicLong();
+    private Properties checkpoint;
+
+    /**
+     * @param itemService      service used to find the items of each partition
+     * @param itemIndexFactory factory used to build the Solr document of each item
+     * @param solrSearchCore   the discovery search core to write to
+     * @param threads          the number of workers building documents
+     * @param batchSize        the number of documents sent to Solr in a single request
+     * @param checkpointFile   the file in which the progress of the build is recorded
+     */
+    public ParallelIndexBuilder(ItemService itemService, ItemIndexFactory itemIndexFactory,
+                                SolrSearchCore solrSearchCore, int threads, int batchSize, Path checkpointFile) {
+        this.itemService = itemService;
+        this.itemIndexFactory = itemIndexFactory;
+        this.solrSearchCore = solrSearchCore;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Index all regular items.
+     *
+     * @param partitions the number of UUID ranges to split the items into. Ignored when resuming, as the number
+     *                   of partitions of the interrupted build is reused.
+     * @param resume     whether to continue from the checkpoint of an interrupted build (if there is one)
+     * @return the number of items indexed by this run
+     * @throws IOException         if the checkpoint could not be read or written, or if a partition failed
+     * @throws SolrServerException if the final commit failed
+     */
+    public long build(int partitions, boolean resume) throws IOException, SolrServerException {
+        checkpoint = resume ? readCheckpoint() : null;
+        if (checkpoint == null) {
+            checkpoint = new Properties();
+            checkpoint.setProperty(PARTITIONS_KEY, String.valueOf(Math.max(1, partitions)));
+            writeCheckpoint();
+        } else {
+            log.info("Resuming discovery index build from checkpoint {}", checkpointFile);
+        }
+        int partitionCount = Integer.parseInt(checkpoint.getProperty(PARTITIONS_KEY));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, partitionCount));
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) {
+            final int partition = i;
+            if (!DONE.equals(getPosition(partition))) {
+                futures.add(executor.submit(() -> indexPartition(partition, partitionCount)));
+            }
+        }
+        executor.shutdown();
+
+        long count = 0;
+        int failed = 0;
+        for (Future<Long> future : futures) {
+            try {
+                count += future.get();
+            } catch (ExecutionException e) {
+                log.error("Error while indexing a partition of the items", e.getCause());
+                failed++;
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while indexing items", e);
+            }
+        }
+
+        SolrClient solr = solrSearchCore.getSolr();
+        if (solr != null) {
+            solr.commit();
+        }
+        if (failed > 0) {
+            throw new IOException(failed + " partition(s) of the items could not be indexed. The build can be "
+                + "resumed from checkpoint " + checkpointFile);
+        }
+        Files.deleteIfExists(checkpointFile);
+        return count;
+    }
+
+    /**
+     * Index all items of a single partition, starting after the last item recorded in the checkpoint.
+     */
+    private long indexPartition(int partition, int partitionCount)
+        throws SQLException, IOException, SolrServerException {
+        Context context = new Context(Context.Mode.READ_ONLY);
+        context.turnOffAuthorisationSystem();
+        try {
+            String position = getPosition(partition);
+            UUID lowerBound = position != null ? UUID.fromString(position) : getLowerBound(partition, partitionCount);
+            UUID upperBound = getUpperBound(partition, partitionCount);
+
+            long count = 0;
+            List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+            List<Item> batchItems = new ArrayList<>(batchSize);
+            Iterator<Item> items = itemService.findAllRegularItems(context, lowerBound, upperBound);
+            while (items.hasNext()) {
+                batchItems.add(items.next());
+                if (batchItems.size() >= batchSize || !items.hasNext()) {
+                    try {
+                        // The relationships of the whole batch are loaded at once for their virtual metadata
+                        itemService.prefetchVirtualMetadata(context, batchItems);
+                    } catch (SQLException e) {
+                        log.warn("Unable to prefetch the virtual metadata of a batch of items", e);
+                    }
+                    for (Item item : batchItems) {
+                        IndexableItem indexableItem = new IndexableItem(item);
+                        try {
+                            SolrInputDocument document = itemIndexFactory.buildDocument(context, indexableItem);
+                            itemIndexFactory.completeDocument(context, indexableItem, document);
+                            batch.add(document);
+                        } catch (SQLException | IOException e) {
+                            log.error("Error occurred while building SOLR document for item {}", item.getID(), e);
+                        }
+                        count++;
+                        context.uncacheEntity(item);
+                    }
+                    UUID last = batchItems.get(batchItems.size() - 1).getID();
+                    batchItems.clear();
+
+                    send(batch);
+                    setPosition(partition, last.toString());
+                    context.uncacheEntities();
+                }
+            }
+            setPosition(partition, DONE);
+            return count;
+        } finally {
+            context.abort();
+        }
+    }
+
+    private void send(List<SolrInputDocument> batch) throws IOException, SolrServerException {
+        SolrClient solr = solrSearchCore.getSolr();
+        if (solr != null && !batch.isEmpty()) {
+            solr.add(batch);
+        }
+        long total = indexed.addAndGet(batch.size());
+        batch.clear();
+        log.info("Indexed {} items", total);
+    }
+
+    /**
+     * @return the exclusive lower bound of the UUIDs in the given partition, or null for the first partition
+     */
+    protected static UUID getLowerBound(int partition, int partitionCount) {
+        return partition == 0 ? null : getBoundary(partition, partitionCount);
+    }
+
+    /**
+     * @return the inclusive upper bound of the UUIDs in the given partition, or null for the last partition
+     */
+    protected static UUID getUpperBound(int partition, int partitionCount) {
+        return partition == partitionCount - 1 ? null : getBoundary(partition + 1, partitionCount);
+    }
+
+    /**
+     * Split the UUID space into equally sized ranges. UUIDs are compared by the database as unsigned values, so the
+     * boundaries are computed on the unsigned value of the most significant bits.
+     */
+    private static UUID getBoundary(int partition, int partitionCount) {
+        long step = Long.divideUnsigned(-1L, partitionCount);
+        return new UUID(step * partition, 0L);
+    }
+
+    private synchronized String getPosition(int partition) {
+        return checkpoint.getProperty(PARTITION_KEY_PREFIX + partition);
+    }
+
+    private synchronized void setPosition(int partition, String position) throws IOException {
+        checkpoint.setProperty(PARTITION_KEY_PREFIX + partition, position);
+        writeCheckpoint();
+    }
+
+    private Properties readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            log.info("No checkpoint found at {}, starting a new discovery index build", checkpointFile);
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            properties.load(in);
+        }
+        if (properties.getProperty(PARTITIONS_KEY) == null) {
+            throw new IOException("Invalid discovery index build checkpoint " + checkpointFile);
+        }
+        return properties;
+    }
+
+    /**
+     * Write the checkpoint to a temporary file first, so that a crash while writing never leaves a corrupt
+     * checkpoint behind.
+     */
+    private synchronized void writeCheckpoint() throws IOException {
+        Path parent = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, checkpointFile.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoint.store(out, "Discovery index build checkpoint");
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -14,6 +14,7 @@ import static org.dspace.discovery.indexobject.ItemIndexFactoryImpl.STATUS_FIELD
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -301,10 +302,51 @@ public class SolrServiceImpl implements SearchService, IndexingService {
      */
     @Override
     public void createIndex(Context c) throws SQLException, IOException {
+        createIndex(c, false);
+    }
 
-        /* Reindex all content preemptively. */
-        updateIndex(c, true);
+    /**
+     * create full index. When more than one indexing thread is configured (discovery.index.build.threads), the
+     * Items are indexed in parallel by a {@link ParallelIndexBuilder}, which records its progress in a checkpoint
+     * file so that an interrupted build can be resumed.
+     *
+     * @param c      context to use
+     * @param resume resume an interrupted build from its checkpoint, if there is one
+     * @throws java.sql.SQLException passed through.
+     * @throws java.io.IOException passed through.
+     */
+    @Override
+    public void createIndex(Context c, boolean resume) throws SQLException, IOException {
+        int threads = configurationService.getIntProperty("discovery.index.build.threads", 1);
+        if (threads <= 1 && !resume) {
+            /* Reindex all content preemptively. */
+            updateIndex(c, true);
+            return;
+        }
 
+        try {
+            ItemIndexFactory itemIndexFactory = null;
+            for (IndexFactory indexableObjectService : indexObjectServiceFactory.getIndexFactories()) {
+                if (indexableObjectService instanceof ItemIndexFactory) {
+                    itemIndexFactory = (ItemIndexFactory) indexableObjectService;
+                } else {
+                    updateIndex(c, indexableObjectService, true);
+                }
+            }
+            if (itemIndexFactory == null) {
+                return;
+            }
+            ParallelIndexBuilder builder = new ParallelIndexBuilder(contentServiceFactory.getItemService(),
+                itemIndexFactory, solrSearchCore, threads,
+                configurationService.getIntProperty("discovery.index.build.batch-size", 100),
+                Paths.get(configurationService.getProperty("discovery.index.build.checkpoint",
+                    configurationService.getProperty("dspace.dir") + "/var/discovery-build.checkpoint")));
+            long count = builder.build(configurationService.getIntProperty("discovery.index.build.partitions", 16),
+                resume);
+            log.info("Indexed {} items using {} threads", count, threads);
+        } catch (SolrServerException e) {
+            throw new IOException(e);
+        }
     }
 
 
@@ -343,19 +385,9 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         try {
             final List<IndexFactory> indexableObjectServices = indexObjectServiceFactory.
                 getIndexFactories();
-            int indexObject = 0;
             for (IndexFactory indexableObjectService : indexableObjectServices) {
                 if (type == null || Strings.CS.equals(indexableObjectService.getType(), type)) {
-                    final Iterator<IndexableObject> indexableObjects = indexableObjectService.findAll(context);
-                    while (indexableObjects.hasNext()) {
-                        final IndexableObject indexableObject = indexableObjects.next();
-                        indexContent(context, indexableObject, force);
-                        context.uncacheEntity(indexableObject.getIndexedObject());
-                        indexObject++;
-                        if ((indexObject % 100) == 0 && indexableObjectService instanceof ItemIndexFactory) {
-                            context.uncacheEntities();
-                        }
-                    }
+                    updateIndex(context, indexableObjectService, force);
                 }
             }
             if (solrSearchCore.getSolr() != null) {
@@ -367,6 +399,29 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         }
     }
 
+    /**
+     * Iterates over all objects of a single type and updates them in the index.
+     *
+     * @param context                the dspace context
+     * @param indexableObjectService the factory of the type of objects to update
+     * @param force                  whether or not to force the reindexing
+     * @throws SQLException if database error
+     */
+    protected void updateIndex(Context context, IndexFactory indexableObjectService, boolean force)
+        throws SQLException {
+        int indexObject = 0;
+        final Iterator<IndexableObject> indexableObjects = indexableObjectService.findAll(context);
+        while (indexableObjects.hasNext()) {
+            final IndexableObject indexableObject = indexableObjects.next();
+            indexContent(context, indexableObject, force);
+            context.uncacheEntity(indexableObject.getIndexedObject());
+            indexObject++;
+            if ((indexObject % 100) == 0 && indexableObjectService instanceof ItemIndexFactory) {
+                context.uncacheEntities();
+            }
+        }
+    }
+
     /**
      * Removes all documents from the Lucene index
      */
@@ -617,6 +617,12 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         writeDocument(solrInputDocument, new FullTextContentStreams(context, indexableObject.getIndexedObject()));
     }
 
+    @Override
+    public void completeDocument(Context context, IndexableItem indexableObject, SolrInputDocument solrInputDocument)
+            throws SQLException, IOException {
+        addFullText(solrInputDocument, new FullTextContentStreams(context, indexableObject.getIndexedObject()));
+    }
+
     @Override
     public List<String> getLocations(Context context, IndexableItem indexableDSpaceObject)
             throws SQLException {
@@ -66,6 +66,19 @@ public interface IndexFactory<T extends IndexableObject, S> {
     void writeDocument(Context context, T indexableObject, SolrInputDocument solrInputDocument)
             throws SQLException, IOException, SolrServerException;
 
+    /**
+     * Complete the provided document with the content which is otherwise only added when it is written to the
+     * solr core (e.g. the full text of an item), without writing it. This allows callers to send documents to the
+     * search core in batches.
+     * @param context               DSpace context object
+     * @param indexableObject       The indexable object the document was built for
+     * @param solrInputDocument     Solr input document as returned by {@link #buildDocument(Context, IndexableObject)}
+     * @throws SQLException         If database error
+     * @throws IOException          If IO error
+     */
+    void completeDocument(Context context, T indexableObject, SolrInputDocument solrInputDocument)
+            throws SQLException, IOException;
+
     /**
      * Remove the provided indexable object from the solr core
      * @param indexableObject       The indexable object that we want to remove from the search core
@@ -0,0 +1,375 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.eperson;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.core.Context;
+import org.dspace.eperson.dao.GroupDAO;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * In-memory index of the ancestors of every group, i.e. the groups of which a group is a (direct or indirect)
+ * member. It answers the questions otherwise answered by the group2groupcache table without querying the
+ * database.
+ * <p>
+ * Groups are mapped to int ids, and the direct parents, direct children and ancestors of each group are kept in
+ * sorted int arrays. The index is built from the group2group table on first use and updated incrementally by the
+ * {@link GroupClosureIndexConsumer} when a group is added to or removed from another group, or deleted, once the
+ * change is committed. As changes made by other processes (e.g. command line scripts) do not reach the consumer of
+ * this process, the index is also rebuilt when it is older than "groups.closure-index.refresh" seconds.
+ * <p>
+ * The index is disabled unless "groups.closure-index.enabled" is true and the consumer is registered with the
+ * default event dispatcher.
+ */
+public class GroupClosureIndex {
+
+    private static final Logger log = LogManager.getLogger(GroupClosureIndex.class);
+
+    static final String CONSUMER_NAME = "groupclosure";
+
+    private static final int[] EMPTY = new int[0];
+
+    @Autowired(required = true)
+    protected GroupDAO groupDAO;
+
+    @Autowired(required = true)
+    protected ConfigurationService configurationService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All the fields below are guarded by the lock
+    private final Map<UUID, Integer> ids = new HashMap<>();
+    private final List<UUID> uuids = new ArrayList<>();
+    private final List<int[]> parents = new ArrayList<>();
+    private final List<int[]> children = new ArrayList<>();
+    private final List<int[]> ancestors = new ArrayList<>();
+    private boolean built = false;
+    private long builtAt = 0;
+
+    /**
+     * Return whether the index may be used. It is never used for a context with uncommitted changes, as these are
+     * only applied to the index once the transaction of the context is committed.
+     *
+     * @param context The relevant DSpace Context.
+     * @return true if the index may answer group membership questions for the given context
+     */
+    public boolean isEnabled(Context context) {
+        return configurationService.getBooleanProperty("groups.closure-index.enabled", false)
+            && ArrayUtils.contains(configurationService.getArrayProperty("event.dispatcher.default.consumers"),
+                                   CONSUMER_NAME)
+            && !context.hasEvents();
+    }
+
+    /**
+     * Check whether a group is a direct or indirect member of another group.
+     *
+     * @param context  The relevant DSpace Context, used to build the index if needed.
+     * @param ancestor the parent group
+     * @param group    the child group
+     * @return true if group is a member of ancestor, directly or through other groups
+     * @throws SQLException if the index had to be built and the database could not be read
+     */
+    public boolean isAncestor(Context context, UUID ancestor, UUID group) throws SQLException {
+        ensureBuilt(context);
+        lock.readLock().lock();
+        try {
+            return isAncestor(ancestor, group);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all groups of which any of the given groups is a direct or indirect member.
+     *
+     * @param context The relevant DSpace Context, used to build the index if needed.
+     * @param groups  the UUIDs of the member groups
+     * @return the UUIDs of all their ancestors
+     * @throws SQLException if the index had to be built and the database could not be read
+     */
+    public Set<UUID> getAncestors(Context context, Iterable<UUID> groups) throws SQLException {
+        ensureBuilt(context);
+        lock.readLock().lock();
+        try {
+            Set<UUID> result = new LinkedHashSet<>();
+            for (UUID group : groups) {
+                Integer id = ids.get(group);
+                if (id != null) {
+                    for (int ancestor : ancestors.get(id)) {
+                        result.add(uuids.get(ancestor));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a group became a member of another group.
+     *
+     * @param parent the UUID of the parent group
+     * @param child  the UUID of the new member group
+     */
+    public void addMember(UUID parent, UUID child) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                int p = getOrCreateId(parent);
+                int c = getOrCreateId(child);
+                parents.set(c, add(parents.get(c), p));
+                children.set(p, add(children.get(p), c));
+                recomputeAncestors(c);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a group is no longer a member of another group.
+     *
+     * @param parent the UUID of the parent group
+     * @param child  the UUID of the removed member group
+     */
+    public void removeMember(UUID parent, UUID child) {
+        lock.writeLock().lock();
+        try {
+            Integer p = ids.get(parent);
+            Integer c = ids.get(child);
+            if (built && p != null && c != null) {
+                parents.set(c, remove(parents.get(c), p));
+                children.set(p, remove(children.get(p), c));
+                recomputeAncestors(c);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a group was deleted.
+     *
+     * @param group the UUID of the deleted group
+     */
+    public void removeGroup(UUID group) {
+        lock.writeLock().lock();
+        try {
+            Integer g = ids.remove(group);
+            if (built && g != null) {
+                int[] formerChildren = children.get(g);
+                for (int p : parents.get(g)) {
+                    children.set(p, remove(children.get(p), g));
+                }
+                for (int c : formerChildren) {
+                    parents.set(c, remove(parents.get(c), g));
+                }
+                parents.set(g, EMPTY);
+                children.set(g, EMPTY);
+                ancestors.set(g, EMPTY);
+                for (int c : formerChildren) {
+                    recomputeAncestors(c);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discard the index, so that it is rebuilt on next use.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt(Context context) throws SQLException {
+        long refresh = configurationService.getLongProperty("groups.closure-index.refresh", 300L) * 1000L;
+        lock.readLock().lock();
+        try {
+            if (built && (refresh <= 0 || System.currentTimeMillis() - builtAt < refresh)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Pair<UUID, UUID>> edges = groupDAO.getGroup2GroupResults(context, false);
+        build(edges);
+    }
+
+    /**
+     * Build the index from scratch.
+     *
+     * @param edges pairs of parent and child group UUIDs, for every direct membership of a group in another group
+     */
+    void build(List<Pair<UUID, UUID>> edges) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            Map<Integer, Set<Integer>> parentSets = new HashMap<>();
+            Map<Integer, Set<Integer>> childSets = new HashMap<>();
+            for (Pair<UUID, UUID> edge : edges) {
+                int p = getOrCreateId(edge.getLeft());
+                int c = getOrCreateId(edge.getRight());
+                parentSets.computeIfAbsent(c, k -> new TreeSet<>()).add(p);
+                childSets.computeIfAbsent(p, k -> new TreeSet<>()).add(c);
+            }
+            parentSets.forEach((c, set) -> parents.set(c, toArray(set)));
+            childSets.forEach((p, set) -> children.set(p, toArray(set)));
+
+            Set<Integer> all = new HashSet<>(ids.values());
+            Map<Integer, int[]> computed = new HashMap<>();
+            for (int g : all) {
+                computeAncestors(g, all, computed, new HashSet<>());
+            }
+            computed.forEach(ancestors::set);
+            built = true;
+            builtAt = System.currentTimeMillis();
+            log.debug("Built the group closure index of {} groups", ids.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check the index without locking or building it, for use in tests and by callers holding the lock.
+     */
+    boolean isAncestor(UUID ancestor, UUID group) {
+        Integer a = ids.get(ancestor);
+        Integer g = ids.get(group);
+        return a != null && g != null && Arrays.binarySearch(ancestors.get(g), a) >= 0;
+    }
+
+    private void clear() {
+        ids.clear();
+        uuids.clear();
+        parents.clear();
+        children.clear();
+        ancestors.clear();
+        built = false;
+    }
+
+    private int getOrCreateId(UUID uuid) {
+        Integer id = ids.get(uuid);
+        if (id == null) {
+            id = uuids.size();
+            ids.put(uuid, id);
+            uuids.add(uuid);
+            parents.add(EMPTY);
+            children.add(EMPTY);
+            ancestors.add(EMPTY);
+        }
+        return id;
+    }
+
+    /**
+     * Recompute the ancestors of a group whose parents changed, and of all its descendants.
+     */
+    private void recomputeAncestors(int group) {
+        Set<Integer> affected = new HashSet<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(group);
+        while (!queue.isEmpty()) {
+            int g = queue.poll();
+            if (affected.add(g)) {
+                for (int c : children.get(g)) {
+                    queue.add(c);
+                }
+            }
+        }
+        Map<Integer, int[]> computed = new HashMap<>();
+        for (int g : affected) {
+            computeAncestors(g, affected, computed, new HashSet<>());
+        }
+        computed.forEach(ancestors::set);
+    }
+
+    /**
+     * Compute the ancestors of a group from the ancestors of its parents. The ancestors of groups which are not
+     * affected by a change are reused as they are.
+     */
+    private int[] computeAncestors(int group, Set<Integer> affected, Map<Integer, int[]> computed,
+                                   Set<Integer> visiting) {
+        if (!affected.contains(group)) {
+            return ancestors.get(group);
+        }
+        int[] result = computed.get(group);
+        if (result != null) {
+            return result;
+        }
+        if (!visiting.add(group)) {
+            // Cycles in the group hierarchy are not supported, stop here
+            return EMPTY;
+        }
+        Set<Integer> set = new TreeSet<>();
+        for (int p : parents.get(group)) {
+            set.add(p);
+            for (int a : computeAncestors(p, affected, computed, visiting)) {
+                set.add(a);
+            }
+        }
+        visiting.remove(group);
+        result = toArray(set);
+        computed.put(group, result);
+        return result;
+    }
+
+    private static int[] toArray(Set<Integer> sorted) {
+        return sorted.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] add(int[] sorted, int value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index >= 0) {
+            return sorted;
+        }
+        int insertion = -index - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertion);
+        result[insertion] = value;
+        System.arraycopy(sorted, insertion, result, insertion + 1, sorted.length - insertion);
+        return result;
+    }
+
+    private static int[] remove(int[] sorted, int value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return sorted;
+        }
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, index);
+        System.arraycopy(sorted, index + 1, result, index, sorted.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.eperson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+import org.dspace.utils.DSpace;
+
+/**
+ * Consumer which keeps the {@link GroupClosureIndex} up to date when groups are added to or removed from other
+ * groups, or deleted.
+ */
+public class GroupClosureIndexConsumer implements Consumer {
+
+    protected GroupClosureIndex groupClosureIndex;
+
+    // Changes of the index for the events of the current context, in the order of the events
+    private final List<Runnable> changes = new ArrayList<>();
+
+    @Override
+    public void initialize() throws Exception {
+        groupClosureIndex = new DSpace().getServiceManager()
+            .getServiceByName(GroupClosureIndex.class.getName(), GroupClosureIndex.class);
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        if (groupClosureIndex == null || event.getSubjectType() != Constants.GROUP) {
+            return;
+        }
+        switch (event.getEventType()) {
+            case Event.ADD:
+                if (event.getObjectType() == Constants.GROUP) {
+                    UUID parent = event.getSubjectID();
+                    UUID child = event.getObjectID();
+                    changes.add(() -> groupClosureIndex.addMember(parent, child));
+                }
+                break;
+            case Event.REMOVE:
+                if (event.getObjectType() == Constants.GROUP) {
+                    UUID parent = event.getSubjectID();
+                    UUID child = event.getObjectID();
+                    changes.add(() -> groupClosureIndex.removeMember(parent, child));
+                }
+                break;
+            case Event.DELETE:
+                UUID group = event.getSubjectID();
+                changes.add(() -> groupClosureIndex.removeGroup(group));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Apply the changes to the index once the transaction is committed. Events are dispatched before the commit, and
+     * the index is shared by all the contexts of this process: changes applied right away would be visible to other
+     * contexts before they are committed, and would remain if the transaction is rolled back.
+     */
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Runnable> committed = new ArrayList<>(changes);
+        changes.clear();
+        ctx.runAfterCommit(() -> committed.forEach(Runnable::run));
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+        // No-op
+    }
+}
@@ -8,7 +8,9 @@
 package org.dspace.eperson;
 
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -29,6 +31,7 @@ import org.apache.logging.log4j.Logger;
 import org.dspace.authorize.AuthorizeConfiguration;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.authorize.ResourcePolicy;
+import org.dspace.authorize.SharedAuthorizationCache;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.authorize.service.ResourcePolicyService;
 import org.dspace.content.Collection;
@@ -75,6 +78,9 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
     @Autowired(required = true)
     protected Group2GroupCacheDAO group2GroupCacheDAO;
 
+    @Autowired(required = true)
+    protected GroupClosureIndex groupClosureIndex;
+
     @Autowired(required = true)
     protected CollectionService collectionService;
 
@@ -91,6 +97,8 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
     protected AuthorizeService authorizeService;
     @Autowired(required = true)
     protected ResourcePolicyService resourcePolicyService;
+    @Autowired(required = true)
+    protected SharedAuthorizationCache sharedAuthorizationCache;
 
     @Autowired(required = true)
     protected PoolTaskService poolTaskService;
@@ -145,6 +153,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
             new Event(Event.ADD, Constants.GROUP, group.getID(), Constants.EPERSON, e.getID(),
                 e.getEmail(), DetailType.EPERSON_EMAIL,
                 getIdentifiers(context, group)));
+        sharedAuthorizationCache.evictPolicies(context, null);
         log.info(LogHelper.getHeader(context, "add_group_eperson",
             "group_id=" + group.getID() + ", eperson_id=" + e.getID()));
     }
@@ -162,6 +171,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
 
         context.addEvent(new Event(Event.ADD, Constants.GROUP, groupParent.getID(), Constants.GROUP, groupChild.getID(),
             groupChild.getName(), DetailType.DSO_NAME, getIdentifiers(context, groupParent)));
+        sharedAuthorizationCache.evictPolicies(context, null);
         log.info(LogHelper.getHeader(context, "add_group_subgroup",
                 "group_id=" + groupParent.getID() + ", subgroup_id=" + groupChild.getID()));
 
@@ -222,6 +232,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
         if (group.remove(ePerson)) {
             context.addEvent(new Event(Event.REMOVE, Constants.GROUP, group.getID(), Constants.EPERSON, ePerson.getID(),
                 ePerson.getEmail(), DetailType.EPERSON_EMAIL, getIdentifiers(context, group)));
+            sharedAuthorizationCache.evictPolicies(context, null);
             log.info(LogHelper.getHeader(context, "remove_group_eperson",
                     "group_id=" + group.getID() + ", eperson_id=" + ePerson.getID()));
         }
@@ -252,6 +263,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
             context.addEvent(
                 new Event(Event.REMOVE, Constants.GROUP, groupParent.getID(), Constants.GROUP, childGroup.getID(),
                     childGroup.getName(), DetailType.DSO_NAME, getIdentifiers(context, groupParent)));
+            sharedAuthorizationCache.evictPolicies(context, null);
             log.info(LogHelper.getHeader(context, "remove_group_subgroup",
                     "group_id=" + groupParent.getID() + ", subgroup_id=" + childGroup.getID()));
         }
@@ -270,6 +282,9 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
 
     @Override
     public boolean isParentOf(Context context, Group parentGroup, Group childGroup) throws SQLException {
+        if (groupClosureIndex.isEnabled(context)) {
+            return groupClosureIndex.isAncestor(context, parentGroup.getID(), childGroup.getID());
+        }
         return group2GroupCacheDAO.findByParentAndChild(context, parentGroup, childGroup) != null;
     }
 
@@ -378,10 +393,21 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
         // all the users are members of the anonymous group
         groups.add(findByName(context, Group.ANONYMOUS));
 
-        List<Group2GroupCache> groupCache = group2GroupCacheDAO.findByChildren(context, groups);
-        // now we have all owning groups, also grab all parents of owning groups
-        for (Group2GroupCache group2GroupCache : groupCache) {
-            groups.add(group2GroupCache.getParent());
+        if (groupClosureIndex.isEnabled(context)) {
+            // the parents of owning groups are found in memory, and loaded from the second level cache
+            List<UUID> ids = groups.stream().map(Group::getID).toList();
+            for (UUID parent : groupClosureIndex.getAncestors(context, ids)) {
+                Group group = find(context, parent);
+                if (group != null) {
+                    groups.add(group);
+                }
+            }
+        } else {
+            List<Group2GroupCache> groupCache = group2GroupCacheDAO.findByChildren(context, groups);
+            // now we have all owning groups, also grab all parents of owning groups
+            for (Group2GroupCache group2GroupCache : groupCache) {
+                groups.add(group2GroupCache.getParent());
+            }
         }
 
         context.cacheAllMemberGroupsSet(ePerson, groups);
@@ -671,7 +697,7 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
         }
 
         if (group.isGroupsChanged()) {
-            rethinkGroupCache(context, true);
+            rethinkGroupCache(context, group, true);
             group.clearGroupsChanged();
         }
 
@@ -682,6 +708,14 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
 
     protected boolean isEPersonInGroup(Context context, Group group, EPerson ePerson)
         throws SQLException {
+        if (groupClosureIndex.isEnabled(context)) {
+            for (Group direct : groupDAO.findByEPerson(context, ePerson)) {
+                if (direct.equals(group) || groupClosureIndex.isAncestor(context, group.getID(), direct.getID())) {
+                    return true;
+                }
+            }
+            return false;
+        }
         return groupDAO.findByIdAndMembership(context, group.getID(), ePerson) != null;
     }
 
@@ -755,6 +789,69 @@ public class GroupServiceImpl extends DSpaceObjectServiceImpl<Group> implements
         }
     }
 
+    /**
+     * Update the group cache AKA the group2groupcache table in the database
+     * after the member groups or the parent groups of the given group changed.
+     * Only the rows of the given group and of its (current or former)
+     * ancestors are compared and updated, instead of the whole table.
+     *
+     * @param context      The relevant DSpace Context.
+     * @param group        the group whose member groups or parent groups changed
+     * @param flushQueries flushQueries Flush all pending queries
+     * @throws SQLException An exception that provides information on a database access error or other errors.
+     */
+    protected void rethinkGroupCache(Context context, Group group, boolean flushQueries) throws SQLException {
+        Map<UUID, Set<UUID>> children = new HashMap<>();
+        Map<UUID, Set<UUID>> parents = new HashMap<>();
+        for (Pair<UUID, UUID> group2groupResult : groupDAO.getGroup2GroupResults(context, flushQueries)) {
+            children.computeIfAbsent(group2groupResult.getLeft(), k -> new HashSet<>())
+                    .add(group2groupResult.getRight());
+            parents.computeIfAbsent(group2groupResult.getRight(), k -> new HashSet<>())
+                   .add(group2groupResult.getLeft());
+        }
+
+        // the rows of the group itself, of its current ancestors and of its former ancestors may change
+        Set<UUID> affected = getReachable(parents, group.getID());
+        affected.add(group.getID());
+        for (Group2GroupCache row : group2GroupCacheDAO.findByChildren(context, List.of(group))) {
+            affected.add(row.getParent().getID());
+        }
+
+        for (UUID parent : affected) {
+            Set<UUID> newChildren = getReachable(children, parent);
+            Set<UUID> oldChildren = new HashSet<>();
+            Group parentGroup = find(context, parent);
+            if (parentGroup != null) {
+                for (Group2GroupCache row : group2GroupCacheDAO.findByParent(context, parentGroup)) {
+                    oldChildren.add(row.getChild().getID());
+                }
+            }
+            for (UUID child : SetUtils.difference(oldChildren, newChildren)) {
+                group2GroupCacheDAO.deleteFromCache(context, parent, child);
+            }
+            for (UUID child : SetUtils.difference(newChildren, oldChildren)) {
+                group2GroupCacheDAO.addToCache(context, parent, child);
+            }
+        }
+    }
+
+    /**
+     * Get all groups reachable from the given group by following the given
+     * (child or parent) relations, not including the group itself unless
+     * there is a cycle.
+     */
+    private Set<UUID> getReachable(Map<UUID, Set<UUID>> relations, UUID start) {
+        Set<UUID> reachable = new HashSet<>();
+        Deque<UUID> queue = new ArrayDeque<>(relations.getOrDefault(start, Set.of()));
+        while (!queue.isEmpty()) {
+            UUID next = queue.poll();
+            if (reachable.add(next)) {
+                queue.addAll(relations.getOrDefault(next, Set.of()));
+            }
+        }
+        return reachable;
+    }
+
     @Override
     public DSpaceObject getParentObject(Context context, Group group) throws SQLException {
         if (group == null) {
@@ -0,0 +1,116 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of OAI harvests: the number of pages and records harvested, the time spent fetching the pages from
+ * the OAI server and ingesting the records, and the elapsed time of the harvests.
+ * <p>
+ * The {@link OAIHarvester} measures each harvest with its own instance, logs it once the harvest is complete and
+ * adds it to the totals of its OAI server, which are kept for the lifetime of the JVM and available from
+ * {@link #getSourceMetrics()}. Pages are fetched while records are ingested, and records may be ingested by
+ * several threads, so the fetching and ingest times may add up to more than the elapsed time.
+ */
+public class HarvestMetrics {
+
+    private static final Map<String, HarvestMetrics> sourceMetrics = new ConcurrentHashMap<>();
+
+    private final AtomicLong harvests = new AtomicLong();
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong fetchNanos = new AtomicLong();
+    private final AtomicLong ingestNanos = new AtomicLong();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    /**
+     * @return the total metrics of the completed harvests, by OAI server address
+     */
+    public static Map<String, HarvestMetrics> getSourceMetrics() {
+        return Collections.unmodifiableMap(sourceMetrics);
+    }
+
+    /**
+     * Add the metrics of a completed harvest to the totals of its OAI server.
+     *
+     * @param oaiSource the address of the OAI server
+     * @param harvest   the metrics of the harvest
+     * @param elapsed   the elapsed time of the harvest in nanoseconds
+     */
+    static void addHarvest(String oaiSource, HarvestMetrics harvest, long elapsed) {
+        harvest.harvests.incrementAndGet();
+        harvest.elapsedNanos.addAndGet(elapsed);
+        HarvestMetrics total = sourceMetrics.computeIfAbsent(oaiSource, source -> new HarvestMetrics());
+        total.harvests.addAndGet(harvest.harvests.get());
+        total.pages.addAndGet(harvest.pages.get());
+        total.records.addAndGet(harvest.records.get());
+        total.fetchNanos.addAndGet(harvest.fetchNanos.get());
+        total.ingestNanos.addAndGet(harvest.ingestNanos.get());
+        total.elapsedNanos.addAndGet(harvest.elapsedNanos.get());
+    }
+
+    /**
+     * @param nanos the time spent fetching a page of records
+     */
+    void addPage(long nanos) {
+        pages.incrementAndGet();
+        fetchNanos.addAndGet(nanos);
+    }
+
+    /**
+     * @param nanos the time spent ingesting a record
+     */
+    void addRecord(long nanos) {
+        records.incrementAndGet();
+        ingestNanos.addAndGet(nanos);
+    }
+
+    public long getHarvests() {
+        return harvests.get();
+    }
+
+    public long getPages() {
+        return pages.get();
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getFetchMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(fetchNanos.get());
+    }
+
+    public long getIngestMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ingestNanos.get());
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos.get());
+    }
+
+    /**
+     * @return the number of records harvested per second of elapsed time
+     */
+    public double getRecordsPerSecond() {
+        long elapsed = elapsedNanos.get();
+        return elapsed == 0 ? 0 : records.get() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records in %d pages, %.1f records/s (elapsed %d ms, fetching %d ms, ingest %d ms)",
+                             getRecords(), getPages(), getRecordsPerSecond(), getElapsedMillis(), getFetchMillis(),
+                             getIngestMillis());
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.oclc.oai.harvester2.verb.ListRecords;
+
+/**
+ * Fetches the next pages of a ListRecords request, following their resumption tokens, in a background thread while
+ * the records of the current page are ingested. At most the given number of pages is fetched ahead; with 0 pages,
+ * each page is only fetched when it is requested, in the calling thread.
+ */
+class ListRecordsPrefetcher implements Closeable {
+
+    private static final Logger log = LogManager.getLogger();
+
+    // Marks the last page
+    private static final Page END = new Page(null, null);
+
+    private final String oaiSource;
+    private final HarvestMetrics metrics;
+    private final BlockingQueue<Page> pages;
+    private final Thread thread;
+
+    private ListRecords current;
+    private boolean done = false;
+
+    /**
+     * @param oaiSource  the address of the OAI server
+     * @param first      the first page, already fetched
+     * @param pagesAhead the maximum number of pages fetched ahead
+     * @param metrics    the metrics of the harvest, to which the fetched pages are added
+     */
+    ListRecordsPrefetcher(String oaiSource, ListRecords first, int pagesAhead, HarvestMetrics metrics) {
+        this.oaiSource = oaiSource;
+        this.current = first;
+        this.metrics = metrics;
+        if (pagesAhead > 0) {
+            pages = new ArrayBlockingQueue<>(pagesAhead);
+            thread = new Thread(this::fetchPages, "ListRecords prefetcher " + oaiSource);
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            pages = null;
+            thread = null;
+        }
+    }
+
+    /**
+     * Get the page following the previous one, waiting for it to be fetched.
+     *
+     * @return the next page, or null if the previous page was the last one
+     * @throws IOException if the page could not be fetched
+     */
+    ListRecords next() throws IOException {
+        if (done) {
+            return null;
+        }
+        if (pages == null) {
+            current = fetchNext(current);
+            done = current == null;
+            return current;
+        }
+        Page page;
+        try {
+            page = pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the next page of " + oaiSource, e);
+        }
+        if (page.error != null) {
+            done = true;
+            throw page.error instanceof IOException ? (IOException) page.error
+                : new IOException("Unable to fetch the next page of " + oaiSource, page.error);
+        }
+        done = page == END;
+        return page.listRecords;
+    }
+
+    /**
+     * Stop fetching pages.
+     */
+    @Override
+    public void close() {
+        done = true;
+        if (thread != null) {
+            thread.interrupt();
+            pages.clear();
+        }
+    }
+
+    private void fetchPages() {
+        try {
+            ListRecords page = current;
+            while ((page = fetchNext(page)) != null) {
+                pages.put(new Page(page, null));
+            }
+            pages.put(END);
+        } catch (InterruptedException e) {
+            log.debug("Stopped fetching the pages of {}", oaiSource);
+        } catch (Exception e) {
+            // Reported once the pages before it are ingested
+            try {
+                pages.put(new Page(null, e));
+            } catch (InterruptedException ie) {
+                log.debug("Stopped fetching the pages of {}", oaiSource, e);
+            }
+        }
+    }
+
+    private ListRecords fetchNext(ListRecords page) throws IOException {
+        try {
+            String resumptionToken = page.getResumptionToken();
+            if (resumptionToken == null || resumptionToken.length() == 0) {
+                return null;
+            }
+            long start = System.nanoTime();
+            ListRecords next = new ListRecords(oaiSource, resumptionToken);
+            metrics.addPage(System.nanoTime() - start);
+            return next;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Unable to fetch the next page of " + oaiSource, e);
+        }
+    }
+
+    private static class Page {
+        private final ListRecords listRecords;
+        private final Exception error;
+
+        private Page(ListRecords listRecords, Exception error) {
+            this.listRecords = listRecords;
+            this.error = error;
+        }
+    }
+}
@@ -26,7 +26,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathExpressionException;
 
@@ -59,6 +69,7 @@ import org.dspace.core.I18nUtil;
 import org.dspace.core.Utils;
 import org.dspace.core.factory.CoreServiceFactory;
 import org.dspace.core.service.PluginService;
+import org.dspace.eperson.factory.EPersonServiceFactory;
 import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.handle.service.HandleService;
 import org.dspace.harvest.factory.HarvestServiceFactory;
@@ -266,6 +277,8 @@ public class OAIHarvester {
         long totalListSize = 0;
         long currentRecord = 0;
         Instant startTime = Instant.now();
+        long startNanos = System.nanoTime();
+        HarvestMetrics metrics = new HarvestMetrics();
         String toDate = processDate(startTime, 0);
 
         String dateGranularity;
@@ -305,7 +318,6 @@ public class OAIHarvester {
 
             Document oaiResponse = null;
             Element root = null;
-            String resumptionToken;
 
             // set the status indicating the collection is currently being processed
             harvestRow.setHarvestStatus(HarvestedCollection.STATUS_BUSY);
@@ -326,92 +338,108 @@ public class OAIHarvester {
             List<Element> records;
             Set<String> errorSet = new HashSet<>();
 
+            // the next pages are fetched while the records of the current one are ingested, possibly by
+            // several threads
+            int prefetchPages = Math.max(0, configurationService.getIntProperty("oai.harvester.prefetchPages", 1));
+            int ingestThreads = Math.max(1, configurationService.getIntProperty("oai.harvester.ingestThreads", 1));
+
+            long fetchStart = System.nanoTime();
             ListRecords listRecords = new ListRecords(oaiSource, fromDate, toDate, oaiSetId, descMDPrefix);
+            metrics.addPage(System.nanoTime() - fetchStart);
             log.debug(
                 "Harvesting request parameters: listRecords " + oaiSource + " " + fromDate + " " + toDate + " " +
                     oaiSetId + " " + descMDPrefix);
             log.info("HTTP Request: " + listRecords.getRequestURL());
 
-            while (listRecords != null) {
-                records = new ArrayList<>();
-                oaiResponse = db.build(listRecords.getDocument());
-
-                if (listRecords.getErrors() != null && listRecords.getErrors().getLength() > 0) {
-                    for (int i = 0; i < listRecords.getErrors().getLength(); i++) {
-                        String errorCode = listRecords.getErrors().item(i).getAttributes().getNamedItem("code")
-                                                      .getTextContent();
-                        errorSet.add(errorCode);
-                    }
-                    if (errorSet.contains("noRecordsMatch")) {
-                        log.info("noRecordsMatch: OAI server did not contain any updates");
-                        harvestRow.setHarvestStartTime(Instant.now());
-                        harvestRow.setHarvestMessage("OAI server did not contain any updates");
-                        harvestRow.setHarvestStatus(HarvestedCollection.STATUS_READY);
-                        harvestedCollectionService.update(ourContext, harvestRow);
-                        return;
+            try (ListRecordsPrefetcher pages = new ListRecordsPrefetcher(oaiSource, listRecords, prefetchPages,
+                                                                         metrics);
+                 IngestWorkers ingestWorkers = ingestThreads > 1
+                     ? new IngestWorkers(ingestThreads, OREPrefix, metrics) : null) {
+                while (listRecords != null) {
+                    records = new ArrayList<>();
+                    oaiResponse = db.build(listRecords.getDocument());
+
+                    if (listRecords.getErrors() != null && listRecords.getErrors().getLength() > 0) {
+                        for (int i = 0; i < listRecords.getErrors().getLength(); i++) {
+                            String errorCode = listRecords.getErrors().item(i).getAttributes().getNamedItem("code")
+                                                          .getTextContent();
+                            errorSet.add(errorCode);
+                        }
+                        if (errorSet.contains("noRecordsMatch")) {
+                            log.info("noRecordsMatch: OAI server did not contain any updates");
+                            harvestRow.setHarvestStartTime(Instant.now());
+                            harvestRow.setHarvestMessage("OAI server did not contain any updates");
+                            harvestRow.setHarvestStatus(HarvestedCollection.STATUS_READY);
+                            harvestedCollectionService.update(ourContext, harvestRow);
+                            return;
+                        } else {
+                            throw new HarvestingException(errorSet.toString());
+                        }
                     } else {
-                        throw new HarvestingException(errorSet.toString());
-                    }
-                } else {
-                    root = oaiResponse.getRootElement();
-                    records.addAll(root.getChild("ListRecords", OAI_NS).getChildren("record", OAI_NS));
-
-                    Element resumptionElement = root.getChild("ListRecords", OAI_NS)
-                                                    .getChild("resumptionToken", OAI_NS);
-                    if (resumptionElement != null && resumptionElement.getAttribute("completeListSize") != null) {
-                        String value = resumptionElement.getAttribute("completeListSize").getValue();
-                        if (StringUtils.isNotBlank(value)) {
-                            totalListSize = Long.parseLong(value);
+                        root = oaiResponse.getRootElement();
+                        records.addAll(root.getChild("ListRecords", OAI_NS).getChildren("record", OAI_NS));
+
+                        Element resumptionElement = root.getChild("ListRecords", OAI_NS)
+                                                        .getChild("resumptionToken", OAI_NS);
+                        if (resumptionElement != null && resumptionElement.getAttribute("completeListSize") != null) {
+                            String value = resumptionElement.getAttribute("completeListSize").getValue();
+                            if (StringUtils.isNotBlank(value)) {
+                                totalListSize = Long.parseLong(value);
+                            }
                         }
                     }
-                }
 
-                // Process the obtained records
-                if (!records.isEmpty()) {
-                    log.info("Found {} records to process", records::size);
-                    for (Element record : records) {
-                        // check for STOP interrupt from the scheduler
-                        if (HarvestScheduler.getInterrupt() == HarvestScheduler.HARVESTER_INTERRUPT_STOP) {
-                            throw new HarvestingException("Harvest process for " + targetCollection
-                                .getID() + " interrupted by stopping the scheduler.");
-                        }
-                        // check for timeout
-                        if (expirationTime.isBefore(Instant.now())) {
-                            throw new HarvestingException(
-                                "runHarvest method timed out for collection " + targetCollection.getID());
+                    // Process the obtained records
+                    if (!records.isEmpty()) {
+                        log.info("Found {} records to process", records::size);
+                        for (Element record : records) {
+                            // check for STOP interrupt from the scheduler
+                            if (HarvestScheduler.getInterrupt() == HarvestScheduler.HARVESTER_INTERRUPT_STOP) {
+                                throw new HarvestingException("Harvest process for " + targetCollection
+                                    .getID() + " interrupted by stopping the scheduler.");
+                            }
+                            // check for timeout
+                            if (expirationTime.isBefore(Instant.now())) {
+                                throw new HarvestingException(
+                                    "runHarvest method timed out for collection " + targetCollection.getID());
+                            }
+
+                            currentRecord++;
+
+                            if (ingestWorkers != null) {
+                                ingestWorkers.submit(record, currentRecord, totalListSize);
+                                continue;
+                            }
+                            long ingestStart = System.nanoTime();
+                            processRecord(record, OREPrefix, currentRecord, totalListSize);
+                            ourContext.dispatchEvents();
+
+                            intermediateCommit();
+                            metrics.addRecord(System.nanoTime() - ingestStart);
                         }
+                    }
 
-                        currentRecord++;
-
-                        processRecord(record, OREPrefix, currentRecord, totalListSize);
-                        ourContext.dispatchEvents();
+                    // keep going if there are more records to process
+                    listRecords = pages.next();
+                    ourContext.turnOffAuthorisationSystem();
+                    try {
+                        collectionService.update(ourContext, targetCollection);
 
-                        intermediateCommit();
+                        harvestRow.setHarvestMessage(String.format(
+                            "Collection is currently being harvested (item %d of %d)", currentRecord, totalListSize));
+                        harvestedCollectionService.update(ourContext, harvestRow);
+                    } finally {
+                        //In case of an exception, make sure to restore our authentication state to the previous state
+                        ourContext.restoreAuthSystemState();
                     }
-                }
 
-                // keep going if there are more records to process
-                resumptionToken = listRecords.getResumptionToken();
-                if (resumptionToken == null || resumptionToken.length() == 0) {
-                    listRecords = null;
-                } else {
-                    listRecords = new ListRecords(oaiSource, resumptionToken);
-                }
-                ourContext.turnOffAuthorisationSystem();
-                try {
-                    collectionService.update(ourContext, targetCollection);
-
-                    harvestRow.setHarvestMessage(String
-                                                     .format("Collection is currently being harvested (item %d of %d)",
-                                                             currentRecord, totalListSize));
-                    harvestedCollectionService.update(ourContext, harvestRow);
-                } finally {
-                    //In case of an exception, make sure to restore our authentication state to the previous state
-                    ourContext.restoreAuthSystemState();
+                    ourContext.dispatchEvents();
+                    intermediateCommit();
                 }
 
-                ourContext.dispatchEvents();
-                intermediateCommit();
+                if (ingestWorkers != null) {
+                    ingestWorkers.finish();
+                }
             }
         } catch (HarvestingException hex) {
             log.error("Harvesting error occurred while processing an OAI record: " + hex.getMessage(), hex);
@@ -442,6 +470,8 @@ public class OAIHarvester {
         }
 
         // If we got to this point, it means the harvest was completely successful
+        HarvestMetrics.addHarvest(oaiSource, metrics, System.nanoTime() - startNanos);
+        log.info("Harvest metrics of {}: {}", oaiSource, metrics);
         Instant finishTime = Instant.now();
         long timeTaken = finishTime.toEpochMilli() - startTime.toEpochMilli();
         harvestRow.setHarvestStartTime(startTime);
@@ -491,6 +521,36 @@ public class OAIHarvester {
     protected void processRecord(Element record, String OREPrefix, final long currentRecord, long totalListSize)
         throws SQLException, AuthorizeException, IOException, CrosswalkException, HarvestingException,
         ParserConfigurationException, SAXException, XPathExpressionException {
+        processRecord(ourContext, targetCollection, record, OREPrefix, currentRecord, totalListSize);
+    }
+
+    /**
+     * Process an individual PMH record with the given context, making (or updating) a corresponding DSpace Item.
+     *
+     * @param context       the context to ingest the record with, which may be the one of an ingest thread
+     * @param collection    the collection being harvested, loaded in the given context
+     * @param record        a JDOM Element containing the actual PMH record with descriptive metadata.
+     * @param OREPrefix     the metadataprefix value used by the remote PMH server to disseminate ORE. Only used for
+     *                      collections set up to harvest content.
+     * @param currentRecord current record number to log
+     * @param totalListSize The total number of records that this Harvest contains
+     * @throws SQLException                 An exception that provides information on a database access error or
+     *                                      other errors.
+     * @throws AuthorizeException           Exception indicating the current user of the context does not have
+     *                                      permission
+     *                                      to perform a particular action.
+     * @throws IOException                  A general class of exceptions produced by failed or interrupted I/O
+     *                                      operations.
+     * @throws CrosswalkException           if crosswalk error
+     * @throws HarvestingException          if harvesting error
+     * @throws ParserConfigurationException XML parsing error
+     * @throws SAXException                 if XML processing error
+     * @throws XPathExpressionException     if XPath error
+     */
+    protected void processRecord(Context context, Collection collection, Element record, String OREPrefix,
+                                 final long currentRecord, long totalListSize)
+        throws SQLException, AuthorizeException, IOException, CrosswalkException, HarvestingException,
+        ParserConfigurationException, SAXException, XPathExpressionException {
         WorkspaceItem wi = null;
         Instant timeStart = Instant.now();
 
@@ -499,16 +559,16 @@ public class OAIHarvester {
         Element header = record.getChild("header", OAI_NS);
 
         // look up the item corresponding to the OAI identifier
-        Item item = harvestedItemService.getItemByOAIId(ourContext, itemOaiID, targetCollection);
+        Item item = harvestedItemService.getItemByOAIId(context, itemOaiID, collection);
 
         // Make sure the item hasn't been deleted in the mean time
         if (header.getAttribute("status") != null && header.getAttribute("status").getValue().equals("deleted")) {
             log.info("Item " + itemOaiID + " has been marked as deleted on the OAI server.");
             if (item != null) {
-                collectionService.removeItem(ourContext, targetCollection, item);
+                collectionService.removeItem(context, collection, item);
             }
 
-            ourContext.restoreAuthSystemState();
+            context.restoreAuthSystemState();
             return;
         }
 
@@ -526,7 +586,7 @@ public class OAIHarvester {
         }
 
         // Ignore authorization
-        ourContext.turnOffAuthorisationSystem();
+        context.turnOffAuthorisationSystem();
 
         HarvestedItem hi;
 
@@ -535,7 +595,7 @@ public class OAIHarvester {
             log.debug("Item " + item.getHandle() + " was found locally. Using it to harvest " + itemOaiID + ".");
 
             // FIXME: check for null pointer if for some odd reason we don't have a matching hi
-            hi = harvestedItemService.find(ourContext, item);
+            hi = harvestedItemService.find(context, item);
 
             // Compare last-harvest on the item versus the last time the item was updated on the OAI provider side
             // If ours is more recent, forgo this item, since it's probably a left-over from a previous harvesting
@@ -550,44 +610,44 @@ public class OAIHarvester {
             }
 
             // Otherwise, clear and re-import the metadata and bitstreams
-            itemService.clearMetadata(ourContext, item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
+            itemService.clearMetadata(context, item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
             if (descMD.size() == 1) {
-                MDxwalk.ingest(ourContext, item, descMD.get(0), true);
+                MDxwalk.ingest(context, item, descMD.get(0), true);
             } else {
-                MDxwalk.ingest(ourContext, item, descMD, true);
+                MDxwalk.ingest(context, item, descMD, true);
             }
 
             // Import the actual bitstreams
             if (harvestRow.getHarvestType() == 3) {
                 log.info("Running ORE ingest on: " + item.getHandle());
-                itemService.removeAllBundles(ourContext, item);
-                ORExwalk.ingest(ourContext, item, oreREM, true);
+                itemService.removeAllBundles(context, item);
+                ORExwalk.ingest(context, item, oreREM, true);
             }
         } else {
             // NOTE: did not find, so we create (presumably, there will never be a case where an item already
             // exists in a harvest collection but does not have an OAI_id)
 
-            wi = workspaceItemService.create(ourContext, targetCollection, false);
+            wi = workspaceItemService.create(context, collection, false);
             item = wi.getItem();
 
-            hi = harvestedItemService.create(ourContext, item, itemOaiID);
+            hi = harvestedItemService.create(context, item, itemOaiID);
             //item.setOaiID(itemOaiID);
 
             if (descMD.size() == 1) {
-                MDxwalk.ingest(ourContext, item, descMD.get(0), true);
+                MDxwalk.ingest(context, item, descMD.get(0), true);
             } else {
-                MDxwalk.ingest(ourContext, item, descMD, true);
+                MDxwalk.ingest(context, item, descMD, true);
             }
 
             if (harvestRow.getHarvestType() == 3) {
-                ORExwalk.ingest(ourContext, item, oreREM, true);
+                ORExwalk.ingest(context, item, oreREM, true);
             }
 
             // see if a handle can be extracted for the item
             String handle = extractHandle(item);
 
             if (handle != null) {
-                DSpaceObject dso = handleService.resolveToObject(ourContext, handle);
+                DSpaceObject dso = handleService.resolveToObject(context, handle);
                 if (dso != null) {
                     throw new HarvestingException(
                         "Handle collision: attempted to re-assign handle '" + handle + "' to an incoming harvested " +
@@ -597,11 +657,11 @@ public class OAIHarvester {
             }
 
             try {
-                item = installItemService.installItem(ourContext, wi, handle);
+                item = installItemService.installItem(context, wi, handle);
                 //item = InstallItem.installItem(ourContext, wi);
             } catch (SQLException | IOException | AuthorizeException se) {
                 // clean up the workspace item if something goes wrong before
-                workspaceItemService.deleteWrapper(ourContext, wi);
+                workspaceItemService.deleteWrapper(context, wi);
                 throw se;
             }
         }
@@ -615,7 +675,7 @@ public class OAIHarvester {
             if (!OREBundles.isEmpty()) {
                 OREBundle = OREBundles.get(0);
             } else {
-                OREBundle = bundleService.create(ourContext, item, "ORE");
+                OREBundle = bundleService.create(context, item, "ORE");
             }
 
             XMLOutputter outputter = new XMLOutputter();
@@ -625,18 +685,18 @@ public class OAIHarvester {
             OREBitstream = bundleService.getBitstreamByName(OREBundle, "ORE.xml");
 
             if (OREBitstream != null) {
-                bundleService.removeBitstream(ourContext, OREBundle, OREBitstream);
+                bundleService.removeBitstream(context, OREBundle, OREBitstream);
             }
 
-            OREBitstream = bitstreamService.create(ourContext, OREBundle, OREStream);
-            OREBitstream.setName(ourContext, "ORE.xml");
+            OREBitstream = bitstreamService.create(context, OREBundle, OREStream);
+            OREBitstream.setName(context, "ORE.xml");
 
-            BitstreamFormat bf = bitstreamFormatService.guessFormat(ourContext, OREBitstream);
-            bitstreamService.setFormat(ourContext, OREBitstream, bf);
-            bitstreamService.update(ourContext, OREBitstream);
+            BitstreamFormat bf = bitstreamFormatService.guessFormat(context, OREBitstream);
+            bitstreamService.setFormat(context, OREBitstream, bf);
+            bitstreamService.update(context, OREBitstream);
 
-            bundleService.addBitstream(ourContext, OREBundle, OREBitstream);
-            bundleService.update(ourContext, OREBundle);
+            bundleService.addBitstream(context, OREBundle, OREBitstream);
+            bundleService.update(context, OREBundle);
         }
 
         hi.setHarvestDate(Instant.now());
@@ -645,21 +705,21 @@ public class OAIHarvester {
         String provenanceMsg = "Item created via OAI harvest from source: "
             + this.harvestRow.getOaiSource() + " on " + hi.getHarvestDate()
             + ".  Item's OAI Record identifier: " + hi.getOaiID();
-        itemService.addMetadata(ourContext, item, "dc", "description", "provenance", "en", provenanceMsg);
+        itemService.addMetadata(context, item, "dc", "description", "provenance", "en", provenanceMsg);
 
-        itemService.update(ourContext, item);
-        harvestedItemService.update(ourContext, hi);
+        itemService.update(context, item);
+        harvestedItemService.update(context, hi);
         long timeTaken = Instant.now().toEpochMilli() - timeStart.toEpochMilli();
         log.info(String.format("Item %s (%s) has been ingested (item %d of %d). The whole process took: %d ms.",
                                item.getHandle(), item.getID(), currentRecord, totalListSize, timeTaken));
 
         //Clear the context cache
-        ourContext.uncacheEntity(wi);
-        ourContext.uncacheEntity(hi);
-        ourContext.uncacheEntity(item);
+        context.uncacheEntity(wi);
+        context.uncacheEntity(hi);
+        context.uncacheEntity(item);
 
         // Stop ignoring authorization
-        ourContext.restoreAuthSystemState();
+        context.restoreAuthSystemState();
     }
 
 
@@ -913,4 +973,142 @@ public class OAIHarvester {
 
         return configs;
     }
+
+    /**
+     * A record waiting to be ingested by an ingest thread.
+     */
+    private static class HarvestRecord {
+        private final Element record;
+        private final long number;
+        private final long total;
+
+        private HarvestRecord(Element record, long number, long total) {
+            this.record = record;
+            this.number = number;
+            this.total = total;
+        }
+    }
+
+    /**
+     * Threads ingesting the records of a harvest ("oai.harvester.ingestThreads"), each with its own context. The
+     * records are assigned to the threads by OAI identifier, so that the records of the same item are ingested by
+     * the same thread, in the order they were harvested. As in the harvest thread, each record is committed once it
+     * is ingested. On failure, the threads stop and the first error is thrown by {@link #submit} or
+     * {@link #finish}.
+     */
+    private class IngestWorkers implements AutoCloseable {
+
+        private static final int QUEUE_SIZE = 100;
+
+        private final HarvestRecord end = new HarvestRecord(null, 0, 0);
+        private final String OREPrefix;
+        private final HarvestMetrics metrics;
+        private final UUID collectionId;
+        private final UUID epersonId;
+        private final List<BlockingQueue<HarvestRecord>> queues = new ArrayList<>();
+        private final List<Future<Void>> workers = new ArrayList<>();
+        private final AtomicBoolean stopped = new AtomicBoolean(false);
+        private final ExecutorService executor;
+
+        IngestWorkers(int threads, String OREPrefix, HarvestMetrics metrics) {
+            this.OREPrefix = OREPrefix;
+            this.metrics = metrics;
+            collectionId = targetCollection.getID();
+            epersonId = ourContext.getCurrentUser() == null ? null : ourContext.getCurrentUser().getID();
+            log.info("Ingesting the records of collection {} with {} threads", collectionId, threads);
+            executor = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                BlockingQueue<HarvestRecord> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+                queues.add(queue);
+                workers.add(executor.submit(() -> {
+                    ingest(queue);
+                    return null;
+                }));
+            }
+            executor.shutdown();
+        }
+
+        /**
+         * Queue a record for ingest, waiting while the queue of its thread is full.
+         */
+        void submit(Element record, long number, long total) throws Exception {
+            String oaiId = record.getChild("header", OAI_NS).getChildText("identifier", OAI_NS);
+            BlockingQueue<HarvestRecord> queue = queues.get(Math.floorMod(Objects.hashCode(oaiId), queues.size()));
+            HarvestRecord harvestRecord = new HarvestRecord(record, number, total);
+            do {
+                if (stopped.get()) {
+                    finish();
+                    throw new HarvestingException("Ingest of collection " + collectionId + " stopped");
+                }
+            } while (!queue.offer(harvestRecord, 100, TimeUnit.MILLISECONDS));
+        }
+
+        /**
+         * Wait for the queued records to be ingested.
+         */
+        void finish() throws Exception {
+            for (BlockingQueue<HarvestRecord> queue : queues) {
+                while (!stopped.get() && !queue.offer(end, 100, TimeUnit.MILLISECONDS)) {
+                    // the thread is still ingesting the records before
+                }
+            }
+            Exception failure = null;
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Stop the threads once they have ingested their current record, leaving the other records.
+         */
+        @Override
+        public void close() {
+            stopped.set(true);
+            try {
+                executor.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void ingest(BlockingQueue<HarvestRecord> queue) throws Exception {
+            Context context = new Context(Context.Mode.BATCH_EDIT);
+            try {
+                if (epersonId != null) {
+                    context.setCurrentUser(EPersonServiceFactory.getInstance().getEPersonService()
+                                                                .find(context, epersonId));
+                }
+                Collection collection = collectionService.find(context, collectionId);
+                while (!stopped.get()) {
+                    HarvestRecord next = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (next == end) {
+                        break;
+                    } else if (next != null) {
+                        long start = System.nanoTime();
+                        processRecord(context, collection, next.record, OREPrefix, next.number, next.total);
+                        context.commit();
+                        collection = context.reloadEntity(collection);
+                        metrics.addRecord(System.nanoTime() - start);
+                    }
+                }
+                context.complete();
+            } catch (Exception e) {
+                stopped.set(true);
+                throw e;
+            } finally {
+                if (context.isValid()) {
+                    context.abort();
+                }
+            }
+        }
+    }
 }
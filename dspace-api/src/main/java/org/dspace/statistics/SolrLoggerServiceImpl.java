@@ -38,6 +38,7 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -106,6 +107,7 @@ import org.dspace.statistics.service.SolrLoggerService;
 import org.dspace.statistics.util.LocationUtils;
 import org.dspace.statistics.util.SpiderDetector;
 import org.dspace.usage.UsageWorkflowEvent;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -118,7 +120,7 @@ import org.springframework.beans.factory.annotation.Autowired;
  * @author kevinvandevelde at atmire.com
  * @author mdiggory at atmire.com
  */
-public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBean {
+public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBean, DisposableBean {
     private static final Logger log = LogManager.getLogger();
 
     private static final String MULTIPLE_VALUES_SPLITTER = "|";
@@ -151,9 +153,14 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
     protected GeoIpService geoIpService;
     @Autowired
     private AuthorizeService authorizeService;
+    @Autowired(required = false)
+    protected StatisticsLookupCache statisticsLookupCache;
 
     protected SolrClient solr;
 
+    /** Buffer of the usage events to send in the background, null if they are sent on the calling thread. */
+    protected SolrStatisticsBuffer buffer;
+
     /** Name of the current-year statistics core.  Prior-year shards will have a year suffixed. */
     private String statisticsCoreBase;
 
@@ -195,6 +202,10 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
 
         solr = solrStatisticsCore.getSolr();
 
+        if (solr != null && configurationService.getBooleanProperty("solr-statistics.async.enabled", false)) {
+            buffer = new SolrStatisticsBuffer(solr, configurationService);
+        }
+
         // Read in the file so we don't have to do it all the time
         //spiderIps = SpiderDetector.getSpiderIpAddresses();
 
@@ -207,6 +218,36 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         locationService = service;
     }
 
+    @Override
+    public void destroy() throws Exception {
+        if (buffer != null) {
+            buffer.shutdown();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Store a usage event document, through the buffer if usage events are sent in the background.
+     *
+     * @param doc    the usage event document
+     * @param commit whether to commit after adding the document, when the Solr autocommit is not used
+     * @throws IOException         A general class of exceptions produced by failed or interrupted I/O operations.
+     * @throws SolrServerException Exception from the Solr server to the solrj Java client.
+     */
+    protected void addUsageEvent(SolrInputDocument doc, boolean commit) throws IOException, SolrServerException {
+        if (buffer != null) {
+            // Committed by the buffer after each batch when the autocommit is not used
+            buffer.add(doc);
+            return;
+        }
+        solr.add(doc);
+        // commits are executed automatically using the solr autocommit
+        boolean useAutoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
+        if (commit && !useAutoCommit) {
+            solr.commit(false, false);
+        }
+    }
+
     @Override
     public void post(DSpaceObject dspaceObject, HttpServletRequest request,
                      EPerson currentUser) {
@@ -258,12 +299,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             doc1.addField("statistics_type", StatisticsType.VIEW.text());
 
 
-            solr.add(doc1);
-            // commits are executed automatically using the solr autocommit
-            boolean useAutoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
-            if (!useAutoCommit) {
-                solr.commit(false, false);
-            }
+            addUsageEvent(doc1, true);
 
         } catch (RuntimeException re) {
             throw re;
@@ -308,12 +344,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
 
             doc1.addField("statistics_type", StatisticsType.VIEW.text());
 
-            solr.add(doc1);
-            // commits are executed automatically using the solr autocommit
-            boolean useAutoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
-            if (!useAutoCommit) {
-                solr.commit(false, false);
-            }
+            addUsageEvent(doc1, true);
 
         } catch (RuntimeException re) {
             throw re;
@@ -379,54 +410,11 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 doc1.addField("referrer", request.getHeader("referer"));
             }
 
-            InetAddress ipAddress = null;
-            try {
-                String dns;
-                if (!configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
-                    ipAddress = InetAddress.getByName(ip);
-                    dns = ipAddress.getHostName();
-                } else {
-                    dns = configurationService.getProperty("anonymize_statistics.dns_mask", "anonymized");
-                }
-                doc1.addField("dns", dns.toLowerCase(Locale.ROOT));
-            } catch (UnknownHostException e) {
-                log.info("Failed DNS Lookup for IP:  {}", ip);
-                log.debug(e.getMessage(), e);
-            }
+            addClientFields(doc1, ip);
             if (request.getHeader("User-Agent") != null) {
                 doc1.addField("userAgent", request.getHeader("User-Agent"));
             }
             doc1.addField("isBot", isSpiderBot);
-            // Save the location information if valid, save the event without
-            // location information if not valid
-            if (locationService != null && ipAddress != null) {
-                try {
-                    CityResponse location = locationService.city(ipAddress);
-                    String countryCode = location.getCountry().getIsoCode();
-                    double latitude = location.getLocation().getLatitude();
-                    double longitude = location.getLocation().getLongitude();
-                    if (!(
-                            "--".equals(countryCode)
-                            && latitude == -180
-                            && longitude == -180)
-                    ) {
-                        try {
-                            doc1.addField("continent", LocationUtils
-                                .getContinentCode(countryCode));
-                        } catch (Exception e) {
-                            log.warn("Failed to load country/continent table: {}", countryCode);
-                        }
-                        doc1.addField("countryCode", countryCode);
-                        doc1.addField("city", location.getCity().getName());
-                        doc1.addField("latitude", latitude);
-                        doc1.addField("longitude", longitude);
-                    }
-                } catch (IOException e) {
-                    log.warn("GeoIP lookup failed.", e);
-                } catch (GeoIp2Exception e) {
-                    log.info("Unable to get location of request: {}", e.getMessage());
-                }
-            }
         }
 
         if (dspaceObject != null) {
@@ -471,24 +459,63 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             doc1.addField("referrer", referrer);
         }
 
-        InetAddress ipAddress = null;
-        try {
-            String dns;
-            if (!configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
-                ipAddress = InetAddress.getByName(ip);
-                dns = ipAddress.getHostName();
-            } else {
-                dns = configurationService.getProperty("anonymize_statistics.dns_mask", "anonymized");
-            }
+        addClientFields(doc1, ip);
+        if (userAgent != null) {
+            doc1.addField("userAgent", userAgent);
+        }
+        doc1.addField("isBot", isSpiderBot);
+
+        if (dspaceObject != null) {
+            doc1.addField("id", dspaceObject.getID().toString());
+            doc1.addField("type", dspaceObject.getType());
+            storeParents(doc1, dspaceObject);
+        }
+        // Save the current time
+        doc1.addField("time", Instant.now().toString());
+        if (currentUser != null) {
+            doc1.addField("epersonid", currentUser.getID().toString());
+        }
+
+        return doc1;
+    }
+
+
+    /**
+     * Add the host name and, if valid, the location of the client to a usage event document. When statistics are
+     * anonymized, the configured host name mask is added instead, without location.
+     *
+     * @param doc1 the usage event document
+     * @param ip   the IP address of the client
+     */
+    protected void addClientFields(SolrInputDocument doc1, String ip) {
+        if (configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
+            String dns = configurationService.getProperty("anonymize_statistics.dns_mask", "anonymized");
             doc1.addField("dns", dns.toLowerCase(Locale.ROOT));
+            return;
+        }
+        Map<String, Object> fields = statisticsLookupCache == null ? lookupClient(ip)
+            : statisticsLookupCache.getClient(ip, this::lookupClient);
+        fields.forEach(doc1::addField);
+    }
+
+    /**
+     * Look up the host name of a client by reverse DNS, and its location in the GeoIP database.
+     *
+     * @param ip the IP address of the client
+     * @return the "dns", "continent", "countryCode", "city", "latitude" and "longitude" fields of the client, or
+     *         the fields which could be found
+     */
+    protected Map<String, Object> lookupClient(String ip) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        InetAddress ipAddress;
+        try {
+            ipAddress = InetAddress.getByName(ip);
+            fields.put("dns", ipAddress.getHostName().toLowerCase(Locale.ROOT));
         } catch (UnknownHostException e) {
             log.info("Failed DNS Lookup for IP:  {}", ip);
             log.debug(e.getMessage(), e);
+            return fields;
         }
-        if (userAgent != null) {
-            doc1.addField("userAgent", userAgent);
-        }
-        doc1.addField("isBot", isSpiderBot);
         // Save the location information if valid, save the event without
         // location information if not valid
         if (locationService != null) {
@@ -499,20 +526,19 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 double longitude = location.getLocation().getLongitude();
                 if (!(
                         "--".equals(countryCode)
-                                && latitude == -180
-                                && longitude == -180)
+                        && latitude == -180
+                        && longitude == -180)
                 ) {
                     try {
-                        doc1.addField("continent", LocationUtils
-                                .getContinentCode(countryCode));
+                        fields.put("continent", LocationUtils
+                            .getContinentCode(countryCode));
                     } catch (Exception e) {
-                        System.out
-                                .println("COUNTRY ERROR: " + countryCode);
+                        log.warn("Failed to load country/continent table: {}", countryCode);
                     }
-                    doc1.addField("countryCode", countryCode);
-                    doc1.addField("city", location.getCity().getName());
-                    doc1.addField("latitude", latitude);
-                    doc1.addField("longitude", longitude);
+                    fields.put("countryCode", countryCode);
+                    fields.put("city", location.getCity().getName());
+                    fields.put("latitude", latitude);
+                    fields.put("longitude", longitude);
                 }
             } catch (IOException e) {
                 log.warn("GeoIP lookup failed.", e);
@@ -520,22 +546,9 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 log.info("Unable to get location of request: {}", e.getMessage());
             }
         }
-
-        if (dspaceObject != null) {
-            doc1.addField("id", dspaceObject.getID().toString());
-            doc1.addField("type", dspaceObject.getType());
-            storeParents(doc1, dspaceObject);
-        }
-        // Save the current time
-        doc1.addField("time", Instant.now().toString());
-        if (currentUser != null) {
-            doc1.addField("epersonid", currentUser.getID().toString());
-        }
-
-        return doc1;
+        return fields;
     }
 
-
     @Override
     public void postSearch(DSpaceObject resultObject, HttpServletRequest request, EPerson currentUser,
                            List<String> queries, int rpp, String sortBy, String order, int page, DSpaceObject scope) {
@@ -577,7 +590,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 solrDoc.addField("page", page);
             }
 
-            solr.add(solrDoc);
+            addUsageEvent(solrDoc, false);
         } catch (RuntimeException re) {
             throw re;
         } catch (Exception e) {
@@ -626,7 +639,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 solrDoc.addField("actor", usageWorkflowEvent.getActor().getID().toString());
             }
 
-            solr.add(solrDoc);
+            addUsageEvent(solrDoc, false);
         } catch (Exception e) {
             //Log the exception, no need to send it through, the workflow shouldn't crash because of this !
             log.error("Error saving WORKFLOW event to Solr", e);
@@ -636,27 +649,62 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
 
     @Override
     public void storeParents(SolrInputDocument doc1, DSpaceObject dso)
+        throws SQLException {
+        if (statisticsLookupCache == null || !statisticsLookupCache.isParentsEnabled()) {
+            addParents(doc1, dso);
+            return;
+        }
+        Map<String, List<String>> parents = statisticsLookupCache.getParents(dso.getID());
+        if (parents == null) {
+            SolrInputDocument parentsDoc = new SolrInputDocument();
+            addParents(parentsDoc, dso);
+            parents = new HashMap<>();
+            for (String field : parentsDoc.getFieldNames()) {
+                List<String> ids = new ArrayList<>();
+                for (Object id : parentsDoc.getFieldValues(field)) {
+                    ids.add((String) id);
+                }
+                parents.put(field, ids);
+            }
+            statisticsLookupCache.putParents(dso.getID(), parents);
+        }
+        for (Map.Entry<String, List<String>> parent : parents.entrySet()) {
+            for (String id : parent.getValue()) {
+                doc1.addField(parent.getKey(), id);
+            }
+        }
+    }
+
+    /**
+     * Add the UUIDs of all the owning items, collections and communities of an object to a usage event document,
+     * walking up the hierarchy.
+     *
+     * @param doc1 the usage event document
+     * @param dso  the object
+     * @throws SQLException in case of a database exception
+     */
+    protected void addParents(SolrInputDocument doc1, DSpaceObject dso)
         throws SQLException {
         if (dso instanceof Community) {
             Community comm = (Community) dso;
             List<Community> parentCommunities = comm.getParentCommunities();
             for (Community parent : parentCommunities) {
                 doc1.addField("owningComm", parent.getID().toString());
-                storeParents(doc1, parent);
+                addParents(doc1, parent);
             }
         } else if (dso instanceof Collection) {
             Collection coll = (Collection) dso;
             List<Community> communities = coll.getCommunities();
             for (Community community : communities) {
                 doc1.addField("owningComm", community.getID().toString());
-                storeParents(doc1, community);
+                addParents(doc1, community);
             }
         } else if (dso instanceof Item) {
             Item item = (Item) dso;
             List<Collection> collections = item.getCollections();
             for (Collection collection : collections) {
                 doc1.addField("owningColl", collection.getID().toString());
-                storeParents(doc1, collection);
+                addParents(doc1, collection);
             }
         } else if (dso instanceof Bitstream) {
             Bitstream bitstream = (Bitstream) dso;
@@ -665,7 +713,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 List<Item> items = bundle.getItems();
                 for (Item item : items) {
                     doc1.addField("owningItem", item.getID().toString());
-                    storeParents(doc1, item);
+                    addParents(doc1, item);
                 }
             }
         }
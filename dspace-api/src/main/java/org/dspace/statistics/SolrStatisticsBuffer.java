@@ -0,0 +1,426 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.JavaBinCodec;
+import org.dspace.services.ConfigurationService;
+
+/**
+ * Bounded in-memory buffer of usage event documents, used by {@link SolrLoggerServiceImpl} when
+ * "solr-statistics.async.enabled" is true. Instead of sending each document to Solr on the request thread, the
+ * documents are queued and background threads send them in batches of up to "solr-statistics.async.batch-size"
+ * documents.
+ * <p>
+ * When the buffer is full (because Solr is slow or unavailable), queuing never blocks: depending on
+ * "solr-statistics.async.overflow" the document is either appended to a spill file in
+ * "solr-statistics.async.spill-dir" ("spill"), or dropped and counted ("drop"). Batches which could not be sent
+ * are handled the same way. Spill files are sent to Solr by the background threads once the buffer is empty and
+ * Solr has not failed for a minute, including those left by a previous run.
+ * <p>
+ * Spill files are flushed after each write and locked while they are written or sent, so that the files left by a
+ * process which stopped abruptly are recognised and sent by the next run; their events may then be sent twice. A
+ * spill file which cannot be read is kept with the ".failed" suffix, for inspection.
+ */
+public class SolrStatisticsBuffer {
+
+    private static final Logger log = LogManager.getLogger(SolrStatisticsBuffer.class);
+
+    protected static final String SPILL_SUFFIX = ".spill";
+
+    protected static final String TMP_SUFFIX = ".tmp";
+
+    protected static final String SENDING_SUFFIX = ".sending";
+
+    protected static final String FAILED_SUFFIX = ".failed";
+
+    /**
+     * How long spill files are left alone after Solr failed, in milliseconds.
+     */
+    protected static final long RETRY_DELAY = 60000;
+
+    private final SolrClient solr;
+    private final BlockingQueue<SolrInputDocument> queue;
+    private final int batchSize;
+    private final long interval;
+    private final boolean spill;
+    private final boolean autoCommit;
+    private final File spillDir;
+    private final ExecutorService executor;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Spill file currently written, closed and renamed when its documents are replayed
+     */
+    private final Object spillLock = new Object();
+    private File spillFile;
+    private DataOutputStream spillStream;
+
+    private volatile boolean running = true;
+    private volatile long lastFailure = 0;
+
+    /**
+     * Create the buffer and start its background threads.
+     *
+     * @param solr                 the client to send the documents to
+     * @param configurationService the source of the "solr-statistics.async.*" settings
+     */
+    public SolrStatisticsBuffer(SolrClient solr, ConfigurationService configurationService) {
+        this.solr = solr;
+        this.queue = new ArrayBlockingQueue<>(
+            Math.max(1, configurationService.getIntProperty("solr-statistics.async.capacity", 10000)));
+        this.batchSize = Math.max(1, configurationService.getIntProperty("solr-statistics.async.batch-size", 500));
+        this.interval = Math.max(1, configurationService.getLongProperty("solr-statistics.async.interval", 1000));
+        this.spill = "spill".equalsIgnoreCase(
+            configurationService.getProperty("solr-statistics.async.overflow", "spill"));
+        this.autoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
+        this.spillDir = new File(configurationService.getProperty("solr-statistics.async.spill-dir",
+            configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                + "statistics-spill"));
+
+        if (spill) {
+            recoverSpillFiles();
+        }
+        int threads = Math.max(1, configurationService.getIntProperty("solr-statistics.async.threads", 1));
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "solr-statistics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            executor.submit(this::run);
+        }
+    }
+
+    /**
+     * Queue a document, without ever blocking.
+     *
+     * @param doc the usage event document
+     */
+    public void add(SolrInputDocument doc) {
+        if (running && queue.offer(doc)) {
+            return;
+        }
+        overflow(List.of(doc));
+    }
+
+    /**
+     * Stop the background threads, and send the documents still in the buffer.
+     */
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Timed out sending the buffered usage events to Solr");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever could not be sent is kept for the next run
+        List<SolrInputDocument> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            overflow(remaining);
+        }
+        synchronized (spillLock) {
+            closeSpillFile();
+        }
+        log.info("Usage event buffer stopped: {} sent, {} spilled, {} dropped",
+                 sent.get(), spilled.get(), dropped.get());
+    }
+
+    /**
+     * @return the number of documents sent to Solr
+     */
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * @return the number of documents written to a spill file because the buffer was full or Solr failed
+     */
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    /**
+     * @return the number of documents lost because the buffer was full or Solr failed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of documents waiting in the buffer
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Loop of a background thread: send batches as soon as they are available, and replay the spill files when
+     * there is nothing else to send.
+     */
+    private void run() {
+        List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                SolrInputDocument first = queue.poll(interval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (running && spill && System.currentTimeMillis() - lastFailure > RETRY_DELAY) {
+                        replaySpillFiles();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in the usage event writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Send a batch to Solr, or spill or drop it if it could not be sent.
+     *
+     * @return true if the batch was sent
+     */
+    private boolean send(List<SolrInputDocument> batch) {
+        try {
+            solr.add(batch);
+            if (!autoCommit) {
+                solr.commit(false, false);
+            }
+            sent.addAndGet(batch.size());
+            return true;
+        } catch (IOException | SolrServerException | RuntimeException e) {
+            lastFailure = System.currentTimeMillis();
+            log.error("Error saving {} usage events to Solr", batch.size(), e);
+            overflow(batch);
+            return false;
+        }
+    }
+
+    /**
+     * Send a batch read from a spill file, or spill it again if sending a previous batch failed.
+     *
+     * @return true if this or a previous batch could not be sent
+     */
+    private boolean replay(List<SolrInputDocument> batch, boolean failed) {
+        if (failed) {
+            overflow(batch);
+            return true;
+        }
+        return !send(batch);
+    }
+
+    /**
+     * Spill or drop documents which could not be queued or sent.
+     */
+    private void overflow(List<SolrInputDocument> docs) {
+        if (spill) {
+            synchronized (spillLock) {
+                try {
+                    if (spillStream == null) {
+                        spillDir.mkdirs();
+                        spillFile = new File(spillDir, String.format("%019d-%s%s", System.currentTimeMillis(),
+                                                                      UUID.randomUUID(), TMP_SUFFIX));
+                        FileOutputStream out = new FileOutputStream(spillFile);
+                        // Released when the file is closed, tells other processes the file is still written
+                        out.getChannel().lock();
+                        spillStream = new DataOutputStream(new BufferedOutputStream(out));
+                    }
+                    for (SolrInputDocument doc : docs) {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        try (JavaBinCodec codec = new JavaBinCodec()) {
+                            codec.marshal(doc, bytes);
+                        }
+                        spillStream.writeInt(bytes.size());
+                        bytes.writeTo(spillStream);
+                    }
+                    // Written to the file right away, so that the events survive a crash of the process
+                    spillStream.flush();
+                    spilled.addAndGet(docs.size());
+                    return;
+                } catch (IOException e) {
+                    log.error("Unable to spill usage events to {}", spillDir, e);
+                }
+            }
+        }
+        long total = dropped.addAndGet(docs.size());
+        log.warn("Dropped {} usage events, {} since startup", docs.size(), total);
+    }
+
+    /**
+     * Close the spill file being written, so that it can be replayed.
+     */
+    private void closeSpillFile() {
+        if (spillStream == null) {
+            return;
+        }
+        try {
+            spillStream.close();
+            String name = spillFile.getName();
+            File closed = new File(spillDir, name.substring(0, name.length() - TMP_SUFFIX.length()) + SPILL_SUFFIX);
+            if (!spillFile.renameTo(closed)) {
+                log.error("Unable to rename the spill file {}", spillFile);
+            }
+        } catch (IOException e) {
+            log.error("Unable to close the spill file {}", spillFile, e);
+        } finally {
+            spillStream = null;
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Make the spill files which a previous run was still writing or sending when it stopped available to be sent
+     * again. Files still locked by another running process are left alone.
+     */
+    private void recoverSpillFiles() {
+        File[] files = spillDir.listFiles((dir, name) -> name.endsWith(TMP_SUFFIX) || name.endsWith(SENDING_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            File recovered = name.endsWith(TMP_SUFFIX)
+                ? new File(spillDir, name.substring(0, name.length() - TMP_SUFFIX.length()) + SPILL_SUFFIX)
+                : new File(spillDir, name.substring(0, name.length() - SENDING_SUFFIX.length()));
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    continue;
+                }
+                lock.release();
+            } catch (OverlappingFileLockException e) {
+                continue;
+            } catch (IOException e) {
+                log.error("Unable to check the spill file {}", file, e);
+                continue;
+            }
+            if (file.renameTo(recovered)) {
+                log.warn("Recovered the spill file {} left by a previous run", recovered);
+            } else {
+                log.error("Unable to rename the spill file {}", file);
+            }
+        }
+    }
+
+    /**
+     * Send the documents of the spill files to Solr, oldest first, deleting each file once it is sent.
+     */
+    private void replaySpillFiles() {
+        File[] files;
+        synchronized (spillLock) {
+            closeSpillFile();
+            files = spillDir.listFiles((dir, name) -> name.endsWith(SPILL_SUFFIX));
+        }
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (!running || !queue.isEmpty()) {
+                // New events first
+                return;
+            }
+            // Claimed by renaming, so that a file is replayed by a single thread
+            File claimed = new File(file.getPath() + SENDING_SUFFIX);
+            if (!file.renameTo(claimed)) {
+                continue;
+            }
+            List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+            // Once Solr failed, the rest of the file is spilled again without trying to send it
+            boolean failed = false;
+            try (FileChannel channel = FileChannel.open(claimed.toPath(), StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+                // Tells other processes the file is still sent
+                channel.lock();
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    byte[] bytes = new byte[length];
+                    try {
+                        in.readFully(bytes);
+                    } catch (EOFException e) {
+                        log.warn("The spill file {} ends with an incomplete event, written when a previous run "
+                                     + "stopped", claimed);
+                        break;
+                    }
+                    try (JavaBinCodec codec = new JavaBinCodec()) {
+                        batch.add((SolrInputDocument) codec.unmarshal(new ByteArrayInputStream(bytes)));
+                    }
+                    if (batch.size() >= batchSize) {
+                        failed = replay(batch, failed);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    replay(batch, failed);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Kept for inspection, the events read before the error may have been sent already
+                File kept = new File(file.getPath() + FAILED_SUFFIX);
+                log.error("Unable to read the spill file {}, it is kept as {}", claimed, kept, e);
+                if (!claimed.renameTo(kept)) {
+                    log.error("Unable to rename the spill file {}", claimed);
+                }
+                continue;
+            }
+            if (!claimed.delete()) {
+                log.error("Unable to delete the spill file {}", claimed);
+            }
+        }
+    }
+}
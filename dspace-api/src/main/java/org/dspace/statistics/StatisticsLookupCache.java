@@ -0,0 +1,184 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.core.Context;
+import org.dspace.core.cache.EvictionTracker;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * JVM-wide caches of the lookups made for every usage event, shared by all requests:
+ * <ul>
+ * <li>the owning items, collections and communities of a DSpace object ("statistics.parents"), which are
+ * otherwise found by walking the hierarchy through the database;</li>
+ * <li>the host name and location of an IP address ("statistics.clients"), which are otherwise found by a
+ * reverse DNS lookup and a GeoIP lookup;</li>
+ * <li>whether a user agent is a known spider ("statistics.agents"), which is otherwise found by matching it
+ * against every spider pattern.</li>
+ * </ul>
+ * The size and time to live of each cache are set in ehcache.xml. The caches are disabled unless
+ * "solr-statistics.cache.enabled" is true. The owners of an object are only cached if the
+ * {@link StatisticsLookupCacheConsumer} is also registered with the default event dispatcher, as it evicts them
+ * when objects are moved. Both settings are read once, by {@link #init()}. As events are dispatched before the
+ * changes are committed to the database, an evicted object is not cached again until the transaction which moved
+ * it ended, and for a short grace period after that ("solr-statistics.cache.eviction-grace", in milliseconds), see
+ * {@link EvictionTracker}.
+ */
+public class StatisticsLookupCache {
+
+    static final String PARENTS_CACHE = "statistics.parents";
+    static final String CLIENTS_CACHE = "statistics.clients";
+    static final String AGENTS_CACHE = "statistics.agents";
+
+    static final String CONSUMER_NAME = "statisticscache";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    // Objects which were recently evicted, and must not be cached again yet
+    private final EvictionTracker<UUID> evictions = new EvictionTracker<>(this::getEvictionGrace,
+                                                                          this::getMaxTransactionTime);
+
+    // Read once by init(), rather than for every usage event
+    private volatile boolean enabled = false;
+    private volatile boolean parentsEnabled = false;
+
+    /**
+     * Read whether the caches are enabled.
+     */
+    public void init() {
+        enabled = configurationService.getBooleanProperty("solr-statistics.cache.enabled", false);
+        parentsEnabled = enabled
+            && ArrayUtils.contains(configurationService.getArrayProperty("event.dispatcher.default.consumers"),
+                                   CONSUMER_NAME);
+    }
+
+    /**
+     * @return true if the host names, locations and spider matches are cached
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true if the owners of objects are cached
+     */
+    public boolean isParentsEnabled() {
+        return parentsEnabled;
+    }
+
+    /**
+     * Get the cached owners of an object.
+     *
+     * @param dsoId the UUID of the object
+     * @return the UUIDs of the owners of the object by Solr field name, or null if they are not cached
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, List<String>> getParents(UUID dsoId) {
+        if (!isParentsEnabled()) {
+            return null;
+        }
+        return getCache(PARENTS_CACHE).get(dsoId, Map.class);
+    }
+
+    /**
+     * Cache the owners of an object.
+     *
+     * @param dsoId   the UUID of the object
+     * @param parents the UUIDs of the owners of the object by Solr field name, which must not be modified anymore
+     */
+    public void putParents(UUID dsoId, Map<String, List<String>> parents) {
+        if (isParentsEnabled() && !evictions.isEvicted(dsoId)) {
+            getCache(PARENTS_CACHE).put(dsoId, parents);
+        }
+    }
+
+    /**
+     * Get the lookup results of a client IP address, computing and caching them if needed.
+     *
+     * @param ip     the IP address
+     * @param loader computes the host name and location of the address if they are not cached
+     * @param <T>    the type of the cached value
+     * @return the lookup results
+     */
+    public <T> T getClient(String ip, Function<String, T> loader) {
+        return get(CLIENTS_CACHE, ip, loader);
+    }
+
+    /**
+     * Return whether a user agent matches a spider pattern, matching and caching it if needed.
+     *
+     * @param agent   the user agent
+     * @param matcher matches the user agent against the spider patterns if the result is not cached
+     * @return true if the user agent is a spider
+     */
+    public boolean isSpiderAgent(String agent, Function<String, Boolean> matcher) {
+        return get(AGENTS_CACHE, agent, matcher);
+    }
+
+    /**
+     * Remove the cached owners of the given objects, now and once the transaction of the context ended.
+     *
+     * @param context The relevant DSpace Context, or null if the changes are already committed.
+     * @param dsoIds  the UUIDs of the objects
+     */
+    public void evictParents(Context context, Set<UUID> dsoIds) {
+        evictions.evict(context, dsoIds, dsoId -> getCache(PARENTS_CACHE).evictIfPresent(dsoId));
+    }
+
+    /**
+     * Remove the cached owners of all objects, now and once the transaction of the context ended.
+     *
+     * @param context The relevant DSpace Context, or null if the changes are already committed.
+     */
+    public void evictAllParents(Context context) {
+        evictions.evictAll(context, () -> getCache(PARENTS_CACHE).invalidate());
+    }
+
+    private <T> T get(String cacheName, String key, Function<String, T> loader) {
+        if (key == null || !isEnabled()) {
+            return loader.apply(key);
+        }
+        Cache cache = getCache(cacheName);
+        @SuppressWarnings("unchecked")
+        T value = (T) cache.get(key, Object.class);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private long getEvictionGrace() {
+        return configurationService.getLongProperty("solr-statistics.cache.eviction-grace", 10000L);
+    }
+
+    private long getMaxTransactionTime() {
+        return configurationService.getLongProperty("cache.eviction.max-transaction-time", 3600000L);
+    }
+
+    private Cache getCache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name));
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Bundle;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.BundleService;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+import org.dspace.utils.DSpace;
+
+/**
+ * Consumer which evicts the owners cached by the {@link StatisticsLookupCache} that may have been changed by the
+ * events of a context.
+ * <p>
+ * When an item is mapped to, unmapped from or moved between collections, the owners of the item and of its bundles
+ * and bitstreams are evicted. Likewise for a bundle added to or removed from an item, and a bitstream added to or
+ * removed from a bundle. Moving or deleting a collection or community, whose owners are part of the owners of any
+ * number of objects, evicts the owners of all objects.
+ */
+public class StatisticsLookupCacheConsumer implements Consumer {
+
+    private static final Logger log = LogManager.getLogger(StatisticsLookupCacheConsumer.class);
+
+    protected ItemService itemService;
+
+    protected BundleService bundleService;
+
+    protected StatisticsLookupCache statisticsLookupCache;
+
+    private final Set<UUID> objectsToEvict = new HashSet<>();
+
+    private boolean evictAll = false;
+
+    @Override
+    public void initialize() throws Exception {
+        itemService = ContentServiceFactory.getInstance().getItemService();
+        bundleService = ContentServiceFactory.getInstance().getBundleService();
+        statisticsLookupCache = new DSpace().getServiceManager()
+            .getServiceByName(StatisticsLookupCache.class.getName(), StatisticsLookupCache.class);
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        if (evictAll) {
+            return;
+        }
+        int eventType = event.getEventType();
+        if (eventType != Event.ADD && eventType != Event.REMOVE && eventType != Event.DELETE) {
+            return;
+        }
+
+        switch (event.getSubjectType()) {
+            case Constants.COMMUNITY:
+            case Constants.COLLECTION:
+                if (eventType != Event.DELETE && event.getObjectType() == Constants.ITEM) {
+                    // An item was mapped to or unmapped from a collection
+                    addItem(ctx, event.getObjectID());
+                } else {
+                    evictAll = true;
+                }
+                break;
+            case Constants.ITEM:
+                addObject(event.getSubjectID());
+                addBundle(ctx, event.getObjectID());
+                break;
+            case Constants.BUNDLE:
+                addObject(event.getSubjectID());
+                addObject(event.getObjectID());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (statisticsLookupCache != null) {
+            if (evictAll) {
+                log.debug("Evicting the owners of all objects from the statistics cache");
+                statisticsLookupCache.evictAllParents(ctx);
+            } else {
+                statisticsLookupCache.evictParents(ctx, objectsToEvict);
+            }
+        }
+        objectsToEvict.clear();
+        evictAll = false;
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+        // No-op
+    }
+
+    /**
+     * Evict an item and its bundles and bitstreams, as the owners of the item are also theirs.
+     */
+    private void addItem(Context ctx, UUID itemId) throws SQLException {
+        addObject(itemId);
+        Item item = itemId == null ? null : itemService.find(ctx, itemId);
+        if (item == null) {
+            return;
+        }
+        for (Bundle bundle : item.getBundles()) {
+            addBundle(ctx, bundle);
+        }
+    }
+
+    private void addBundle(Context ctx, UUID bundleId) throws SQLException {
+        addObject(bundleId);
+        Bundle bundle = bundleId == null ? null : bundleService.find(ctx, bundleId);
+        if (bundle != null) {
+            addBundle(ctx, bundle);
+        }
+    }
+
+    private void addBundle(Context ctx, Bundle bundle) {
+        addObject(bundle.getID());
+        for (Bitstream bitstream : bundle.getBitstreams()) {
+            addObject(bitstream.getID());
+        }
+    }
+
+    private void addObject(UUID id) {
+        if (id != null) {
+            objectsToEvict.add(id);
+        }
+    }
+}
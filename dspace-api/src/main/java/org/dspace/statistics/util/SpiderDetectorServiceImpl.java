@@ -26,6 +26,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.dspace.service.ClientInfoService;
 import org.dspace.services.ConfigurationService;
+import org.dspace.statistics.StatisticsLookupCache;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -58,6 +59,12 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
      */
     private IPTable table = null;
 
+    /**
+     * Shared cache of the agent matches, set when the service is created by Spring
+     */
+    @Autowired(required = false)
+    private StatisticsLookupCache statisticsLookupCache;
+
     @Autowired(required = true)
     public SpiderDetectorServiceImpl(ConfigurationService configurationService, ClientInfoService clientInfoService) {
         this.configurationService = configurationService;
@@ -88,14 +95,10 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
                 hostname = StringUtils.lowerCase(hostname);
             }
 
-            for (Pattern candidate : agents) {
-
-                // prevent matcher() invocation from a null Pattern object
-                if (null != candidate && candidate.matcher(agent).find()) {
-                    return true;
-                }
-
-
+            boolean spiderAgent = statisticsLookupCache == null ? matchesAgent(agent)
+                : statisticsLookupCache.isSpiderAgent(agent, this::matchesAgent);
+            if (spiderAgent) {
+                return true;
             }
         }
 
@@ -132,6 +135,22 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
         return false;
     }
 
+    /**
+     * Match a user agent against the agent patterns.
+     *
+     * @param agent the user agent, lower cased if case insensitive matching is enabled
+     * @return true if a pattern matches
+     */
+    private boolean matchesAgent(String agent) {
+        for (Pattern candidate : agents) {
+            // prevent matcher() invocation from a null Pattern object
+            if (null != candidate && candidate.matcher(agent).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Set<String> readPatterns(File patternFile)
         throws IOException {
@@ -9,6 +9,7 @@ package org.dspace.storage.bitstore;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
@@ -79,6 +80,18 @@ public interface BitStoreService {
      */
     public void remove(Bitstream bitstream) throws IOException;
 
+    /**
+     * Return the local file holding the bits of a bitstream, for stores which keep their assets on a local file
+     * system. The file may then be read directly, e.g. to send it to a client without copying it through the heap.
+     *
+     * @param bitstream The bitstream
+     * @return the path of the file, or null if the bits are not available as a local file
+     * @throws java.io.IOException If a problem occurs while locating the file
+     */
+    public default Path getLocalPath(Bitstream bitstream) throws IOException {
+        return null;
+    }
+
     /**
      * Determines if a store has been initialized
      * 
@@ -9,6 +9,7 @@ package org.dspace.storage.bitstore;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.HashMap;
@@ -225,6 +226,12 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
         return this.getStore(storeNumber).get(bitstream);
     }
 
+    @Nullable
+    @Override
+    public Path getLocalPath(Bitstream bitstream) throws IOException {
+        return this.getStore(bitstream.getStoreNumber()).getLocalPath(bitstream);
+    }
+
     @Override
     public void cleanup(boolean deleteDbRecords, boolean verbose) throws SQLException, IOException, AuthorizeException {
         Context context = new Context(Context.Mode.BATCH_EDIT);
@@ -250,7 +257,7 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
 
                 for (Bitstream bitstream : storage) {
                     UUID bid = bitstream.getID();
-                    List<String> wantedMetadata = List.of("size_bytes", "modified");
+                    List<String> wantedMetadata = List.of("size_bytes", "modified", "reference_count");
                     Map<String, Object> receivedMetadata = this.getStore(bitstream.getStoreNumber())
                         .about(bitstream, wantedMetadata);
 
@@ -311,7 +318,13 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
                     if (!hasDuplicate) {
                         this.getStore(bitstream.getStoreNumber()).remove(bitstream);
 
-                        String message = ("Deleted bitstreamID " + bid + ", internalID " + bitstream.getInternalId());
+                        // Content addressed stores only delete the file once no other asset shares its content
+                        int references = receivedMetadata.containsKey("reference_count")
+                            ? Integer.parseInt(receivedMetadata.get("reference_count").toString()) : 1;
+                        String message = (references > 1 ? "Released bitstreamID " : "Deleted bitstreamID ") + bid
+                            + ", internalID " + bitstream.getInternalId()
+                            + (references > 1 ? ", content still shared by " + (references - 1) + " other asset(s)"
+                                              : "");
                         if (log.isDebugEnabled()) {
                             log.debug(message);
                         }
@@ -336,6 +349,8 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
 
             }
 
+            deleteStaleUploads(verbose);
+
             System.out.print("Committing changes to the database...");
             context.complete();
             System.out.println(" Done!");
@@ -469,6 +484,37 @@ public class BitstreamStorageServiceImpl implements BitstreamStorageService, Ini
         return (now - lastModified) < waitWindowMilli;
     }
 
+    /**
+     * Delete the uploads left behind in the content addressed stores by interrupted store operations, once they
+     * are no longer recent, and reconcile the reference counts of these stores with their assets, deleting the
+     * content no longer referenced.
+     *
+     * @param verbose whether to print the number of deleted uploads and reconciled reference counts
+     */
+    protected void deleteStaleUploads(boolean verbose) {
+        long waitWindowHours = configurationService.getLongProperty("bitstream.cleanup.isRecent.hours", 1L);
+        long modifiedBefore = Instant.now().toEpochMilli() - TimeUnit.HOURS.toMillis(waitWindowHours);
+        for (Map.Entry<Integer, BitStoreService> storeEntry : stores.entrySet()) {
+            if (storeEntry.getValue() instanceof DeduplicatingBitStoreService store
+                && store.isEnabled() && store.isInitialized()) {
+                int deleted = store.deleteStaleUploads(modifiedBefore);
+                if (verbose && deleted > 0) {
+                    System.out.println("Deleted " + deleted + " stale upload(s) from store[" + storeEntry.getKey()
+                                           + "]");
+                }
+                try {
+                    int reconciled = store.reconcileReferenceCounts(modifiedBefore);
+                    if (verbose && reconciled > 0) {
+                        System.out.println("Reconciled " + reconciled + " reference count(s) of store["
+                                               + storeEntry.getKey() + "]");
+                    }
+                } catch (IOException e) {
+                    log.error("Unable to reconcile the reference counts of store[" + storeEntry.getKey() + "]", e);
+                }
+            }
+        }
+    }
+
     protected BitStoreService getStore(int position) throws IOException {
         BitStoreService bitStoreService = this.stores.get(position);
         if (!bitStoreService.isInitialized()) {
@@ -0,0 +1,545 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.storage.bitstore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.Bitstream;
+import org.dspace.core.Utils;
+
+/**
+ * Read-through cache of the assets of another (typically remote) asset store on the local disk.
+ * <p>
+ * The bits retrieved from the wrapped store are copied to a file in the cache directory, and later retrievals of
+ * the same asset are served from that file. The MD5 checksum of the bits is computed while they are copied, and
+ * they are only cached if it matches the checksum of the bitstream. The files found in the cache directory on
+ * startup, or modified since they were cached, are checked against the checksum of the bitstream again before
+ * they are served. Concurrent retrievals of an asset which is not cached yet only fetch it once from the wrapped
+ * store.
+ * <p>
+ * The total size of the cached files is kept below "maxSize" bytes by deleting the least recently used files,
+ * and files larger than "maxFileSize" bytes are never cached. The files returned by {@link #getLocalPath} are not
+ * deleted to make room for "pinTime" milliseconds, so that they can still be opened by the caller. Storing or
+ * removing an asset removes it from the cache. The cache directory must not be shared with other asset stores, nor
+ * with other DSpace processes.
+ */
+public class CachingBitStoreService implements BitStoreService {
+
+    private static final Logger log = LogManager.getLogger(CachingBitStoreService.class);
+
+    protected static final String CSA = "MD5";
+    protected static final String TEMP_DIR = "tmp";
+
+    // Maximum length of the part of the file names taken from the internal ids
+    private static final int MAX_NAME_LENGTH = 100;
+
+    /**
+     * The wrapped asset store
+     */
+    private BitStoreService bitStoreService;
+
+    /**
+     * The cache directory
+     */
+    private File cacheDir;
+
+    /**
+     * The maximum total size of the cached files, in bytes
+     */
+    private long maxSize = 1024L * 1024L * 1024L;
+
+    /**
+     * The maximum size of a cached file, in bytes
+     */
+    private long maxFileSize = 100L * 1024L * 1024L;
+
+    /**
+     * The time during which a file returned by {@link #getLocalPath} is not evicted, in milliseconds
+     */
+    private long pinTime = 60L * 1000L;
+
+    private boolean initialized = false;
+
+    /**
+     * The cached files by name, in access order. Guarded by itself.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+
+    /**
+     * Retrievals from the wrapped store which are in progress, by internal id
+     */
+    private final Map<String, CompletableFuture<File>> inFlight = new ConcurrentHashMap<>();
+
+    public CachingBitStoreService() {
+    }
+
+    /**
+     * Initialize the wrapped asset store, and index the files already in the cache directory.
+     *
+     * @throws IOException if the wrapped store cannot be initialized
+     */
+    @Override
+    public void init() throws IOException {
+        if (!bitStoreService.isInitialized()) {
+            bitStoreService.init();
+        }
+        synchronized (entries) {
+            entries.clear();
+            size = 0;
+            File tempDir = new File(cacheDir, TEMP_DIR);
+            // Files left behind by interrupted retrievals
+            File[] leftovers = tempDir.listFiles();
+            if (leftovers != null) {
+                for (File leftover : leftovers) {
+                    leftover.delete();
+                }
+            }
+            if (cacheDir.exists()) {
+                try (Stream<Path> files = Files.walk(cacheDir.toPath())) {
+                    // Add the files in order of their last modification, as an approximation of their last use.
+                    // Their checksum is verified when they are first used.
+                    files.filter(Files::isRegularFile)
+                         .map(Path::toFile)
+                         .filter(file -> !file.getParentFile().equals(tempDir))
+                         .sorted(Comparator.comparingLong(File::lastModified))
+                         .forEach(file -> {
+                             if (!file.equals(getFile(file.getName()))) {
+                                 // Not named by this cache, e.g. by a previous version of it
+                                 file.delete();
+                                 return;
+                             }
+                             entries.put(file.getName(), new Entry(file.length(), null, 0));
+                             size += file.length();
+                         });
+                }
+            }
+            evict();
+        }
+        this.initialized = true;
+    }
+
+    @Override
+    public String generateId() {
+        return bitStoreService.generateId();
+    }
+
+    /**
+     * Retrieve the bits of an asset from the cache, or from the wrapped store if they are not cached.
+     *
+     * @param bitstream The bitstream to retrieve the bits of
+     * @return The stream of bits
+     * @throws java.io.IOException If a problem occurs while retrieving the bits
+     */
+    @Override
+    public InputStream get(Bitstream bitstream) throws IOException {
+        String id = bitstream.getInternalId();
+        InputStream cached = openCachedFile(bitstream);
+        if (cached != null) {
+            return cached;
+        }
+        if (!isCacheable(bitstream)) {
+            return bitStoreService.get(bitstream);
+        }
+
+        CompletableFuture<File> future = new CompletableFuture<>();
+        CompletableFuture<File> existing = inFlight.putIfAbsent(id, future);
+        if (existing != null) {
+            // Another thread is retrieving the same asset, wait for it
+            return openRetrieved(bitstream, existing);
+        }
+        try {
+            // The asset may have been cached since the first check
+            File file = getCachedFile(bitstream, false);
+            future.complete(file != null ? file : fill(bitstream));
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(id, future);
+        }
+        return openRetrieved(bitstream, future);
+    }
+
+    /**
+     * Store a stream of bits in the wrapped store, and remove any cached copy of the previous bits.
+     *
+     * @param bitstream   The bitstream object
+     * @param inputStream The stream of bits
+     * @throws java.io.IOException If a problem occurs while storing the bits
+     */
+    @Override
+    public void put(Bitstream bitstream, InputStream inputStream) throws IOException {
+        evict(bitstream);
+        bitStoreService.put(bitstream, inputStream);
+    }
+
+    @Override
+    public Map<String, Object> about(Bitstream bitstream, List<String> attrs) throws IOException {
+        return bitStoreService.about(bitstream, attrs);
+    }
+
+    /**
+     * Remove an asset from the wrapped store and from the cache.
+     *
+     * @param bitstream The bitstream of the asset to delete
+     * @throws java.io.IOException If a problem occurs while removing the asset
+     */
+    @Override
+    public void remove(Bitstream bitstream) throws IOException {
+        evict(bitstream);
+        bitStoreService.remove(bitstream);
+    }
+
+    /**
+     * Return the cached copy of the bits of a bitstream, or the local file of the wrapped store if it has one. The
+     * cached copy is not evicted to make room for other files during the pin time, so that the caller can open it.
+     *
+     * @param bitstream The bitstream
+     * @return the path of the file, or null if the bits are not available as a local file
+     * @throws java.io.IOException If a problem occurs while locating the file
+     */
+    @Override
+    public Path getLocalPath(Bitstream bitstream) throws IOException {
+        File cached = getCachedFile(bitstream, true);
+        return cached != null ? cached.toPath() : bitStoreService.getLocalPath(bitstream);
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return this.initialized;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return bitStoreService.isEnabled();
+    }
+
+    /**
+     * Return the total size of the cached files.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    public BitStoreService getBitStoreService() {
+        return bitStoreService;
+    }
+
+    public void setBitStoreService(BitStoreService bitStoreService) {
+        this.bitStoreService = bitStoreService;
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public long getPinTime() {
+        return pinTime;
+    }
+
+    public void setPinTime(long pinTime) {
+        this.pinTime = pinTime;
+    }
+
+    ////////////////////////////////////////
+    // Internal methods
+    ////////////////////////////////////////
+
+    /**
+     * Only bitstreams of a known size, which may be cached as a whole, and with an MD5 checksum to validate the
+     * retrieved bits against, are cached.
+     */
+    protected boolean isCacheable(Bitstream bitstream) {
+        return bitstream.getSizeBytes() > 0 && bitstream.getSizeBytes() <= maxFileSize
+            && bitstream.getSizeBytes() <= maxSize && StringUtils.isNotBlank(bitstream.getChecksum())
+            && CSA.equals(bitstream.getChecksumAlgorithm());
+    }
+
+    /**
+     * Return the cached file of a bitstream, and mark it as used. The checksum of files which were not verified
+     * since they were cached by this process, or which were modified since, is verified against the bitstream.
+     *
+     * @param pin whether the file must not be evicted during the pin time
+     * @return the file, or null if the bitstream is not cached
+     */
+    private File getCachedFile(Bitstream bitstream, boolean pin) {
+        if (!isCacheable(bitstream)) {
+            return null;
+        }
+        String id = getId(bitstream);
+        File file = getFile(id);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            // Files of the wrong size were not written by this cache, or were modified since
+            if (!file.exists() || file.length() != bitstream.getSizeBytes()) {
+                remove(id);
+                return null;
+            }
+            if (entry.isVerified(file, bitstream)) {
+                if (pin) {
+                    pin(entry);
+                }
+                return file;
+            }
+        }
+
+        // Read the file out of the lock, it is only used if it was not removed meanwhile
+        long lastModified = file.lastModified();
+        String checksum;
+        try (InputStream in = new FileInputStream(file)) {
+            checksum = DigestUtils.md5Hex(in);
+        } catch (IOException e) {
+            checksum = null;
+        }
+        synchronized (entries) {
+            if (entries.get(id) != entry) {
+                return null;
+            }
+            if (!bitstream.getChecksum().equals(checksum)) {
+                log.warn("Not using the cached file of bitstream " + bitstream.getID() + " (internal id "
+                             + bitstream.getInternalId() + "), checksum " + checksum
+                             + " does not match the expected checksum " + bitstream.getChecksum());
+                remove(id);
+                return null;
+            }
+            entry.checksum = checksum;
+            entry.lastModified = lastModified;
+            if (pin) {
+                pin(entry);
+            }
+            return file;
+        }
+    }
+
+    /**
+     * Prevent a cached file from being evicted during the pin time. Must hold the entries lock.
+     */
+    private void pin(Entry entry) {
+        entry.pinnedUntil = Math.max(entry.pinnedUntil, System.currentTimeMillis() + pinTime);
+    }
+
+    /**
+     * Open the cached file of a bitstream.
+     *
+     * @return the stream, or null if the bitstream is not cached, or its file was evicted before it could be opened
+     */
+    private InputStream openCachedFile(Bitstream bitstream) {
+        File file = getCachedFile(bitstream, false);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve the bits of a bitstream from the wrapped store into the cache.
+     *
+     * @return the cached file, or a temporary file which is deleted once read if the bits could not be validated
+     */
+    private File fill(Bitstream bitstream) throws IOException {
+        String id = getId(bitstream);
+        File tempDir = new File(cacheDir, TEMP_DIR);
+        tempDir.mkdirs();
+        File temp = File.createTempFile("cache", null, tempDir);
+        String checksum;
+        try (
+            InputStream in = bitStoreService.get(bitstream);
+            DigestInputStream dis = new DigestInputStream(in, MessageDigest.getInstance(CSA));
+            FileOutputStream fos = new FileOutputStream(temp)
+        ) {
+            Utils.bufferedCopy(dis, fos);
+            checksum = Utils.toHex(dis.getMessageDigest().digest());
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            temp.delete();
+            throw new IOException(e);
+        }
+
+        if (!checksum.equals(bitstream.getChecksum())) {
+            log.warn("Not caching bitstream " + bitstream.getID() + " (internal id " + bitstream.getInternalId()
+                         + "), checksum " + checksum + " does not match the expected checksum "
+                         + bitstream.getChecksum());
+            return temp;
+        }
+
+        File file = getFile(id);
+        synchronized (entries) {
+            file.getParentFile().mkdirs();
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            Entry previous = entries.put(id, new Entry(file.length(), checksum, file.lastModified()));
+            size += file.length() - (previous != null ? previous.length : 0);
+            evict();
+        }
+        return file;
+    }
+
+    /**
+     * Open the file retrieved by a call to {@link #fill(Bitstream)}.
+     */
+    private InputStream openRetrieved(Bitstream bitstream, CompletableFuture<File> future) throws IOException {
+        File file;
+        try {
+            file = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        if (file.getParentFile().getName().equals(TEMP_DIR)) {
+            // Bits which could not be validated are read from the temporary file, which is deleted once read,
+            // or retrieved again if another caller already read it
+            return file.exists() ? new DeleteOnCloseFileInputStream(file) : bitStoreService.get(bitstream);
+        }
+        InputStream cached = openCachedFile(bitstream);
+        return cached != null ? cached : bitStoreService.get(bitstream);
+    }
+
+    private void evict(Bitstream bitstream) {
+        synchronized (entries) {
+            remove(getId(bitstream));
+        }
+    }
+
+    /**
+     * Delete the least recently used files which are not pinned until the total size is within the limit. Must hold
+     * the entries lock.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getValue().pinnedUntil > now) {
+                continue;
+            }
+            iterator.remove();
+            size -= eldest.getValue().length;
+            getFile(eldest.getKey()).delete();
+        }
+    }
+
+    /**
+     * Delete the file of an entry. Must hold the entries lock.
+     */
+    private void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            size -= entry.length;
+        }
+        getFile(id).delete();
+    }
+
+    private File getFile(String id) {
+        return new File(cacheDir, getIntermediatePath(id) + id);
+    }
+
+    /**
+     * Name the cached file of a bitstream after a hash of its internal id, so that distinct internal ids never share
+     * a file, followed by the internal id without the characters which are not allowed in file names, e.g. the path
+     * separators of the relative paths used as internal ids by other stores.
+     */
+    private String getId(Bitstream bitstream) {
+        String internalId = bitstream.getInternalId();
+        return Utils.getMD5(internalId) + "-"
+            + StringUtils.left(internalId.replaceAll("[^A-Za-z0-9._-]", "_"), MAX_NAME_LENGTH);
+    }
+
+    /**
+     * Spread the cached files over subdirectories, using the hash their name starts with.
+     */
+    private String getIntermediatePath(String id) {
+        if (id.length() < 4) {
+            return "";
+        }
+        return id.substring(0, 2) + File.separator + id.substring(2, 4) + File.separator;
+    }
+
+    /**
+     * A cached file.
+     */
+    private static class Entry {
+        private final long length;
+        // The checksum the file was verified against, or null if it was not verified since it was indexed
+        private String checksum;
+        // The modification time of the file when it was verified
+        private long lastModified;
+        // The time until which the file must not be evicted
+        private long pinnedUntil = 0;
+
+        private Entry(long length, String checksum, long lastModified) {
+            this.length = length;
+            this.checksum = checksum;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isVerified(File file, Bitstream bitstream) {
+            return checksum != null && checksum.equals(bitstream.getChecksum())
+                && lastModified == file.lastModified();
+        }
+    }
+}
@@ -23,7 +23,9 @@ import org.dspace.storage.bitstore.factory.StorageServiceFactory;
 import org.dspace.utils.DSpace;
 
 /**
- * Cleans up asset store.
+ * Cleans up asset store. Content shared by several bitstreams in a
+ * {@link DeduplicatingBitStoreService} is only deleted along with the last of them, and the reference counts of
+ * these stores are reconciled with their assets.
  *
  * @author Peter Breton
  */
@@ -172,6 +172,19 @@ public class DSBitStoreService extends BaseBitStoreService {
         }
     }
 
+    /**
+     * Return the local file holding the bits of a bitstream.
+     *
+     * @param bitstream The bitstream
+     * @return the path of the file, or null if it does not exist
+     * @throws java.io.IOException If a problem occurs while locating the file
+     */
+    @Override
+    public Path getLocalPath(Bitstream bitstream) throws IOException {
+        File file = getFile(bitstream);
+        return file != null && file.exists() ? file.toPath() : null;
+    }
+
     ////////////////////////////////////////
     // Internal methods
     ////////////////////////////////////////
@@ -181,7 +194,7 @@ public class DSBitStoreService extends BaseBitStoreService {
      *
      * @param file The file with parent directories to delete
      */
-    private synchronized static void deleteParents(File file) {
+    protected synchronized static void deleteParents(File file) {
         if (file == null) {
             return;
         }
@@ -0,0 +1,475 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.storage.bitstore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.Bitstream;
+import org.dspace.core.Utils;
+
+/**
+ * Content-addressed asset store, which keeps a single copy of identical files.
+ * <p>
+ * The content of every asset is stored once under its SHA-256 digest, in a "content" directory below the base
+ * directory, using the same directory scatter as {@link DSBitStoreService}. For every asset (i.e. internal id) a
+ * small pointer file containing the digest is stored where {@link DSBitStoreService} would store the file itself.
+ * A reference count is kept next to each content file, and the content is only deleted, along with its reference
+ * count, when its last asset is removed. Storing a file which is already present therefore only costs a pointer
+ * file.
+ * <p>
+ * Uploads are written to a "tmp" directory while the MD5 checksum (stored in the bitstream) and the SHA-256
+ * digest are computed, and then moved into place or discarded. Reference counts are updated under a lock on one
+ * of the files of a "locks" directory, chosen by the first digits of the digest, so several DSpace processes may
+ * share the same store.
+ * <p>
+ * The reference count of some content is incremented before the pointer to it is written, and decremented after a
+ * pointer to it is deleted, so an interrupted operation can leave a count too high, but never too low. Pointer
+ * files are written to the "tmp" directory and then moved into place, so they are never partially written. The
+ * counts are reconciled with the pointer files by {@link #reconcileReferenceCounts(long)}, run by the bitstore
+ * cleanup, which deletes the content no longer referenced.
+ * <p>
+ * Registered bitstreams are handled as by {@link DSBitStoreService}.
+ */
+public class DeduplicatingBitStoreService extends DSBitStoreService {
+
+    private static final Logger log = LogManager.getLogger(DeduplicatingBitStoreService.class);
+
+    /**
+     * Algorithm of the digest used to address the content
+     */
+    protected static final String CONTENT_DIGEST = "SHA-256";
+    protected static final String REFERENCE_COUNT = "reference_count";
+    protected static final String CONTENT_DIR = "content";
+    protected static final String TEMP_DIR = "tmp";
+    protected static final String REFERENCES_SUFFIX = ".refs";
+    protected static final String LOCKS_DIR = "locks";
+    protected static final String LOCK_SUFFIX = ".lock";
+
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Locks the reference counts within this process, as file locks are held on behalf of the whole JVM
+     */
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    private boolean enabled = false;
+
+    public DeduplicatingBitStoreService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public InputStream get(Bitstream bitstream) throws IOException {
+        if (isRegisteredBitstream(bitstream.getInternalId())) {
+            return super.get(bitstream);
+        }
+        try {
+            return new FileInputStream(getContentFile(readDigest(bitstream)));
+        } catch (Exception e) {
+            log.error("get(" + bitstream.getInternalId() + ")", e);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Store a stream of bits. If a file with the same content is already present, only a reference to it is
+     * stored.
+     *
+     * @param bitstream The bitstream to store the bits of
+     * @param in        The stream of bits to store
+     * @throws java.io.IOException If a problem occurs while storing the bits
+     */
+    @Override
+    public void put(Bitstream bitstream, InputStream in) throws IOException {
+        File upload = null;
+        try {
+            File pointer = getFile(bitstream);
+            File tempDir = new File(getBaseDir(), TEMP_DIR);
+            tempDir.mkdirs();
+            upload = File.createTempFile("upload", null, tempDir);
+
+            String digest;
+            try (
+                FileOutputStream fos = new FileOutputStream(upload);
+                DigestInputStream md5 = new DigestInputStream(in, MessageDigest.getInstance(CSA));
+                DigestInputStream sha = new DigestInputStream(md5, MessageDigest.getInstance(CONTENT_DIGEST))
+            ) {
+                Utils.bufferedCopy(sha, fos);
+                in.close();
+
+                bitstream.setSizeBytes(upload.length());
+                bitstream.setChecksum(Utils.toHex(md5.getMessageDigest().digest()));
+                bitstream.setChecksumAlgorithm(CSA);
+                digest = Utils.toHex(sha.getMessageDigest().digest());
+            }
+
+            // The asset may be stored again, e.g. when migrating it back to this store
+            String previous = pointer.exists() ? readDigest(pointer) : null;
+            if (digest.equals(previous)) {
+                return;
+            }
+
+            addReference(digest, upload);
+            upload = null;
+            writePointer(pointer, digest, tempDir);
+            if (previous != null) {
+                removeReference(previous);
+            }
+        } catch (Exception e) {
+            log.error("put(" + bitstream.getInternalId() + ", inputstream)", e);
+            throw new IOException(e);
+        } finally {
+            if (upload != null) {
+                upload.delete();
+            }
+        }
+    }
+
+    /**
+     * Obtain technical metadata about an asset in the asset store. Besides the attributes supported by
+     * {@link DSBitStoreService}, the number of assets sharing the content may be requested as "reference_count".
+     * The "modified" attribute is the time at which the asset was stored, not the time at which its content was
+     * first stored.
+     *
+     * @param bitstream The asset to describe
+     * @param attrs     A List of desired metadata fields
+     * @return attrs A Map with key/value pairs of desired metadata
+     * @throws java.io.IOException If a problem occurs while obtaining metadata
+     */
+    @Override
+    public Map<String, Object> about(Bitstream bitstream, List<String> attrs) throws IOException {
+        if (isRegisteredBitstream(bitstream.getInternalId())) {
+            return super.about(bitstream, attrs);
+        }
+        try {
+            File pointer = getFile(bitstream);
+            if (pointer == null || !pointer.exists()) {
+                return null;
+            }
+            String digest = readDigest(pointer);
+            File content = getContentFile(digest);
+            if (!content.exists()) {
+                return null;
+            }
+            Map<String, Object> metadata = super.about(content, attrs);
+            putValueIfExistsKey(attrs, metadata, MODIFIED, String.valueOf(pointer.lastModified()));
+            if (attrs.contains(REFERENCE_COUNT)) {
+                metadata.put(REFERENCE_COUNT, getReferenceCount(digest));
+            }
+            return metadata;
+        } catch (Exception e) {
+            log.error("about(" + bitstream.getInternalId() + ")", e);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Remove an asset from the asset store. Its content is only deleted if no other asset refers to it.
+     *
+     * @param bitstream The asset to delete
+     * @throws java.io.IOException If a problem occurs while removing the asset
+     */
+    @Override
+    public void remove(Bitstream bitstream) throws IOException {
+        if (isRegisteredBitstream(bitstream.getInternalId())) {
+            super.remove(bitstream);
+            return;
+        }
+        try {
+            File pointer = getFile(bitstream);
+            if (pointer == null || !pointer.exists()) {
+                log.warn("Attempt to remove non-existent asset. ID: " + bitstream.getInternalId());
+                return;
+            }
+            String digest = readDigest(pointer);
+            if (pointer.delete()) {
+                deleteParents(pointer);
+                removeReference(digest);
+            }
+        } catch (Exception e) {
+            log.error("remove(" + bitstream.getInternalId() + ")", e);
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Path getLocalPath(Bitstream bitstream) throws IOException {
+        if (isRegisteredBitstream(bitstream.getInternalId())) {
+            return super.getLocalPath(bitstream);
+        }
+        File pointer = getFile(bitstream);
+        if (pointer == null || !pointer.exists()) {
+            return null;
+        }
+        File content = getContentFile(readDigest(pointer));
+        return content.exists() ? content.toPath() : null;
+    }
+
+    /**
+     * Delete uploads left behind by interrupted calls to {@link #put(Bitstream, InputStream)}.
+     *
+     * @param modifiedBefore only delete uploads last modified before this time, in milliseconds since the epoch
+     * @return the number of deleted uploads
+     */
+    public int deleteStaleUploads(long modifiedBefore) {
+        File[] uploads = new File(getBaseDir(), TEMP_DIR).listFiles();
+        int count = 0;
+        if (uploads != null) {
+            for (File upload : uploads) {
+                if (upload.lastModified() < modifiedBefore && upload.delete()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Set the reference counts to the number of pointer files referring to the content, and delete the content no
+     * longer referenced. The counts are only too high if an operation was interrupted, e.g. between the increment of
+     * the count and the writing of the pointer file. Nothing is updated if any pointer file cannot be read, as the
+     * content it refers to would be deleted. This walks the whole store, so it is run by the bitstore cleanup rather
+     * than when the store is initialized.
+     *
+     * @param modifiedBefore only reconcile the counts and content last modified before this time, in milliseconds
+     *                       since the epoch, as more recent ones may be updated by operations in progress
+     * @return the number of reconciled counts
+     * @throws IOException if the store or any pointer file cannot be read
+     */
+    public int reconcileReferenceCounts(long modifiedBefore) throws IOException {
+        File baseDir = getBaseDir();
+        File contentDir = new File(baseDir, CONTENT_DIR);
+        if (!contentDir.exists()) {
+            return 0;
+        }
+
+        Map<String, Integer> references = new HashMap<>();
+        Set<String> ignoredDirs = Set.of(CONTENT_DIR, TEMP_DIR, LOCKS_DIR);
+        try (Stream<Path> files = Files.walk(baseDir.toPath())) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile)
+                                           .filter(path -> !ignoredDirs.contains(
+                                               baseDir.toPath().relativize(path).getName(0).toString()))
+                                           .iterator();
+            while (iterator.hasNext()) {
+                File pointer = iterator.next().toFile();
+                // An unreadable pointer aborts the reconciliation, its content must not be deleted
+                references.merge(readDigest(pointer), 1, Integer::sum);
+            }
+        }
+
+        Set<String> digests = new HashSet<>();
+        try (Stream<Path> files = Files.walk(contentDir.toPath())) {
+            files.filter(Files::isRegularFile)
+                 .map(path -> StringUtils.removeEnd(path.getFileName().toString(), REFERENCES_SUFFIX))
+                 .filter(name -> name.matches("[0-9a-f]+"))
+                 .forEach(digests::add);
+        }
+
+        int reconciled = 0;
+        for (String digest : digests) {
+            int expected = references.getOrDefault(digest, 0);
+            File content = getContentFile(digest);
+            File referenceCount = getReferenceCountFile(digest);
+            boolean[] updated = new boolean[1];
+            updateReferenceCount(digest, count -> {
+                if (content.lastModified() >= modifiedBefore || referenceCount.lastModified() >= modifiedBefore) {
+                    return count;
+                }
+                if (expected == 0 && content.delete()) {
+                    deleteParents(content);
+                }
+                updated[0] = count != expected || expected == 0;
+                return expected;
+            });
+            if (updated[0]) {
+                reconciled++;
+            }
+        }
+        return reconciled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    ////////////////////////////////////////
+    // Internal methods
+    ////////////////////////////////////////
+
+    /**
+     * Add a reference to some content, storing the content if it is not present yet.
+     *
+     * @param digest the digest of the content
+     * @param upload the uploaded content, which is moved into place or deleted
+     */
+    protected void addReference(String digest, File upload) throws IOException {
+        File content = getContentFile(digest);
+        updateReferenceCount(digest, count -> {
+            if (content.exists()) {
+                upload.delete();
+            } else {
+                content.getParentFile().mkdirs();
+                Files.move(upload.toPath(), content.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            return count + 1;
+        });
+    }
+
+    /**
+     * Remove a reference to some content, deleting the content if it is no longer referenced.
+     *
+     * @param digest the digest of the content
+     */
+    protected void removeReference(String digest) throws IOException {
+        File content = getContentFile(digest);
+        updateReferenceCount(digest, count -> {
+            if (count <= 1) {
+                if (content.delete()) {
+                    deleteParents(content);
+                }
+                return 0;
+            }
+            return count - 1;
+        });
+    }
+
+    /**
+     * Return the number of assets referring to some content.
+     *
+     * @param digest the digest of the content
+     * @return the reference count
+     */
+    protected int getReferenceCount(String digest) throws IOException {
+        int[] result = new int[1];
+        updateReferenceCount(digest, count -> {
+            result[0] = count;
+            return count;
+        });
+        return result[0];
+    }
+
+    /**
+     * Update the reference count of some content, while holding both the lock of this process and a file lock. The
+     * locked file is not the reference count file, which is deleted with the content, but one of a fixed number of
+     * lock files, chosen by the first digits of the digest. All the content of a directory is thus updated under the
+     * same lock.
+     */
+    private void updateReferenceCount(String digest, ReferenceCountUpdate update) throws IOException {
+        File references = getReferenceCountFile(digest);
+        int stripe = Integer.parseInt(digest.substring(0, 2), 16) % LOCK_STRIPES;
+        File lockFile = new File(new File(getBaseDir(), LOCKS_DIR), stripe + LOCK_SUFFIX);
+        lockFile.getParentFile().mkdirs();
+        Lock lock = locks[stripe];
+        lock.lock();
+        try (
+            RandomAccessFile file = new RandomAccessFile(lockFile, "rw");
+            FileChannel channel = file.getChannel();
+            FileLock fileLock = channel.lock()
+        ) {
+            String value = references.exists()
+                ? Files.readString(references.toPath(), StandardCharsets.UTF_8).trim() : "";
+            int count = StringUtils.isNumeric(value) ? Integer.parseInt(value) : 0;
+
+            int updated = update.apply(count);
+            if (updated <= 0) {
+                if (references.delete()) {
+                    deleteParents(references);
+                }
+            } else if (updated != count || !references.exists()) {
+                references.getParentFile().mkdirs();
+                File temp = new File(references.getPath() + ".tmp");
+                Files.writeString(temp.toPath(), String.valueOf(updated), StandardCharsets.UTF_8);
+                Files.move(temp.toPath(), references.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write a pointer file to the temporary directory, then move it into place, so that it is never partially
+     * written.
+     */
+    private void writePointer(File pointer, String digest, File tempDir) throws IOException {
+        File temp = File.createTempFile("pointer", null, tempDir);
+        try {
+            Files.writeString(temp.toPath(), digest, StandardCharsets.UTF_8);
+            pointer.getParentFile().mkdirs();
+            Files.move(temp.toPath(), pointer.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private String readDigest(Bitstream bitstream) throws IOException {
+        return readDigest(getFile(bitstream));
+    }
+
+    private String readDigest(File pointer) throws IOException {
+        String digest = Files.readString(pointer.toPath(), StandardCharsets.UTF_8).trim();
+        // The digest is used as a file name, and a truncated one would refer to other content
+        if (!digest.matches("[0-9a-f]{64}")) {
+            throw new IOException("Invalid content reference in " + pointer);
+        }
+        return digest;
+    }
+
+    /**
+     * Return the file holding the content with the given digest.
+     *
+     * @param digest the digest of the content
+     * @return the content file, which may not exist
+     */
+    protected File getContentFile(String digest) {
+        return new File(new File(getBaseDir(), CONTENT_DIR), getIntermediatePath(digest) + digest);
+    }
+
+    private File getReferenceCountFile(String digest) {
+        return new File(getContentFile(digest).getPath() + REFERENCES_SUFFIX);
+    }
+
+    @FunctionalInterface
+    private interface ReferenceCountUpdate {
+        int apply(int count) throws IOException;
+    }
+
+}
@@ -9,6 +9,7 @@ package org.dspace.storage.bitstore.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Map;
 import java.util.UUID;
@@ -126,6 +127,16 @@ public interface BitstreamStorageService {
     public InputStream retrieve(Context context, Bitstream bitstream)
         throws SQLException, IOException;
 
+    /**
+     * Return the local file holding the bits of the bitstream, if its asset store keeps it on a local file system.
+     *
+     * @param bitstream The bitstream
+     * @return The path of the file, or null if the bits are not available as a local file
+     * @throws IOException If a problem occurs while locating the file
+     */
+    @Nullable
+    public Path getLocalPath(Bitstream bitstream) throws IOException;
+
     /**
      * Clean up the bitstream storage area. This method deletes any bitstreams
      * which are more than 1 hour old and marked deleted. The deletions cannot
@@ -0,0 +1,26 @@
+--
+-- The contents of this file are subject to the license and copyright
+-- detailed in the LICENSE and NOTICE files at the root of the source
+-- tree and available online at
+--
+-- http://www.dspace.org/license/
+--
+
+-----------------------------------------------------------------------------------
+-- Create table for the second-level cache invalidations exchanged by DSpace processes
+-----------------------------------------------------------------------------------
+
+CREATE SEQUENCE cache_invalidation_seq;
+
+CREATE TABLE cache_invalidation
+(
+    cache_invalidation_id BIGINT DEFAULT NEXT VALUE FOR cache_invalidation_seq NOT NULL,
+    node VARCHAR2(64) NOT NULL,
+    kind VARCHAR2(16) NOT NULL,
+    name VARCHAR2(255) NOT NULL,
+    entity_id VARCHAR2(64),
+    created TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT cache_invalidation_pkey PRIMARY KEY (cache_invalidation_id)
+);
+
+CREATE INDEX cache_invalidation_created_idx ON cache_invalidation (created);
@@ -0,0 +1,22 @@
+--
+-- The contents of this file are subject to the license and copyright
+-- detailed in the LICENSE and NOTICE files at the root of the source
+-- tree and available online at
+--
+-- http://www.dspace.org/license/
+--
+
+-----------------------------------------------------------------------------------
+-- Create table for the items changed since the last OAI import
+-----------------------------------------------------------------------------------
+
+CREATE SEQUENCE oai_change_seq;
+
+CREATE TABLE oai_change
+(
+    oai_change_id BIGINT DEFAULT NEXT VALUE FOR oai_change_seq NOT NULL,
+    item_id UUID NOT NULL,
+    deleted BOOLEAN DEFAULT FALSE NOT NULL,
+    created TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT oai_change_pkey PRIMARY KEY (oai_change_id)
+);
@@ -281,6 +281,25 @@ public class MetadataImportIT extends AbstractIntegrationTestWithDatabase {
         assertEquals(0, itemService.getMetadata(item, "dc", "contributor", "author", Item.ANY).size());
     }
 
+    @Test
+    public void metadataImportInSeveralBatchesTest() throws Exception {
+        configurationService.setProperty("bulkedit.change.commit.count", 2);
+        context.turnOffAuthorisationSystem();
+        Item item1 = ItemBuilder.createItem(context, collection).withTitle("Batch item 1").build();
+        Item item2 = ItemBuilder.createItem(context, collection).withTitle("Batch item 2").build();
+        Item item3 = ItemBuilder.createItem(context, collection).withTitle("Batch item 3").build();
+        context.restoreAuthSystemState();
+
+        String[] csv = {"id,collection,dc.title",
+            item1.getID() + "," + collection.getHandle() + ",\"Updated batch item 1\"",
+            item2.getID() + "," + collection.getHandle() + ",\"Updated batch item 2\"",
+            item3.getID() + "," + collection.getHandle() + ",\"Updated batch item 3\""};
+        performImportScript(csv);
+        assertNotNull(findItemByName("Updated batch item 1"));
+        assertNotNull(findItemByName("Updated batch item 2"));
+        assertNotNull(findItemByName("Updated batch item 3"));
+    }
+
     private Item findItemByName(String name) throws Exception {
         List<Item> items =
             IteratorUtils.toList(itemService.findArchivedByMetadataField(context, "dc", "title", null, name));
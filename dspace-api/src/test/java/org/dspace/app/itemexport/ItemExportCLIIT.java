@@ -9,6 +9,7 @@ package org.dspace.app.itemexport;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -16,6 +17,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.codec.CharEncoding;
 import org.apache.commons.io.IOUtils;
@@ -227,6 +229,93 @@ public class ItemExportCLIIT extends AbstractIntegrationTestWithDatabase {
         checkZip(zipFileName);
     }
 
+    @Test
+    public void exportZipCollectionWithThreads() throws Exception {
+        // create items with two bitstreams of the same name
+        context.turnOffAuthorisationSystem();
+        for (int i = 1; i <= 3; i++) {
+            Item item = ItemBuilder.createItem(context, collection)
+                    .withTitle(title + " " + i)
+                    .withMetadata("dc", "date", "issued", dateIssued)
+                    .build();
+            for (String content : new String[] { "TEST", "TEST TEST" }) {
+                try (InputStream is = IOUtils.toInputStream(content, CharEncoding.UTF_8)) {
+                    BitstreamBuilder.createBitstream(context, item, is)
+                            .withName("Bitstream")
+                            .withMimeType("text/plain")
+                            .build();
+                }
+            }
+        }
+        context.restoreAuthSystemState();
+
+        configurationService.setProperty("org.dspace.app.itemexport.threads", 2);
+        try {
+            String[] args = new String[] { "export", "-t", "COLLECTION",
+                    "-i", collection.getHandle(), "-d", tempDir.toString(), "-z", zipFileName, "-n", "1" };
+            perfomExportScript(args);
+        } finally {
+            configurationService.setProperty("org.dspace.app.itemexport.threads", null);
+        }
+
+        checkZip(zipFileName);
+        try (ZipFile zip = new ZipFile(tempDir.resolve(zipFileName).toFile())) {
+            for (int i = 1; i <= 3; i++) {
+                assertNotNull(zip.getEntry(i + "/dublin_core.xml"));
+                assertNotNull(zip.getEntry(i + "/collections"));
+                assertNotNull(zip.getEntry(i + "/handle"));
+                assertNotNull(zip.getEntry(i + "/Bitstream"));
+                assertNotNull(zip.getEntry(i + "/1_Bitstream"));
+                String contents = IOUtils.toString(zip.getInputStream(zip.getEntry(i + "/contents")),
+                                                   CharEncoding.UTF_8);
+                assertTrue(contents.contains("Bitstream\tbundle:ORIGINAL"));
+                assertTrue(contents.contains("1_Bitstream\tbundle:ORIGINAL"));
+            }
+            assertNull(zip.getEntry("4/dublin_core.xml"));
+        }
+    }
+
+    @Test
+    public void exportZipItemWithBitstreamsNamedLikeExportFiles() throws Exception {
+        // create an item with bitstreams named like the metadata, contents, collections and handle files
+        String[] names = new String[] { "dublin_core.xml", "contents", "collections", "handle" };
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection)
+                .withTitle(title)
+                .withMetadata("dc", "date", "issued", dateIssued)
+                .build();
+        for (String name : names) {
+            try (InputStream is = IOUtils.toInputStream("Bitstream " + name, CharEncoding.UTF_8)) {
+                BitstreamBuilder.createBitstream(context, item, is)
+                        .withName(name)
+                        .withMimeType("text/plain")
+                        .build();
+            }
+        }
+        context.restoreAuthSystemState();
+
+        String[] args = new String[] { "export", "-t", "ITEM",
+                "-i", item.getHandle(), "-d", tempDir.toString(), "-z", zipFileName, "-n", "1" };
+        perfomExportScript(args);
+
+        checkZip(zipFileName);
+        try (ZipFile zip = new ZipFile(tempDir.resolve(zipFileName).toFile())) {
+            String dublinCore = IOUtils.toString(zip.getInputStream(zip.getEntry("1/dublin_core.xml")),
+                                                 CharEncoding.UTF_8);
+            assertTrue(dublinCore.contains(title));
+            String handle = IOUtils.toString(zip.getInputStream(zip.getEntry("1/handle")), CharEncoding.UTF_8);
+            assertEquals(item.getHandle(), handle.trim());
+            String contents = IOUtils.toString(zip.getInputStream(zip.getEntry("1/contents")),
+                                               CharEncoding.UTF_8);
+            // the bitstreams are renamed instead of replacing the files of the export
+            for (String name : names) {
+                assertEquals("Bitstream " + name,
+                             IOUtils.toString(zip.getInputStream(zip.getEntry("1/1_" + name)), CharEncoding.UTF_8));
+                assertTrue(contents.contains("1_" + name + "\tbundle:ORIGINAL"));
+            }
+        }
+    }
+
     @Test
     public void migrateCollection() throws Exception {
         // create items
@@ -7,18 +7,38 @@
  */
 package org.dspace.app.mediafilter;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Strings;
 import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.app.launcher.ScriptLauncher;
+import org.dspace.app.mediafilter.factory.MediaFilterServiceFactory;
+import org.dspace.app.scripts.handler.impl.TestDSpaceRunnableHandler;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.builder.BitstreamBuilder;
 import org.dspace.builder.CollectionBuilder;
@@ -33,6 +53,8 @@ import org.dspace.content.Item;
 import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.BitstreamService;
 import org.dspace.content.service.ItemService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -143,6 +165,119 @@ public class MediaFilterIT extends AbstractIntegrationTestWithDatabase {
         }
     }
 
+    @Test(timeout = 120000)
+    public void mediaFilterScriptAllItemsWithThreadsTest() throws Exception {
+        TestDSpaceRunnableHandler handler = new TestDSpaceRunnableHandler();
+        String[] args = new String[] { "filter-media", "-t", "2" };
+        ScriptLauncher.handleScript(args, ScriptLauncher.getConfig(kernelImpl), handler, kernelImpl);
+
+        assertNull(handler.getException());
+        assertThat(handler.getErrorMessages(), empty());
+        assertThat(handler.getInfoMessages(), hasItem(startsWith("Filtered 14 items in ")));
+        assertThat(handler.getInfoMessages(),
+                   hasItem(containsString(": 14 filtered, 0 skipped, 0 failed (0 timed out)")));
+        Iterator<Item> items = itemService.findAll(context);
+        while (items.hasNext()) {
+            Item item = context.reloadEntity(items.next());
+            checkItemHasBeenProcessed(item);
+        }
+    }
+
+    @Test(timeout = 120000)
+    public void parallelMediaFilterRecoversFromFailedItemTest() throws Exception {
+        context.commit();
+        List<UUID> itemIds = List.of(item1_1_a.getID(), item1_1_b.getID(), item1_2_a.getID(), item1_2_b.getID());
+        UUID failingId = item1_1_b.getID();
+        Set<UUID> filtered = ConcurrentHashMap.newKeySet();
+        ParallelMediaFilter parallelMediaFilter = new ParallelMediaFilter(1, 3, (workerContext, itemId) -> {
+            if (itemId.equals(failingId)) {
+                throw new IllegalStateException("Broken item");
+            }
+            if (itemService.find(workerContext, itemId) != null) {
+                filtered.add(itemId);
+            }
+        });
+        for (UUID itemId : itemIds) {
+            parallelMediaFilter.submit(itemId);
+        }
+
+        // The item filtered in the same batch as the failed one is filtered again, the others are not lost
+        assertEquals(4, parallelMediaFilter.finish());
+        assertEquals(List.of(failingId), parallelMediaFilter.getFailedItems());
+        assertEquals(Set.of(item1_1_a.getID(), item1_2_a.getID(), item1_2_b.getID()), filtered);
+    }
+
+    @Test(timeout = 120000)
+    public void parallelMediaFilterAbortTest() throws Exception {
+        context.commit();
+        List<UUID> itemIds = List.of(item1_1_a.getID(), item1_1_b.getID(), item1_2_a.getID(), item1_2_b.getID());
+        Set<UUID> filtered = ConcurrentHashMap.newKeySet();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ParallelMediaFilter parallelMediaFilter = new ParallelMediaFilter(1, 3, (workerContext, itemId) -> {
+            filtered.add(itemId);
+            started.countDown();
+            release.await();
+        });
+        for (UUID itemId : itemIds) {
+            parallelMediaFilter.submit(itemId);
+        }
+        started.await();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                // release right away
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        // Only the item being filtered is finished, the queued ones are dropped and the worker stops
+        parallelMediaFilter.abort();
+        assertEquals(Set.of(item1_1_a.getID()), filtered);
+    }
+
+    @Test(timeout = 120000)
+    public void filterIsInterruptedAfterTimeoutTest() throws Exception {
+        MediaFilterServiceImpl mediaFilterService =
+            (MediaFilterServiceImpl) MediaFilterServiceFactory.getInstance().getMediaFilterService();
+        ConfigurationService configurationService = DSpaceServicesFactory.getInstance().getConfigurationService();
+        configurationService.setProperty("filter.timeout", 1);
+        try {
+            // A filter finishing in time is not affected
+            InputStream result = mediaFilterService.getDestinationStream(
+                new TestFilter(MediaFilterIT::emptyStream), item1_1_a, emptyStream());
+            assertEquals(0, result.available());
+
+            // A filter waiting is interrupted
+            long start = System.nanoTime();
+            assertThrows(TimeoutException.class, () -> mediaFilterService.getDestinationStream(
+                new TestFilter(() -> {
+                    Thread.sleep(60000);
+                    return null;
+                }), item1_1_a, emptyStream()));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+            assertFalse(Thread.currentThread().isInterrupted());
+
+            // A filter ignoring interruptions is not stopped, but its result is discarded
+            start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(2);
+            assertThrows(TimeoutException.class, () -> mediaFilterService.getDestinationStream(
+                new TestFilter(() -> {
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                    return emptyStream();
+                }), item1_1_a, emptyStream()));
+            assertTrue(System.nanoTime() >= end);
+            assertFalse(Thread.currentThread().isInterrupted());
+        } finally {
+            configurationService.setProperty("filter.timeout", null);
+            mediaFilterService.abortFiltering();
+        }
+    }
+
     @Test
     public void mediaFilterScriptIdentifiersTest() throws Exception {
         // process the item 1_1_a and verify that no other items has been processed using the "closer" one
@@ -239,4 +374,45 @@ public class MediaFilterIT extends AbstractIntegrationTestWithDatabase {
         item2_1_b = context.reloadEntity(item2_1_b);
 
     }
+
+    private static InputStream emptyStream() {
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    /**
+     * Filter producing its destination stream with the given callable.
+     */
+    private static class TestFilter extends MediaFilter {
+
+        private final Callable<InputStream> destination;
+
+        TestFilter(Callable<InputStream> destination) {
+            this.destination = destination;
+        }
+
+        @Override
+        public String getFilteredName(String sourceName) {
+            return sourceName + ".test";
+        }
+
+        @Override
+        public String getBundleName() {
+            return "TEST";
+        }
+
+        @Override
+        public String getFormatString() {
+            return "Text";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Test filter";
+        }
+
+        @Override
+        public InputStream getDestinationStream(Item item, InputStream source, boolean verbose) throws Exception {
+            return destination.call();
+        }
+    }
 }
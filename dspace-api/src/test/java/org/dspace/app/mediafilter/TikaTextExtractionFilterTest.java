@@ -62,6 +62,36 @@ public class TikaTextExtractionFilterTest extends AbstractUnitTest {
                      inMemoryExtractedText, tempFileExtractedText);
     }
 
+    /**
+     * Test of getDestinationStream method streaming the extracted text through a pipe
+     *
+     * @throws java.lang.Exception passed through.
+     */
+    @Test
+    public void testGetDestinationStreamWithStream()
+        throws Exception {
+        TikaTextExtractionFilter instance = new TikaTextExtractionFilter();
+
+        // Extract text from file with "stream=true"
+        configurationService.setProperty("textextractor.stream", "true");
+        InputStream source = getClass().getResourceAsStream("test.pdf");
+        InputStream result = instance.getDestinationStream(null, source, false);
+        String streamedText = readAll(result);
+
+        // Verify text extracted successfully
+        assertTrue("Known content was not found in .pdf", streamedText.contains("quick brown fox"));
+
+        // Now, extract text from same file using default, in-memory
+        configurationService.setProperty("textextractor.stream", "false");
+        source = getClass().getResourceAsStream("test.pdf");
+        result = instance.getDestinationStream(null, source, false);
+        String inMemoryExtractedText = readAll(result);
+
+        // Verify the two results are equal
+        assertEquals("Extracted text via pipe is the same as in-memory.",
+                     inMemoryExtractedText, streamedText);
+    }
+
     /**
      * Test of getDestinationStream method when max characters is less than file size
      *
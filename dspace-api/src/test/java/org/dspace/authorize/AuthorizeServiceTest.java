@@ -10,7 +10,10 @@ package org.dspace.authorize;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.dspace.AbstractUnitTest;
 import org.dspace.authorize.factory.AuthorizeServiceFactory;
@@ -28,6 +31,7 @@ import org.dspace.content.service.InstallItemService;
 import org.dspace.content.service.ItemService;
 import org.dspace.content.service.WorkspaceItemService;
 import org.dspace.core.Constants;
+import org.dspace.core.Context;
 import org.dspace.eperson.EPerson;
 import org.dspace.eperson.Group;
 import org.dspace.eperson.factory.EPersonServiceFactory;
@@ -142,6 +146,79 @@ public class AuthorizeServiceTest extends AbstractUnitTest {
         }
     }
 
+    @Test
+    public void testBatchAuthorizeActionBooleanMatchesSingleChecks() {
+        EPerson member;
+        Group group;
+        Community readable;
+        Community writable;
+        Community restricted;
+        try {
+            context.turnOffAuthorisationSystem();
+
+            member = ePersonService.create(context);
+            group = groupService.create(context);
+            // A group has to have a name, otherwise there are queries that break
+            groupService.setName(group, "My batch test group");
+            groupService.addMember(context, group, member);
+            groupService.update(context, group);
+
+            // Anonymous users may read the first community only
+            readable = communityService.create(null, context);
+            writable = communityService.create(null, context);
+            restricted = communityService.create(null, context);
+            authorizeService.removeAllPolicies(context, writable);
+            authorizeService.removeAllPolicies(context, restricted);
+            authorizeService.addPolicy(context, writable, Constants.READ, group);
+            authorizeService.addPolicy(context, writable, Constants.WRITE, member);
+            context.commit();
+        } catch (SQLException | AuthorizeException ex) {
+            throw new AssertionError(ex);
+        } finally {
+            context.restoreAuthSystemState();
+        }
+
+        List<Community> communities = List.of(restricted, writable, readable);
+        try {
+            context.setCurrentUser(null);
+            Map<UUID, Boolean> anonymous = authorizeService.authorizeActionBoolean(context, communities,
+                                                                                   Constants.READ);
+            Assert.assertEquals(List.of(restricted.getID(), writable.getID(), readable.getID()),
+                                new ArrayList<>(anonymous.keySet()));
+            Assert.assertEquals(List.of(false, false, true), new ArrayList<>(anonymous.values()));
+
+            // The single checks run first, in their own context, so that they cannot reuse the decisions cached
+            // by the batch checks
+            Map<UUID, Boolean> expectedRead = new HashMap<>();
+            Map<UUID, Boolean> expectedWrite = new HashMap<>();
+            Context singleContext = new Context();
+            try {
+                singleContext.setCurrentUser(singleContext.reloadEntity(member));
+                for (Community community : communities) {
+                    Community reloaded = singleContext.reloadEntity(community);
+                    expectedRead.put(community.getID(), authorizeService
+                        .authorizeActionBoolean(singleContext, reloaded, Constants.READ));
+                    expectedWrite.put(community.getID(), authorizeService
+                        .authorizeActionBoolean(singleContext, reloaded, Constants.WRITE));
+                }
+            } finally {
+                singleContext.abort();
+            }
+
+            context.setCurrentUser(member);
+            Map<UUID, Boolean> read = authorizeService.authorizeActionBoolean(context, communities, Constants.READ);
+            Map<UUID, Boolean> write = authorizeService.authorizeActionBoolean(context, communities, Constants.WRITE);
+            Assert.assertEquals(expectedRead, read);
+            Assert.assertEquals(expectedWrite, write);
+            Assert.assertEquals(List.of(false, true, true), new ArrayList<>(read.values()));
+            Assert.assertEquals(List.of(false, true, false), new ArrayList<>(write.values()));
+        } catch (SQLException ex) {
+            throw new AssertionError(ex);
+        } finally {
+            context.setCurrentUser(eperson);
+        }
+    }
+
     /**
      * When a bundle is created it should inherit custom policies (deduped)
      * from the item, as otherwise bitstream bundles created via filter-media etc.
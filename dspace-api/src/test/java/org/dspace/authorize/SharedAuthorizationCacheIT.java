@@ -0,0 +1,252 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.authorize;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.toInputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.authorize.factory.AuthorizeServiceFactory;
+import org.dspace.authorize.service.AuthorizeService;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.GroupBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.builder.ResourcePolicyBuilder;
+import org.dspace.content.Bundle;
+import org.dspace.content.Collection;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.eperson.Group;
+import org.dspace.eperson.factory.EPersonServiceFactory;
+import org.dspace.eperson.service.GroupService;
+import org.dspace.event.factory.EventServiceFactory;
+import org.dspace.event.service.EventService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.utils.DSpace;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the {@link SharedAuthorizationCache} and its eviction by the services changing policies and group
+ * memberships, and by the {@link SharedAuthorizationCacheConsumer}, after changes committed for real.
+ */
+public class SharedAuthorizationCacheIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                          .getConfigurationService();
+    private static final EventService eventService = EventServiceFactory.getInstance().getEventService();
+    private static String[] consumers;
+
+    private final AuthorizeService authorizeService = AuthorizeServiceFactory.getInstance().getAuthorizeService();
+    private final GroupService groupService = EPersonServiceFactory.getInstance().getGroupService();
+    private final SharedAuthorizationCache sharedAuthorizationCache = new DSpace().getServiceManager()
+        .getServiceByName(SharedAuthorizationCache.class.getName(), SharedAuthorizationCache.class);
+
+    private Item item;
+
+    @BeforeClass
+    public static void addConsumer() {
+        consumers = configurationService.getArrayProperty("event.dispatcher.default.consumers");
+        configurationService.setProperty("event.dispatcher.default.consumers",
+                                         ArrayUtils.add(consumers, SharedAuthorizationCache.CONSUMER_NAME));
+        eventService.reloadConfiguration();
+    }
+
+    @AfterClass
+    public static void resetConsumers() {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        eventService.reloadConfiguration();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Public item").build();
+        BitstreamBuilder.createBitstream(context, item, toInputStream("Some text", UTF_8)).withName("file.txt")
+                        .build();
+        context.restoreAuthSystemState();
+        // Other contexts must see the item, and decisions are never shared by a context with pending events
+        context.commit();
+
+        configurationService.setProperty("authorize.cache.shared.enabled", true);
+        configurationService.setProperty("authorize.cache.shared.eviction-grace", 0);
+        sharedAuthorizationCache.evictAll(null);
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        configurationService.setProperty("authorize.cache.shared.enabled", false);
+        Context anonymous = new Context();
+        try {
+            assertFalse(sharedAuthorizationCache.isEnabled(anonymous));
+            assertTrue(authorizeService.authorizeActionBoolean(anonymous, item, Constants.READ));
+            assertNull(sharedAuthorizationCache.get(anonymous, item, Constants.READ, null, true));
+        } finally {
+            anonymous.abort();
+        }
+    }
+
+    @Test
+    public void testDisabledWithoutConsumer() throws Exception {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        Context anonymous = new Context();
+        try {
+            assertFalse(sharedAuthorizationCache.isEnabled(anonymous));
+        } finally {
+            anonymous.abort();
+            configurationService.setProperty("event.dispatcher.default.consumers",
+                                             ArrayUtils.add(consumers, SharedAuthorizationCache.CONSUMER_NAME));
+        }
+    }
+
+    @Test
+    public void testDecisionIsSharedBetweenContexts() throws Exception {
+        Context first = new Context();
+        try {
+            assertTrue(authorizeService.authorizeActionBoolean(first, item, Constants.READ));
+            assertFalse(authorizeService.authorizeActionBoolean(first, item, Constants.WRITE));
+        } finally {
+            first.abort();
+        }
+
+        Context second = new Context();
+        try {
+            assertEquals(Boolean.TRUE, sharedAuthorizationCache.get(second, item, Constants.READ, null, true));
+            assertEquals(Boolean.FALSE, sharedAuthorizationCache.get(second, item, Constants.WRITE, null, true));
+            // Decisions are specific to the user and to the use of inheritance
+            assertNull(sharedAuthorizationCache.get(second, item, Constants.READ, eperson, true));
+            assertNull(sharedAuthorizationCache.get(second, item, Constants.READ, null, false));
+        } finally {
+            second.abort();
+        }
+    }
+
+    @Test
+    public void testPolicyChangeEvictsDecisions() throws Exception {
+        assertAnonymousRead(item, true);
+
+        context.turnOffAuthorisationSystem();
+        authorizeService.removeAllPolicies(context, context.reloadEntity(item));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertAnonymousRead(item, false);
+    }
+
+    @Test
+    public void testBundlePolicyChangeEvictsDecisions() throws Exception {
+        // Changing the policies of a bundle fires no event
+        Bundle bundle = context.reloadEntity(item).getBundles().get(0);
+        assertAnonymousRead(bundle, true);
+
+        context.turnOffAuthorisationSystem();
+        authorizeService.removeAllPolicies(context, bundle);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertAnonymousRead(bundle, false);
+    }
+
+    @Test
+    public void testGroupMembershipChangeEvictsDecisions() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Group readers = GroupBuilder.createGroup(context).withName("Readers").build();
+        item = context.reloadEntity(item);
+        authorizeService.removeAllPolicies(context, item);
+        ResourcePolicyBuilder.createResourcePolicy(context, null, readers).withDspaceObject(item)
+                             .withAction(Constants.READ).build();
+        context.restoreAuthSystemState();
+        context.commit();
+        assertEPersonRead(false);
+
+        context.turnOffAuthorisationSystem();
+        readers = context.reloadEntity(readers);
+        groupService.addMember(context, readers, context.reloadEntity(eperson));
+        groupService.update(context, readers);
+        context.restoreAuthSystemState();
+        context.commit();
+        assertEPersonRead(true);
+    }
+
+    @Test
+    public void testEvictedObjectIsNotCachedDuringGracePeriod() throws Exception {
+        configurationService.setProperty("authorize.cache.shared.eviction-grace", 60000);
+        sharedAuthorizationCache.evict(null, Set.of(item.getID()));
+
+        Context anonymous = new Context();
+        try {
+            assertTrue(authorizeService.authorizeActionBoolean(anonymous, item, Constants.READ));
+            assertNull(sharedAuthorizationCache.get(anonymous, item, Constants.READ, null, true));
+        } finally {
+            anonymous.abort();
+        }
+    }
+
+    @Test
+    public void testEvictedObjectIsNotCachedUntilCommitted() throws Exception {
+        context.turnOffAuthorisationSystem();
+        authorizeService.removeAllPolicies(context, context.reloadEntity(item));
+        context.restoreAuthSystemState();
+
+        // Other contexts still read the policies of before the change, which must not be cached
+        Context anonymous = new Context();
+        try {
+            assertTrue(authorizeService.authorizeActionBoolean(anonymous, item, Constants.READ));
+            assertNull(sharedAuthorizationCache.get(anonymous, item, Constants.READ, null, true));
+        } finally {
+            anonymous.abort();
+        }
+        context.commit();
+        assertAnonymousRead(item, false);
+    }
+
+    /**
+     * Check the READ decision of an anonymous user in a new context, once computed and once from the shared cache.
+     */
+    private void assertAnonymousRead(DSpaceObject dso, boolean expected) throws Exception {
+        Context anonymous = new Context();
+        try {
+            assertEquals(expected, authorizeService.authorizeActionBoolean(anonymous, dso, Constants.READ));
+            assertEquals(expected, sharedAuthorizationCache.get(anonymous, dso, Constants.READ, null, true));
+        } finally {
+            anonymous.abort();
+        }
+    }
+
+    /**
+     * Check the READ decision of the eperson on the item in a new context, once computed and once from the shared
+     * cache.
+     */
+    private void assertEPersonRead(boolean expected) throws Exception {
+        Context user = new Context();
+        try {
+            user.setCurrentUser(eperson);
+            assertEquals(expected, authorizeService.authorizeActionBoolean(user, item, Constants.READ));
+            assertEquals(expected, sharedAuthorizationCache.get(user, item, Constants.READ, eperson, true));
+        } finally {
+            user.abort();
+        }
+    }
+}
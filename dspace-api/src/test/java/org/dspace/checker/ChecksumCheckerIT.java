@@ -8,13 +8,16 @@
 package org.dspace.checker;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
 import org.dspace.AbstractIntegrationTestWithDatabase;
@@ -146,6 +149,59 @@ public class ChecksumCheckerIT extends AbstractIntegrationTestWithDatabase {
         }
     }
 
+    @Test
+    public void testChecksumsComputedConcurrently() throws SQLException {
+        CheckerCommand checker = new CheckerCommand(context);
+        Instant checkerStartDate = Instant.now();
+
+        checker.setThreads(2);
+        checker.setBatchSize(2);
+        checker.setMaxBytesPerSecond(1024 * 1024);
+        checker.setDispatcher(new SimpleDispatcher(context, checkerStartDate, false));
+        checker.setProcessStartDate(checkerStartDate);
+        checker.process();
+
+        long bytes = 0;
+        for (Bitstream bitstream: bitstreams) {
+            MostRecentChecksum checksum = checksumService.findByBitstream(context, bitstream);
+            assertTrue("lastChecksumDate (" + checksum.getProcessStartDate() + ") >= checkerStartDate ("
+                           + checkerStartDate + ")", checksum.getProcessStartDate().isAfter(checkerStartDate));
+            assertEquals(ChecksumResultCode.CHECKSUM_MATCH, checksum.getChecksumResult().getResultCode());
+            assertEquals(bitstream.getChecksum(), checksum.getCurrentChecksum());
+            bytes += bitstream.getSizeBytes();
+        }
+
+        CheckerCommand.StoreThroughput throughput = checker.getThroughput().get(bitstreams.get(0).getStoreNumber());
+        assertEquals(bitstreams.size(), throughput.getBitstreams());
+        assertEquals(bytes, throughput.getBytes());
+    }
+
+    @Test
+    public void testLoopingDispatcherWithConcurrentChecks() throws SQLException {
+        CheckerCommand checker = new CheckerCommand(context);
+        Instant checkerStartDate = Instant.now();
+        List<Bitstream> checked = new ArrayList<>();
+
+        checker.setThreads(2);
+        checker.setBatchSize(100);
+        // Two rounds of the looping dispatcher
+        checker.setDispatcher(new LimitedCountDispatcher(new SimpleDispatcher(context, checkerStartDate, true),
+                                                         2 * bitstreams.size()));
+        checker.setProcessStartDate(checkerStartDate);
+        checker.setReportVerbose(true);
+        checker.setCollector((c, info) -> checked.add(info.getBitstream()));
+        checker.process();
+
+        // The bitstreams being checked are not dispatched again before the others are checked
+        assertEquals(2 * bitstreams.size(), checked.size());
+        assertEquals(Set.copyOf(bitstreams), Set.copyOf(checked.subList(0, bitstreams.size())));
+        for (Bitstream bitstream: bitstreams) {
+            assertEquals(2, Collections.frequency(checked, bitstream));
+            MostRecentChecksum checksum = checksumService.findByBitstream(context, bitstream);
+            assertEquals(ChecksumResultCode.CHECKSUM_MATCH, checksum.getChecksumResult().getResultCode());
+        }
+    }
+
     /**
      * Subclass of SimpleDispatcher that only allows a limited number of "next"
      * class before throwing a SQLException.
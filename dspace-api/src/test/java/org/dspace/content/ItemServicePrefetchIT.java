@@ -0,0 +1,66 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.toInputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.hibernate.Hibernate;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test the loading of the associations of many items at once by {@link ItemService#prefetch}.
+ */
+public class ItemServicePrefetchIT extends AbstractIntegrationTestWithDatabase {
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+
+    @Test
+    public void testPrefetchLoadsAssociationsOfAllItems() throws Exception {
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        Item item1 = ItemBuilder.createItem(context, collection).withTitle("Item 1").build();
+        Item item2 = ItemBuilder.createItem(context, collection).withTitle("Item 2").build();
+        BitstreamBuilder.createBitstream(context, item1, toInputStream("Some text", UTF_8))
+                        .withName("file.txt").build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        context.uncacheEntities();
+        List<Item> items = List.of(itemService.find(context, item1.getID()), itemService.find(context, item2.getID()));
+        assertFalse(Hibernate.isInitialized(items.get(0).getBundles()));
+
+        itemService.prefetch(context, items, true, true);
+
+        for (Item item : items) {
+            assertTrue(Hibernate.isInitialized(item.getMetadata()));
+            assertTrue(Hibernate.isInitialized(item.getBundles()));
+            assertTrue(Hibernate.isInitialized(item.getOwningCollection()));
+            for (Bundle bundle : item.getBundles()) {
+                assertTrue(Hibernate.isInitialized(ReflectionTestUtils.getField(bundle, "bitstreams")));
+            }
+        }
+        assertEquals(1, items.get(0).getBundles().size());
+        assertEquals("file.txt", items.get(0).getBundles().get(0).getBitstreams().get(0).getName());
+        assertTrue(items.get(1).getBundles().isEmpty());
+    }
+}
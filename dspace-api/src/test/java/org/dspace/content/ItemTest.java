@@ -874,6 +874,56 @@ public class ItemTest extends AbstractDSpaceObjectTest {
         assertTrue("testClearMetadata 1", dc.size() == 0);
     }
 
+    /**
+     * Test that the lookups of getMetadata by field follow the additions and removals of values.
+     */
+    @Test
+    public void testGetMetadata_afterChanges() throws SQLException {
+        itemService.addMetadata(context, it, "dc", "contributor", "author", null, Arrays.asList("author0", "author1"));
+        itemService.addMetadata(context, it, "dc", "contributor", "editor", null, "editor0");
+        itemService.addMetadata(context, it, "dc", "contributor", null, null, "contributor0");
+        itemService.addMetadata(context, it, "dc", "title", null, null, "title0");
+
+        assertEquals(2, itemService.getMetadata(it, "dc", "contributor", "author", Item.ANY).size());
+        assertEquals(1, itemService.getMetadata(it, "dc", "contributor", null, Item.ANY).size());
+        assertEquals(4, itemService.getMetadata(it, "dc", "contributor", Item.ANY, Item.ANY).size());
+        assertEquals(2, itemService.getMetadata(it, Item.ANY, "contributor", "author", Item.ANY).size());
+        assertEquals(0, itemService.getMetadata(it, "dc", "contributor", "other", Item.ANY).size());
+        assertEquals(0, itemService.getMetadata(it, "dcterms", "contributor", Item.ANY, Item.ANY).size());
+
+        itemService.addMetadata(context, it, "dc", "contributor", "author", null, "author2");
+        List<MetadataValue> authors = itemService.getMetadata(it, "dc", "contributor", "author", Item.ANY);
+        assertEquals(3, authors.size());
+        assertEquals("author2", authors.get(2).getValue());
+
+        itemService.removeMetadataValues(context, it, Arrays.asList(authors.get(0)));
+        authors = itemService.getMetadata(it, "dc", "contributor", "author", Item.ANY);
+        assertEquals(2, authors.size());
+        assertEquals("author1", authors.get(0).getValue());
+
+        itemService.clearMetadata(context, it, "dc", "contributor", Item.ANY, Item.ANY);
+        assertEquals(0, itemService.getMetadata(it, Item.ANY, "contributor", Item.ANY, Item.ANY).size());
+        assertEquals(1, itemService.getMetadata(it, "dc", "title", null, Item.ANY).size());
+    }
+
+    /**
+     * Test that the lookups of getMetadata by field follow a value moved to another field.
+     */
+    @Test
+    public void testGetMetadata_afterFieldChange() throws SQLException {
+        itemService.addMetadata(context, it, "dc", "title", null, null, "title0");
+        itemService.addMetadata(context, it, "dc", "description", null, null, "description0");
+        List<MetadataValue> titles = itemService.getMetadata(it, "dc", "title", null, Item.ANY);
+        assertEquals(1, titles.size());
+        assertEquals(1, itemService.getMetadata(it, "dc", "description", null, Item.ANY).size());
+
+        titles.get(0).setMetadataField(metadataFieldService.findByElement(context, "dc", "description", null));
+        assertEquals(0, itemService.getMetadata(it, "dc", "title", null, Item.ANY).size());
+        List<MetadataValue> descriptions = itemService.getMetadata(it, "dc", "description", null, Item.ANY);
+        assertEquals(2, descriptions.size());
+        assertTrue(descriptions.stream().anyMatch(value -> "title0".equals(value.getValue())));
+    }
+
     /**
      * Test of getSubmitter method, of class Item.
      */
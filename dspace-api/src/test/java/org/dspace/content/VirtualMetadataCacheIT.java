@@ -0,0 +1,258 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.EntityTypeBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.builder.MetadataFieldBuilder;
+import org.dspace.builder.MetadataSchemaBuilder;
+import org.dspace.builder.RelationshipBuilder;
+import org.dspace.builder.RelationshipTypeBuilder;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.EntityTypeService;
+import org.dspace.content.service.ItemService;
+import org.dspace.event.factory.EventServiceFactory;
+import org.dspace.event.service.EventService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.utils.DSpace;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the {@link VirtualMetadataCache}, its eviction by the {@link VirtualMetadataCacheConsumer} and the bulk
+ * computation of virtual metadata.
+ */
+public class VirtualMetadataCacheIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final ConfigurationService configurationService =
+        DSpaceServicesFactory.getInstance().getConfigurationService();
+    private static final EventService eventService = EventServiceFactory.getInstance().getEventService();
+    private static String[] consumers;
+
+    private final RelationshipMetadataService relationshipMetadataService =
+        ContentServiceFactory.getInstance().getRelationshipMetadataService();
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final EntityTypeService entityTypeService = ContentServiceFactory.getInstance().getEntityTypeService();
+    private final VirtualMetadataCache virtualMetadataCache = new DSpace().getServiceManager()
+        .getServiceByName(VirtualMetadataCache.class.getName(), VirtualMetadataCache.class);
+
+    private Item publication1;
+    private Item publication2;
+    private Item author1;
+    private Item author2;
+
+    @BeforeClass
+    public static void addConsumer() {
+        consumers = configurationService.getArrayProperty("event.dispatcher.default.consumers");
+        configurationService.setProperty("event.dispatcher.default.consumers",
+                                         ArrayUtils.add(consumers, VirtualMetadataCache.CONSUMER_NAME));
+        eventService.reloadConfiguration();
+    }
+
+    @AfterClass
+    public static void resetConsumers() {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        eventService.reloadConfiguration();
+    }
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        Collection publications = CollectionBuilder.createCollection(context, parentCommunity)
+                                                   .withEntityType("Publication").build();
+        Collection authors = CollectionBuilder.createCollection(context, parentCommunity)
+                                              .withEntityType("Author").build();
+        EntityType publicationType = EntityTypeBuilder.createEntityTypeBuilder(context, "Publication").build();
+        EntityType authorType = EntityTypeBuilder.createEntityTypeBuilder(context, "Author").build();
+        RelationshipType isAuthorOfPublication = RelationshipTypeBuilder
+            .createRelationshipTypeBuilder(context, publicationType, authorType, "isAuthorOfPublication",
+                                           "isPublicationOfAuthor", null, null, null, null).build();
+
+        publication1 = ItemBuilder.createItem(context, publications).withTitle("Publication 1").build();
+        publication2 = ItemBuilder.createItem(context, publications).withTitle("Publication 2").build();
+        author1 = ItemBuilder.createItem(context, authors).withPersonIdentifierLastName("Smith")
+                             .withPersonIdentifierFirstName("Jane").build();
+        author2 = ItemBuilder.createItem(context, authors).withPersonIdentifierLastName("Jones")
+                             .withPersonIdentifierFirstName("John").build();
+        RelationshipBuilder.createRelationshipBuilder(context, publication1, author1, isAuthorOfPublication).build();
+        RelationshipBuilder.createRelationshipBuilder(context, publication1, author2, isAuthorOfPublication).build();
+        RelationshipBuilder.createRelationshipBuilder(context, publication2, author2, isAuthorOfPublication).build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        configurationService.setProperty("relationship.virtual-metadata.cache.eviction-grace", 0);
+        virtualMetadataCache.evictAll(null);
+    }
+
+    @Test
+    public void testBulkMetadataEqualsMetadataOfEachItem() throws Exception {
+        reloadItems();
+        List<Item> items = List.of(publication1, publication2, author1, author2);
+
+        Map<UUID, List<RelationshipMetadataValue>> bulk =
+            relationshipMetadataService.getRelationshipMetadata(context, items, true);
+
+        for (Item item : items) {
+            assertEquals(toStrings(relationshipMetadataService.getRelationshipMetadata(item, true)),
+                         toStrings(bulk.get(item.getID())));
+        }
+    }
+
+    @Test
+    public void testPrefetchVirtualMetadata() throws Exception {
+        reloadItems();
+        itemService.prefetchVirtualMetadata(context, List.of(publication1, publication2));
+
+        assertFalse(publication1.isModifiedMetadataCache());
+        List<MetadataValue> authors = itemService.getMetadata(publication1, "dc", "contributor", "author", Item.ANY);
+        assertEquals(2, authors.size());
+        assertEquals("Smith, Jane", authors.get(0).getValue());
+        assertEquals("Jones, John", authors.get(1).getValue());
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        reloadItems();
+        relationshipMetadataService.getRelationshipMetadata(publication1, true);
+
+        assertNull(virtualMetadataCache.get(context, publication1, true));
+    }
+
+    @Test
+    public void testMetadataIsSharedAndEvictedWithRelatedItem() throws Exception {
+        configurationService.setProperty("relationship.virtual-metadata.cache.enabled", true);
+        reloadItems();
+        List<RelationshipMetadataValue> computed = relationshipMetadataService.getRelationshipMetadata(publication2,
+                                                                                                       true);
+
+        List<RelationshipMetadataValue> cached = virtualMetadataCache.get(context, publication2, true);
+        assertNotNull(cached);
+        assertEquals(toStrings(computed), toStrings(cached));
+        assertTrue(cached.stream().anyMatch(value -> publication2.equals(value.getDSpaceObject())));
+        // The values of the other kind of request are cached separately
+        assertNull(virtualMetadataCache.get(context, publication2, false));
+
+        // Changing the author evicts the publications it is related to
+        context.turnOffAuthorisationSystem();
+        itemService.replaceMetadata(context, author2, "person", "familyName", null, null, "Brown", null, -1, 0);
+        itemService.update(context, author2);
+        context.restoreAuthSystemState();
+        context.commit();
+        reloadItems();
+        assertNull(virtualMetadataCache.get(context, publication2, true));
+        List<MetadataValue> authors = itemService.getMetadata(publication2, "dc", "contributor", "author", Item.ANY);
+        assertEquals("Brown, John", authors.get(0).getValue());
+    }
+
+    @Test
+    public void testMetadataIsEvictedWithItemsOfRelatedChain() throws Exception {
+        configurationService.setProperty("relationship.virtual-metadata.cache.enabled", true);
+        reloadItems();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = context.reloadEntity(parentCommunity);
+        MetadataSchema journalSchema = MetadataSchemaBuilder.createMetadataSchema(context, "journal", "journal")
+                                                            .build();
+        MetadataFieldBuilder.createMetadataField(context, journalSchema, "title", null, "Journal title").build();
+        Collection issues = CollectionBuilder.createCollection(context, parentCommunity)
+                                             .withEntityType("JournalIssue").build();
+        Collection volumes = CollectionBuilder.createCollection(context, parentCommunity)
+                                              .withEntityType("JournalVolume").build();
+        Collection journals = CollectionBuilder.createCollection(context, parentCommunity)
+                                               .withEntityType("Journal").build();
+        EntityType publicationType = entityTypeService.findByEntityType(context, "Publication");
+        EntityType issueType = EntityTypeBuilder.createEntityTypeBuilder(context, "JournalIssue").build();
+        EntityType volumeType = EntityTypeBuilder.createEntityTypeBuilder(context, "JournalVolume").build();
+        EntityType journalType = EntityTypeBuilder.createEntityTypeBuilder(context, "Journal").build();
+        RelationshipType isJournalIssueOfPublication = RelationshipTypeBuilder
+            .createRelationshipTypeBuilder(context, publicationType, issueType, "isJournalIssueOfPublication",
+                                           "isPublicationOfJournalIssue", null, null, null, null).build();
+        RelationshipType isJournalVolumeOfIssue = RelationshipTypeBuilder
+            .createRelationshipTypeBuilder(context, issueType, volumeType, "isJournalVolumeOfIssue",
+                                           "isIssueOfJournalVolume", null, null, null, null).build();
+        RelationshipType isJournalOfVolume = RelationshipTypeBuilder
+            .createRelationshipTypeBuilder(context, volumeType, journalType, "isJournalOfVolume",
+                                           "isVolumeOfJournal", null, null, null, null).build();
+        Item issue = ItemBuilder.createItem(context, issues).withTitle("Issue").build();
+        Item volume = ItemBuilder.createItem(context, volumes).withTitle("Volume").build();
+        Item journal = ItemBuilder.createItem(context, journals).withTitle("Journal A").build();
+        RelationshipBuilder.createRelationshipBuilder(context, publication1, issue, isJournalIssueOfPublication)
+                           .build();
+        RelationshipBuilder.createRelationshipBuilder(context, issue, volume, isJournalVolumeOfIssue).build();
+        RelationshipBuilder.createRelationshipBuilder(context, volume, journal, isJournalOfVolume).build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        reloadItems();
+        assertEquals("Journal A", itemService.getMetadataFirstValue(publication1, "journal", "title", null,
+                                                                    Item.ANY));
+        assertNotNull(virtualMetadataCache.get(context, publication1, true));
+
+        // The title of the journal reaches the publication through the issue and the volume
+        context.turnOffAuthorisationSystem();
+        journal = context.reloadEntity(journal);
+        itemService.replaceMetadata(context, journal, "dc", "title", null, null, "Journal B", null, -1, 0);
+        itemService.update(context, journal);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        reloadItems();
+        assertNull(virtualMetadataCache.get(context, publication1, true));
+        assertEquals("Journal B", itemService.getMetadataFirstValue(publication1, "journal", "title", null,
+                                                                    Item.ANY));
+    }
+
+    @Test
+    public void testEvictedItemIsNotCachedDuringGracePeriod() throws Exception {
+        configurationService.setProperty("relationship.virtual-metadata.cache.enabled", true);
+        configurationService.setProperty("relationship.virtual-metadata.cache.eviction-grace", 60000);
+        virtualMetadataCache.evict(null, Set.of(publication1.getID()));
+        reloadItems();
+
+        relationshipMetadataService.getRelationshipMetadata(publication1, true);
+        assertNull(virtualMetadataCache.get(context, publication1, true));
+    }
+
+    /**
+     * Load the items again, as the instances modified by the builders are never cached.
+     */
+    private void reloadItems() throws Exception {
+        context.uncacheEntities();
+        publication1 = itemService.find(context, publication1.getID());
+        publication2 = itemService.find(context, publication2.getID());
+        author1 = itemService.find(context, author1.getID());
+        author2 = itemService.find(context, author2.getID());
+    }
+
+    private static List<String> toStrings(List<RelationshipMetadataValue> values) {
+        return values.stream()
+                     .map(value -> value.getMetadataField().toString('.') + "=" + value.getValue() + " "
+                         + value.getAuthority() + " " + value.getPlace() + " " + value.isUseForPlace())
+                     .toList();
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.content.crosswalk;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.dspace.AbstractDSpaceTest;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the sharing and the reloading of the stylesheets compiled by {@link XSLTCrosswalk}.
+ */
+public class XSLTCrosswalkTest extends AbstractDSpaceTest {
+
+    private static final String DIRECTION = "dissemination";
+
+    private final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                   .getConfigurationService();
+
+    private File stylesheet;
+    private long lastModified;
+
+    @Before
+    public void setUp() throws Exception {
+        File configDir = new File(configurationService.getProperty("dspace.dir"), "config");
+        stylesheet = File.createTempFile("xslt-crosswalk-test", ".xsl", configDir);
+        lastModified = stylesheet.lastModified();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(stylesheet.toPath());
+        configurationService.setProperty(property("first"), null);
+        configurationService.setProperty(property("second"), null);
+    }
+
+    @Test
+    public void testStylesheetIsSharedByCrosswalks() throws Exception {
+        writeStylesheet(output("first version"), lastModified);
+        assertEquals("first version", transform(crosswalk("first").getTransformer(DIRECTION)));
+
+        // Not compiled again for another crosswalk, as long as the file is not modified
+        writeStylesheet(output("second version"), lastModified);
+        assertEquals("first version", transform(crosswalk("second").getTransformer(DIRECTION)));
+    }
+
+    @Test
+    public void testStylesheetIsCompiledAgainWhenModified() throws Exception {
+        XSLTCrosswalk crosswalk = crosswalk("first");
+        writeStylesheet(output("first version"), lastModified);
+        assertEquals("first version", transform(crosswalk.getTransformer(DIRECTION)));
+
+        writeStylesheet(output("second version"), lastModified + 10000);
+        assertEquals("second version", transform(crosswalk.getTransformer(DIRECTION)));
+    }
+
+    @Test
+    public void testBrokenStylesheetIsNotCompiledAgainUntilModified() throws Exception {
+        XSLTCrosswalk crosswalk = crosswalk("first");
+        writeStylesheet(output("first version"), lastModified);
+        assertEquals("first version", transform(crosswalk.getTransformer(DIRECTION)));
+
+        // The previous version is used until the file is fixed
+        writeStylesheet("<broken", lastModified + 10000);
+        assertEquals("first version", transform(crosswalk.getTransformer(DIRECTION)));
+        writeStylesheet(output("second version"), lastModified + 10000);
+        assertEquals("first version", transform(crosswalk.getTransformer(DIRECTION)));
+
+        writeStylesheet(output("second version"), lastModified + 20000);
+        assertEquals("second version", transform(crosswalk.getTransformer(DIRECTION)));
+    }
+
+    @Test
+    public void testBrokenStylesheetWithoutPreviousVersion() throws Exception {
+        XSLTCrosswalk crosswalk = crosswalk("first");
+        writeStylesheet("<broken", lastModified);
+        assertNull(crosswalk.getTransformer(DIRECTION));
+        writeStylesheet(output("first version"), lastModified);
+        assertNull(crosswalk.getTransformer(DIRECTION));
+
+        writeStylesheet(output("first version"), lastModified + 10000);
+        assertEquals("first version", transform(crosswalk.getTransformer(DIRECTION)));
+    }
+
+    @Test
+    public void testConcurrentTransformations() throws Exception {
+        XSLTCrosswalk crosswalk = crosswalk("first");
+        writeStylesheet(output("shared version"), lastModified);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> transform(crosswalk.getTransformer(DIRECTION))));
+            }
+            for (Future<String> result : results) {
+                assertEquals("shared version", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private XSLTCrosswalk crosswalk(String alias) {
+        configurationService.setProperty(property(alias), stylesheet.getName());
+        XSLTCrosswalk crosswalk = new XSLTCrosswalk() { };
+        crosswalk.setPluginInstanceName(alias);
+        return crosswalk;
+    }
+
+    private String property(String alias) {
+        return "crosswalk." + DIRECTION + "." + alias + ".stylesheet";
+    }
+
+    private void writeStylesheet(String content, long modified) throws Exception {
+        Files.writeString(stylesheet.toPath(), content, UTF_8);
+        stylesheet.setLastModified(modified);
+    }
+
+    private String output(String text) {
+        return "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+            + "<xsl:output method=\"text\"/>"
+            + "<xsl:template match=\"/\">" + text + "</xsl:template>"
+            + "</xsl:stylesheet>";
+    }
+
+    private String transform(Transformer transformer) throws Exception {
+        assertNotNull(transformer);
+        StringWriter writer = new StringWriter();
+        transformer.transform(new StreamSource(new StringReader("<root/>")), new StreamResult(writer));
+        return writer.toString();
+    }
+}
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.withSettings;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -406,6 +407,36 @@ public class ContextTest extends AbstractUnitTest {
         cleanupContext(instance);
     }
 
+    /**
+     * Test of runAfterCommit and runAfterRollback methods, of class Context.
+     */
+    @Test
+    public void testRunAfterCommitAndRollback() throws SQLException {
+        Context instance = new Context();
+        List<String> actions = new ArrayList<>();
+
+        instance.runAfterCommit(() -> actions.add("commit 1"));
+        instance.runAfterRollback(() -> actions.add("rollback 1"));
+        assertTrue("testRunAfterCommitAndRollback 0", actions.isEmpty());
+        instance.commit();
+        assertThat("testRunAfterCommitAndRollback 1", actions, equalTo(List.of("commit 1")));
+
+        // Actions only apply to the transaction during which they were registered
+        instance.runAfterCommit(() -> actions.add("commit 2"));
+        instance.runAfterRollback(() -> actions.add("rollback 2"));
+        instance.rollback();
+        instance.commit();
+        assertThat("testRunAfterCommitAndRollback 2", actions, equalTo(List.of("commit 1", "rollback 2")));
+
+        instance.runAfterCommit(() -> actions.add("commit 3"));
+        instance.runAfterRollback(() -> actions.add("rollback 3"));
+        instance.abort();
+        assertThat("testRunAfterCommitAndRollback 3", actions,
+                   equalTo(List.of("commit 1", "rollback 2", "rollback 3")));
+
+        cleanupContext(instance);
+    }
+
     /**
      * Test of isValid method, of class Context.
      */
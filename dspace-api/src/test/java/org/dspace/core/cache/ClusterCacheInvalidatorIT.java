@@ -0,0 +1,101 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.MetadataFieldBuilder;
+import org.dspace.content.MetadataField;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.MetadataFieldService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the exchange of second-level cache invalidations between DSpace processes, the other process being simulated
+ * by a second {@link DatabaseCacheInvalidationChannel}.
+ */
+public class ClusterCacheInvalidatorIT extends AbstractIntegrationTestWithDatabase {
+
+    private final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                   .getConfigurationService();
+    private final MetadataFieldService metadataFieldService = ContentServiceFactory.getInstance()
+                                                                                   .getMetadataFieldService();
+    private final ClusterCacheInvalidator invalidator = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServiceByName(ClusterCacheInvalidator.class.getName(), ClusterCacheInvalidator.class);
+
+    private DatabaseCacheInvalidationChannel otherNode;
+    private SessionFactory sessionFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        configurationService.setProperty("hibernate.cache.cluster.enabled", true);
+        configurationService.setProperty("hibernate.cache.statistics.enabled", true);
+
+        otherNode = new DatabaseCacheInvalidationChannel();
+        otherNode.configurationService = configurationService;
+        otherNode.setDataSource(DSpaceServicesFactory.getInstance().getServiceManager()
+                                                     .getServiceByName("dataSource", DataSource.class));
+        sessionFactory = DSpaceServicesFactory.getInstance().getServiceManager()
+                                              .getServiceByName("sessionFactory", SessionFactory.class);
+        // Start both nodes, so that they receive the invalidations published from now on
+        otherNode.receive();
+        invalidator.synchronize();
+    }
+
+    @Test
+    public void testLocalChangesArePublished() throws Exception {
+        context.turnOffAuthorisationSystem();
+        MetadataField field = MetadataFieldBuilder.createMetadataField(context, "cluster", "published", null).build();
+        context.commit();
+        field = context.reloadEntity(field);
+        field.setScopeNote("Changed scope note");
+        metadataFieldService.update(context, field);
+        context.commit();
+        context.restoreAuthSystemState();
+
+        invalidator.synchronize();
+        List<CacheInvalidation> received = otherNode.receive();
+        assertTrue(received.contains(CacheInvalidation.entity(MetadataField.class.getName(), field.getID())));
+        assertTrue(received.contains(CacheInvalidation.querySpace("metadatafieldregistry")));
+        // Already received
+        assertEquals(0, otherNode.receive().size());
+    }
+
+    @Test
+    public void testRemoteChangesAreEvicted() throws Exception {
+        context.turnOffAuthorisationSystem();
+        MetadataField field = MetadataFieldBuilder.createMetadataField(context, "cluster", "evicted", null).build();
+        context.restoreAuthSystemState();
+        context.commit();
+        int id = field.getID();
+        // Load the field in the second-level cache
+        context.uncacheEntities();
+        metadataFieldService.find(context, id);
+        context.commit();
+        assertTrue(sessionFactory.getCache().containsEntity(MetadataField.class, id));
+
+        otherNode.publish(List.of(CacheInvalidation.entity(MetadataField.class.getName(), id)));
+        invalidator.synchronize();
+        assertFalse(sessionFactory.getCache().containsEntity(MetadataField.class, id));
+
+        Map<String, ClusterCacheInvalidator.RegionMetrics> metrics = invalidator.getRegionMetrics();
+        assertTrue(metrics.get(MetadataField.class.getName()).getRemoteInvalidations() > 0);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import org.dspace.AbstractDSpaceTest;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConfigurationValue}.
+ */
+public class ConfigurationValueTest extends AbstractDSpaceTest {
+
+    private static final String PROPERTY = "configuration-value-test.value";
+
+    private final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                   .getConfigurationService();
+
+    @After
+    public void tearDown() {
+        configurationService.setProperty(PROPERTY, null);
+    }
+
+    @Test
+    public void testValueIsComputedAgainWhenThePropertyChanges() {
+        ConfigurationValue<String> value = new ConfigurationValue<>(configurationService,
+            config -> config.getProperty(PROPERTY, "default"));
+        assertEquals("default", value.get());
+
+        configurationService.setProperty(PROPERTY, "first");
+        assertEquals("first", value.get());
+        configurationService.setProperty(PROPERTY, "second");
+        assertEquals("second", value.get());
+
+        configurationService.setProperty(PROPERTY, null);
+        assertEquals("default", value.get());
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.dspace.core.Context;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit tests for {@link EvictionTracker}.
+ */
+public class EvictionTrackerTest {
+
+    private final List<String> evictions = new ArrayList<>();
+
+    @Test
+    public void testKeysAreEvictedUntilTheTransactionEnds() {
+        EvictionTracker<String> tracker = new EvictionTracker<>(() -> 0L, () -> 60000L);
+        Context context = mock(Context.class);
+
+        tracker.evict(context, Set.of("a"), evictions::add);
+        assertEquals(List.of("a"), evictions);
+        assertTrue(tracker.isEvicted("a"));
+        assertFalse(tracker.isEvicted("b"));
+
+        // Evicted again once committed, and cached again after the grace period
+        getAfterCommit(context).run();
+        assertEquals(List.of("a", "a"), evictions);
+        assertFalse(tracker.isEvicted("a"));
+    }
+
+    @Test
+    public void testKeysAreEvictedDuringTheGracePeriod() {
+        EvictionTracker<String> tracker = new EvictionTracker<>(() -> 60000L, () -> 60000L);
+
+        tracker.evict(null, Set.of("a"), evictions::add);
+        assertEquals(List.of("a"), evictions);
+        assertTrue(tracker.isEvicted("a"));
+        assertFalse(tracker.isEvicted("b"));
+    }
+
+    @Test
+    public void testKeysAreEvictedUntilAllTransactionsEnd() {
+        EvictionTracker<String> tracker = new EvictionTracker<>(() -> 0L, () -> 60000L);
+        Context first = mock(Context.class);
+        Context second = mock(Context.class);
+
+        tracker.evict(first, Set.of("a"), evictions::add);
+        tracker.evict(second, Set.of("a"), evictions::add);
+        getAfterCommit(first).run();
+        assertTrue(tracker.isEvicted("a"));
+        getAfterCommit(second).run();
+        assertFalse(tracker.isEvicted("a"));
+    }
+
+    @Test
+    public void testAllKeysAreEvictedUntilTheTransactionEnds() {
+        EvictionTracker<String> tracker = new EvictionTracker<>(() -> 0L, () -> 60000L);
+        Context context = mock(Context.class);
+
+        tracker.evictAll(context, () -> evictions.add("all"));
+        assertTrue(tracker.isEvicted("a"));
+        assertTrue(tracker.isEvicted("b"));
+
+        getAfterCommit(context).run();
+        assertEquals(List.of("all", "all"), evictions);
+        assertFalse(tracker.isEvicted("a"));
+    }
+
+    @Test
+    public void testKeysOfContextsWhichNeverEndAreCachedAgain() {
+        EvictionTracker<String> tracker = new EvictionTracker<>(() -> 0L, () -> 0L);
+        Context context = mock(Context.class);
+
+        // Neither committed nor rolled back, e.g. a context which was never completed or aborted
+        tracker.evict(context, Set.of("a"), evictions::add);
+        assertFalse(tracker.isEvicted("a"));
+    }
+
+    @Test
+    public void testAllKeysOfContextsWhichNeverEndAreCachedAgain() {
+        EvictionTracker<String> tracker = new EvictionTracker<>(() -> 0L, () -> 0L);
+        Context leaked = mock(Context.class);
+        Context context = mock(Context.class);
+
+        tracker.evictAll(leaked, () -> evictions.add("all"));
+        assertFalse(tracker.isEvicted("a"));
+
+        // The end of another transaction does not bring back the one which never ended
+        tracker.evictAll(context, () -> evictions.add("all"));
+        getAfterCommit(context).run();
+        assertFalse(tracker.isEvicted("a"));
+    }
+
+    private Runnable getAfterCommit(Context context) {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(context).runAfterCommit(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -17,6 +17,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -317,6 +319,50 @@ public class DiscoveryIT extends AbstractIntegrationTestWithDatabase {
 
     }
 
+    @Test
+    public void parallelIndexBuildTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context)
+                                              .withName("Parent Community")
+                                              .build();
+        Collection col = CollectionBuilder.createCollection(context, community)
+                                          .withName("Collection")
+                                          .build();
+        for (int i = 0; i < 5; i++) {
+            ItemBuilder.createItem(context, col)
+                       .withTitle("Publication " + i)
+                       .build();
+        }
+        context.restoreAuthSystemState();
+        // the indexing threads use their own database connections
+        context.commit();
+
+        Path checkpoint = Files.createTempDirectory("discovery").resolve("discovery-build.checkpoint");
+        configurationService.setProperty("discovery.index.build.threads", 3);
+        configurationService.setProperty("discovery.index.build.partitions", 4);
+        configurationService.setProperty("discovery.index.build.batch-size", 2);
+        configurationService.setProperty("discovery.index.build.checkpoint", checkpoint.toString());
+
+        indexer.deleteIndex();
+        indexer.commit();
+        assertSearchQuery(IndexableItem.TYPE, 0);
+
+        indexer.createIndex(context, false);
+        assertSearchQuery(IndexableItem.TYPE, 5);
+        assertSearchQuery(IndexableCollection.TYPE, 1);
+        // a completed build removes its checkpoint
+        assertFalse(Files.exists(checkpoint));
+
+        // resuming a build of which all partitions are done should not index any items again
+        Files.writeString(checkpoint, "partitions=2\npartition.0=done\npartition.1=done\n");
+        indexer.deleteIndex();
+        indexer.commit();
+        indexer.createIndex(context, true);
+        assertSearchQuery(IndexableItem.TYPE, 0);
+        assertSearchQuery(IndexableCollection.TYPE, 1);
+        assertFalse(Files.exists(checkpoint));
+    }
+
     @Test
     public void solrRecordFromMessyItemTest() throws Exception {
         configurationService.setProperty("authority.controlled.dc.subject", "true");
@@ -0,0 +1,197 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Set;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the background indexing of the changes queued by the {@link IndexEventConsumer} in the
+ * {@link IndexEventQueue}.
+ */
+public class IndexEventQueueIT extends AbstractIntegrationTestWithDatabase {
+
+    private final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                   .getConfigurationService();
+    private final SearchService searchService = SearchUtils.getSearchService();
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final IndexEventQueue indexEventQueue = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServiceByName(IndexEventQueue.class.getName(), IndexEventQueue.class);
+
+    private Collection collection;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        context.restoreAuthSystemState();
+
+        configurationService.setProperty("discovery.index.async.enabled", true);
+        // Only flush the queue when the test does
+        configurationService.setProperty("discovery.index.async.interval", 3600000);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        configurationService.setProperty("discovery.index.async.enabled", false);
+        configurationService.setProperty("discovery.index.async.max-attempts", null);
+        while (indexEventQueue.flush() > 0) {
+            // Do not leave changes in the queue for other tests
+        }
+    }
+
+    @Test
+    public void testChangesAreIndexedOnFlush() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Queued item").build();
+        context.restoreAuthSystemState();
+        // The builder dispatches the events, the changes are only queued once committed
+        assertEquals(0, countQueueFiles());
+        context.commit();
+
+        assertEquals(0, countItems("search.resourceid:" + item.getID()));
+        assertEquals(1, countQueueFiles());
+
+        indexEventQueue.flush();
+        assertEquals(0, countQueueFiles());
+        assertEquals(1, countItems("search.resourceid:" + item.getID()));
+    }
+
+    @Test
+    public void testChangesAreQueuedOnceCommitted() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Queued item").build();
+        context.commit();
+        indexEventQueue.flush();
+
+        item = context.reloadEntity(item);
+        itemService.replaceMetadata(context, item, "dc", "title", null, null, "Committed title", null, -1, 0);
+        itemService.update(context, item);
+        context.restoreAuthSystemState();
+        // The consumer has seen the change, but it is not visible to the connection flushing the queue yet
+        context.dispatchEvents();
+        assertEquals(0, countQueueFiles());
+        assertEquals(0, indexEventQueue.flush());
+
+        context.commit();
+        // Flushed right after the commit
+        assertEquals(1, countQueueFiles());
+        assertEquals(1, indexEventQueue.flush());
+        assertEquals(1, countItems("dc.title:\"Committed title\""));
+    }
+
+    @Test
+    public void testRolledBackChangesAreNotQueued() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Queued item").build();
+        context.commit();
+        indexEventQueue.flush();
+
+        item = context.reloadEntity(item);
+        itemService.replaceMetadata(context, item, "dc", "title", null, null, "Rolled back title", null, -1, 0);
+        itemService.update(context, item);
+        context.restoreAuthSystemState();
+        context.dispatchEvents();
+        context.rollback();
+
+        assertEquals(0, countQueueFiles());
+        File[] pending = indexEventQueue.getQueueDir()
+                                        .listFiles((dir, name) -> name.endsWith(IndexEventQueue.PENDING_SUFFIX));
+        assertEquals(0, pending.length);
+        assertEquals(0, indexEventQueue.flush());
+    }
+
+    @Test
+    public void testRepeatedChangesAreCoalesced() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Queued item").build();
+        context.commit();
+        indexEventQueue.flush();
+
+        for (String title : new String[] {"First title", "Second title"}) {
+            item = context.reloadEntity(item);
+            itemService.replaceMetadata(context, item, "dc", "title", null, null, title, null, -1, 0);
+            itemService.update(context, item);
+            context.commit();
+        }
+        context.restoreAuthSystemState();
+        assertEquals(2, countQueueFiles());
+
+        // Both changes of the item are indexed at once
+        assertEquals(1, indexEventQueue.flush());
+        assertEquals(0, countQueueFiles());
+        assertEquals(1, countItems("dc.title:\"Second title\""));
+        assertEquals(0, countItems("dc.title:\"Queued item\""));
+    }
+
+    @Test
+    public void testCreatedAndUpdatedObjectIsFullyIndexed() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Queued item").build();
+        context.commit();
+        indexEventQueue.flush();
+        context.restoreAuthSystemState();
+
+        String uniqueId = new IndexableItem(item).getUniqueIndexID();
+        indexEventQueue.enqueue(context, Set.of(), Set.of(), Set.of(uniqueId));
+        indexEventQueue.enqueue(context, Set.of(), Set.of(uniqueId), Set.of());
+        context.commit();
+
+        // Indexed once, as updated, and not replaced by a pre-db document
+        assertEquals(1, indexEventQueue.flush());
+        assertEquals(1, countItems("search.resourceid:" + item.getID()));
+        assertEquals(0, countItems("search.resourceid:" + item.getID() + " AND database_status:predb"));
+    }
+
+    @Test
+    public void testFailedChangesAreQueuedAgain() throws Exception {
+        configurationService.setProperty("discovery.index.async.max-attempts", 2);
+        indexEventQueue.enqueue(context, Set.of(), Set.of("Item-broken"), Set.of());
+        context.commit();
+
+        assertEquals(1, indexEventQueue.flush());
+        // Queued again for a second attempt
+        assertEquals(1, countQueueFiles());
+        assertEquals(1, indexEventQueue.flush());
+        // Given up after the second attempt
+        assertEquals(0, countQueueFiles());
+        assertEquals(0, indexEventQueue.flush());
+    }
+
+    private long countItems(String query) throws SearchServiceException {
+        DiscoverQuery discoverQuery = new DiscoverQuery();
+        discoverQuery.setQuery(query);
+        discoverQuery.addFilterQueries("search.resourcetype:Item");
+        return searchService.search(context, discoverQuery).getTotalSearchResults();
+    }
+
+    private int countQueueFiles() {
+        File[] files = indexEventQueue.getQueueDir()
+                                      .listFiles((dir, name) -> name.endsWith(IndexEventQueue.QUEUE_SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Test the partitioning of the UUID space used by {@link ParallelIndexBuilder}.
+ */
+public class ParallelIndexBuilderTest {
+
+    @Test
+    public void testSinglePartitionIsUnbounded() {
+        assertNull(ParallelIndexBuilder.getLowerBound(0, 1));
+        assertNull(ParallelIndexBuilder.getUpperBound(0, 1));
+    }
+
+    @Test
+    public void testPartitionsAreContiguous() {
+        int partitionCount = 16;
+        assertNull(ParallelIndexBuilder.getLowerBound(0, partitionCount));
+        assertNull(ParallelIndexBuilder.getUpperBound(partitionCount - 1, partitionCount));
+        for (int partition = 1; partition < partitionCount; partition++) {
+            // The upper bound of a partition is the lower bound of the next one
+            assertEquals(ParallelIndexBuilder.getUpperBound(partition - 1, partitionCount),
+                         ParallelIndexBuilder.getLowerBound(partition, partitionCount));
+        }
+    }
+
+    @Test
+    public void testBoundariesAreAscendingUnsigned() {
+        int partitionCount = 16;
+        UUID previous = ParallelIndexBuilder.getUpperBound(0, partitionCount);
+        assertEquals(UUID.fromString("0fffffff-ffff-ffff-0000-000000000000"), previous);
+        for (int partition = 1; partition < partitionCount - 1; partition++) {
+            UUID next = ParallelIndexBuilder.getUpperBound(partition, partitionCount);
+            // The database compares UUIDs as unsigned values, unlike UUID.compareTo()
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+        assertEquals(UUID.fromString("efffffff-ffff-fff1-0000-000000000000"), previous);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.eperson;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.EPersonBuilder;
+import org.dspace.builder.GroupBuilder;
+import org.dspace.core.Constants;
+import org.dspace.eperson.factory.EPersonServiceFactory;
+import org.dspace.eperson.service.GroupService;
+import org.dspace.event.Event;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the group membership checks of {@link GroupServiceImpl} when the {@link GroupClosureIndex} is enabled, and
+ * the incremental update of the group2groupcache table.
+ */
+public class GroupClosureIndexIT extends AbstractIntegrationTestWithDatabase {
+
+    private final GroupService groupService = EPersonServiceFactory.getInstance().getGroupService();
+    private final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                   .getConfigurationService();
+    private final GroupClosureIndex groupClosureIndex = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServiceByName(GroupClosureIndex.class.getName(), GroupClosureIndex.class);
+
+    private Group topGroup;
+    private Group level1Group;
+    private Group level2Group;
+    private EPerson member;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        topGroup = GroupBuilder.createGroup(context).withName("topGroup").build();
+        level1Group = GroupBuilder.createGroup(context).withName("level1Group").withParent(topGroup).build();
+        level2Group = GroupBuilder.createGroup(context).withName("level2Group").withParent(level1Group).build();
+        member = EPersonBuilder.createEPerson(context).withEmail("closure@example.com")
+                               .withGroupMembership(level2Group).build();
+        context.restoreAuthSystemState();
+        // The index is never used by a context with pending events
+        context.commit();
+
+        groupClosureIndex.invalidate();
+        configurationService.setProperty("groups.closure-index.enabled", true);
+        configurationService.setProperty("event.dispatcher.default.consumers",
+                                         new String[] {"discovery", GroupClosureIndex.CONSUMER_NAME});
+    }
+
+    @Test
+    public void testMembershipChecks() throws Exception {
+        assertTrue(groupClosureIndex.isEnabled(context));
+        assertTrue(groupService.isParentOf(context, topGroup, level2Group));
+        assertFalse(groupService.isParentOf(context, level2Group, topGroup));
+        assertTrue(groupService.isMember(context, member, topGroup));
+        assertTrue(groupService.allMemberGroupsSet(context, member)
+                               .containsAll(List.of(topGroup, level1Group, level2Group)));
+    }
+
+    @Test
+    public void testRemoveMemberGroup() throws Exception {
+        // Build the index before the change
+        assertTrue(groupService.isParentOf(context, topGroup, level2Group));
+
+        context.turnOffAuthorisationSystem();
+        topGroup = context.reloadEntity(topGroup);
+        level1Group = context.reloadEntity(level1Group);
+        groupService.removeMember(context, topGroup, level1Group);
+        groupService.update(context, topGroup);
+        context.restoreAuthSystemState();
+        consume(new Event(Event.REMOVE, Constants.GROUP, topGroup.getID(), Constants.GROUP, level1Group.getID(),
+                          null));
+        context.commit();
+
+        assertFalse(groupService.isParentOf(context, topGroup, level2Group));
+        assertFalse(groupService.isMember(context, member, topGroup));
+        assertTrue(groupService.isMember(context, member, level1Group));
+
+        // The group2groupcache table was updated as well
+        configurationService.setProperty("groups.closure-index.enabled", false);
+        assertFalse(groupService.isParentOf(context, topGroup, level1Group));
+        assertFalse(groupService.isParentOf(context, topGroup, level2Group));
+        assertTrue(groupService.isParentOf(context, level1Group, level2Group));
+    }
+
+    @Test
+    public void testRolledBackChangeIsNotApplied() throws Exception {
+        // Build the index before the change
+        assertTrue(groupService.isParentOf(context, topGroup, level2Group));
+
+        context.turnOffAuthorisationSystem();
+        topGroup = context.reloadEntity(topGroup);
+        level1Group = context.reloadEntity(level1Group);
+        groupService.removeMember(context, topGroup, level1Group);
+        context.restoreAuthSystemState();
+        consume(new Event(Event.REMOVE, Constants.GROUP, topGroup.getID(), Constants.GROUP, level1Group.getID(),
+                          null));
+        context.rollback();
+
+        assertTrue(groupService.isParentOf(context, topGroup, level2Group));
+        assertTrue(groupService.isMember(context, member, topGroup));
+    }
+
+    private void consume(Event event) throws Exception {
+        GroupClosureIndexConsumer consumer = new GroupClosureIndexConsumer();
+        consumer.initialize();
+        consumer.consume(context, event);
+        consumer.end(context);
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.eperson;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the incremental maintenance of the {@link GroupClosureIndex}.
+ */
+public class GroupClosureIndexTest {
+
+    private final UUID root = UUID.randomUUID();
+    private final UUID left = UUID.randomUUID();
+    private final UUID right = UUID.randomUUID();
+    private final UUID leaf = UUID.randomUUID();
+    private final UUID other = UUID.randomUUID();
+
+    private GroupClosureIndex index;
+
+    @Before
+    public void setUp() {
+        // root <- left <- leaf and root <- right <- leaf
+        index = new GroupClosureIndex();
+        index.build(List.of(Pair.of(root, left), Pair.of(root, right), Pair.of(left, leaf), Pair.of(right, leaf)));
+    }
+
+    @Test
+    public void testBuild() {
+        assertTrue(index.isAncestor(root, left));
+        assertTrue(index.isAncestor(root, leaf));
+        assertTrue(index.isAncestor(left, leaf));
+        assertFalse(index.isAncestor(leaf, root));
+        assertFalse(index.isAncestor(left, right));
+        assertFalse(index.isAncestor(root, root));
+        assertFalse(index.isAncestor(root, other));
+    }
+
+    @Test
+    public void testAddMember() {
+        index.addMember(other, root);
+        assertTrue(index.isAncestor(other, root));
+        // the descendants of the new member are updated as well
+        assertTrue(index.isAncestor(other, left));
+        assertTrue(index.isAncestor(other, leaf));
+    }
+
+    @Test
+    public void testRemoveMemberKeepsOtherPaths() {
+        index.removeMember(left, leaf);
+        assertFalse(index.isAncestor(left, leaf));
+        // leaf is still a member of root through right
+        assertTrue(index.isAncestor(root, leaf));
+
+        index.removeMember(right, leaf);
+        assertFalse(index.isAncestor(root, leaf));
+    }
+
+    @Test
+    public void testRemoveGroup() {
+        index.removeGroup(left);
+        assertFalse(index.isAncestor(left, leaf));
+        assertTrue(index.isAncestor(root, leaf));
+        assertTrue(index.isAncestor(right, leaf));
+
+        index.removeGroup(root);
+        assertFalse(index.isAncestor(root, leaf));
+        assertFalse(index.isAncestor(root, right));
+        assertTrue(index.isAncestor(right, leaf));
+    }
+
+    @Test
+    public void testInvalidateIgnoresUpdatesUntilRebuilt() {
+        index.invalidate();
+        index.addMember(other, root);
+        assertFalse(index.isAncestor(other, root));
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.harvest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.harvest.factory.HarvestServiceFactory;
+import org.dspace.harvest.service.HarvestedCollectionService;
+import org.dspace.harvest.service.HarvestedItemService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.junit.MockServerRule;
+import org.mockserver.model.HttpRequest;
+
+/**
+ * Harvest a collection from a stubbed OAI-PMH server, fetching the pages ahead and ingesting the records with
+ * several threads.
+ */
+public class OAIHarvesterIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final String OAI_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        + "<OAI-PMH xmlns=\"http://www.openarchives.org/OAI/2.0/\" "
+        + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
+        + "xsi:schemaLocation=\"http://www.openarchives.org/OAI/2.0/ "
+        + "http://www.openarchives.org/OAI/2.0/OAI-PMH.xsd\">"
+        + "<responseDate>2026-01-01T00:00:00Z</responseDate>";
+
+    private static final String OAI_FOOTER = "</OAI-PMH>";
+
+    @Rule
+    public MockServerRule mockServerRule = new MockServerRule(this);
+
+    private MockServerClient mockServerClient;
+
+    private final ConfigurationService configurationService =
+        DSpaceServicesFactory.getInstance().getConfigurationService();
+    private final HarvestedCollectionService harvestedCollectionService =
+        HarvestServiceFactory.getInstance().getHarvestedCollectionService();
+    private final HarvestedItemService harvestedItemService =
+        HarvestServiceFactory.getInstance().getHarvestedItemService();
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+
+    private Collection collection;
+    private String oaiSource;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        oaiSource = "http://localhost:" + mockServerClient.getPort() + "/oai/request";
+        stubOAIServer();
+
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).withName("Harvested").build();
+        HarvestedCollection harvestRow = harvestedCollectionService.create(context, collection);
+        harvestRow.setHarvestParams(HarvestedCollection.TYPE_DMD, oaiSource, "all", "dc");
+        harvestRow.setHarvestStatus(HarvestedCollection.STATUS_READY);
+        harvestedCollectionService.update(context, harvestRow);
+        context.restoreAuthSystemState();
+        context.setCurrentUser(admin);
+    }
+
+    @After
+    public void resetConfiguration() {
+        configurationService.setProperty("oai.harvester.ingestThreads", null);
+        configurationService.setProperty("oai.harvester.prefetchPages", null);
+    }
+
+    @Test
+    public void harvestWithSeveralThreads() throws Exception {
+        configurationService.setProperty("oai.harvester.ingestThreads", 2);
+        configurationService.setProperty("oai.harvester.prefetchPages", 1);
+        HarvestMetrics before = HarvestMetrics.getSourceMetrics().get(oaiSource);
+        long pagesBefore = before == null ? 0 : before.getPages();
+        long recordsBefore = before == null ? 0 : before.getRecords();
+
+        harvest();
+
+        assertEquals(3, itemService.countItems(context, collection));
+        for (int i = 1; i <= 3; i++) {
+            Item item = harvestedItemService.getItemByOAIId(context, "oai:stub:" + i, collection);
+            assertNotNull("Record " + i + " should be harvested", item);
+            assertEquals("Record " + i, itemService.getMetadataFirstValue(item, "dc", "title", null, Item.ANY));
+        }
+        assertEquals(HarvestedCollection.STATUS_READY,
+                     harvestedCollectionService.find(context, collection).getHarvestStatus());
+
+        HarvestMetrics metrics = HarvestMetrics.getSourceMetrics().get(oaiSource);
+        assertNotNull(metrics);
+        assertEquals(2, metrics.getPages() - pagesBefore);
+        assertEquals(3, metrics.getRecords() - recordsBefore);
+    }
+
+    @Test
+    public void harvestInHarvestThread() throws Exception {
+        configurationService.setProperty("oai.harvester.ingestThreads", 1);
+        configurationService.setProperty("oai.harvester.prefetchPages", 0);
+
+        harvest();
+
+        assertEquals(3, itemService.countItems(context, collection));
+        assertNotNull(harvestedItemService.getItemByOAIId(context, "oai:stub:3", collection));
+    }
+
+    private void harvest() throws Exception {
+        HarvestedCollection harvestRow = harvestedCollectionService.find(context, collection);
+        new OAIHarvester(context, collection, harvestRow).runHarvest();
+        collection = context.reloadEntity(collection);
+    }
+
+    private void stubOAIServer() {
+        stub("Identify", null, "<Identify><repositoryName>Stub</repositoryName>"
+            + "<granularity>YYYY-MM-DDThh:mm:ssZ</granularity></Identify>");
+        stub("ListMetadataFormats", null, "<ListMetadataFormats><metadataFormat>"
+            + "<metadataPrefix>oai_dc</metadataPrefix>"
+            + "<schema>http://www.openarchives.org/OAI/2.0/oai_dc.xsd</schema>"
+            + "<metadataNamespace>http://www.openarchives.org/OAI/2.0/oai_dc/</metadataNamespace>"
+            + "</metadataFormat></ListMetadataFormats>");
+        stub("ListRecords", null, "<ListRecords>" + record(1) + record(2)
+            + "<resumptionToken completeListSize=\"3\" cursor=\"0\">page2</resumptionToken></ListRecords>");
+        stub("ListRecords", "page2", "<ListRecords>" + record(3)
+            + "<resumptionToken completeListSize=\"3\" cursor=\"2\"/></ListRecords>");
+    }
+
+    private void stub(String verb, String resumptionToken, String body) {
+        HttpRequest request = request().withPath("/oai/request").withQueryStringParameter("verb", verb);
+        if (resumptionToken == null) {
+            if ("ListRecords".equals(verb)) {
+                request = request.withQueryStringParameter("metadataPrefix", "oai_dc");
+            }
+        } else {
+            request = request.withQueryStringParameter("resumptionToken", resumptionToken);
+        }
+        mockServerClient.when(request).respond(
+            response().withStatusCode(200)
+                      .withHeader("Content-Type", "text/xml; charset=UTF-8")
+                      .withBody(OAI_HEADER + body + OAI_FOOTER));
+    }
+
+    private String record(int i) {
+        return "<record><header><identifier>oai:stub:" + i + "</identifier>"
+            + "<datestamp>2026-01-01T00:00:00Z</datestamp></header>"
+            + "<metadata><oai_dc:dc xmlns:oai_dc=\"http://www.openarchives.org/OAI/2.0/oai_dc/\" "
+            + "xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>Record " + i + "</dc:title>"
+            + "</oai_dc:dc></metadata></record>";
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.JavaBinCodec;
+import org.dspace.services.ConfigurationService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * Unit tests for {@link SolrStatisticsBuffer}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SolrStatisticsBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    private final List<SolrInputDocument> received = new ArrayList<>();
+
+    @Before
+    public void before() {
+        lenient().when(configurationService.getIntProperty("solr-statistics.async.capacity", 10000)).thenReturn(100);
+        lenient().when(configurationService.getIntProperty("solr-statistics.async.batch-size", 500)).thenReturn(2);
+        lenient().when(configurationService.getIntProperty("solr-statistics.async.threads", 1)).thenReturn(2);
+        lenient().when(configurationService.getLongProperty("solr-statistics.async.interval", 1000)).thenReturn(50L);
+        lenient().when(configurationService.getBooleanProperty("solr-statistics.autoCommit", true)).thenReturn(true);
+        lenient().when(configurationService.getProperty("solr-statistics.async.overflow", "spill"))
+                 .thenReturn("spill");
+        lenient().when(configurationService.getProperty(eq("solr-statistics.async.spill-dir"), anyString()))
+                 .thenReturn(folder.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public void testEventsAreSentInBatches() throws Exception {
+        SolrStatisticsBuffer buffer = new SolrStatisticsBuffer(workingSolr(), configurationService);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(document(i));
+        }
+        buffer.shutdown();
+
+        assertThat(buffer.getSentCount(), is(5L));
+        assertThat(buffer.getDroppedCount(), is(0L));
+        assertThat(received.size(), is(5));
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenSolrFails() throws Exception {
+        when(configurationService.getProperty("solr-statistics.async.overflow", "spill")).thenReturn("drop");
+        SolrStatisticsBuffer buffer = new SolrStatisticsBuffer(failingSolr(), configurationService);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(document(i));
+        }
+        buffer.shutdown();
+
+        assertThat(buffer.getSentCount(), is(0L));
+        assertThat(buffer.getDroppedCount(), is(5L));
+        assertThat(buffer.getSpilledCount(), is(0L));
+    }
+
+    @Test
+    public void testSpilledEventsAreSentLater() throws Exception {
+        SolrStatisticsBuffer failing = new SolrStatisticsBuffer(failingSolr(), configurationService);
+        for (int i = 0; i < 5; i++) {
+            failing.add(document(i));
+        }
+        failing.shutdown();
+        assertThat(failing.getSpilledCount(), is(5L));
+        assertThat(failing.getDroppedCount(), is(0L));
+
+        // A later run sends the spilled events once it is idle
+        SolrStatisticsBuffer buffer = new SolrStatisticsBuffer(workingSolr(), configurationService);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (buffer.getSentCount() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        buffer.shutdown();
+
+        assertThat(buffer.getSentCount(), is(5L));
+        assertThat(received.size(), is(5));
+    }
+
+    @Test
+    public void testUnfinishedSpillFilesAreRecovered() throws Exception {
+        // Left by a run which stopped while writing, the last event incomplete, and by one which stopped sending
+        try (DataOutputStream out = spillFile("0000000000000000001-a" + SolrStatisticsBuffer.TMP_SUFFIX)) {
+            writeDocument(out, document(1));
+            writeDocument(out, document(2));
+            out.writeInt(100);
+            out.write(new byte[] { 1, 2, 3 });
+        }
+        try (DataOutputStream out = spillFile("0000000000000000002-b" + SolrStatisticsBuffer.SPILL_SUFFIX
+                                                  + SolrStatisticsBuffer.SENDING_SUFFIX)) {
+            writeDocument(out, document(3));
+        }
+
+        SolrStatisticsBuffer buffer = new SolrStatisticsBuffer(workingSolr(), configurationService);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (buffer.getSentCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        buffer.shutdown();
+
+        assertThat(buffer.getSentCount(), is(3L));
+        assertThat(received.size(), is(3));
+        assertThat(folder.getRoot().list().length, is(0));
+    }
+
+    @Test
+    public void testUnreadableSpillFileIsKept() throws Exception {
+        try (DataOutputStream out = spillFile("0000000000000000001-a" + SolrStatisticsBuffer.SPILL_SUFFIX)) {
+            out.writeInt(4);
+            out.write(new byte[] { 42, 42, 42, 42 });
+        }
+        File kept = new File(folder.getRoot(), "0000000000000000001-a" + SolrStatisticsBuffer.SPILL_SUFFIX
+            + SolrStatisticsBuffer.FAILED_SUFFIX);
+
+        SolrStatisticsBuffer buffer = new SolrStatisticsBuffer(workingSolr(), configurationService);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!kept.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        buffer.shutdown();
+
+        assertTrue(kept.exists());
+        assertFalse(new File(folder.getRoot(), "0000000000000000001-a" + SolrStatisticsBuffer.SPILL_SUFFIX)
+                        .exists());
+        assertThat(buffer.getSentCount(), is(0L));
+    }
+
+    private DataOutputStream spillFile(String name) throws Exception {
+        return new DataOutputStream(new FileOutputStream(new File(folder.getRoot(), name)));
+    }
+
+    private void writeDocument(DataOutputStream out, SolrInputDocument doc) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JavaBinCodec codec = new JavaBinCodec()) {
+            codec.marshal(doc, bytes);
+        }
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private SolrClient workingSolr() throws Exception {
+        SolrClient solr = mock(SolrClient.class);
+        when(solr.add(anyCollection())).thenAnswer(invocation -> {
+            synchronized (received) {
+                received.addAll(invocation.<Collection<SolrInputDocument>>getArgument(0));
+            }
+            return null;
+        });
+        return solr;
+    }
+
+    private SolrClient failingSolr() throws Exception {
+        SolrClient solr = mock(SolrClient.class);
+        when(solr.add(anyCollection())).thenThrow(new SolrServerException("Solr is down"));
+        return solr;
+    }
+
+    private SolrInputDocument document(int id) {
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField("id", String.valueOf(id));
+        doc.addField("statistics_type", "view");
+        return doc;
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Community;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.CollectionService;
+import org.dspace.content.service.CommunityService;
+import org.dspace.content.service.ItemService;
+import org.dspace.event.factory.EventServiceFactory;
+import org.dspace.event.service.EventService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.statistics.factory.StatisticsServiceFactory;
+import org.dspace.statistics.service.SolrLoggerService;
+import org.dspace.utils.DSpace;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the {@link StatisticsLookupCache} and the eviction of owners by the {@link StatisticsLookupCacheConsumer},
+ * after changes committed for real.
+ */
+public class StatisticsLookupCacheIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                          .getConfigurationService();
+    private static final EventService eventService = EventServiceFactory.getInstance().getEventService();
+    private static String[] consumers;
+
+    private final SolrLoggerService solrLoggerService = StatisticsServiceFactory.getInstance()
+                                                                                .getSolrLoggerService();
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final CollectionService collectionService = ContentServiceFactory.getInstance().getCollectionService();
+    private final CommunityService communityService = ContentServiceFactory.getInstance().getCommunityService();
+    private final StatisticsLookupCache statisticsLookupCache = new DSpace().getServiceManager()
+        .getServiceByName(StatisticsLookupCache.class.getName(), StatisticsLookupCache.class);
+
+    private Community otherCommunity;
+    private Collection collection;
+    private Collection otherCollection;
+    private Item item;
+
+    @BeforeClass
+    public static void addConsumer() {
+        consumers = configurationService.getArrayProperty("event.dispatcher.default.consumers");
+        configurationService.setProperty("event.dispatcher.default.consumers",
+                                         ArrayUtils.add(consumers, StatisticsLookupCache.CONSUMER_NAME));
+        eventService.reloadConfiguration();
+    }
+
+    @AfterClass
+    public static void resetConsumers() {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        eventService.reloadConfiguration();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        otherCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        otherCollection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Viewed item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        configurationService.setProperty("solr-statistics.cache.enabled", true);
+        configurationService.setProperty("solr-statistics.cache.eviction-grace", 0);
+        statisticsLookupCache.init();
+        statisticsLookupCache.evictAllParents(null);
+        item = context.reloadEntity(item);
+    }
+
+    @After
+    public void restoreConfiguration() {
+        configurationService.setProperty("solr-statistics.cache.enabled", false);
+        statisticsLookupCache.init();
+    }
+
+    @Test
+    public void testParentsAreCached() throws Exception {
+        SolrInputDocument doc = new SolrInputDocument();
+        solrLoggerService.storeParents(doc, item);
+        assertEquals(collection.getID().toString(), doc.getFieldValue("owningColl"));
+        assertEquals(parentCommunity.getID().toString(), doc.getFieldValue("owningComm"));
+
+        Map<String, List<String>> parents = statisticsLookupCache.getParents(item.getID());
+        assertNotNull(parents);
+        assertEquals(List.of(collection.getID().toString()), parents.get("owningColl"));
+
+        // Served from the cache
+        SolrInputDocument cachedDoc = new SolrInputDocument();
+        solrLoggerService.storeParents(cachedDoc, item);
+        assertEquals(doc.getFieldValues("owningColl"), cachedDoc.getFieldValues("owningColl"));
+        assertEquals(doc.getFieldValues("owningComm"), cachedDoc.getFieldValues("owningComm"));
+    }
+
+    @Test
+    public void testParentsAreEvictedWhenItemIsMoved() throws Exception {
+        solrLoggerService.storeParents(new SolrInputDocument(), item);
+        assertNotNull(statisticsLookupCache.getParents(item.getID()));
+
+        context.turnOffAuthorisationSystem();
+        itemService.move(context, item, context.reloadEntity(collection), context.reloadEntity(otherCollection));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertNull(statisticsLookupCache.getParents(item.getID()));
+        SolrInputDocument doc = new SolrInputDocument();
+        solrLoggerService.storeParents(doc, context.reloadEntity(item));
+        assertEquals(otherCollection.getID().toString(), doc.getFieldValue("owningColl"));
+    }
+
+    @Test
+    public void testParentsAreEvictedWhenItemIsMapped() throws Exception {
+        solrLoggerService.storeParents(new SolrInputDocument(), item);
+        assertNotNull(statisticsLookupCache.getParents(item.getID()));
+
+        context.turnOffAuthorisationSystem();
+        collectionService.addItem(context, context.reloadEntity(otherCollection), item);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertNull(statisticsLookupCache.getParents(item.getID()));
+        SolrInputDocument doc = new SolrInputDocument();
+        solrLoggerService.storeParents(doc, context.reloadEntity(item));
+        assertEquals(2, doc.getFieldValues("owningColl").size());
+    }
+
+    @Test
+    public void testParentsAreEvictedWhenCollectionIsMoved() throws Exception {
+        solrLoggerService.storeParents(new SolrInputDocument(), item);
+        assertNotNull(statisticsLookupCache.getParents(item.getID()));
+
+        context.turnOffAuthorisationSystem();
+        collection = context.reloadEntity(collection);
+        communityService.addCollection(context, context.reloadEntity(otherCommunity), collection);
+        communityService.removeCollection(context, context.reloadEntity(parentCommunity), collection);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertNull(statisticsLookupCache.getParents(item.getID()));
+        SolrInputDocument doc = new SolrInputDocument();
+        solrLoggerService.storeParents(doc, context.reloadEntity(item));
+        assertEquals(otherCommunity.getID().toString(), doc.getFieldValue("owningComm"));
+    }
+
+    @Test
+    public void testParentsAreNotCachedWithoutConsumer() throws Exception {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        statisticsLookupCache.init();
+        try {
+            SolrInputDocument doc = new SolrInputDocument();
+            solrLoggerService.storeParents(doc, item);
+            assertEquals(collection.getID().toString(), doc.getFieldValue("owningColl"));
+            assertNull(statisticsLookupCache.getParents(item.getID()));
+        } finally {
+            configurationService.setProperty("event.dispatcher.default.consumers",
+                                             ArrayUtils.add(consumers, StatisticsLookupCache.CONSUMER_NAME));
+        }
+    }
+
+    @Test
+    public void testClientLookupsAreCached() {
+        AtomicInteger lookups = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> client = statisticsLookupCache.getClient("192.0.2.10", ip -> {
+                lookups.incrementAndGet();
+                return Map.of("dns", "client.example.org");
+            });
+            assertEquals("client.example.org", client.get("dns"));
+        }
+        assertEquals(1, lookups.get());
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.storage.bitstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.dspace.content.Bitstream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test the read-through caching of the {@link CachingBitStoreService}.
+ */
+public class CachingBitStoreServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BitStoreService remoteStore;
+    private CachingBitStoreService store;
+
+    @Before
+    public void setUp() throws Exception {
+        remoteStore = mock(BitStoreService.class);
+        when(remoteStore.isInitialized()).thenReturn(true);
+        store = new CachingBitStoreService();
+        store.setBitStoreService(remoteStore);
+        store.setCacheDir(folder.getRoot());
+        store.setMaxSize(20);
+        store.setMaxFileSize(10);
+        store.init();
+    }
+
+    @Test
+    public void testHitIsServedFromCache() throws Exception {
+        Bitstream bitstream = bitstream("1", "content", true);
+
+        assertEquals("content", read(bitstream));
+        assertEquals("content", read(bitstream));
+        verify(remoteStore, times(1)).get(bitstream);
+        assertEquals(7, store.getSize());
+        assertNotNull(store.getLocalPath(bitstream));
+    }
+
+    @Test
+    public void testChecksumMismatchIsNotCached() throws Exception {
+        Bitstream bitstream = bitstream("1", "content", false);
+
+        assertEquals("content", read(bitstream));
+        assertEquals("content", read(bitstream));
+        verify(remoteStore, times(2)).get(bitstream);
+        assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void testLargeFilesAreNotCached() throws Exception {
+        Bitstream bitstream = bitstream("1", "large content", true);
+
+        assertEquals("large content", read(bitstream));
+        assertEquals(0, store.getSize());
+        assertNull(store.getLocalPath(bitstream));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        Bitstream first = bitstream("1", "first", true);
+        Bitstream second = bitstream("2", "second", true);
+        Bitstream third = bitstream("3", "third!!!!!", true);
+
+        read(first);
+        read(second);
+        // Use the first one again, so that the second one is the least recently used
+        read(first);
+        read(third);
+
+        assertEquals(15, store.getSize());
+        assertNotNull(store.getLocalPath(first));
+        assertNull(store.getLocalPath(second));
+        assertNotNull(store.getLocalPath(third));
+    }
+
+    @Test
+    public void testRemoveEvicts() throws Exception {
+        Bitstream bitstream = bitstream("1", "content", true);
+        read(bitstream);
+
+        store.remove(bitstream);
+        verify(remoteStore).remove(bitstream);
+        assertEquals(0, store.getSize());
+        assertNull(store.getLocalPath(bitstream));
+    }
+
+    @Test
+    public void testInitIndexesExistingFiles() throws Exception {
+        read(bitstream("1", "content", true));
+
+        CachingBitStoreService restarted = new CachingBitStoreService();
+        restarted.setBitStoreService(remoteStore);
+        restarted.setCacheDir(folder.getRoot());
+        restarted.init();
+        assertEquals(7, restarted.getSize());
+    }
+
+    @Test
+    public void testRestartedCacheVerifiesChecksum() throws Exception {
+        Bitstream bitstream = bitstream("1", "content", true);
+        read(bitstream);
+        Files.writeString(store.getLocalPath(bitstream), "CONTENT");
+
+        CachingBitStoreService restarted = new CachingBitStoreService();
+        restarted.setBitStoreService(remoteStore);
+        restarted.setCacheDir(folder.getRoot());
+        restarted.init();
+        try (InputStream in = restarted.get(bitstream)) {
+            assertEquals("content", IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+        verify(remoteStore, times(2)).get(bitstream);
+    }
+
+    @Test
+    public void testModifiedFileIsNotServed() throws Exception {
+        Bitstream bitstream = bitstream("1", "content", true);
+        read(bitstream);
+        Path path = store.getLocalPath(bitstream);
+        Files.writeString(path, "CONTENT");
+        Files.setLastModifiedTime(path, FileTime.fromMillis(path.toFile().lastModified() + 10000));
+
+        assertEquals("content", read(bitstream));
+        verify(remoteStore, times(2)).get(bitstream);
+    }
+
+    @Test
+    public void testSimilarInternalIdsDoNotCollide() throws Exception {
+        Bitstream first = bitstream("a/b", "first", true);
+        Bitstream second = bitstream("a_b", "second", true);
+
+        assertEquals("first", read(first));
+        assertEquals("second", read(second));
+        assertEquals("first", read(first));
+        assertEquals("second", read(second));
+        verify(remoteStore, times(1)).get(first);
+        verify(remoteStore, times(1)).get(second);
+        assertNotEquals(store.getLocalPath(first), store.getLocalPath(second));
+    }
+
+    @Test
+    public void testLocalPathIsPinned() throws Exception {
+        Bitstream first = bitstream("1", "first", true);
+        Bitstream second = bitstream("2", "second", true);
+        Bitstream third = bitstream("3", "third!!!!!", true);
+
+        read(first);
+        Path path = store.getLocalPath(first);
+        read(second);
+        // Use the second one again, so that the pinned first one is the least recently used
+        read(second);
+        read(third);
+
+        assertTrue(Files.exists(path));
+        assertEquals(path, store.getLocalPath(first));
+        assertNull(store.getLocalPath(second));
+    }
+
+    @Test
+    public void testLocalPathIsEvictedOncePinTimeIsOver() throws Exception {
+        store.setPinTime(0);
+        Bitstream first = bitstream("1", "first", true);
+        Bitstream second = bitstream("2", "second", true);
+        Bitstream third = bitstream("3", "third!!!!!", true);
+
+        read(first);
+        Path path = store.getLocalPath(first);
+        read(second);
+        read(second);
+        read(third);
+
+        assertFalse(Files.exists(path));
+        assertNull(store.getLocalPath(first));
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        Bitstream bitstream = bitstream("1", "content", true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(remoteStore.get(bitstream)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return stream("content");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> read(bitstream)));
+            started.await(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> read(bitstream)));
+            }
+            // Give the other readers the time to wait for the first one
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("content", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(remoteStore, times(1)).get(bitstream);
+    }
+
+    private Bitstream bitstream(String internalId, String content, boolean validChecksum) throws IOException {
+        Bitstream bitstream = mock(Bitstream.class);
+        when(bitstream.getInternalId()).thenReturn(internalId);
+        when(bitstream.getSizeBytes()).thenReturn((long) content.length());
+        when(bitstream.getChecksumAlgorithm()).thenReturn("MD5");
+        when(bitstream.getChecksum()).thenReturn(validChecksum ? DigestUtils.md5Hex(content) : "0");
+        when(remoteStore.get(bitstream)).thenAnswer(invocation -> stream(content));
+        return bitstream;
+    }
+
+    private String read(Bitstream bitstream) throws IOException {
+        try (InputStream in = store.get(bitstream)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.storage.bitstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.dspace.AbstractUnitTest;
+import org.dspace.content.Bitstream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+/**
+ * Test the storage and reference counting of the {@link DeduplicatingBitStoreService}.
+ */
+public class DeduplicatingBitStoreServiceTest extends AbstractUnitTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DeduplicatingBitStoreService store;
+
+    @Mock
+    private Bitstream first;
+
+    @Mock
+    private Bitstream second;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new DeduplicatingBitStoreService();
+        store.setBaseDir(folder.getRoot());
+        store.init();
+        when(first.getInternalId()).thenReturn("12345678901234567890");
+        // Not every test uses the second bitstream
+        Mockito.lenient().when(second.getInternalId()).thenReturn("98765432109876543210");
+    }
+
+    @Test
+    public void testPutComputesChecksum() throws Exception {
+        store.put(first, stream("content"));
+
+        verify(first).setSizeBytes(7);
+        // MD5 of "content"
+        verify(first).setChecksum("9a0364b9e99bb480dd25e1f0284c8555");
+        verify(first).setChecksumAlgorithm("MD5");
+        assertEquals("content", read(first));
+    }
+
+    @Test
+    public void testIdenticalContentIsStoredOnce() throws Exception {
+        store.put(first, stream("content"));
+        store.put(second, stream("content"));
+
+        assertEquals(1, countContentFiles());
+        assertEquals(2, about(first).get("reference_count"));
+        assertEquals("content", read(second));
+        assertEquals(store.getLocalPath(first), store.getLocalPath(second));
+
+        store.remove(first);
+        assertNull(store.about(first, List.of("size_bytes")));
+        assertEquals("content", read(second));
+        assertEquals(1, about(second).get("reference_count"));
+
+        store.remove(second);
+        assertEquals(0, countContentFiles());
+        assertThrows(IOException.class, () -> store.get(second));
+    }
+
+    @Test
+    public void testDifferentContentIsStoredSeparately() throws Exception {
+        store.put(first, stream("content"));
+        store.put(second, stream("other content"));
+
+        assertEquals(2, countContentFiles());
+        assertEquals(1, about(first).get("reference_count"));
+        assertEquals("other content", read(second));
+    }
+
+    @Test
+    public void testPutAgainReplacesReference() throws Exception {
+        store.put(first, stream("content"));
+        store.put(second, stream("content"));
+        store.put(first, stream("content"));
+        assertEquals(2, about(second).get("reference_count"));
+
+        store.put(first, stream("other content"));
+        assertEquals("other content", read(first));
+        assertEquals(1, about(second).get("reference_count"));
+    }
+
+    @Test
+    public void testRemoveDeletesReferenceCount() throws Exception {
+        store.put(first, stream("content"));
+        store.put(second, stream("content"));
+        assertEquals(1, countReferenceCountFiles());
+
+        store.remove(first);
+        assertEquals(1, countReferenceCountFiles());
+        store.remove(second);
+        assertEquals(0, countReferenceCountFiles());
+        assertEquals(0, countContentFiles());
+    }
+
+    @Test
+    public void testReconcileReferenceCounts() throws Exception {
+        Bitstream third = Mockito.mock(Bitstream.class);
+        when(third.getInternalId()).thenReturn("55555555555555555555");
+        store.put(first, stream("content"));
+        store.put(second, stream("content"));
+        store.put(third, stream("other content"));
+        // Removals interrupted after the deletion of the pointer files
+        assertTrue(store.getFile(second).delete());
+        assertTrue(store.getFile(third).delete());
+
+        // Recent counts may be updated by operations in progress
+        assertEquals(0, store.reconcileReferenceCounts(System.currentTimeMillis() - 20000));
+        assertEquals(2, about(first).get("reference_count"));
+        assertEquals(2, countContentFiles());
+
+        assertEquals(2, store.reconcileReferenceCounts(System.currentTimeMillis() + 20000));
+        assertEquals(1, about(first).get("reference_count"));
+        assertEquals("content", read(first));
+        assertEquals(1, countContentFiles());
+        assertEquals(1, countReferenceCountFiles());
+
+        assertEquals(0, store.reconcileReferenceCounts(System.currentTimeMillis() + 20000));
+    }
+
+    @Test
+    public void testReconcileIsAbortedByUnreadablePointer() throws Exception {
+        store.put(first, stream("content"));
+        store.put(second, stream("other content"));
+        // A pointer truncated by a crash
+        File pointer = store.getFile(second);
+        Files.writeString(pointer.toPath(), Files.readString(pointer.toPath()).substring(0, 10));
+
+        assertThrows(IOException.class, () -> store.reconcileReferenceCounts(System.currentTimeMillis() + 20000));
+        assertEquals(2, countContentFiles());
+        assertEquals(1, about(first).get("reference_count"));
+    }
+
+    @Test
+    public void testPutLeavesNoTemporaryFiles() throws Exception {
+        store.put(first, stream("content"));
+        store.put(first, stream("other content"));
+
+        File[] temporaryFiles = new File(folder.getRoot(), DeduplicatingBitStoreService.TEMP_DIR).listFiles();
+        assertEquals(0, temporaryFiles.length);
+        assertEquals("other content", read(first));
+    }
+
+    @Test
+    public void testDeleteStaleUploads() throws Exception {
+        File tempDir = new File(folder.getRoot(), DeduplicatingBitStoreService.TEMP_DIR);
+        tempDir.mkdirs();
+        File stale = new File(tempDir, "upload1.tmp");
+        assertTrue(stale.createNewFile());
+        stale.setLastModified(System.currentTimeMillis() - 10000);
+
+        assertEquals(0, store.deleteStaleUploads(System.currentTimeMillis() - 20000));
+        assertEquals(1, store.deleteStaleUploads(System.currentTimeMillis()));
+        assertFalse(stale.exists());
+    }
+
+    private Map<String, Object> about(Bitstream bitstream) throws IOException {
+        return store.about(bitstream, List.of("size_bytes", "reference_count"));
+    }
+
+    private String read(Bitstream bitstream) throws IOException {
+        try (InputStream in = store.get(bitstream)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long countReferenceCountFiles() throws IOException {
+        File contentDir = new File(folder.getRoot(), DeduplicatingBitStoreService.CONTENT_DIR);
+        if (!contentDir.exists()) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(contentDir.toPath())) {
+            return files.filter(path -> path.toString().endsWith(DeduplicatingBitStoreService.REFERENCES_SUFFIX))
+                        .count();
+        }
+    }
+
+    private long countContentFiles() throws IOException {
+        File contentDir = new File(folder.getRoot(), DeduplicatingBitStoreService.CONTENT_DIR);
+        if (!contentDir.exists()) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(contentDir.toPath())) {
+            return files.filter(path -> path.toFile().isFile())
+                        .filter(path -> !path.toString().endsWith(DeduplicatingBitStoreService.REFERENCES_SUFFIX))
+                        .count();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.app;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Bundle;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.BitstreamService;
+import org.dspace.content.service.BundleService;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.event.Consumer;
+import org.dspace.event.Event;
+
+/**
+ * Consumer recording the items changed by the events of a context in the {@link OAIChangeFeed}, so that the next
+ * OAI import only compiles these items again.
+ * <p>
+ * An item is recorded when it is installed, modified, withdrawn, reinstated or deleted, when it is mapped to or
+ * unmapped from a collection, and when its bundles or their bitstreams are added, removed or modified, as the
+ * bitstreams are part of the OAI metadata of the item.
+ */
+public class OAIChangeConsumer implements Consumer {
+
+    private static final Logger log = LogManager.getLogger(OAIChangeConsumer.class);
+
+    protected BundleService bundleService;
+
+    protected BitstreamService bitstreamService;
+
+    protected OAIChangeFeed changeFeed;
+
+    // UUIDs of the changed items, with true for the deleted ones
+    private final Map<UUID, Boolean> changes = new LinkedHashMap<>();
+
+    @Override
+    public void initialize() throws Exception {
+        bundleService = ContentServiceFactory.getInstance().getBundleService();
+        bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
+        changeFeed = new OAIChangeFeed();
+    }
+
+    @Override
+    public void consume(Context ctx, Event event) throws Exception {
+        int eventType = event.getEventType();
+        switch (event.getSubjectType()) {
+            case Constants.COLLECTION:
+                if ((eventType == Event.ADD || eventType == Event.REMOVE)
+                    && event.getObjectType() == Constants.ITEM) {
+                    // An item was mapped to or unmapped from a collection
+                    addItem(event.getObjectID(), false);
+                }
+                break;
+            case Constants.ITEM:
+                addItem(event.getSubjectID(), eventType == Event.DELETE);
+                break;
+            case Constants.BUNDLE:
+                if (eventType != Event.DELETE) {
+                    addBundle(bundleService.find(ctx, event.getSubjectID()));
+                }
+                break;
+            case Constants.BITSTREAM:
+                if (eventType != Event.DELETE) {
+                    Bitstream bitstream = bitstreamService.find(ctx, event.getSubjectID());
+                    if (bitstream != null) {
+                        for (Bundle bundle : bitstream.getBundles()) {
+                            addBundle(bundle);
+                        }
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Record the changed items once the transaction is committed. Events are dispatched before the commit: an import
+     * reading rows recorded right away could compile the items before their changes are visible, and then remove
+     * the rows. Changes of a transaction which is rolled back are not recorded.
+     */
+    @Override
+    public void end(Context ctx) throws Exception {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<UUID, Boolean> committed = new LinkedHashMap<>(changes);
+        changes.clear();
+        ctx.runAfterCommit(() -> {
+            try {
+                changeFeed.record(committed);
+            } catch (SQLException e) {
+                log.error("Unable to record the items changed since the last OAI import: {}", committed.keySet(), e);
+            }
+        });
+    }
+
+    @Override
+    public void finish(Context ctx) throws Exception {
+        // No-op
+    }
+
+    private void addBundle(Bundle bundle) {
+        if (bundle != null) {
+            for (Item item : bundle.getItems()) {
+                addItem(item.getID(), false);
+            }
+        }
+    }
+
+    private void addItem(UUID itemId, boolean deleted) {
+        if (itemId != null) {
+            // Keep the order of the last changes
+            changes.remove(itemId);
+            changes.put(itemId, deleted);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.app;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+
+/**
+ * The items changed since the last OAI import, stored in the "oai_change" table of the DSpace database.
+ * <p>
+ * The {@link OAIChangeConsumer} adds a row for each item created, modified, withdrawn, reinstated, moved or
+ * deleted, or whose bundles or bitstreams changed, once the transaction which changed it is committed. {@link XOAI}
+ * then only compiles these items again, one page of rows at a time, and removes the rows of each page once its
+ * documents are committed to Solr. The rows are kept in the database rather than in Solr or in memory, so that the
+ * changes made by every DSpace process (web application and command line scripts) are recorded, and survive an
+ * interrupted import.
+ */
+public class OAIChangeFeed {
+
+    /**
+     * Name of the {@link OAIChangeConsumer} in "event.dispatcher.default.consumers"
+     */
+    public static final String CONSUMER_NAME = "oaichanges";
+
+    private final DataSource dataSource;
+
+    public OAIChangeFeed() {
+        this(DSpaceServicesFactory.getInstance().getServiceManager()
+                                  .getServiceByName("dataSource", DataSource.class));
+    }
+
+    public OAIChangeFeed(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Changes are only recorded while the {@link OAIChangeConsumer} is registered with the default dispatcher.
+     *
+     * @param configurationService the DSpace configuration
+     * @return true if changes are recorded
+     */
+    public static boolean isEnabled(ConfigurationService configurationService) {
+        return ArrayUtils.contains(configurationService.getArrayProperty("event.dispatcher.default.consumers"),
+                                   CONSUMER_NAME);
+    }
+
+    /**
+     * Record changed items.
+     *
+     * @param changes the UUIDs of the changed items, with true for the deleted ones
+     * @throws SQLException if the changes could not be written
+     */
+    public void record(Map<UUID, Boolean> changes) throws SQLException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "INSERT INTO oai_change (item_id, deleted) VALUES (?, ?)")) {
+            for (Map.Entry<UUID, Boolean> change : changes.entrySet()) {
+                statement.setObject(1, change.getKey());
+                statement.setBoolean(2, change.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * @return the id of the last recorded change, or 0 if there are none
+     * @throws SQLException if the changes could not be read
+     */
+    public long getLastId() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT MAX(oai_change_id) FROM oai_change");
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Read the oldest recorded changes.
+     *
+     * @param lastId the id of the last change to read, so that an import does not run after the changes made while
+     *               it runs
+     * @param limit  the maximum number of changes to read
+     * @return the changes, of which the same item may have several
+     * @throws SQLException if the changes could not be read
+     */
+    public Page read(long lastId, int limit) throws SQLException {
+        Page page = new Page();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "SELECT oai_change_id, item_id, deleted FROM oai_change WHERE oai_change_id <= ?"
+                     + " ORDER BY oai_change_id")) {
+            statement.setLong(1, lastId);
+            statement.setMaxRows(limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    page.ids.add(resultSet.getLong(1));
+                    UUID itemId = resultSet.getObject(2, UUID.class);
+                    // The last change of an item tells whether it still exists
+                    page.changes.remove(itemId);
+                    page.changes.put(itemId, resultSet.getBoolean(3));
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Remove the changes of a page, once the items are indexed. Only the rows which were read are removed, as rows
+     * with smaller ids may have been committed after the page was read.
+     *
+     * @param page the indexed changes
+     * @throws SQLException if the changes could not be removed
+     */
+    public void remove(Page page) throws SQLException {
+        if (page.ids.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "DELETE FROM oai_change WHERE oai_change_id = ?")) {
+            for (Long id : page.ids) {
+                statement.setLong(1, id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * Recorded changes, in the order they were made.
+     */
+    public static class Page {
+        private final List<Long> ids = new ArrayList<>();
+        private final Map<UUID, Boolean> changes = new LinkedHashMap<>();
+
+        /**
+         * @return true if there are no changes
+         */
+        public boolean isEmpty() {
+            return ids.isEmpty();
+        }
+
+        /**
+         * @return the UUIDs of the changed items, with true for the deleted ones
+         */
+        public Map<UUID, Boolean> getChanges() {
+            return changes;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.app;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+
+import com.lyncode.xoai.dataprovider.services.api.ResourceResolver;
+import com.lyncode.xoai.util.XSLPipeline;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dspace.app.util.XMLUtils;
+import org.dspace.services.ConfigurationService;
+import org.dspace.xoai.services.impl.context.DSpaceXOAIManagerResolver;
+import org.dspace.xoai.services.impl.resources.DSpaceResourceResolver;
+import org.dspace.xoai.services.impl.resources.PrecompiledRecords;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Crosswalks the compiled metadata of items to the metadata formats listed in "oai.precompile.formats" when they
+ * are indexed, so that GetRecord and ListRecords requests serve the stored records instead of running the
+ * stylesheets of the context transformer and of the format for every record of every request.
+ * <p>
+ * A record is precompiled for each context of xoai.xml which has one of the formats, and stored in the
+ * "item.format.&lt;context&gt;.&lt;prefix&gt;" field of the Solr document of the item (see
+ * {@link PrecompiledRecords}). The stylesheets are compiled once, and shared by the threads of the import. As the
+ * records are only updated when the items are indexed again, a full import ("oai import -c") is needed once the
+ * formats, the contexts or their stylesheets are changed.
+ */
+public class OAIRecordPrecompiler {
+
+    private static final Logger log = LogManager.getLogger(OAIRecordPrecompiler.class);
+
+    private final ResourceResolver resourceResolver;
+
+    private final Map<String, Templates> templates = new ConcurrentHashMap<>();
+
+    // Stylesheets (context transformer, if any, and format) of each precompiled field
+    private final Map<String, List<String>> pipelines = new LinkedHashMap<>();
+
+    public OAIRecordPrecompiler(ConfigurationService configurationService) throws IOException {
+        this(configurationService, new DSpaceResourceResolver());
+    }
+
+    public OAIRecordPrecompiler(ConfigurationService configurationService, ResourceResolver resourceResolver)
+        throws IOException {
+        this.resourceResolver = resourceResolver;
+        String[] prefixes = configurationService.getArrayProperty("oai.precompile.formats");
+        try (InputStream in = resourceResolver.getResource(DSpaceXOAIManagerResolver.XOAI_CONFIGURATION_FILE)) {
+            Element configuration = XMLUtils.getDocumentBuilder().parse(in).getDocumentElement();
+            readPipelines(configuration, prefixes);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unable to read " + DSpaceXOAIManagerResolver.XOAI_CONFIGURATION_FILE, e);
+        }
+    }
+
+    /**
+     * @param configurationService the DSpace configuration
+     * @return true if formats are precompiled
+     */
+    public static boolean isEnabled(ConfigurationService configurationService) {
+        return configurationService.getArrayProperty("oai.precompile.formats").length > 0;
+    }
+
+    /**
+     * Crosswalk the compiled metadata of an item to the precompiled formats. A record which could not be
+     * crosswalked is left out, and will be transformed when it is requested.
+     *
+     * @param handle   the handle of the item, for logging
+     * @param compiled the compiled metadata of the item ("item.compile")
+     * @return the records, by Solr field name
+     */
+    public Map<String, String> precompile(String handle, String compiled) {
+        Map<String, String> records = new HashMap<>();
+        byte[] input = compiled.getBytes(StandardCharsets.UTF_8);
+        for (Map.Entry<String, List<String>> pipeline : pipelines.entrySet()) {
+            try {
+                XSLPipeline xslPipeline = new XSLPipeline(new ByteArrayInputStream(input), true);
+                for (String path : pipeline.getValue()) {
+                    xslPipeline = xslPipeline.apply(getTemplates(path));
+                }
+                try (InputStream transformed = xslPipeline.getTransformed()) {
+                    records.put(pipeline.getKey(), IOUtils.toString(transformed, StandardCharsets.UTF_8));
+                }
+            } catch (Exception e) {
+                log.warn("Unable to precompile {} for item {}", pipeline.getKey(), handle, e);
+            }
+        }
+        return records;
+    }
+
+    private Templates getTemplates(String path) throws IOException, TransformerConfigurationException {
+        Templates compiled = templates.get(path);
+        if (compiled == null) {
+            // Templates are thread safe, compiling them twice in concurrent threads is harmless
+            compiled = resourceResolver.getTemplates(path);
+            templates.put(path, compiled);
+        }
+        return compiled;
+    }
+
+    private void readPipelines(Element configuration, String[] prefixes) {
+        Map<String, String> formatPrefixes = new HashMap<>();
+        Map<String, String> formatStylesheets = new HashMap<>();
+        for (Element format : getChildren(getChild(configuration, "Formats"), "Format")) {
+            String prefix = getText(format, "Prefix");
+            if (ArrayUtils.contains(prefixes, prefix)) {
+                formatPrefixes.put(format.getAttribute("id"), prefix);
+                formatStylesheets.put(format.getAttribute("id"), getText(format, "XSLT"));
+            }
+        }
+        Map<String, String> transformerStylesheets = new HashMap<>();
+        for (Element transformer : getChildren(getChild(configuration, "Transformers"), "Transformer")) {
+            transformerStylesheets.put(transformer.getAttribute("id"), getText(transformer, "XSLT"));
+        }
+
+        for (Element context : getChildren(getChild(configuration, "Contexts"), "Context")) {
+            Element transformer = getChild(context, "Transformer");
+            for (Element format : getChildren(context, "Format")) {
+                String id = format.getAttribute("ref");
+                if (formatPrefixes.containsKey(id)) {
+                    List<String> stylesheets = new ArrayList<>();
+                    if (transformer != null) {
+                        stylesheets.add(transformerStylesheets.get(transformer.getAttribute("ref")));
+                    }
+                    stylesheets.add(formatStylesheets.get(id));
+                    pipelines.put(PrecompiledRecords.getFieldName(context.getAttribute("baseurl"),
+                                                                  formatPrefixes.get(id)), stylesheets);
+                }
+            }
+        }
+        log.info("Precompiling the OAI records {}", pipelines.keySet());
+    }
+
+    private static Element getChild(Element parent, String name) {
+        List<Element> children = getChildren(parent, name);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    private static List<Element> getChildren(Element parent, String name) {
+        List<Element> children = new ArrayList<>();
+        if (parent != null) {
+            for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node.getNodeType() == Node.ELEMENT_NODE && name.equals(node.getNodeName())) {
+                    children.add((Element) node);
+                }
+            }
+        }
+        return children;
+    }
+
+    private static String getText(Element parent, String name) {
+        Element child = getChild(parent, name);
+        return child == null ? null : StringUtils.trim(child.getTextContent());
+    }
+}
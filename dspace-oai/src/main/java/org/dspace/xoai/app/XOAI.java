@@ -27,7 +27,17 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.stream.XMLStreamException;
 
 import com.lyncode.xoai.dataprovider.exceptions.ConfigurationException;
@@ -38,6 +48,7 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrClient;
@@ -89,6 +100,13 @@ public class XOAI {
     private final Context context;
     private final boolean verbose;
     private boolean clean;
+    private int threads = configurationService.getIntProperty("oai.import.threads", 1);
+
+    // true while the index is known to be empty, so that items need not be looked up in it
+    private volatile boolean emptyIndex = false;
+
+    // crosswalks the items to the formats of "oai.precompile.formats", if any
+    private OAIRecordPrecompiler precompiler;
 
     @Autowired
     private SolrServerResolver solrServerResolver;
@@ -107,7 +125,7 @@ public class XOAI {
 
     private List<XOAIExtensionItemCompilePlugin> extensionPlugins;
 
-    private List<String> getFileFormats(Item item) {
+    private List<String> getFileFormats(Context context, Item item) {
         List<String> formats = new ArrayList<>();
         try {
             for (Bundle b : itemService.getBundles(item, "ORIGINAL")) {
@@ -150,14 +168,26 @@ public class XOAI {
         System.out.println(line);
     }
 
+    /**
+     * @param threads the number of threads compiling items, overriding "oai.import.threads"
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     public int index() throws DSpaceSolrIndexerException {
         int result = 0;
         try {
+            if (OAIRecordPrecompiler.isEnabled(configurationService)) {
+                precompiler = new OAIRecordPrecompiler(configurationService);
+            }
 
             if (clean) {
                 clearIndex();
                 System.out.println("Using full import.");
+                emptyIndex = true;
                 result = this.indexAll();
+                emptyIndex = false;
             } else {
                 SolrQuery solrParams = new SolrQuery("*:*").addField("item.lastmodified")
                         .addSort("item.lastmodified", ORDER.desc).setRows(1);
@@ -165,7 +195,11 @@ public class XOAI {
                 SolrDocumentList results = DSpaceSolrSearch.query(solrServerResolver.getServer(), solrParams);
                 if (results.getNumFound() == 0) {
                     System.out.println("There are no indexed documents, using full import.");
+                    emptyIndex = true;
                     result = this.indexAll();
+                    emptyIndex = false;
+                } else if (OAIChangeFeed.isEnabled(configurationService)) {
+                    result = this.indexChanges(new OAIChangeFeed());
                 } else {
                     result = this.index(((java.util.Date) results.get(0).getFieldValue("item.lastmodified"))
                                             .toInstant());
@@ -201,6 +235,100 @@ public class XOAI {
         }
     }
 
+    /**
+     * Index the items recorded in the change feed since the last import, one page
+     * of changes at a time. The changes of a page are removed from the feed once
+     * its documents are committed, so that an interrupted import resumes where it
+     * stopped. Items which no longer exist are flagged as deleted in the index.
+     * Items viable to change visibility due to an embargo are indexed as well.
+     *
+     * @param changeFeed the items changed since the last import
+     * @return the number of indexed items
+     */
+    private int indexChanges(OAIChangeFeed changeFeed) throws DSpaceSolrIndexerException, IOException {
+        System.out.println("Incremental import of the items changed since the last import.");
+        try {
+            Instant start = Instant.now();
+            long lastId = changeFeed.getLastId();
+            int batchSize = configurationService.getIntProperty("oai.import.batch.size", 1000);
+            SolrClient server = solrServerResolver.getServer();
+            int total = 0;
+            OAIChangeFeed.Page page = changeFeed.read(lastId, batchSize);
+            while (!page.isEmpty()) {
+                List<UUID> deleted = new ArrayList<>();
+                List<UUID> changed = new ArrayList<>();
+                for (Map.Entry<UUID, Boolean> change : page.getChanges().entrySet()) {
+                    if (change.getValue()) {
+                        deleted.add(change.getKey());
+                    } else {
+                        changed.add(change.getKey());
+                    }
+                }
+                List<Item> items = new ArrayList<>();
+                for (Item item : itemService.findByIds(context, changed)) {
+                    changed.remove(item.getID());
+                    // Workspace and workflow items are not disseminated
+                    if (item.isArchived() || item.isWithdrawn()) {
+                        items.add(item);
+                    } else {
+                        context.uncacheEntity(item);
+                    }
+                }
+                // Items which no longer exist, even if their deletion was not recorded
+                deleted.addAll(changed);
+                total += markDeleted(deleted);
+                total += this.index(items.iterator(), true);
+                server.commit();
+                changeFeed.remove(page);
+                page = changeFeed.read(lastId, batchSize);
+            }
+            Iterator<Item> possiblyChangedItems = getItemsWithPossibleChangesBefore(start);
+            return total + this.index(possiblyChangedItems, false);
+        } catch (SQLException | SolrServerException ex) {
+            throw new DSpaceSolrIndexerException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Flag the documents of deleted items as deleted, so that harvesters are
+     * notified of the deletion. The rest of the document is kept as it was.
+     *
+     * @param itemIds the UUIDs of the deleted items
+     * @return the number of flagged documents
+     */
+    private int markDeleted(List<UUID> itemIds) throws SolrServerException, IOException {
+        SolrClient server = solrServerResolver.getServer();
+        int count = 0;
+        String lastModified = SolrUtils.getDateFormatter().format(Instant.now());
+        // Keep the queries below the maximum number of boolean clauses
+        for (int from = 0; from < itemIds.size(); from += 100) {
+            List<UUID> ids = itemIds.subList(from, Math.min(from + 100, itemIds.size()));
+            SolrQuery params = new SolrQuery("item.id:(" + StringUtils.join(ids, " OR ") + ")")
+                    .setRows(ids.size());
+            List<SolrInputDocument> documents = new ArrayList<>();
+            for (SolrDocument document : server.query(params).getResults()) {
+                SolrInputDocument input = new SolrInputDocument();
+                for (String name : document.getFieldNames()) {
+                    if (!"_version_".equals(name)) {
+                        input.setField(name, document.getFieldValues(name));
+                    }
+                }
+                input.setField("item.deleted", true);
+                input.setField("item.lastmodified", lastModified);
+                documents.add(input);
+                if (verbose) {
+                    println(String.format("Item %s with handle %s flagged as deleted",
+                                          document.getFieldValue("item.id"), document.getFieldValue("item.handle")));
+                }
+            }
+            if (!documents.isEmpty()) {
+                server.add(documents);
+                count += documents.size();
+            }
+        }
+        return count;
+    }
+
     /**
      * Get all items already in the index which are viable to change visibility due
      * to an embargo. Only consider those which haven't been modified anyways since
@@ -273,43 +401,35 @@ public class XOAI {
     }
 
     /**
-     * Check if an item is already indexed. Using this, it is possible to check if
-     * withdrawn or nondiscoverable items have to be indexed at all.
+     * Check if an item is already indexed and flagged visible. Using this, it is
+     * possible to check if withdrawn or nondiscoverable items have to be indexed
+     * at all.
      *
      * @param item Item that should be checked for its presence in the index.
-     * @return has it been indexed?
+     * @return whether the item is flagged visible, or null if it has not been
+     *         indexed
      */
-    private boolean checkIfIndexed(Item item) throws IOException {
-        SolrQuery params = new SolrQuery("item.id:" + item.getID().toString()).addField("item.id");
-        try {
-            SolrDocumentList documents = DSpaceSolrSearch.query(solrServerResolver.getServer(), params);
-            return documents.getNumFound() == 1;
-        } catch (DSpaceSolrException | SolrServerException e) {
-            return false;
+    private Boolean getIndexedVisibility(Item item) throws IOException {
+        if (emptyIndex) {
+            return null;
         }
-    }
-
-    /**
-     * Check if an item is flagged visible in the index.
-     *
-     * @param item Item that should be checked for its presence in the index.
-     * @return has it been indexed?
-     */
-    private boolean checkIfVisibleInOAI(Item item) throws IOException {
         SolrQuery params = new SolrQuery("item.id:" + item.getID().toString()).addField("item.public");
         try {
             SolrDocumentList documents = DSpaceSolrSearch.query(solrServerResolver.getServer(), params);
             if (documents.getNumFound() == 1) {
                 return (boolean) documents.get(0).getFieldValue("item.public");
             } else {
-                return false;
+                return null;
             }
         } catch (DSpaceSolrException | SolrServerException e) {
-            return false;
+            return null;
         }
     }
 
     private int index(Iterator<Item> iterator, boolean uncacheEntities) throws DSpaceSolrIndexerException {
+        if (threads > 1) {
+            return indexConcurrently(iterator);
+        }
         try {
             int i = 0;
             int batchSize = configurationService.getIntProperty("oai.import.batch.size", 1000);
@@ -321,7 +441,7 @@ public class XOAI {
                     if (item.getHandle() == null) {
                         log.warn("Skipped item without handle: " + item.getID());
                     } else {
-                        list.add(this.index(item));
+                        list.add(this.index(context, item));
                     }
                     // Uncache the item to keep memory consumption low
                     context.uncacheEntity(item);
@@ -361,16 +481,123 @@ public class XOAI {
         }
     }
 
+    /**
+     * Index items with several threads. The items are found on the calling
+     * thread and queued by UUID. Each worker compiles the documents of the
+     * items in its own Context, and adds them to Solr once every
+     * "oai.import.batch.size" documents, without committing. The documents are
+     * committed once all the items are indexed.
+     *
+     * @param iterator the items to index
+     * @return the number of items
+     */
+    private int indexConcurrently(Iterator<Item> iterator) throws DSpaceSolrIndexerException {
+        int batchSize = configurationService.getIntProperty("oai.import.batch.size", 1000);
+        BlockingQueue<UUID> queue = new ArrayBlockingQueue<>(threads * 100);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> compileItems(queue, closed, count, batchSize)));
+        }
+        executor.shutdown();
+        try {
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                UUID itemId = item.getID();
+                // Uncache the item to keep memory consumption low, the workers find it again
+                context.uncacheEntity(item);
+                while (!queue.offer(itemId, 1, TimeUnit.SECONDS)) {
+                    if (executor.isTerminated()) {
+                        throw new DSpaceSolrIndexerException("All OAI import workers have stopped");
+                    }
+                }
+            }
+            closed.set(true);
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+            System.out.println("Total: " + count.get() + " items");
+            if (count.get() > 0) {
+                solrServerResolver.getServer().commit(true, true);
+            }
+            return count.get();
+        } catch (ExecutionException ex) {
+            throw new DSpaceSolrIndexerException(ex.getCause().getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DSpaceSolrIndexerException(ex.getMessage(), ex);
+        } catch (SQLException | SolrServerException | IOException ex) {
+            throw new DSpaceSolrIndexerException(ex.getMessage(), ex);
+        } finally {
+            closed.set(true);
+            if (!executor.isTerminated()) {
+                queue.clear();
+            }
+        }
+    }
+
+    /**
+     * Compile the documents of the queued items until the queue is closed and
+     * empty, in a Context of the calling thread.
+     */
+    private Void compileItems(BlockingQueue<UUID> queue, AtomicBoolean closed, AtomicInteger count,
+                              int batchSize) throws Exception {
+        Context workerContext = new Context(Context.Mode.READ_ONLY);
+        try {
+            SolrClient server = solrServerResolver.getServer();
+            List<SolrInputDocument> list = new ArrayList<>();
+            while (true) {
+                UUID itemId = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (itemId == null) {
+                    if (closed.get() && queue.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                try {
+                    Item item = itemService.find(workerContext, itemId);
+                    if (item == null) {
+                        log.warn("Skipped item which no longer exists: " + itemId);
+                    } else if (item.getHandle() == null) {
+                        log.warn("Skipped item without handle: " + item.getID());
+                    } else {
+                        list.add(this.index(workerContext, item));
+                    }
+                } catch (SQLException | IOException | XMLStreamException | WritingXmlException ex) {
+                    log.error(ex.getMessage(), ex);
+                }
+                int i = count.incrementAndGet();
+                if (i % 1000 == 0) {
+                    System.out.println(i + " items imported so far...");
+                }
+                if (list.size() >= batchSize) {
+                    server.add(list);
+                    list.clear();
+                    workerContext.uncacheEntities();
+                }
+            }
+            if (!list.isEmpty()) {
+                server.add(list);
+            }
+            return null;
+        } finally {
+            workerContext.abort();
+        }
+    }
+
     /**
      * Method to get the most recent date on which the item changed concerning the
      * OAI deleted status (policy start and end dates for all anonymous READ
      * policies and the standard last modification date)
      *
+     * @param context DSpace context
      * @param item Item
      * @return date
      * @throws SQLException
      */
-    private Instant getMostRecentModificationDate(Item item) throws SQLException {
+    private Instant getMostRecentModificationDate(Context context, Item item) throws SQLException {
         List<Instant> dates = new LinkedList<>();
         List<ResourcePolicy> policies = authorizeService.getPoliciesActionFilter(context, item, Constants.READ);
         for (ResourcePolicy policy : policies) {
@@ -396,7 +623,7 @@ public class XOAI {
         return lastChange;
     }
 
-    private SolrInputDocument index(Item item)
+    private SolrInputDocument index(Context context, Item item)
             throws SQLException, IOException, XMLStreamException, WritingXmlException {
         SolrInputDocument doc = new SolrInputDocument();
         doc.addField("item.id", item.getID().toString());
@@ -404,9 +631,10 @@ public class XOAI {
         String handle = item.getHandle();
         doc.addField("item.handle", handle);
 
-        boolean isEmbargoed = !this.isPublic(item);
-        boolean isCurrentlyVisible = this.checkIfVisibleInOAI(item);
-        boolean isIndexed = this.checkIfIndexed(item);
+        boolean isEmbargoed = !this.isPublic(context, item);
+        Boolean indexedVisibility = this.getIndexedVisibility(item);
+        boolean isCurrentlyVisible = Boolean.TRUE.equals(indexedVisibility);
+        boolean isIndexed = indexedVisibility != null;
 
         /*
          * If the item is not under embargo, it should be visible. If it is, make it
@@ -427,7 +655,7 @@ public class XOAI {
         // if the visibility of the item will change in the future due to an
         // embargo, mark it as such.
 
-        doc.addField("item.willChangeStatus", willChangeStatus(item));
+        doc.addField("item.willChangeStatus", willChangeStatus(context, item));
 
         /*
          * Mark an item as deleted not only if it is withdrawn, but also if it is made
@@ -448,7 +676,7 @@ public class XOAI {
          * date and take the most recent of those which have already passed.
          */
         doc.addField("item.lastmodified",
-                SolrUtils.getDateFormatter().format(this.getMostRecentModificationDate(item)));
+                SolrUtils.getDateFormatter().format(this.getMostRecentModificationDate(context, item)));
 
         if (item.getSubmitter() != null) {
             doc.addField("item.submitter", item.getSubmitter().getEmail());
@@ -485,7 +713,7 @@ public class XOAI {
             }
         }
 
-        for (String f : getFileFormats(item)) {
+        for (String f : getFileFormats(context, item)) {
             doc.addField("metadata.dc.format.mimetype", f);
         }
 
@@ -506,7 +734,15 @@ public class XOAI {
         metadata.write(xmlContext);
         xmlContext.getWriter().flush();
         xmlContext.getWriter().close();
-        doc.addField("item.compile", out.toString());
+        String compiled = out.toString();
+        doc.addField("item.compile", compiled);
+
+        // Deleted items are served without metadata
+        if (precompiler != null && !Boolean.TRUE.equals(doc.getFieldValue("item.deleted"))) {
+            for (Map.Entry<String, String> record : precompiler.precompile(handle, compiled).entrySet()) {
+                doc.addField(record.getKey(), record.getValue());
+            }
+        }
 
         if (verbose) {
             println(String.format("Item %s with handle %s indexed", item.getID().toString(), handle));
@@ -515,7 +751,7 @@ public class XOAI {
         return doc;
     }
 
-    private boolean willChangeStatus(Item item) throws SQLException {
+    private boolean willChangeStatus(Context context, Item item) throws SQLException {
         List<ResourcePolicy> policies = authorizeService.getPoliciesActionFilter(context, item, Constants.READ);
         for (ResourcePolicy policy : policies) {
             if ((policy.getGroup() != null) && (policy.getGroup().getName().equals("Anonymous"))) {
@@ -531,7 +767,7 @@ public class XOAI {
         return false;
     }
 
-    private boolean isPublic(Item item) {
+    private boolean isPublic(Context context, Item item) {
         boolean pub = false;
         try {
             // Check if READ access allowed on this Item
@@ -602,6 +838,7 @@ public class XOAI {
             options.addOption("v", "verbose", false, "Verbose output");
             options.addOption("h", "help", false, "Shows some help");
             options.addOption("n", "number", true, "FOR DEVELOPMENT MUST DELETE");
+            options.addOption("t", "threads", true, "Number of threads compiling items");
             CommandLine line = parser.parse(options, argv);
 
             String[] validSolrCommands = { COMMAND_IMPORT, COMMAND_CLEAN_CACHE };
@@ -633,6 +870,9 @@ public class XOAI {
                 if (COMMAND_IMPORT.equals(command)) {
                     ctx = new Context(Context.Mode.READ_ONLY);
                     XOAI indexer = new XOAI(ctx, line.hasOption('c'), line.hasOption('v'));
+                    if (line.hasOption('t')) {
+                        indexer.setThreads(Integer.parseInt(line.getOptionValue('t')));
+                    }
 
                     applicationContext.getAutowireCapableBeanFactory().autowireBean(indexer);
 
@@ -719,6 +959,7 @@ public class XOAI {
             System.out.println("     " + COMMAND_CLEAN_CACHE + " - Cleans the OAI cached responses");
             System.out.println("> Parameters:");
             System.out.println("     -c Clear index (" + COMMAND_IMPORT + " only)");
+            System.out.println("     -t <threads> Number of threads compiling items (" + COMMAND_IMPORT + " only)");
             System.out.println("     -v Verbose output");
             System.out.println("     -h Shows this text");
         } else {
@@ -31,6 +31,7 @@ import javax.xml.transform.stream.StreamSource;
 import com.lyncode.xoai.dataprovider.OAIDataProvider;
 import com.lyncode.xoai.dataprovider.OAIRequestParameters;
 import com.lyncode.xoai.dataprovider.core.XOAIManager;
+import com.lyncode.xoai.dataprovider.exceptions.BadResumptionToken;
 import com.lyncode.xoai.dataprovider.exceptions.InvalidContextException;
 import com.lyncode.xoai.dataprovider.exceptions.OAIException;
 import com.lyncode.xoai.dataprovider.exceptions.WritingXmlException;
@@ -50,6 +51,7 @@ import org.dspace.xoai.services.api.context.ContextServiceException;
 import org.dspace.xoai.services.api.xoai.IdentifyResolver;
 import org.dspace.xoai.services.api.xoai.ItemRepositoryResolver;
 import org.dspace.xoai.services.api.xoai.SetRepositoryResolver;
+import org.dspace.xoai.services.impl.resources.PrecompiledRecords;
 import org.dspace.xoai.services.impl.xoai.DSpaceResumptionTokenFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -175,6 +177,7 @@ public class DSpaceOAIDataProvider {
             response.setCharacterEncoding("UTF-8");
 
             String identification = xoaiContext + parameters.requestID();
+            PrecompiledRecords.start(xoaiContext, getMetadataPrefix(request));
 
             if (cacheService.isActive()) {
                 if (!cacheService.hasCache(identification)) {
@@ -228,12 +231,26 @@ public class DSpaceOAIDataProvider {
             response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                                "Unexpected error while writing the output. For more information visit the log files.");
         } finally {
+            PrecompiledRecords.end();
             closeContext(context);
         }
 
         return null; // response without content
     }
 
+    private String getMetadataPrefix(HttpServletRequest request) {
+        String resumptionToken = request.getParameter("resumptionToken");
+        if (resumptionToken != null) {
+            try {
+                return resumptionTokenFormat.parse(resumptionToken).getMetadataPrefix();
+            } catch (BadResumptionToken e) {
+                // The data provider answers with the error
+                return null;
+            }
+        }
+        return request.getParameter("metadataPrefix");
+    }
+
     private void closeContext(Context context) {
         if (context != null && context.isValid()) {
             context.abort();
@@ -10,13 +10,16 @@ package org.dspace.xoai.data;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.lyncode.xoai.dataprovider.core.ItemMetadata;
 import com.lyncode.xoai.dataprovider.core.ReferenceSet;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.common.SolrDocument;
+import org.dspace.xoai.services.impl.resources.PrecompiledRecords;
 
 /**
  * @author Lyncode Development Team (dspace at lyncode dot com)
@@ -31,6 +34,8 @@ public class DSpaceSolrItem extends DSpaceItem {
     private final Instant lastMod;
     private final List<ReferenceSet> sets;
     private final boolean deleted;
+    // records crosswalked when the item was indexed, by Solr field name
+    private final Map<String, String> precompiledRecords = new HashMap<>();
 
     public DSpaceSolrItem(SolrDocument doc) {
         log.debug("Creating OAI Item from Solr source");
@@ -56,10 +61,19 @@ public class DSpaceSolrItem extends DSpaceItem {
         }
 
         deleted = (Boolean) doc.getFieldValue("item.deleted");
+
+        for (String field : doc.getFieldNames()) {
+            if (field.startsWith(PrecompiledRecords.FIELD_PREFIX)) {
+                precompiledRecords.put(field, (String) doc.getFieldValue(field));
+            }
+        }
     }
 
     @Override
     public ItemMetadata getMetadata() {
+        // The metadata is read right before it is crosswalked
+        String fieldName = PrecompiledRecords.getFieldName();
+        PrecompiledRecords.setCurrentRecord(fieldName == null ? null : precompiledRecords.get(fieldName));
         if (metadata == null) {
             metadata = new ItemMetadata(unparsedMD);
         }
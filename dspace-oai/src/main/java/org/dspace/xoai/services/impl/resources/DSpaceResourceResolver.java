@@ -25,6 +25,7 @@ import org.dspace.services.factory.DSpaceServicesFactory;
 public class DSpaceResourceResolver implements ResourceResolver {
     private final String basePath;
     private final String crosswalksPath;
+    private final boolean precompiled;
 
     public DSpaceResourceResolver() {
         ConfigurationService configurationService
@@ -37,6 +38,8 @@ public class DSpaceResourceResolver implements ResourceResolver {
             + "config"
             + File.separator
             + "crosswalks";
+        // serve the records crosswalked when the items were indexed, if any
+        precompiled = configurationService.getArrayProperty("oai.precompile.formats").length > 0;
     }
 
     @Override
@@ -60,6 +63,7 @@ public class DSpaceResourceResolver implements ResourceResolver {
             XMLUtils.getTrustedTransformerFactory("net.sf.saxon.TransformerFactoryImpl",
                                                   new String[] {basePath, crosswalksPath});
 
-        return transformerFactory.newTemplates(mySrc);
+        Templates templates = transformerFactory.newTemplates(mySrc);
+        return precompiled ? new PrecompiledTemplates(templates) : templates;
     }
 }
@@ -0,0 +1,114 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.services.impl.resources;
+
+/**
+ * Records of the OAI-PMH request handled by the current thread which were crosswalked when the items were indexed
+ * (see {@link org.dspace.xoai.app.OAIRecordPrecompiler}).
+ * <p>
+ * The controller starts the request with its context and metadata prefix. When the XOAI library reads the metadata
+ * of an item, {@link org.dspace.xoai.data.DSpaceSolrItem} makes its precompiled record for this context and prefix
+ * the current record. The first {@link PrecompiledTemplates} transformer run afterwards, the one of the context
+ * transformer or of the metadata format, takes the record and writes it instead of transforming the metadata. The
+ * following stylesheets of the pipeline of the item copy it, as their source is the written record. Taking the
+ * record ensures that it is written for one item only, even if the metadata of another item is transformed without
+ * being read again.
+ */
+public final class PrecompiledRecords {
+
+    /**
+     * Prefix of the Solr fields holding the precompiled records, followed by the context and the metadata prefix
+     */
+    public static final String FIELD_PREFIX = "item.format.";
+
+    private static final ThreadLocal<String> fieldName = new ThreadLocal<>();
+
+    private static final ThreadLocal<String> currentRecord = new ThreadLocal<>();
+
+    private static final ThreadLocal<String> writtenRecord = new ThreadLocal<>();
+
+    private PrecompiledRecords() { }
+
+    /**
+     * @param context        the base URL of the XOAI context
+     * @param metadataPrefix the metadata prefix
+     * @return the name of the Solr field holding the records of the context in the format
+     */
+    public static String getFieldName(String context, String metadataPrefix) {
+        return FIELD_PREFIX + context + "." + metadataPrefix;
+    }
+
+    /**
+     * Start an OAI-PMH request in the current thread.
+     *
+     * @param context        the base URL of the XOAI context
+     * @param metadataPrefix the requested metadata prefix, or null if the request has none
+     */
+    public static void start(String context, String metadataPrefix) {
+        fieldName.set(metadataPrefix == null ? null : getFieldName(context, metadataPrefix));
+        currentRecord.remove();
+        writtenRecord.remove();
+    }
+
+    /**
+     * End the OAI-PMH request of the current thread.
+     */
+    public static void end() {
+        fieldName.remove();
+        currentRecord.remove();
+        writtenRecord.remove();
+    }
+
+    /**
+     * @return the name of the Solr field holding the records of the current request, or null if there is no request
+     */
+    public static String getFieldName() {
+        return fieldName.get();
+    }
+
+    /**
+     * @param record the precompiled record of the item whose metadata is read, or null if it has none
+     */
+    public static void setCurrentRecord(String record) {
+        writtenRecord.remove();
+        if (record == null) {
+            currentRecord.remove();
+        } else {
+            currentRecord.set(record);
+        }
+    }
+
+    /**
+     * Take the precompiled record of the item being transformed, which is then the written record.
+     *
+     * @return the record to write instead of transforming the metadata, or null if it must be transformed
+     */
+    public static String takeCurrentRecord() {
+        String record = currentRecord.get();
+        if (record != null) {
+            currentRecord.remove();
+            writtenRecord.set(record);
+        }
+        return record;
+    }
+
+    /**
+     * @return the last record written instead of transforming the metadata of an item, which the following
+     * stylesheets of its pipeline copy, or null
+     */
+    public static String getWrittenRecord() {
+        return writtenRecord.get();
+    }
+
+    /**
+     * Forget the written record, once a stylesheet transformed a source which is not the record.
+     */
+    public static void clearWrittenRecord() {
+        writtenRecord.remove();
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.services.impl.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+import javax.xml.transform.ErrorListener;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+import org.dspace.app.util.XMLUtils;
+
+/**
+ * Stylesheet of a metadata format or a context transformer, whose transformers write the current
+ * {@link PrecompiledRecords precompiled record} instead of transforming their source when there is one, and copy
+ * the record written by the previous stylesheet of the pipeline of the item.
+ */
+public class PrecompiledTemplates implements Templates {
+
+    private final Templates templates;
+
+    public PrecompiledTemplates(Templates templates) {
+        this.templates = templates;
+    }
+
+    @Override
+    public Transformer newTransformer() throws TransformerConfigurationException {
+        return new PrecompiledTransformer(templates.newTransformer());
+    }
+
+    @Override
+    public Properties getOutputProperties() {
+        return templates.getOutputProperties();
+    }
+
+    private static class PrecompiledTransformer extends Transformer {
+
+        private final Transformer transformer;
+
+        private PrecompiledTransformer(Transformer transformer) {
+            this.transformer = transformer;
+        }
+
+        @Override
+        public void transform(Source xmlSource, Result outputTarget) throws TransformerException {
+            String record = PrecompiledRecords.takeCurrentRecord();
+            if (record != null) {
+                write(record, outputTarget);
+                return;
+            }
+            String writtenRecord = PrecompiledRecords.getWrittenRecord();
+            if (writtenRecord != null) {
+                byte[] source = read(xmlSource);
+                if (source != null && Arrays.equals(source, writtenRecord.getBytes(StandardCharsets.UTF_8))) {
+                    // A following stylesheet of the pipeline of the item whose record was written
+                    write(writtenRecord, outputTarget);
+                    return;
+                }
+                PrecompiledRecords.clearWrittenRecord();
+                if (source != null) {
+                    StreamSource bufferedSource = new StreamSource(new ByteArrayInputStream(source));
+                    bufferedSource.setSystemId(xmlSource.getSystemId());
+                    xmlSource = bufferedSource;
+                }
+            }
+            transformer.transform(xmlSource, outputTarget);
+        }
+
+        /**
+         * @return the content of a stream source, or null for other kinds of sources
+         */
+        private byte[] read(Source xmlSource) throws TransformerException {
+            if (!(xmlSource instanceof StreamSource)) {
+                return null;
+            }
+            StreamSource streamSource = (StreamSource) xmlSource;
+            try {
+                if (streamSource.getInputStream() != null) {
+                    return IOUtils.toByteArray(streamSource.getInputStream());
+                } else if (streamSource.getReader() != null) {
+                    return IOUtils.toString(streamSource.getReader()).getBytes(StandardCharsets.UTF_8);
+                }
+                return null;
+            } catch (IOException e) {
+                throw new TransformerException(e);
+            }
+        }
+
+        private void write(String record, Result outputTarget) throws TransformerException {
+            StreamResult streamResult = outputTarget instanceof StreamResult ? (StreamResult) outputTarget : null;
+            if (streamResult != null && streamResult.getOutputStream() != null) {
+                try {
+                    streamResult.getOutputStream().write(record.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new TransformerException(e);
+                }
+            } else if (streamResult != null && streamResult.getWriter() != null) {
+                try {
+                    streamResult.getWriter().write(record);
+                } catch (IOException e) {
+                    throw new TransformerException(e);
+                }
+            } else {
+                // Copy the record to other kinds of results
+                XMLUtils.getTransformerFactory().newTransformer()
+                        .transform(new StreamSource(new StringReader(record)), outputTarget);
+            }
+        }
+
+        @Override
+        public void setParameter(String name, Object value) {
+            transformer.setParameter(name, value);
+        }
+
+        @Override
+        public Object getParameter(String name) {
+            return transformer.getParameter(name);
+        }
+
+        @Override
+        public void clearParameters() {
+            transformer.clearParameters();
+        }
+
+        @Override
+        public void setURIResolver(URIResolver resolver) {
+            transformer.setURIResolver(resolver);
+        }
+
+        @Override
+        public URIResolver getURIResolver() {
+            return transformer.getURIResolver();
+        }
+
+        @Override
+        public void setOutputProperties(Properties oformat) {
+            transformer.setOutputProperties(oformat);
+        }
+
+        @Override
+        public Properties getOutputProperties() {
+            return transformer.getOutputProperties();
+        }
+
+        @Override
+        public void setOutputProperty(String name, String value) {
+            transformer.setOutputProperty(name, value);
+        }
+
+        @Override
+        public String getOutputProperty(String name) {
+            return transformer.getOutputProperty(name);
+        }
+
+        @Override
+        public void setErrorListener(ErrorListener listener) {
+            transformer.setErrorListener(listener);
+        }
+
+        @Override
+        public ErrorListener getErrorListener() {
+            return transformer.getErrorListener();
+        }
+
+        @Override
+        public void reset() {
+            transformer.reset();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.tests.unit.services.impl.resources;
+
+import static org.dspace.xoai.tests.support.XmlMatcherBuilder.xml;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import javax.xml.transform.Templates;
+import javax.xml.transform.stream.StreamSource;
+
+import com.lyncode.xoai.util.XSLPipeline;
+import org.apache.commons.io.IOUtils;
+import org.dspace.app.util.XMLUtils;
+import org.dspace.xoai.services.impl.resources.PrecompiledRecords;
+import org.dspace.xoai.services.impl.resources.PrecompiledTemplates;
+import org.dspace.xoai.tests.support.XmlMatcherBuilder;
+import org.junit.After;
+import org.junit.Test;
+
+public class PrecompiledTemplatesTest {
+
+    private static final String RECORD = "<oai_dc:dc xmlns:oai_dc=\"http://www.openarchives.org/OAI/2.0/oai_dc/\" "
+        + "xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>Precompiled</dc:title></oai_dc:dc>";
+
+    // Stylesheet following the oai_dc one in pipelines, replacing the title
+    private static final String RETITLE = "<xsl:stylesheet version=\"1.0\" "
+        + "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" "
+        + "xmlns:oai_dc=\"http://www.openarchives.org/OAI/2.0/oai_dc/\" "
+        + "xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><xsl:template match=\"/\">"
+        + "<oai_dc:dc><dc:title>Transformed</dc:title></oai_dc:dc></xsl:template></xsl:stylesheet>";
+
+    @After
+    public void tearDown() {
+        PrecompiledRecords.end();
+    }
+
+    @Test
+    public void transformsWithoutPrecompiledRecord() throws Exception {
+        PrecompiledRecords.start("request", "oai_dc");
+        PrecompiledRecords.setCurrentRecord(null);
+
+        assertThat(transform(), oai_dc().withXPath("/oai_dc:dc/dc:title", equalTo("Teste")));
+    }
+
+    @Test
+    public void writesPrecompiledRecord() throws Exception {
+        PrecompiledRecords.start("request", "oai_dc");
+        PrecompiledRecords.setCurrentRecord(RECORD);
+
+        assertThat(transform(), oai_dc().withXPath("/oai_dc:dc/dc:title", equalTo("Precompiled")));
+    }
+
+    @Test
+    public void writesPrecompiledRecordOnce() throws Exception {
+        PrecompiledRecords.start("request", "oai_dc");
+        PrecompiledRecords.setCurrentRecord(RECORD);
+
+        assertThat(transform(), oai_dc().withXPath("/oai_dc:dc/dc:title", equalTo("Precompiled")));
+        // The metadata of another item, transformed without being read again
+        assertThat(transform(), oai_dc().withXPath("/oai_dc:dc/dc:title", equalTo("Teste")));
+    }
+
+    @Test
+    public void copiesPrecompiledRecordThroughPipeline() throws Exception {
+        PrecompiledRecords.start("driver", "oai_dc");
+        PrecompiledRecords.setCurrentRecord(RECORD);
+
+        assertThat(transform(2), oai_dc().withXPath("/oai_dc:dc/dc:title", equalTo("Precompiled")));
+        assertThat(transform(2), oai_dc().withXPath("/oai_dc:dc/dc:title", equalTo("Transformed")));
+    }
+
+    @Test
+    public void fieldNameOfRequest() {
+        PrecompiledRecords.start("driver", "mets");
+        assertThat(PrecompiledRecords.getFieldName(), equalTo("item.format.driver.mets"));
+
+        PrecompiledRecords.end();
+        assertThat(PrecompiledRecords.getFieldName(), nullValue());
+    }
+
+    private String transform() throws Exception {
+        return transform(1);
+    }
+
+    /**
+     * Transform the test item with a pipeline of stylesheets, the oai_dc stylesheet followed by stylesheets
+     * replacing the title.
+     */
+    private String transform(int stylesheets) throws Exception {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("item.xml");
+             InputStream xslt = getClass().getClassLoader().getResourceAsStream("oai_dc.xsl")) {
+            Templates templates = new PrecompiledTemplates(
+                XMLUtils.getTransformerFactory().newTemplates(new StreamSource(xslt)));
+            XSLPipeline pipeline = new XSLPipeline(input, true).apply(templates);
+            for (int i = 1; i < stylesheets; i++) {
+                pipeline = pipeline.apply(new PrecompiledTemplates(
+                    XMLUtils.getTransformerFactory().newTemplates(new StreamSource(new StringReader(RETITLE)))));
+            }
+            return IOUtils.toString(pipeline.getTransformed(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private XmlMatcherBuilder oai_dc() {
+        return xml()
+            .withNamespace("oai_dc", "http://www.openarchives.org/OAI/2.0/oai_dc/")
+            .withNamespace("dc", "http://purl.org/dc/elements/1.1/");
+    }
+}
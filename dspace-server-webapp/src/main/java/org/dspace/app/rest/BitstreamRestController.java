@@ -12,6 +12,8 @@ import static org.dspace.app.rest.utils.RegexUtils.REGEX_REQUESTMAPPING_IDENTIFI
 import static org.springframework.web.bind.annotation.RequestMethod.PUT;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
@@ -19,6 +21,7 @@ import java.util.UUID;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.ws.rs.core.Response;
+import org.apache.catalina.Globals;
 import org.apache.catalina.connector.ClientAbortException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.Logger;
@@ -45,6 +48,8 @@ import org.dspace.usage.UsageEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -243,6 +248,11 @@ public class BitstreamRestController {
                     return ResponseEntity.ok().headers(httpHeaders).build();
                 }
 
+                ResponseEntity sendfileResponse = sendLocalFile(bitstreamResource, httpHeaders, request);
+                if (sendfileResponse != null) {
+                    return sendfileResponse;
+                }
+
                 return ResponseEntity.ok().headers(httpHeaders).body(bitstreamResource);
             }
 
@@ -253,6 +263,62 @@ public class BitstreamRestController {
         return null;
     }
 
+    /**
+     * Let the servlet container send the content of a bitstream which is stored in a local file, using sendfile
+     * (i.e. without copying it through the heap) and seeking directly to the requested byte range. This is only
+     * done if the container supports sendfile, and for requests of the whole file or of a single byte range.
+     * Other requests (e.g. multiple ranges, unsatisfiable ranges or If-Range requests) are left to Spring.
+     *
+     * @param bitstreamResource the content to send
+     * @param httpHeaders       the headers of the response, which are updated for the requested range
+     * @param request           HTTP request
+     * @return the response without body, or null if the content has to be streamed by Spring
+     * @throws IOException if the size of the file cannot be determined
+     */
+    private ResponseEntity sendLocalFile(org.dspace.app.rest.utils.BitstreamResource bitstreamResource,
+                                         HttpHeaders httpHeaders, HttpServletRequest request) throws IOException {
+        if (!configurationService.getBooleanProperty("webui.content_sendfile.enabled", true)
+            || !Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))
+            || StringUtils.isNotBlank(request.getHeader(HttpHeaders.IF_RANGE))) {
+            return null;
+        }
+        Path path = bitstreamResource.getLocalPath();
+        if (path == null) {
+            return null;
+        }
+        long length = Files.size(path);
+        if (length == 0) {
+            return null;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.isNotBlank(range)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() != 1) {
+                    return null;
+                }
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                // Invalid or unsatisfiable range, let Spring send the error
+                return null;
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            httpHeaders.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        httpHeaders.setContentLength(end - start + 1);
+
+        request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, path.toRealPath().toString());
+        request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, start);
+        request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, end + 1);
+        log.debug("Sending {} bytes of bitstream file {} with sendfile", end - start + 1, path);
+        return ResponseEntity.status(status).headers(httpHeaders).build();
+    }
+
     /**
      * Get the name for attachment disposition headers
      * @param bit bitstream
@@ -8,6 +8,8 @@
 package org.dspace.app.rest.authorization;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.dspace.app.rest.model.BaseObjectRest;
 import org.dspace.app.rest.model.RestAddressableModel;
@@ -36,6 +38,29 @@ public interface AuthorizationFeature {
      */
     boolean isAuthorized(Context context, BaseObjectRest object) throws SQLException, SearchServiceException;
 
+    /**
+     * Check the feature for a number of objects at once, as for the objects of a single request to the Authorization
+     * endpoint. The default implementation checks each object with {@link #isAuthorized(Context, BaseObjectRest)};
+     * features may override it to load what they need for all the objects together.
+     *
+     * @param context
+     *            the DSpace Context
+     * @param objects
+     *            the objects target by the feature (MUST be NOT null), all of a type supported by the feature
+     * @return the objects for which the user associated with the context has access to the feature, in the order of
+     *         the given objects
+     */
+    default List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects)
+        throws SQLException, SearchServiceException {
+        List<BaseObjectRest> authorized = new ArrayList<>();
+        for (BaseObjectRest object : objects) {
+            if (isAuthorized(context, object)) {
+                authorized.add(object);
+            }
+        }
+        return authorized;
+    }
+
     /**
      * Return the name of the feature
      * 
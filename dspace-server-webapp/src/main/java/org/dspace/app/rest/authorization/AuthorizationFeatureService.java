@@ -38,6 +38,23 @@ public interface AuthorizationFeatureService {
     boolean isAuthorized(Context context, AuthorizationFeature feature, BaseObjectRest object)
         throws SQLException, SearchServiceException;
 
+    /**
+     * Check if the eperson in the provided context, or the anonymous user if not loggedin, has access to the requested
+     * feature for each of the requested objects. The feature is checked for all the objects together, see
+     * {@link AuthorizationFeature#findAuthorized(Context, List)}
+     *
+     * @param context
+     *            the DSpace Context
+     * @param feature
+     *            the Authorization Feature to check
+     * @param objects
+     *            the objects target by the feature. Null objects and objects of a type not supported by the feature
+     *            are never authorized
+     * @return the objects for which the user has access to the feature, in the order of the given objects
+     */
+    List<BaseObjectRest> findAuthorized(Context context, AuthorizationFeature feature, List<BaseObjectRest> objects)
+        throws SQLException, SearchServiceException;
+
     /**
      * Get all the authorization features defined in the system
      *
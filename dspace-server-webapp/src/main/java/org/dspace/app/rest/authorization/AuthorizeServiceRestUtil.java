@@ -8,7 +8,12 @@
 package org.dspace.app.rest.authorization;
 
 import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.dspace.app.rest.model.BaseObjectRest;
 import org.dspace.app.rest.security.DSpaceRestPermission;
@@ -68,4 +73,36 @@ public class AuthorizeServiceRestUtil {
         return authorizeService.authorizeActionBoolean(context, ePerson, dSpaceObject,
             dSpaceRestPermission.getDspaceApiActionId(), true);
     }
+
+    /**
+     * Checks the given permission for a number of rest objects at once. The policies of all the objects are loaded
+     * together instead of once per object.
+     *
+     * @param context               DSpace context
+     * @param objects               The Rest objects to test the action against
+     * @param dSpaceRestPermission  The permission to check
+     * @return the given objects on which the action is allowed to the logged in ePerson, in the same order
+     * @throws SQLException
+     */
+    public <T extends BaseObjectRest> List<T> findAuthorized(Context context, List<T> objects,
+                                                             DSpaceRestPermission dSpaceRestPermission)
+        throws SQLException {
+
+        Map<T, DSpaceObject> dSpaceObjects = new IdentityHashMap<>();
+        for (T object : objects) {
+            DSpaceObject dSpaceObject = (DSpaceObject) utils.getDSpaceAPIObjectFromRest(context, object);
+            if (dSpaceObject != null) {
+                dSpaceObjects.put(object, dSpaceObject);
+            }
+        }
+        if (dSpaceObjects.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Boolean> results = authorizeService.authorizeActionBoolean(context, dSpaceObjects.values(),
+            dSpaceRestPermission.getDspaceApiActionId(), true);
+        return objects.stream()
+                      .filter(object -> dSpaceObjects.containsKey(object)
+                          && Boolean.TRUE.equals(results.get(dSpaceObjects.get(object).getID())))
+                      .collect(Collectors.toList());
+    }
 }
@@ -9,6 +9,7 @@ package org.dspace.app.rest.authorization.impl;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -53,6 +54,23 @@ public class AuthorizationFeatureServiceImpl implements AuthorizationFeatureServ
         return feature.isAuthorized(context, object);
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, AuthorizationFeature feature,
+                                               List<BaseObjectRest> objects)
+        throws SQLException, SearchServiceException {
+        if (feature == null) {
+            return List.of();
+        }
+        List<BaseObjectRest> supported = objects.stream()
+                .filter(Objects::nonNull)
+                .filter(object -> ArrayUtils.contains(feature.getSupportedTypes(), object.getUniqueType()))
+                .collect(Collectors.toList());
+        if (supported.isEmpty()) {
+            return List.of();
+        }
+        return feature.findAuthorized(context, supported);
+    }
+
     @Override
     public List<AuthorizationFeature> findAll() {
         return features;
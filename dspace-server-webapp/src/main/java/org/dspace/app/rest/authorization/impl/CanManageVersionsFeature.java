@@ -7,6 +7,7 @@
  */
 package org.dspace.app.rest.authorization.impl;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -18,6 +19,7 @@ import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Item;
 import org.dspace.content.service.ItemService;
 import org.dspace.core.Context;
+import org.dspace.discovery.SearchServiceException;
 import org.dspace.services.ConfigurationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -59,6 +61,17 @@ public class CanManageVersionsFeature implements AuthorizationFeature {
         return false;
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects)
+        throws SQLException, SearchServiceException {
+        // the configuration and the user are the same for all the items
+        boolean isEnabled = configurationService.getBooleanProperty("versioning.enabled", true);
+        if (!isEnabled || Objects.isNull(context.getCurrentUser())) {
+            return List.of();
+        }
+        return AuthorizationFeature.super.findAuthorized(context, objects);
+    }
+
     @Override
     public String[] getSupportedTypes() {
         return new String[]{
@@ -8,6 +8,12 @@
 package org.dspace.app.rest.authorization.impl;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.dspace.app.rest.authorization.AuthorizationFeature;
 import org.dspace.app.rest.authorization.AuthorizationFeatureDocumentation;
@@ -20,6 +26,7 @@ import org.dspace.app.rest.utils.Utils;
 import org.dspace.content.Bitstream;
 import org.dspace.content.DSpaceObject;
 import org.dspace.core.Context;
+import org.dspace.discovery.SearchServiceException;
 import org.dspace.services.ConfigurationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +66,29 @@ public class DownloadFeature implements AuthorizationFeature {
                 return true;
             }
         }
+        return isAllowedByCrisSecurity(context, object);
+    }
+
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects)
+        throws SQLException, SearchServiceException {
+        // check the READ permission on all the bitstreams together, only the other ones are checked one by one
+        List<BaseObjectRest> bitstreams = objects.stream()
+                                                 .filter(BitstreamRest.class::isInstance)
+                                                 .collect(Collectors.toList());
+        Set<BaseObjectRest> readable = Collections.newSetFromMap(new IdentityHashMap<>());
+        readable.addAll(authorizeServiceRestUtil.findAuthorized(context, bitstreams, DSpaceRestPermission.READ));
+
+        List<BaseObjectRest> authorized = new ArrayList<>();
+        for (BaseObjectRest object : objects) {
+            if (readable.contains(object) || isAllowedByCrisSecurity(context, object)) {
+                authorized.add(object);
+            }
+        }
+        return authorized;
+    }
+
+    private boolean isAllowedByCrisSecurity(Context context, BaseObjectRest object) {
         try {
             DSpaceObject dSpaceObject = (DSpaceObject) utils.getDSpaceAPIObjectFromRest(context, object);
             if (dSpaceObject == null) {
@@ -8,12 +8,20 @@
 package org.dspace.app.rest.authorization.impl;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.dspace.app.rest.authorization.AuthorizationFeature;
 import org.dspace.app.rest.authorization.AuthorizationFeatureDocumentation;
+import org.dspace.app.rest.authorization.AuthorizeServiceRestUtil;
 import org.dspace.app.rest.model.BaseObjectRest;
 import org.dspace.app.rest.model.ItemRest;
 import org.dspace.app.rest.model.SiteRest;
+import org.dspace.app.rest.security.DSpaceRestPermission;
 import org.dspace.app.rest.utils.Utils;
 import org.dspace.authorize.service.AuthorizeService;
 import org.dspace.content.Item;
@@ -44,6 +52,9 @@ public class EditItemFeature implements AuthorizationFeature {
     @Autowired
     ResearcherProfileService researcherProfileService;
 
+    @Autowired
+    AuthorizeServiceRestUtil authorizeServiceRestUtil;
+
     @Autowired
     Utils utils;
 
@@ -62,8 +73,35 @@ public class EditItemFeature implements AuthorizationFeature {
         return false;
     }
 
+    @Override
+    public List<BaseObjectRest> findAuthorized(Context context, List<BaseObjectRest> objects)
+        throws SQLException, SearchServiceException {
+        // check the WRITE permission on all the items together, only the other ones are checked one by one
+        List<BaseObjectRest> items = objects.stream()
+                                            .filter(ItemRest.class::isInstance)
+                                            .collect(Collectors.toList());
+        Set<BaseObjectRest> writable = Collections.newSetFromMap(new IdentityHashMap<>());
+        writable.addAll(authorizeServiceRestUtil.findAuthorized(context, items, DSpaceRestPermission.WRITE));
+
+        List<BaseObjectRest> authorized = new ArrayList<>();
+        for (BaseObjectRest object : objects) {
+            if (writable.contains(object)) {
+                authorized.add(object);
+            } else if (object instanceof ItemRest) {
+                Item item = (Item) utils.getDSpaceAPIObjectFromRest(context, object);
+                if (item != null && canEditWorkspaceItem(context, item, context.getCurrentUser())) {
+                    authorized.add(object);
+                }
+            } else if (isAuthorized(context, object)) {
+                authorized.add(object);
+            }
+        }
+        return authorized;
+    }
+
     private boolean canEditWorkspaceItem(Context context, Item item, EPerson ePerson) throws SQLException {
-        if (ePerson == null) {
+        // archived items are never in the workspace
+        if (ePerson == null || item.isArchived()) {
             return false;
         }
         WorkspaceItem workspaceItem = workspaceItemService.findByItem(context, item);
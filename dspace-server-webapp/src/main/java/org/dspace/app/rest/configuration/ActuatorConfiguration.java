@@ -14,9 +14,11 @@ import java.util.Arrays;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.dspace.app.rest.DiscoverableEndpointsService;
 import org.dspace.app.rest.health.GeoIpHealthIndicator;
+import org.dspace.app.rest.health.HibernateCacheHealthIndicator;
 import org.dspace.app.rest.health.SEOHealthIndicator;
 import org.dspace.app.rest.health.SolrHealthIndicator;
 import org.dspace.authority.AuthoritySolrServiceImpl;
+import org.dspace.core.cache.ClusterCacheInvalidator;
 import org.dspace.discovery.SolrSearchCore;
 import org.dspace.statistics.SolrStatisticsCore;
 import org.dspace.xoai.services.api.solr.SolrServerResolver;
@@ -95,6 +97,13 @@ public class ActuatorConfiguration {
         return new GeoIpHealthIndicator();
     }
 
+    @Bean
+    @ConditionalOnEnabledHealthIndicator("hibernateCache")
+    public HibernateCacheHealthIndicator hibernateCacheHealthIndicator(
+        ClusterCacheInvalidator clusterCacheInvalidator) {
+        return new HibernateCacheHealthIndicator(clusterCacheInvalidator);
+    }
+
     public String getActuatorBasePath() {
         return actuatorBasePath;
     }
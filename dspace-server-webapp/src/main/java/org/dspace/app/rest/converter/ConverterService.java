@@ -11,6 +11,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,6 +27,7 @@ import org.apache.logging.log4j.Logger;
 import org.dspace.app.rest.link.HalLinkFactory;
 import org.dspace.app.rest.link.HalLinkService;
 import org.dspace.app.rest.model.BaseObjectRest;
+import org.dspace.app.rest.model.ItemRest;
 import org.dspace.app.rest.model.RestAddressableModel;
 import org.dspace.app.rest.model.RestModel;
 import org.dspace.app.rest.model.hateoas.HALResource;
@@ -32,7 +35,11 @@ import org.dspace.app.rest.projection.DefaultProjection;
 import org.dspace.app.rest.projection.Projection;
 import org.dspace.app.rest.repository.DSpaceRestRepository;
 import org.dspace.app.rest.security.WebSecurityExpressionEvaluator;
+import org.dspace.app.rest.utils.ContextUtil;
 import org.dspace.app.rest.utils.Utils;
+import org.dspace.content.Item;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
 import org.dspace.services.RequestService;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -88,6 +95,9 @@ public class ConverterService {
     @Autowired
     private RequestService requestService;
 
+    @Autowired
+    private ItemService itemService;
+
     /**
      * Converts the given model object to a rest object, using the appropriate {@link DSpaceConverter} and
      * the given projection.
@@ -206,6 +216,7 @@ public class ConverterService {
             pageable = utils.getPageable(pageable);
         }
         List<M> pageableObjects = utils.getPageObjectList(modelObjects, pageable);
+        prefetch(pageableObjects, projection);
         List<R> transformedList = new LinkedList<>();
         for (M modelObject : pageableObjects) {
             R transformedObject = toRest(modelObject, projection);
@@ -230,6 +241,7 @@ public class ConverterService {
      * @return the page.
      */
     public <M, R> Page<R> toRestPage(List<M> modelObjects, Pageable pageable, long total, Projection projection) {
+        prefetch(modelObjects, projection);
         List<R> transformedList = new LinkedList<>();
         for (M modelObject : modelObjects) {
             R transformedObject = toRest(modelObject, projection);
@@ -244,6 +256,48 @@ public class ConverterService {
     }
 
 
+    /**
+     * Loads what the conversion of the given model objects with the given projection needs, for all the objects at
+     * once, so that converting them one by one doesn't query the database for each of them.
+     * <p>
+     * For items, this covers their metadata and virtual metadata, and the bundles, bitstreams and owning
+     * collections which the projection may embed. The READ authorizations checked by the findOne
+     * {@link PreAuthorize} annotations are not prefetched, as the context only caches them in read-only mode.
+     * It is only an optimization: anything not prefetched is loaded lazily during the conversion.
+     * </p>
+     *
+     * @param modelObjects the model objects about to be converted, e.g. a page of search results.
+     * @param projection the projection to use.
+     */
+    public void prefetch(List<?> modelObjects, Projection projection) {
+        if (modelObjects.size() < 2) {
+            return;
+        }
+        Context context = ContextUtil.obtainCurrentRequestContext();
+        if (context == null) {
+            return;
+        }
+        List<Item> items = new ArrayList<>();
+        for (Object modelObject : modelObjects) {
+            if (modelObject instanceof Item) {
+                items.add((Item) modelObject);
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        try {
+            // the thumbnail and the access status are computed from the bundles and their bitstreams
+            boolean bundles = projection.mayEmbed(ItemRest.BUNDLES) || projection.mayEmbed(ItemRest.THUMBNAIL)
+                || projection.mayEmbed(ItemRest.ACCESS_STATUS);
+            itemService.prefetch(context, items, bundles, projection.mayEmbed(ItemRest.OWNING_COLLECTION));
+            itemService.prefetchVirtualMetadata(context, items);
+        } catch (SQLException e) {
+            log.warn("Unable to prefetch {} objects to convert, they will be loaded one by one", modelObjects.size(),
+                     e);
+        }
+    }
+
     /**
      * Gets the converter supporting the given class as input.
      *
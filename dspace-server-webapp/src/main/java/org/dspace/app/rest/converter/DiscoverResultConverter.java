@@ -9,6 +9,7 @@ package org.dspace.app.rest.converter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
@@ -75,6 +76,10 @@ public class DiscoverResultConverter {
 
     private void addSearchResults(final DiscoverResult searchResult, final SearchResultsRest resultsRest,
                                   final Projection projection) {
+        // load what the conversion of the results needs for all of them at once
+        converter.prefetch(CollectionUtils.emptyIfNull(searchResult.getIndexableObjects()).stream()
+                                          .map(IndexableObject::getIndexedObject)
+                                          .collect(Collectors.toList()), projection);
         for (IndexableObject dspaceObject : CollectionUtils.emptyIfNull(searchResult.getIndexableObjects())) {
             SearchResultEntryRest resultEntry = new SearchResultEntryRest();
             resultEntry.setProjection(projection);
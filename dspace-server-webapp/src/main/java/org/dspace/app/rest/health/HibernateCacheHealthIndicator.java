@@ -0,0 +1,49 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest.health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dspace.core.cache.ClusterCacheInvalidator;
+import org.dspace.core.cache.ClusterCacheInvalidator.RegionMetrics;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Implementation of {@link HealthIndicator} that reports the hit, miss, put and
+ * invalidation counts of each Hibernate second-level cache region.
+ */
+public class HibernateCacheHealthIndicator extends AbstractHealthIndicator {
+
+    private final ClusterCacheInvalidator clusterCacheInvalidator;
+
+    public HibernateCacheHealthIndicator(ClusterCacheInvalidator clusterCacheInvalidator) {
+        this.clusterCacheInvalidator = clusterCacheInvalidator;
+    }
+
+    @Override
+    protected void doHealthCheck(Builder builder) throws Exception {
+
+        builder.up().withDetail("clusterEnabled", clusterCacheInvalidator.isEnabled());
+
+        for (Map.Entry<String, RegionMetrics> region : clusterCacheInvalidator.getRegionMetrics().entrySet()) {
+            RegionMetrics metrics = region.getValue();
+            Map<String, Long> details = new LinkedHashMap<>();
+            details.put("hits", metrics.getHits());
+            details.put("misses", metrics.getMisses());
+            details.put("puts", metrics.getPuts());
+            details.put("localInvalidations", metrics.getLocalInvalidations());
+            details.put("remoteInvalidations", metrics.getRemoteInvalidations());
+            builder.withDetail(region.getKey(), details);
+        }
+
+    }
+
+}
@@ -73,6 +73,12 @@ public class CompositeProjection extends AbstractProjection {
         return false;
     }
 
+    @Override
+    public boolean mayEmbed(String relPath) {
+        return projections.stream()
+                          .anyMatch(prj -> prj.mayEmbed(relPath));
+    }
+
     @Override
     public boolean allowLinking(HALResource halResource, LinkRest linkRest) {
         for (Projection projection : projections) {
@@ -92,6 +92,20 @@ public class EmbedRelsProjection extends AbstractProjection {
         return false;
     }
 
+    @Override
+    public boolean mayEmbed(String relPath) {
+        // Same as allowEmbedding for the converted objects, which are at level 0
+        if (embedRels.contains(relPath)) {
+            return true;
+        }
+        for (String embedRel : embedRels) {
+            if (embedRel.startsWith(relPath + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public PageRequest getPagingOptions(String rel, HALResource<? extends RestAddressableModel> resource,
                                         Link... oldLinks) {
@@ -138,6 +138,21 @@ public interface Projection {
      */
     boolean allowLinking(HALResource halResource, LinkRest linkRest);
 
+    /**
+     * Tells whether this projection may embed the given subresources of the converted objects, before their resources
+     * are constructed. This lets the subresources be loaded for many objects at once.
+     *
+     * The relation path is made of the names of the traversed links, e.g. {@code "bundles/bitstreams"} for the
+     * bitstreams embedded in the bundles of an item. Returning {@code true} for a subresource which won't be embedded
+     * only loads data which isn't used.
+     *
+     * @param relPath the relation path of the subresources, from the converted objects.
+     * @return true if the subresources may be embedded, false otherwise.
+     */
+    default boolean mayEmbed(String relPath) {
+        return false;
+    }
+
     /**
      * This method will return the {@link PageRequest} object for a specific given rel
      * @param rel   The rel for which the {@link PageRequest} object will be made
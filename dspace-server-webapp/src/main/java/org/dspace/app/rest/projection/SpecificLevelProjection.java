@@ -8,6 +8,7 @@
 package org.dspace.app.rest.projection;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.dspace.app.rest.exception.MissingParameterException;
 import org.dspace.app.rest.model.LinkRest;
 import org.dspace.app.rest.model.RestAddressableModel;
@@ -62,6 +63,13 @@ public class SpecificLevelProjection extends AbstractProjection {
         return halResource.getContent().getEmbedLevel() < embedLevelDepth;
     }
 
+    @Override
+    public boolean mayEmbed(String relPath) {
+        int embedLevelDepth = NumberUtils.toInt(requestService.getCurrentRequest().getHttpServletRequest()
+                                                              .getParameter("embedLevelDepth"), 0);
+        return relPath.split("/").length <= Math.min(embedLevelDepth, maxEmbed);
+    }
+
     @Override
     public boolean allowLinking(HALResource halResource, LinkRest linkRest) {
         return true;
@@ -13,7 +13,13 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -217,20 +223,58 @@ public class AuthorizationRestRepository extends DSpaceRestRepository<Authorizat
 
         List<BaseObjectRest> objects = uuidList.stream()
             .map(uuid -> utils.getBaseObjectRestFromTypeAndUUID(context, type, uuid))
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
 
-        objects.forEach(object ->
-            featureNames.forEach(featureName -> {
-                try {
-                    authorizations.addAll(authorizationsForObject(context, user, featureName, object));
-                } catch (Exception ex) {
-                    log.error("An error occurred during authorizations check");
-                    throw new RuntimeException(ex);
+        // evaluate each feature for all the objects at once, instead of once per object
+        Map<AuthorizationFeature, Set<BaseObjectRest>> authorizedObjects = new HashMap<>();
+        for (String featureName : featureNames) {
+            List<AuthorizationFeature> features = isNotBlank(featureName)
+                ? singletonList(authorizationFeatureService.find(featureName))
+                : objects.stream()
+                    .map(BaseObjectRest::getUniqueType)
+                    .distinct()
+                    .flatMap(uniqueType -> authorizationFeatureService.findByResourceType(uniqueType).stream())
+                    .collect(Collectors.toList());
+            for (AuthorizationFeature feature : features) {
+                if (feature != null && !authorizedObjects.containsKey(feature)) {
+                    authorizedObjects.put(feature, findAuthorizedObjects(context, feature, objects));
                 }
-            }));
+            }
+        }
+
+        // collect the authorizations in the order of the objects, then of the features
+        for (BaseObjectRest object : objects) {
+            for (String featureName : featureNames) {
+                List<AuthorizationFeature> features = isNotBlank(featureName)
+                    ? singletonList(authorizationFeatureService.find(featureName))
+                    : authorizationFeatureService.findByResourceType(object.getUniqueType());
+                for (AuthorizationFeature feature : features) {
+                    if (feature != null && authorizedObjects.get(feature).contains(object)) {
+                        authorizations.add(new Authorization(user, feature, object));
+                    }
+                }
+            }
+        }
         return authorizations;
     }
 
+    private Set<BaseObjectRest> findAuthorizedObjects(
+        Context context,
+        AuthorizationFeature feature,
+        List<BaseObjectRest> objects) {
+
+        // the rest objects don't define equality, they are the same instances as the given ones
+        Set<BaseObjectRest> authorizedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            authorizedObjects.addAll(authorizationFeatureService.findAuthorized(context, feature, objects));
+        } catch (Exception ex) {
+            log.error("An error occurred during authorizations check");
+            throw new RuntimeException(ex);
+        }
+        return authorizedObjects;
+    }
+
     private List<Authorization> findAuthorizationsForUri(
         Context context,
         EPerson user,
@@ -10,6 +10,7 @@ package org.dspace.app.rest.utils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Set;
 import java.util.UUID;
@@ -128,6 +129,18 @@ public class BitstreamResource extends AbstractResource {
         return document.getEtag();
     }
 
+    /**
+     * Get the local file holding the content, so that it can be sent without copying it through the heap.
+     *
+     * @return the path of the file, or null if the content is not available as a local file (e.g. because it is
+     *         stored remotely, or a cover page is generated)
+     */
+    public Path getLocalPath() {
+        fetchDocument();
+
+        return document.getLocalPath();
+    }
+
     void fetchDocument() {
         if (document != null) {
             return;
@@ -220,6 +233,10 @@ public class BitstreamResource extends AbstractResource {
         public long length() {
             return length;
         }
+
+        public Path getLocalPath() {
+            return null;
+        }
     }
 
     protected class BitstreamDocumentInputstream extends BitstreamDocument {
@@ -238,6 +255,15 @@ public class BitstreamResource extends AbstractResource {
                 throw new RuntimeException(e);
             }
         }
+
+        @Override
+        public Path getLocalPath() {
+            try (Context context = initializeContext()) {
+                return bitstreamService.retrieveLocalPath(context, bitstreamService.find(context, bitstreamUUID));
+            } catch (SQLException | AuthorizeException | IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     protected class BitstreamDocumentCoverPage extends BitstreamDocument {
@@ -10,6 +10,7 @@ package org.dspace.app.rest.utils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Set;
 import java.util.UUID;
@@ -117,6 +118,16 @@ public class BitstreamResourceAccessByToken extends BitstreamResource {
                 throw new RuntimeException(e);
             }
         }
+
+        @Override
+        public Path getLocalPath() {
+            try (Context context = initializeContext()) {
+                context.turnOffAuthorisationSystem();
+                return bitstreamService.retrieveLocalPath(context, bitstreamService.find(context, bitstreamUUID));
+            } catch (SQLException | IOException | AuthorizeException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
 }
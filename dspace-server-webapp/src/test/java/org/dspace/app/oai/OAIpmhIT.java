@@ -8,10 +8,12 @@
 
 package org.dspace.app.oai;
 
+import static com.lyncode.xoai.dataprovider.xml.xoaiconfig.Configuration.readConfiguration;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -19,8 +21,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.xpath;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.stream.StreamSource;
 
 import com.lyncode.xoai.dataprovider.core.XOAIManager;
 import com.lyncode.xoai.dataprovider.exceptions.ConfigurationException;
@@ -29,14 +37,29 @@ import com.lyncode.xoai.dataprovider.services.impl.BaseDateProvider;
 import com.lyncode.xoai.dataprovider.xml.xoaiconfig.Configuration;
 import com.lyncode.xoai.dataprovider.xml.xoaiconfig.ContextConfiguration;
 import org.dspace.app.rest.test.AbstractControllerIntegrationTest;
+import org.dspace.app.util.XMLUtils;
 import org.dspace.builder.CollectionBuilder;
 import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
 import org.dspace.content.Community;
+import org.dspace.content.Item;
+import org.dspace.core.Context;
 import org.dspace.services.ConfigurationService;
+import org.dspace.solr.MockSolrServer;
+import org.dspace.xoai.app.XOAI;
+import org.dspace.xoai.data.DSpaceItem;
 import org.dspace.xoai.services.api.EarliestDateResolver;
 import org.dspace.xoai.services.api.cache.XOAICacheService;
+import org.dspace.xoai.services.api.cache.XOAILastCompilationCacheService;
 import org.dspace.xoai.services.api.config.XOAIManagerResolver;
+import org.dspace.xoai.services.api.solr.SolrServerResolver;
 import org.dspace.xoai.services.api.xoai.DSpaceFilterResolver;
+import org.dspace.xoai.services.api.xoai.ItemRepositoryResolver;
+import org.dspace.xoai.services.impl.DSpaceCollectionsService;
+import org.dspace.xoai.services.impl.context.DSpaceXOAIManagerResolver;
+import org.dspace.xoai.services.impl.resources.DSpaceResourceResolver;
+import org.dspace.xoai.services.impl.resources.PrecompiledTemplates;
 import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,6 +67,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.ResultMatcher;
 
 /**
  * Integration test to verify the /oai endpoint is responding as a valid OAI-PMH endpoint.
@@ -88,6 +113,16 @@ public class OAIpmhIT extends AbstractControllerIntegrationTest {
     @Autowired
     private DSpaceFilterResolver filterResolver;
 
+    // Spy on the current SolrServerResolver bean, to serve the items of an embedded OAI core in tests
+    @SpyBean
+    private SolrServerResolver solrServerResolver;
+    @Autowired
+    private ItemRepositoryResolver itemRepositoryResolver;
+
+    private static final Map<String, String> OAI_NAMESPACES = Map.of(
+        "oai", "http://www.openarchives.org/OAI/2.0/",
+        "dc", "http://purl.org/dc/elements/1.1/");
+
 
     @Before
     public void onlyRunIfConfigExists() {
@@ -268,6 +303,104 @@ public class OAIpmhIT extends AbstractControllerIntegrationTest {
         ;
     }
 
+    @Test
+    public void listAndGetRecordsServePrecompiledRecordOfEachItem() throws Exception {
+        configurationService.setProperty("oai.precompile.formats", new String[] {"oai_dc", "uketd_dc"});
+        MockSolrServer oaiSolr = new MockSolrServer("oai");
+        try {
+            context.turnOffAuthorisationSystem();
+            Community community = CommunityBuilder.createCommunity(context).build();
+            Collection collection = CollectionBuilder.createCollection(context, community).build();
+            Item firstThesis = ItemBuilder.createItem(context, collection).withTitle("First thesis")
+                                          .withType("Thesis").build();
+            Item secondThesis = ItemBuilder.createItem(context, collection).withTitle("Second thesis")
+                                           .withType("Thesis").build();
+            Item article = ItemBuilder.createItem(context, collection).withTitle("Article")
+                                      .withType("Article").build();
+            context.restoreAuthSystemState();
+            context.commit();
+            importItems(oaiSolr);
+
+            // Serve the items of the embedded OAI core, with format stylesheets which no longer match the
+            // precompiled records, so that the records show whether they were precompiled
+            doReturn(oaiSolr.getSolrServer()).when(solrServerResolver).getServer();
+            ReflectionTestUtils.setField(itemRepositoryResolver, "itemRepository", null);
+            doReturn(createMockXOAIManager(readConfiguration(
+                resourceResolver.getResource(DSpaceXOAIManagerResolver.XOAI_CONFIGURATION_FILE)),
+                new RetitlingResourceResolver())).when(xoaiManagerResolver).getManager();
+
+            getClient().perform(get(DEFAULT_CONTEXT).param("verb", "ListRecords").param("metadataPrefix", "oai_dc"))
+                       .andExpect(status().isOk())
+                       .andExpect(xpath("//oai:record", OAI_NAMESPACES).nodeCount(3))
+                       .andExpect(titleOf(firstThesis, "First thesis"))
+                       .andExpect(titleOf(secondThesis, "Second thesis"))
+                       .andExpect(titleOf(article, "Article"));
+
+            // The filter of the format only shows the theses
+            getClient().perform(get(DEFAULT_CONTEXT).param("verb", "ListRecords").param("metadataPrefix", "uketd_dc"))
+                       .andExpect(status().isOk())
+                       .andExpect(xpath("//oai:record", OAI_NAMESPACES).nodeCount(2))
+                       .andExpect(titleOf(firstThesis, "First thesis"))
+                       .andExpect(titleOf(secondThesis, "Second thesis"));
+
+            getClient().perform(get(DEFAULT_CONTEXT).param("verb", "GetRecord").param("metadataPrefix", "uketd_dc")
+                                                    .param("identifier", DSpaceItem.buildIdentifier(
+                                                        secondThesis.getHandle())))
+                       .andExpect(status().isOk())
+                       .andExpect(xpath("//oai:record", OAI_NAMESPACES).nodeCount(1))
+                       .andExpect(titleOf(secondThesis, "Second thesis"));
+        } finally {
+            ReflectionTestUtils.setField(itemRepositoryResolver, "itemRepository", null);
+            configurationService.setProperty("oai.precompile.formats", null);
+            oaiSolr.reset();
+            oaiSolr.destroy();
+        }
+    }
+
+    private ResultMatcher titleOf(Item item, String title) {
+        return xpath("//oai:record[oai:header/oai:identifier='%s']/oai:metadata//dc:title", OAI_NAMESPACES,
+                     DSpaceItem.buildIdentifier(item.getHandle())).string(title);
+    }
+
+    /**
+     * Index the items into the embedded OAI core, as "oai import" does.
+     */
+    private void importItems(MockSolrServer oaiSolr) throws Exception {
+        Context importContext = new Context(Context.Mode.READ_ONLY);
+        try {
+            XOAI indexer = new XOAI(importContext, false, false);
+            SolrServerResolver importSolrServerResolver = () -> oaiSolr.getSolrServer();
+            ReflectionTestUtils.setField(indexer, "solrServerResolver", importSolrServerResolver);
+            ReflectionTestUtils.setField(indexer, "xoaiLastCompilationCacheService",
+                                         mock(XOAILastCompilationCacheService.class));
+            ReflectionTestUtils.setField(indexer, "collectionsService", new DSpaceCollectionsService());
+            indexer.index();
+        } finally {
+            importContext.abort();
+        }
+    }
+
+    /**
+     * Resolves the stylesheets of the metadata formats to a stylesheet which only writes a "Transformed" title.
+     */
+    private static class RetitlingResourceResolver extends DSpaceResourceResolver {
+
+        private static final String RETITLE = "<xsl:stylesheet version=\"1.0\" "
+            + "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" "
+            + "xmlns:oai_dc=\"http://www.openarchives.org/OAI/2.0/oai_dc/\" "
+            + "xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><xsl:template match=\"/\">"
+            + "<oai_dc:dc><dc:title>Transformed</dc:title></oai_dc:dc></xsl:template></xsl:stylesheet>";
+
+        @Override
+        public Templates getTemplates(String path) throws IOException, TransformerConfigurationException {
+            if (!path.startsWith("metadataFormats/")) {
+                return super.getTemplates(path);
+            }
+            return new PrecompiledTemplates(XMLUtils.getTransformerFactory()
+                                                    .newTemplates(new StreamSource(new StringReader(RETITLE))));
+        }
+    }
+
     /**
      * Create a fake/mock XOAIManager class based on the given xoaiConfig. May be used by above tests
      * to provide custom configurations to XOAI (overriding defaults in xoai.xml)
@@ -276,6 +409,11 @@ public class OAIpmhIT extends AbstractControllerIntegrationTest {
      * @throws ConfigurationException
      */
     private XOAIManager createMockXOAIManager(Configuration xoaiConfig) throws ConfigurationException {
-        return new XOAIManager(filterResolver, resourceResolver, xoaiConfig);
+        return createMockXOAIManager(xoaiConfig, resourceResolver);
+    }
+
+    private XOAIManager createMockXOAIManager(Configuration xoaiConfig, ResourceResolver xoaiResourceResolver)
+        throws ConfigurationException {
+        return new XOAIManager(filterResolver, xoaiResourceResolver, xoaiConfig);
     }
 }
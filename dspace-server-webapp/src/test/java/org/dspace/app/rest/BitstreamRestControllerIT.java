@@ -41,6 +41,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.ByteArrayInputStream;
@@ -364,6 +365,58 @@ public class BitstreamRestControllerIT extends AbstractControllerIntegrationTest
             checkNumberOfStatsRecords(bitstream, 0);
     }
 
+    @Test
+    public void retrieveRangeBitstreamWithSendfile() throws Exception {
+        context.turnOffAuthorisationSystem();
+
+        parentCommunity = CommunityBuilder.createCommunity(context)
+                                          .withName("Parent Community")
+                                          .build();
+
+        Collection col1 = CollectionBuilder.createCollection(context, parentCommunity).withName("Collection 1").build();
+
+        try (InputStream is = IOUtils.toInputStream("0123456789", CharEncoding.UTF_8)) {
+
+            Item publicItem1 = ItemBuilder.createItem(context, col1)
+                                          .withTitle("Public item 1")
+                                          .build();
+
+            bitstream = BitstreamBuilder
+                .createBitstream(context, publicItem1, is)
+                .withName("Test bitstream")
+                .withMimeType("text/plain")
+                .build();
+        }
+        context.restoreAuthSystemState();
+
+        //When the servlet container supports sendfile, the local file is handed over to it instead of being
+        //streamed in the response body
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .requestAttr("org.apache.tomcat.sendfile.support", true)
+                                .header("Range", "bytes=1-3"))
+                   .andExpect(status().is(206))
+                   .andExpect(header().longValue("Content-Length", 3))
+                   .andExpect(header().string("Content-Range", "bytes 1-3/10"))
+                   .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 1L))
+                   .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 4L))
+                   .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", not(nullValue())))
+                   .andExpect(content().bytes(new byte[0]));
+
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .requestAttr("org.apache.tomcat.sendfile.support", true))
+                   .andExpect(status().isOk())
+                   .andExpect(header().longValue("Content-Length", 10))
+                   .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+                   .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 10L));
+
+        //Multiple ranges are still streamed by Spring
+        getClient().perform(get("/api/core/bitstreams/" + bitstream.getID() + "/content")
+                                .requestAttr("org.apache.tomcat.sendfile.support", true)
+                                .header("Range", "bytes=1-3,5-6"))
+                   .andExpect(status().is(206))
+                   .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", nullValue()));
+    }
+
     @Test
     public void testBitstreamName() throws Exception {
 
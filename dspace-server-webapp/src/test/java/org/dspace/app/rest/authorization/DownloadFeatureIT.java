@@ -37,6 +37,7 @@ import org.dspace.builder.CollectionBuilder;
 import org.dspace.builder.CommunityBuilder;
 import org.dspace.builder.EPersonBuilder;
 import org.dspace.builder.ItemBuilder;
+import org.dspace.builder.ResourcePolicyBuilder;
 import org.dspace.content.Bitstream;
 import org.dspace.content.Collection;
 import org.dspace.content.Community;
@@ -327,6 +328,46 @@ public class DownloadFeatureIT extends AbstractControllerIntegrationTest {
                         .andExpect(jsonPath("$._embedded").doesNotExist());
     }
 
+    @Test
+    public void downloadOfBitstreamsAAndBAsEperson() throws Exception {
+        BitstreamRest bitstreamRestA = bitstreamConverter.convert(bitstreamA, Projection.DEFAULT);
+        Authorization authorizationA = new Authorization(eperson, downloadFeature, bitstreamRestA);
+
+        String token = getAuthToken(eperson.getEmail(), password);
+
+        // Both bitstreams are checked together, only the readable one is authorized
+        getClient(token).perform(get("/api/authz/authorizations/search/objects")
+                                         .param("type", "core.bitstreams")
+                                         .param("uuid", bitstreamA.getID().toString())
+                                         .param("uuid", bitstreamB.getID().toString())
+                                         .param("feature", downloadFeature.getName()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.page.totalElements", is(1)))
+                        .andExpect(jsonPath("$._embedded.authorizations", contains(
+                                Matchers.is(AuthorizationMatcher.matchAuthorization(authorizationA)))));
+
+        context.turnOffAuthorisationSystem();
+        ResourcePolicyBuilder.createResourcePolicy(context, eperson, null)
+                             .withDspaceObject(bitstreamB)
+                             .withAction(Constants.READ)
+                             .build();
+        context.restoreAuthSystemState();
+
+        BitstreamRest bitstreamRestB = bitstreamConverter.convert(bitstreamB, Projection.DEFAULT);
+        Authorization authorizationB = new Authorization(eperson, downloadFeature, bitstreamRestB);
+
+        getClient(token).perform(get("/api/authz/authorizations/search/objects")
+                                         .param("type", "core.bitstreams")
+                                         .param("uuid", bitstreamA.getID().toString())
+                                         .param("uuid", bitstreamB.getID().toString())
+                                         .param("feature", downloadFeature.getName()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.page.totalElements", is(2)))
+                        .andExpect(jsonPath("$._embedded.authorizations", contains(
+                                Matchers.is(AuthorizationMatcher.matchAuthorization(authorizationA)),
+                                Matchers.is(AuthorizationMatcher.matchAuthorization(authorizationB)))));
+    }
+
     @Test
     public void downloadOfBitstreamWithCrisSecurity() throws Exception {
 
@@ -7,14 +7,19 @@
  */
 package org.dspace.app.rest.authorization;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
+import org.dspace.app.rest.authorization.impl.DownloadFeature;
 import org.dspace.app.rest.authorization.impl.EditItemFeature;
 import org.dspace.app.rest.converter.ItemConverter;
 import org.dspace.app.rest.converter.SiteConverter;
@@ -36,10 +41,14 @@ import org.dspace.content.Site;
 import org.dspace.content.service.SiteService;
 import org.dspace.core.Constants;
 import org.dspace.eperson.Group;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 public class EditItemFeatureIT extends AbstractControllerIntegrationTest {
     @Autowired
@@ -105,6 +114,53 @@ public class EditItemFeatureIT extends AbstractControllerIntegrationTest {
         expectZeroResults(requestEditItemFeature(itemA2X));
     }
 
+    @Test
+    public void testMultipleItemsWithDirectEPersonWritePolicy() throws Exception {
+        ResourcePolicy rp = ResourcePolicyBuilder.createResourcePolicy(context, eperson, null)
+            .withDspaceObject(itemA1X)
+            .withAction(Constants.WRITE)
+            .build();
+        epersonToken = getAuthToken(eperson.getEmail(), password);
+        getClient(epersonToken).perform(get("/api/authz/authorizations/search/objects")
+            .param("type", "core.items")
+            .param("uuid", itemA1X.getID().toString())
+            .param("uuid", itemA2X.getID().toString())
+            .param("feature", editItemFeature.getName()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.page.totalElements", is(1)))
+            .andExpect(jsonPath("$._embedded.authorizations[0].id", is(eperson.getID() + "_"
+                + editItemFeature.getName() + "_core.item_" + itemA1X.getID())));
+    }
+
+    @Test
+    public void testMultipleItemsAreCheckedWithBoundedQueries() throws Exception {
+        List<Item> items = withSuppressedAuthorization(() -> {
+            List<Item> created = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                created.add(ItemBuilder.createItem(context, collectionA1).withTitle("Item A1 " + i).build());
+            }
+            return created;
+        });
+        epersonToken = getAuthToken(eperson.getEmail(), password);
+        Statistics statistics = DSpaceServicesFactory.getInstance().getServiceManager()
+                                                     .getServiceByName("sessionFactory", SessionFactory.class)
+                                                     .getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            countStatements(statistics, items, editItemFeature.getName());
+
+            // The statements run to load the items are those of a feature which doesn't support items
+            long single = countStatements(statistics, items.subList(0, 1), editItemFeature.getName())
+                - countStatements(statistics, items.subList(0, 1), DownloadFeature.NAME);
+            long all = countStatements(statistics, items, editItemFeature.getName())
+                - countStatements(statistics, items, DownloadFeature.NAME);
+            assertThat(all, lessThanOrEqualTo(single));
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
     @Test
     public void testDirectGroupWritePolicy() throws Exception {
         ResourcePolicy rp = ResourcePolicyBuilder.createResourcePolicy(context, null, group)
@@ -249,6 +305,20 @@ public class EditItemFeatureIT extends AbstractControllerIntegrationTest {
             .param("embed", "feature"));
     }
 
+    private long countStatements(Statistics statistics, List<Item> items, String featureName) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/authz/authorizations/search/objects")
+            .param("type", "core.items")
+            .param("feature", featureName);
+        for (Item item : items) {
+            request.param("uuid", item.getID().toString());
+        }
+        long before = statistics.getPrepareStatementCount();
+        getClient(epersonToken).perform(request)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.page.totalElements", is(0)));
+        return statistics.getPrepareStatementCount() - before;
+    }
+
     private ResultActions expectSomeResults(ResultActions actions) throws Exception {
         return actions
             .andExpect(status().isOk())
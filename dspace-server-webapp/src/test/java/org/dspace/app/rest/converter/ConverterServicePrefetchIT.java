@@ -0,0 +1,92 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest.converter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.dspace.app.rest.test.AbstractControllerIntegrationTest;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.DSpaceObject;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test that {@link ConverterService#prefetch} loads what the conversion of a page of search results needs for all
+ * the results at once, by counting the statements run for a page of one item and a page of many items.
+ */
+public class ConverterServicePrefetchIT extends AbstractControllerIntegrationTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    // The metadata of all DSpace objects are mapped by DSpaceObject
+    private static final String METADATA_ROLE = DSpaceObject.class.getName() + ".metadata";
+
+    private Collection singleItemCollection;
+    private Collection collection;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        singleItemCollection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        ItemBuilder.createItem(context, singleItemCollection).withTitle("Single item").build();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            ItemBuilder.createItem(context, collection).withTitle("Item " + i).build();
+        }
+        context.restoreAuthSystemState();
+    }
+
+    @Test
+    public void testSearchPageLoadsMetadataWithBoundedQueries() throws Exception {
+        Statistics statistics = DSpaceServicesFactory.getInstance().getServiceManager()
+                                                     .getServiceByName("sessionFactory", SessionFactory.class)
+                                                     .getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // Fill the caches used by any search, e.g. those of the metadata fields
+            search(statistics, collection, PAGE_SIZE);
+
+            // The metadata of a single result are loaded when it is converted, those of a page before, at once
+            long single = search(statistics, singleItemCollection, 1);
+            long page = search(statistics, collection, PAGE_SIZE);
+            assertThat(page, lessThanOrEqualTo(single));
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    /**
+     * Search the items of a collection.
+     *
+     * @return the number of statements run to load the metadata of DSpace objects one at a time
+     */
+    private long search(Statistics statistics, Collection scope, int expectedResults) throws Exception {
+        long before = statistics.getCollectionStatistics(METADATA_ROLE).getFetchCount();
+        getClient().perform(get("/api/discover/search/objects")
+                                .param("dsoType", "Item")
+                                .param("scope", scope.getID().toString())
+                                .param("size", String.valueOf(PAGE_SIZE)))
+                   .andExpect(status().isOk())
+                   .andExpect(jsonPath("$._embedded.searchResult.page.totalElements", is(expectedResults)));
+        return statistics.getCollectionStatistics(METADATA_ROLE).getFetchCount() - before;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.CollectionService;
+import org.dspace.content.service.ItemService;
+import org.dspace.event.factory.EventServiceFactory;
+import org.dspace.event.service.EventService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the recording of the items changed since the last OAI import by the {@link OAIChangeConsumer}.
+ */
+public class OAIChangeConsumerIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                          .getConfigurationService();
+    private static final EventService eventService = EventServiceFactory.getInstance().getEventService();
+    private static String[] consumers;
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final CollectionService collectionService = ContentServiceFactory.getInstance().getCollectionService();
+    private final OAIChangeFeed changeFeed = new OAIChangeFeed();
+    private Collection collection;
+    private Collection otherCollection;
+    private Item item;
+    private Item otherItem;
+
+    @BeforeClass
+    public static void addConsumer() {
+        consumers = configurationService.getArrayProperty("event.dispatcher.default.consumers");
+        configurationService.setProperty("event.dispatcher.default.consumers",
+                                         ArrayUtils.add(consumers, OAIChangeFeed.CONSUMER_NAME));
+        eventService.reloadConfiguration();
+    }
+
+    @AfterClass
+    public static void resetConsumers() {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        eventService.reloadConfiguration();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        otherCollection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Changed item").build();
+        otherItem = ItemBuilder.createItem(context, collection).withTitle("Deleted item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+        clearChanges();
+    }
+
+    @After
+    public void clearChanges() throws Exception {
+        changeFeed.remove(changeFeed.read(changeFeed.getLastId(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testChangedAndDeletedItemsAreRecorded() throws Exception {
+        context.turnOffAuthorisationSystem();
+        item = context.reloadEntity(item);
+        itemService.replaceMetadata(context, item, "dc", "title", null, null, "Modified item", null, -1, 0);
+        itemService.update(context, item);
+        collectionService.addItem(context, context.reloadEntity(otherCollection), item);
+        itemService.delete(context, context.reloadEntity(otherItem));
+        context.restoreAuthSystemState();
+
+        // Nothing is recorded before the changes are committed, even once the events are dispatched
+        context.dispatchEvents();
+        assertTrue(changeFeed.read(Long.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+        context.commit();
+
+        OAIChangeFeed.Page page = changeFeed.read(changeFeed.getLastId(), Integer.MAX_VALUE);
+        Map<UUID, Boolean> changes = page.getChanges();
+        assertEquals(List.of(item.getID(), otherItem.getID()), List.copyOf(changes.keySet()));
+        assertEquals(false, changes.get(item.getID()));
+        assertEquals(true, changes.get(otherItem.getID()));
+
+        changeFeed.remove(page);
+        assertTrue(changeFeed.read(Long.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void testRolledBackChangesAreNotRecorded() throws Exception {
+        context.turnOffAuthorisationSystem();
+        item = context.reloadEntity(item);
+        itemService.replaceMetadata(context, item, "dc", "title", null, null, "Rolled back", null, -1, 0);
+        itemService.update(context, item);
+        context.restoreAuthSystemState();
+        context.dispatchEvents();
+        context.rollback();
+
+        assertTrue(changeFeed.read(Long.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void testPagesAreReadInOrder() throws Exception {
+        changeFeed.record(Map.of(item.getID(), false));
+        changeFeed.record(Map.of(otherItem.getID(), false));
+        changeFeed.record(Map.of(item.getID(), true));
+
+        long lastId = changeFeed.getLastId();
+        OAIChangeFeed.Page first = changeFeed.read(lastId, 2);
+        assertEquals(List.of(item.getID(), otherItem.getID()), List.copyOf(first.getChanges().keySet()));
+        changeFeed.remove(first);
+
+        OAIChangeFeed.Page second = changeFeed.read(lastId, 2);
+        assertEquals(Map.of(item.getID(), true), second.getChanges());
+        changeFeed.remove(second);
+        assertTrue(changeFeed.read(lastId, 2).isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.xoai.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.event.factory.EventServiceFactory;
+import org.dspace.event.service.EventService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.solr.MockSolrServer;
+import org.dspace.xoai.services.api.cache.XOAILastCompilationCacheService;
+import org.dspace.xoai.services.api.solr.SolrServerResolver;
+import org.dspace.xoai.services.impl.DSpaceCollectionsService;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test the incremental "oai import" of the items recorded by the {@link OAIChangeConsumer}, after changes committed
+ * for real.
+ */
+public class XOAIIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final ConfigurationService configurationService = DSpaceServicesFactory.getInstance()
+                                                                                          .getConfigurationService();
+    private static final EventService eventService = EventServiceFactory.getInstance().getEventService();
+    private static String[] consumers;
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+    private final OAIChangeFeed changeFeed = new OAIChangeFeed();
+    private MockSolrServer oaiSolr;
+    private Item item;
+    private Item otherItem;
+
+    @BeforeClass
+    public static void addConsumer() {
+        consumers = configurationService.getArrayProperty("event.dispatcher.default.consumers");
+        configurationService.setProperty("event.dispatcher.default.consumers",
+                                         ArrayUtils.add(consumers, OAIChangeFeed.CONSUMER_NAME));
+        eventService.reloadConfiguration();
+    }
+
+    @AfterClass
+    public static void resetConsumers() {
+        configurationService.setProperty("event.dispatcher.default.consumers", consumers);
+        eventService.reloadConfiguration();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        oaiSolr = new MockSolrServer("oai");
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Changed item").build();
+        otherItem = ItemBuilder.createItem(context, collection).withTitle("Deleted item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        // Full import of the empty index
+        assertEquals(2, importItems(1));
+        changeFeed.remove(changeFeed.read(changeFeed.getLastId(), Integer.MAX_VALUE));
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        changeFeed.remove(changeFeed.read(changeFeed.getLastId(), Integer.MAX_VALUE));
+        oaiSolr.reset();
+        oaiSolr.destroy();
+    }
+
+    @Test
+    public void testImportOfChanges() throws Exception {
+        testImportOfChanges(1);
+    }
+
+    @Test
+    public void testConcurrentImportOfChanges() throws Exception {
+        testImportOfChanges(2);
+    }
+
+    private void testImportOfChanges(int threads) throws Exception {
+        context.turnOffAuthorisationSystem();
+        item = context.reloadEntity(item);
+        itemService.replaceMetadata(context, item, "dc", "title", null, null, "Modified item", null, -1, 0);
+        itemService.update(context, item);
+        itemService.delete(context, context.reloadEntity(otherItem));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        // The modified item is compiled again, and the deleted one flagged as deleted from its stored document
+        assertEquals(2, importItems(threads));
+        SolrDocument modified = getDocument(item);
+        assertEquals("Modified item", modified.getFirstValue("metadata.dc.title"));
+        assertEquals(false, modified.getFieldValue("item.deleted"));
+        SolrDocument deleted = getDocument(otherItem);
+        assertEquals(true, deleted.getFieldValue("item.deleted"));
+        assertEquals("Deleted item", deleted.getFirstValue("metadata.dc.title"));
+
+        // The changes are removed from the feed once imported
+        assertTrue(changeFeed.read(Long.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+        assertEquals(0, importItems(threads));
+    }
+
+    /**
+     * Run an import as "oai import" does, into the embedded OAI core.
+     */
+    private int importItems(int threads) throws Exception {
+        Context importContext = new Context(Context.Mode.READ_ONLY);
+        try {
+            XOAI indexer = new XOAI(importContext, false, false);
+            indexer.setThreads(threads);
+            SolrServerResolver solrServerResolver = () -> oaiSolr.getSolrServer();
+            ReflectionTestUtils.setField(indexer, "solrServerResolver", solrServerResolver);
+            ReflectionTestUtils.setField(indexer, "xoaiLastCompilationCacheService",
+                                         mock(XOAILastCompilationCacheService.class));
+            ReflectionTestUtils.setField(indexer, "collectionsService", new DSpaceCollectionsService());
+            return indexer.index();
+        } finally {
+            importContext.abort();
+        }
+    }
+
+    private SolrDocument getDocument(Item item) throws Exception {
+        SolrDocumentList documents = oaiSolr.getSolrServer().query(new SolrQuery("item.id:" + item.getID()))
+                                            .getResults();
+        assertEquals(1, documents.getNumFound());
+        return documents.get(0);
+    }
+}